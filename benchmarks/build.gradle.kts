@@ -0,0 +1,47 @@
+plugins {
+    id("io.spring.dependency-management") version "1.0.11.RELEASE"
+    id("me.champeau.jmh") version "0.7.2"
+    id("java")
+}
+
+group = "itmo.programming"
+version = "1.0-SNAPSHOT"
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.2.0")
+    }
+}
+
+dependencies {
+    jmh(project(":common"))
+    jmh(project(":file-processor"))
+    jmh(project(":file-uploader"))
+
+    jmh("org.apache.poi:poi:5.2.3")
+    jmh("org.apache.poi:poi-ooxml:5.2.3")
+    jmh("org.springframework.kafka:spring-kafka")
+    jmh("com.fasterxml.jackson.core:jackson-databind")
+    jmh("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
+    jmh("org.springframework:spring-web")
+    jmh("io.micrometer:micrometer-core")
+}
+
+// ./gradlew :benchmarks:jmh [-Pjmh.includes=ExcelValidation]
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    (project.findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+}
@@ -0,0 +1,120 @@
+package itmo.programming.benchmark;
+
+import itmo.programming.common.FileEvent;
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.kafka.BinaryEventDeserializer;
+import itmo.programming.kafka.BinaryEventSerializer;
+import itmo.programming.kafka.TracingJsonDeserializer;
+import itmo.programming.kafka.TracingJsonSerializer;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (Де)сериализация событий сериализаторами, которые используются в топиках:
+ * JSON с заголовками типа ({@code json}) и двоичный формат ({@code binary}).
+ * Трасса этапов передается в заголовке в обоих форматах. Каждая запись читается со своей копией заголовков:
+ * JSON-десериализатор удаляет заголовки типа после чтения. Размер записей печатается при подготовке прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventSerializationBenchmark {
+
+    private static final String TOPIC = "benchmark-topic";
+
+    @Param({"json", "binary"})
+    private String format;
+
+    private Serializer<Object> serializer;
+    private Deserializer<Object> deserializer;
+
+    private FileEvent fileEvent;
+    private StatusEvent statusEvent;
+    private byte[] fileEventRecord;
+    private byte[] statusEventRecord;
+    private Headers fileEventHeaders;
+    private Headers statusEventHeaders;
+
+    @Setup
+    public void setUp() {
+        if ("binary".equals(format)) {
+            serializer = new BinaryEventSerializer();
+            deserializer = new BinaryEventDeserializer();
+        } else {
+            serializer = new TracingJsonSerializer<>();
+            deserializer = new TracingJsonDeserializer<>();
+        }
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+
+        String hash = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+        StageTrace trace = StageTrace.start(Stage.UPLOAD_RECEIVED).mark(Stage.ENQUEUED);
+        fileEvent = new FileEvent(hash, "report.xlsx", "blobs/9f/" + hash, 1_048_576L,
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        fileEvent.setVersion(System.currentTimeMillis());
+        fileEvent.setTrace(trace);
+        statusEvent = new StatusEvent(hash, Status.SECONDARY_VALIDATION_FAILED, "report.xlsx");
+        statusEvent.setErrorMessage("Cell [2,3] is empty. First 3 columns must be filled.");
+        statusEvent.setVersion(fileEvent.getVersion());
+        statusEvent.setTrace(trace);
+
+        fileEventHeaders = new RecordHeaders();
+        fileEventRecord = serializer.serialize(TOPIC, fileEventHeaders, fileEvent);
+        statusEventHeaders = new RecordHeaders();
+        statusEventRecord = serializer.serialize(TOPIC, statusEventHeaders, statusEvent);
+        System.out.printf("%n%s record size: FileEvent %d bytes + %d header bytes, StatusEvent %d bytes + %d header bytes%n",
+                format, fileEventRecord.length, headerBytes(fileEventHeaders),
+                statusEventRecord.length, headerBytes(statusEventHeaders));
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeFileEvent() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), fileEvent);
+    }
+
+    @Benchmark
+    public Object deserializeFileEvent() {
+        return deserializer.deserialize(TOPIC, new RecordHeaders(fileEventHeaders.toArray()), fileEventRecord);
+    }
+
+    @Benchmark
+    public byte[] serializeStatusEvent() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), statusEvent);
+    }
+
+    @Benchmark
+    public Object deserializeStatusEvent() {
+        return deserializer.deserialize(TOPIC, new RecordHeaders(statusEventHeaders.toArray()), statusEventRecord);
+    }
+
+    private static int headerBytes(Headers headers) {
+        int size = 0;
+        for (var header : headers) {
+            size += header.key().length() + header.value().length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,84 @@
+package itmo.programming.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.service.ExcelValidationService;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Валидация Excel файлов разного размера в форматах .xls и .xlsx.
+ * Книги генерируются один раз перед измерениями; строки содержат общие строки и числа,
+ * как в типичных загружаемых файлах.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExcelValidationBenchmark {
+
+    private static final int COLUMNS = 10;
+
+    @Param({"xls", "xlsx"})
+    private String format;
+
+    @Param({"10", "1000", "50000"})
+    private int rows;
+
+    private final ExcelValidationService validationService = new ExcelValidationService(new SimpleMeterRegistry());
+
+    private byte[] content;
+    private String fileName;
+
+    @Setup
+    public void setUp() throws IOException {
+        fileName = "fixture." + format;
+        content = generateWorkbook("xls".equals(format) ? new HSSFWorkbook() : new SXSSFWorkbook(), rows);
+    }
+
+    @Benchmark
+    public void validateExcelContent() {
+        validationService.validateExcelContent(content, fileName);
+    }
+
+    /**
+     * Генерация книги с заполненным первым листом.
+     *
+     * @param workbook пустая книга нужного формата
+     * @param rows     количество строк
+     * @return содержимое файла
+     */
+    static byte[] generateWorkbook(Workbook workbook, int rows) throws IOException {
+        try (workbook; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Data");
+            for (int r = 0; r < rows; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < COLUMNS; c++) {
+                    if (c % 2 == 0) {
+                        row.createCell(c).setCellValue("value-" + r + "-" + c);
+                    } else {
+                        row.createCell(c).setCellValue(r * (double) c);
+                    }
+                }
+            }
+            workbook.write(out);
+            if (workbook instanceof SXSSFWorkbook streaming) {
+                streaming.dispose();
+            }
+            return out.toByteArray();
+        }
+    }
+}
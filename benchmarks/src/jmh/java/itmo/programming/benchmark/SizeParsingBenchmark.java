@@ -0,0 +1,42 @@
+package itmo.programming.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.service.FileValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор ограничения размера файла, который выполняется на каждой загрузке.
+ * {@code parseSize} закрыт, поэтому измеряется через {@link FileValidationService#getMaxFileSizeBytes()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SizeParsingBenchmark {
+
+    @Param({"512KB", "10MB", " 1.5gb "})
+    private String maxFileSize;
+
+    private final FileValidationService validationService = new FileValidationService(new SimpleMeterRegistry());
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        Field field = FileValidationService.class.getDeclaredField("maxFileSize");
+        field.setAccessible(true);
+        field.set(validationService, maxFileSize);
+    }
+
+    @Benchmark
+    public long parseSize() {
+        return validationService.getMaxFileSizeBytes();
+    }
+}
@@ -0,0 +1,63 @@
+package itmo.programming.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.service.SpooledUpload;
+import itmo.programming.service.UploadSpoolService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Однопроходный прием загрузки: SHA-256 хеш, проверка размера и запись во временный файл.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UploadHashingBenchmark {
+
+    @Param({"16384", "1048576", "10485760"})
+    private int size;
+
+    private Path spoolDir;
+    private UploadSpoolService spoolService;
+    private byte[] content;
+
+    @Setup
+    public void setUp() throws IOException {
+        spoolDir = Files.createTempDirectory("benchmark-spool");
+        spoolService = new UploadSpoolService(spoolDir, new SimpleMeterRegistry());
+        content = new byte[size];
+        new Random(42).nextBytes(content);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(spoolDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String spool() throws IOException {
+        try (SpooledUpload upload = spoolService.spool(new ByteArrayInputStream(content), Long.MAX_VALUE)) {
+            return upload.getFileHash();
+        }
+    }
+}
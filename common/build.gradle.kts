@@ -14,7 +14,12 @@ dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter:5.0.0")
     testImplementation("org.mockito:mockito-core:5.0.0")
     testImplementation("org.assertj:assertj-core:3.24.2")
+    testImplementation("org.springframework.kafka:spring-kafka:3.1.0")
+    testImplementation("com.fasterxml.jackson.core:jackson-databind:2.15.3")
+    testImplementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.15.3")
     compileOnly("org.projectlombok:lombok:1.18.30")
+    compileOnly("org.springframework.kafka:spring-kafka:3.1.0")
+    compileOnly("com.fasterxml.jackson.core:jackson-databind:2.15.3")
     annotationProcessor("org.projectlombok:lombok:1.18.30")
 }
 
@@ -0,0 +1,192 @@
+package itmo.programming.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограниченный по размеру LRU-кэш с временем жизни записей.
+ * При переполнении вытесняется давно не использованная запись, просроченные записи
+ * удаляются при обращении к ним. Ведет счетчики попаданий, промахов и вытеснений.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxEntries;
+    private final long defaultTtlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Конструктор кэша.
+     *
+     * @param maxEntries максимальное количество записей
+     * @param ttl        время жизни записи по умолчанию
+     */
+    public ExpiringLruCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    /**
+     * Конструктор кэша с заданным источником времени.
+     *
+     * @param maxEntries максимальное количество записей
+     * @param ttl        время жизни записи по умолчанию
+     * @param nanoClock  источник монотонного времени в наносекундах
+     */
+    public ExpiringLruCache(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.defaultTtlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringLruCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Получение значения по ключу.
+     *
+     * @param key ключ
+     * @return значение или null, если записи нет или она просрочена
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.isExpired(nanoClock.getAsLong())) {
+                entries.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    /**
+     * Сохранение значения с временем жизни по умолчанию.
+     *
+     * @param key   ключ
+     * @param value значение
+     */
+    public void put(K key, V value) {
+        putWithTtl(key, value, defaultTtlNanos);
+    }
+
+    /**
+     * Сохранение значения с заданным временем жизни.
+     *
+     * @param key   ключ
+     * @param value значение
+     * @param ttl   время жизни записи
+     */
+    public void put(K key, V value, Duration ttl) {
+        putWithTtl(key, value, ttl.toNanos());
+    }
+
+    /**
+     * Сохранение значения, только если для ключа нет действующей записи.
+     * Позволяет читателю не перезаписать значение, сохраненное более поздней операцией записи.
+     *
+     * @param key   ключ
+     * @param value значение
+     * @return true, если значение сохранено
+     */
+    public boolean putIfAbsent(K key, V value) {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Entry<V> current = entries.get(key);
+            if (current != null && !current.isExpired(now)) {
+                return false;
+            }
+            entries.put(key, new Entry<>(value, now + defaultTtlNanos));
+            return true;
+        }
+    }
+
+    /**
+     * Удаление записи по ключу.
+     *
+     * @param key ключ
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Удаление всех просроченных записей.
+     */
+    public void cleanUp() {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isExpired(now)) {
+                    iterator.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Текущее количество записей, включая еще не удаленные просроченные.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void putWithTtl(K key, V value, long ttlNanos) {
+        Entry<V> entry = new Entry<>(value, nanoClock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Запись кэша со временем истечения.
+     */
+    private record Entry<V>(V value, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
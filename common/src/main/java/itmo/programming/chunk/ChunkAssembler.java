@@ -0,0 +1,298 @@
+package itmo.programming.chunk;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Сборка содержимого файлов из частей {@link FileChunk}.
+ * Части одного файла приходят по порядку номеров; при сборке SHA-256 считается по мере поступления
+ * и после последней части сравнивается с хешем файла.
+ * Суммарный объем частей в памяти ограничен: сборка, которая не помещается в лимит, продолжается
+ * во временном файле. Количество одновременных сборок ограничено, незавершенные сборки удаляются
+ * по истечении времени жизни или вытесняются самые старые.
+ * Методы синхронизированы, так как части и события могут обрабатываться в разных потоках.
+ */
+public class ChunkAssembler implements AutoCloseable {
+
+    private final Path spoolDir;
+    private final long maxMemoryBytes;
+    private final int maxAssemblies;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Assembly> assemblies = new LinkedHashMap<>();
+
+    private long memoryBytes;
+
+    /**
+     * Конструктор сборщика.
+     *
+     * @param spoolDir       каталог для сборок, не поместившихся в память
+     * @param maxMemoryBytes суммарный объем частей в памяти
+     * @param maxAssemblies  максимальное количество одновременных сборок
+     * @param ttl            время жизни сборки без новых частей
+     * @throws IOException если каталог не может быть создан
+     */
+    public ChunkAssembler(Path spoolDir, long maxMemoryBytes, int maxAssemblies, Duration ttl) throws IOException {
+        this(spoolDir, maxMemoryBytes, maxAssemblies, ttl, System::nanoTime);
+    }
+
+    /**
+     * Конструктор сборщика с заданным источником времени.
+     *
+     * @param spoolDir       каталог для сборок, не поместившихся в память
+     * @param maxMemoryBytes суммарный объем частей в памяти
+     * @param maxAssemblies  максимальное количество одновременных сборок
+     * @param ttl            время жизни сборки без новых частей
+     * @param nanoClock      источник монотонного времени в наносекундах
+     * @throws IOException если каталог не может быть создан
+     */
+    public ChunkAssembler(Path spoolDir, long maxMemoryBytes, int maxAssemblies, Duration ttl,
+                          LongSupplier nanoClock) throws IOException {
+        if (maxAssemblies <= 0) {
+            throw new IllegalArgumentException("Assembly limit must be positive: " + maxAssemblies);
+        }
+        this.spoolDir = Files.createDirectories(spoolDir);
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxAssemblies = maxAssemblies;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Добавление части.
+     * Повторно доставленные части пропускаются, первая часть начинает сборку заново,
+     * пропуск части или несовпадение хеша делают сборку ошибочной до вызова {@link #open(String)}.
+     *
+     * @param chunk часть содержимого
+     * @throws IOException при ошибке записи во временный файл
+     */
+    public synchronized void accept(FileChunk chunk) throws IOException {
+        long now = nanoClock.getAsLong();
+        evictExpired(now);
+
+        Assembly assembly = assemblies.get(chunk.getFileHash());
+        if (assembly == null || chunk.getIndex() == 0) {
+            if (assembly != null) {
+                assemblies.remove(chunk.getFileHash());
+                discard(assembly);
+            }
+            if (chunk.getIndex() != 0) {
+                return;
+            }
+            evictOldestIfFull();
+            assembly = new Assembly(chunk);
+            assemblies.put(chunk.getFileHash(), assembly);
+        }
+        assembly.touchedAt = now;
+        assembly.append(chunk);
+    }
+
+    /**
+     * Открытие собранного содержимого; сборка удаляется из буфера, временный файл удаляется при закрытии потока.
+     *
+     * @param fileHash хеш файла
+     * @return поток с содержимым
+     * @throws NoSuchFileException если частей файла нет
+     * @throws IOException         если сборка не завершена, часть пропущена или хеш не совпал
+     */
+    public synchronized InputStream open(String fileHash) throws IOException {
+        Assembly assembly = assemblies.remove(fileHash);
+        if (assembly == null) {
+            throw new NoSuchFileException("No chunks received for " + fileHash);
+        }
+        if (assembly.failure != null || !assembly.isComplete()) {
+            String reason = assembly.failure != null ? assembly.failure
+                    : "received " + assembly.nextIndex + " of " + assembly.count + " chunks";
+            discard(assembly);
+            throw new IOException("Chunked content of " + fileHash + " is unusable: " + reason);
+        }
+        return assembly.openContent();
+    }
+
+    /**
+     * Количество незавершенных и не открытых сборок.
+     */
+    public synchronized int pendingCount() {
+        return assemblies.size();
+    }
+
+    /**
+     * Объем частей, хранящихся в памяти.
+     */
+    public synchronized long memoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Удаление всех сборок и их временных файлов.
+     */
+    @Override
+    public synchronized void close() {
+        assemblies.values().forEach(this::discard);
+        assemblies.clear();
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Assembly> iterator = assemblies.values().iterator();
+        while (iterator.hasNext()) {
+            Assembly assembly = iterator.next();
+            if (now - assembly.touchedAt >= ttlNanos) {
+                iterator.remove();
+                discard(assembly);
+            }
+        }
+    }
+
+    private void evictOldestIfFull() {
+        Iterator<Assembly> iterator = assemblies.values().iterator();
+        while (assemblies.size() >= maxAssemblies && iterator.hasNext()) {
+            Assembly oldest = iterator.next();
+            iterator.remove();
+            discard(oldest);
+        }
+    }
+
+    private void discard(Assembly assembly) {
+        memoryBytes -= assembly.memoryBytes();
+        assembly.release();
+    }
+
+    /**
+     * Сборка одного файла: в памяти, пока хватает лимита, затем во временном файле.
+     */
+    private final class Assembly {
+        private final String fileHash;
+        private final int count;
+        private final long totalSize;
+        private final MessageDigest digest;
+
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path spillFile;
+        private OutputStream spill;
+        private int nextIndex;
+        private long received;
+        private long touchedAt;
+        private String failure;
+
+        Assembly(FileChunk first) {
+            this.fileHash = first.getFileHash();
+            this.count = first.getCount();
+            this.totalSize = first.getTotalSize();
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        void append(FileChunk chunk) throws IOException {
+            if (failure != null || chunk.getIndex() < nextIndex) {
+                return;
+            }
+            if (chunk.getIndex() > nextIndex || chunk.getCount() != count) {
+                fail("chunk " + nextIndex + " is missing");
+                return;
+            }
+            byte[] payload = chunk.getPayload() != null ? chunk.getPayload() : new byte[0];
+            if (received + payload.length > totalSize) {
+                fail("content exceeds declared size " + totalSize);
+                return;
+            }
+            digest.update(payload);
+            if (spill == null && memoryBytes + payload.length > maxMemoryBytes) {
+                spillToDisk();
+            }
+            if (spill != null) {
+                spill.write(payload);
+            } else {
+                memory.write(payload);
+                memoryBytes += payload.length;
+            }
+            received += payload.length;
+            nextIndex++;
+            if (nextIndex == count) {
+                verify();
+            }
+        }
+
+        boolean isComplete() {
+            return nextIndex == count;
+        }
+
+        long memoryBytes() {
+            return memory != null ? memory.size() : 0;
+        }
+
+        InputStream openContent() throws IOException {
+            if (spill == null) {
+                byte[] content = memory.toByteArray();
+                memoryBytes -= content.length;
+                memory = null;
+                return new ByteArrayInputStream(content);
+            }
+            spill.close();
+            Path file = spillFile;
+            return new FilterInputStream(Files.newInputStream(file)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+
+        void release() {
+            memory = null;
+            if (spill != null) {
+                try {
+                    spill.close();
+                    Files.deleteIfExists(spillFile);
+                } catch (IOException ignored) {
+                    // Временный файл будет удален вместе с каталогом
+                }
+            }
+        }
+
+        private void spillToDisk() throws IOException {
+            spillFile = Files.createTempFile(spoolDir, "chunks-", ".part");
+            spill = Files.newOutputStream(spillFile);
+            memory.writeTo(spill);
+            memoryBytes -= memory.size();
+            memory = null;
+        }
+
+        private void verify() {
+            String actual = HexFormat.of().formatHex(digest.digest());
+            if (received != totalSize) {
+                fail("received " + received + " of " + totalSize + " bytes");
+            } else if (!actual.equalsIgnoreCase(fileHash)) {
+                fail("SHA-256 mismatch, got " + actual);
+            }
+        }
+
+        private void fail(String reason) {
+            failure = reason;
+            memoryBytes -= memoryBytes();
+            release();
+            spill = null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package itmo.programming.chunk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Часть содержимого файла для передачи через Kafka без общего хранилища.
+ * Части отправляются в топик загрузок с ключом {@code fileHash} перед событием файла,
+ * поэтому попадают в одну партицию и читаются по порядку, а событие приходит после всех частей.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileChunk {
+
+    /**
+     * Префикс ссылки на содержимое в {@code FileEvent.contentRef}, переданное частями.
+     */
+    public static final String CONTENT_REF_PREFIX = "chunks:";
+
+    private String fileHash;
+    private int index;
+    private int count;
+    private long totalSize;
+    private byte[] payload;
+
+    /**
+     * Ссылка на содержимое файла, переданное частями.
+     *
+     * @param fileHash хеш файла
+     * @return ссылка для события файла
+     */
+    public static String contentRef(String fileHash) {
+        return CONTENT_REF_PREFIX + fileHash;
+    }
+
+    /**
+     * Проверка, что ссылка указывает на содержимое, переданное частями.
+     *
+     * @param contentRef ссылка из события файла
+     * @return true для ссылок с префиксом {@link #CONTENT_REF_PREFIX}
+     */
+    public static boolean isChunkedRef(String contentRef) {
+        return contentRef != null && contentRef.startsWith(CONTENT_REF_PREFIX);
+    }
+}
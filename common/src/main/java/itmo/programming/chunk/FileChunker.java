@@ -0,0 +1,55 @@
+package itmo.programming.chunk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Разбиение содержимого файла на части фиксированного размера.
+ * Содержимое читается потоково, в памяти одновременно находится одна часть.
+ */
+public final class FileChunker {
+
+    private FileChunker() {
+    }
+
+    /**
+     * Количество частей для содержимого заданного размера; пустой файл передается одной пустой частью.
+     *
+     * @param size      размер содержимого
+     * @param chunkSize размер части
+     * @return количество частей
+     */
+    public static int chunkCount(long size, int chunkSize) {
+        return (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * Разбиение содержимого на части.
+     *
+     * @param fileHash  хеш файла
+     * @param content   поток с содержимым
+     * @param size      размер содержимого
+     * @param chunkSize размер части
+     * @param sink      получатель частей, вызывается по порядку номеров
+     * @throws IOException если содержимое не удалось прочитать или его размер не совпал с заявленным
+     */
+    public static void split(String fileHash, InputStream content, long size, int chunkSize,
+                             Consumer<FileChunk> sink) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        int count = chunkCount(size, chunkSize);
+        for (int index = 0; index < count; index++) {
+            int length = (int) Math.min(chunkSize, size - (long) index * chunkSize);
+            byte[] payload = content.readNBytes(length);
+            if (payload.length != length) {
+                throw new IOException("Content of " + fileHash + " is shorter than " + size + " bytes");
+            }
+            sink.accept(new FileChunk(fileHash, index, count, size, payload));
+        }
+        if (content.read() != -1) {
+            throw new IOException("Content of " + fileHash + " is longer than " + size + " bytes");
+        }
+    }
+}
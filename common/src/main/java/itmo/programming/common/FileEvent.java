@@ -1,22 +1,36 @@
 package itmo.programming.common;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import itmo.programming.trace.StageTrace;
+import itmo.programming.trace.Traced;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 /**
  * Класс, представляющий событие файла для передачи через Kafka.
+ * Содержимое файла передается ссылкой на хранилище ({@code contentRef}),
+ * поле {@code fileContent} оставлено для событий со встроенным содержимым.
+ * Поле {@code version} задает попытку обработки и передается в события статусов.
+ * Трасса этапов обработки передается в заголовке Kafka и в тело события не входит.
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
-public class FileEvent {
+public class FileEvent implements Traced {
     private String fileHash;
     private String fileName;
     private byte[] fileContent;
     private LocalDateTime timestamp;
+    private String contentRef;
+    private long contentSize;
+    private String contentType;
+    private long version;
+
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private StageTrace trace;
 
     /**
      * Конструктор, инициализирующий все поля, кроме timestamp, который устанавливается текущим временем.
@@ -26,10 +40,49 @@ public class FileEvent {
      * @param fileContent Содержимое файла в виде массива байт.
      */
     public FileEvent(String fileHash, String fileName, byte[] fileContent) {
+        this(fileHash, fileName, fileContent, LocalDateTime.now());
+    }
+
+    /**
+     * Конструктор события со встроенным содержимым файла.
+     *
+     * @param fileHash    Хэш файла.
+     * @param fileName    Имя файла.
+     * @param fileContent Содержимое файла в виде массива байт.
+     * @param timestamp   Время создания события.
+     */
+    public FileEvent(String fileHash, String fileName, byte[] fileContent, LocalDateTime timestamp) {
         this.fileHash = fileHash;
         this.fileName = fileName;
         this.fileContent = fileContent;
+        this.timestamp = timestamp;
+        this.contentSize = fileContent != null ? fileContent.length : 0;
+    }
+
+    /**
+     * Конструктор события со ссылкой на содержимое в хранилище.
+     *
+     * @param fileHash    Хэш файла.
+     * @param fileName    Имя файла.
+     * @param contentRef  Ссылка на содержимое в хранилище.
+     * @param contentSize Размер содержимого в байтах.
+     * @param contentType MIME-тип содержимого.
+     */
+    public FileEvent(String fileHash, String fileName, String contentRef, long contentSize, String contentType) {
+        this.fileHash = fileHash;
+        this.fileName = fileName;
+        this.contentRef = contentRef;
+        this.contentSize = contentSize;
+        this.contentType = contentType;
         this.timestamp = LocalDateTime.now();
     }
 
-}
\ No newline at end of file
+    /**
+     * Проверка, передано ли содержимое ссылкой на хранилище.
+     *
+     * @return true, если задана ссылка на содержимое
+     */
+    public boolean hasContentRef() {
+        return contentRef != null;
+    }
+}
@@ -1,7 +1,15 @@
 package itmo.programming.common;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Перечисление статусов обработки файлов.
+ * Допустимые переходы между статусами задаются графом {@link #canTransitionTo(Status)}.
+ * Порядковые номера передаются в двоичном формате событий, поэтому новые статусы добавляются только в конец.
  */
 public enum Status {
     RECEIVED,                     // Файл принят
@@ -11,5 +19,81 @@ public enum Status {
     SECONDARY_VALIDATION_FAILED,  // Вторичная валидация неуспешна
     SECONDARY_VALIDATION_ERROR,   // Файл уже был загружен
     SECONDARY_VALIDATION_STARTED, // Начало второй валидации
-    UPLOAD_ERROR                  // Ошибка загрузки
+    UPLOAD_ERROR;                 // Ошибка загрузки
+
+    /**
+     * Статусы, достижимые из данного в рамках одной попытки обработки.
+     * Промежуточные статусы могут быть пропущены, поэтому граф транзитивно замкнут.
+     */
+    private static final Map<Status, Set<Status>> SUCCESSORS = new EnumMap<>(Status.class);
+
+    /**
+     * Статусы, из которых достижим данный: обратный граф к {@link #SUCCESSORS}.
+     */
+    private static final Map<Status, Set<Status>> PREDECESSORS = new EnumMap<>(Status.class);
+
+    static {
+        Map<Status, Set<Status>> edges = new EnumMap<>(Status.class);
+        edges.put(RECEIVED, EnumSet.of(PRIMARY_VALIDATION_SUCCESS, PRIMARY_VALIDATION_FAILED, UPLOAD_ERROR));
+        edges.put(PRIMARY_VALIDATION_SUCCESS,
+                EnumSet.of(SECONDARY_VALIDATION_STARTED, SECONDARY_VALIDATION_ERROR, UPLOAD_ERROR));
+        edges.put(SECONDARY_VALIDATION_STARTED,
+                EnumSet.of(SECONDARY_VALIDATION_SUCCESS, SECONDARY_VALIDATION_FAILED, SECONDARY_VALIDATION_ERROR));
+
+        for (Status status : values()) {
+            Set<Status> reachable = EnumSet.noneOf(Status.class);
+            collectReachable(edges, status, reachable);
+            SUCCESSORS.put(status, Collections.unmodifiableSet(reachable));
+            PREDECESSORS.put(status, EnumSet.noneOf(Status.class));
+        }
+        SUCCESSORS.forEach((from, targets) -> targets.forEach(to -> PREDECESSORS.get(to).add(from)));
+        PREDECESSORS.replaceAll((status, sources) -> Collections.unmodifiableSet(sources));
+    }
+
+    private static void collectReachable(Map<Status, Set<Status>> edges, Status from, Set<Status> reachable) {
+        for (Status next : edges.getOrDefault(from, Set.of())) {
+            if (reachable.add(next)) {
+                collectReachable(edges, next, reachable);
+            }
+        }
+    }
+
+    /**
+     * Проверка, что статус окончательный и определяется только содержимым файла.
+     * Повторная загрузка того же содержимого даст тот же результат.
+     *
+     * @return true для итоговых статусов вторичной валидации
+     */
+    public boolean isTerminal() {
+        return this == SECONDARY_VALIDATION_SUCCESS || this == SECONDARY_VALIDATION_FAILED;
+    }
+
+    /**
+     * Проверка, что обработка в рамках попытки завершена: из статуса нет переходов.
+     * В отличие от {@link #isTerminal()} включает ошибки, после которых файл можно загрузить повторно.
+     *
+     * @return true, если статус последний для попытки обработки
+     */
+    public boolean isFinal() {
+        return SUCCESSORS.get(this).isEmpty();
+    }
+
+    /**
+     * Проверка, что в рамках одной попытки обработки файл может перейти из данного статуса в указанный.
+     *
+     * @param next новый статус
+     * @return true, если переход допустим
+     */
+    public boolean canTransitionTo(Status next) {
+        return SUCCESSORS.get(this).contains(next);
+    }
+
+    /**
+     * Статусы, из которых допустим переход в данный.
+     *
+     * @return неизменяемое множество статусов-предшественников
+     */
+    public Set<Status> predecessors() {
+        return PREDECESSORS.get(this);
+    }
 }
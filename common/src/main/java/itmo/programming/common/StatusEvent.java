@@ -1,24 +1,66 @@
 package itmo.programming.common;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import itmo.programming.trace.StageTrace;
+import itmo.programming.trace.Traced;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 /**
  * Класс, представляющий событие файла для передачи через Kafka.
+ * Поле {@code version} определяет попытку обработки файла: события более поздней попытки
+ * заменяют статус независимо от графа переходов, внутри одной попытки порядок задает {@link Status}.
+ * Трасса этапов обработки передается в заголовке Kafka и в тело события не входит.
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
-public class StatusEvent {
+public class StatusEvent implements Traced {
     private String fileHash;
     private Status status;
     private String fileName;
     private LocalDateTime timestamp;
     private String errorMessage;
+    private long version;
 
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private StageTrace trace;
+
+    /**
+     * Конструктор события с версией попытки обработки.
+     *
+     * @param fileHash     Хэш файла.
+     * @param status       Статус обработки файла.
+     * @param fileName     Имя файла.
+     * @param timestamp    Время создания события.
+     * @param errorMessage Сообщение об ошибке.
+     * @param version      Версия попытки обработки.
+     */
+    public StatusEvent(String fileHash, Status status, String fileName, LocalDateTime timestamp,
+                       String errorMessage, long version) {
+        this.fileHash = fileHash;
+        this.status = status;
+        this.fileName = fileName;
+        this.timestamp = timestamp;
+        this.errorMessage = errorMessage;
+        this.version = version;
+    }
+
+    /**
+     * Конструктор события без версии попытки обработки.
+     *
+     * @param fileHash     Хэш файла.
+     * @param status       Статус обработки файла.
+     * @param fileName     Имя файла.
+     * @param timestamp    Время создания события.
+     * @param errorMessage Сообщение об ошибке.
+     */
+    public StatusEvent(String fileHash, Status status, String fileName, LocalDateTime timestamp, String errorMessage) {
+        this(fileHash, status, fileName, timestamp, errorMessage, 0L);
+    }
 
     /**
      * Конструктор, инициализирующий все поля, кроме timestamp, который устанавливается текущим временем.
@@ -34,4 +76,18 @@ public class StatusEvent {
         this.timestamp = LocalDateTime.now();
     }
 
+    /**
+     * Проверка, должно ли данное событие заменить другое событие того же файла.
+     * Событие более поздней попытки заменяет любое событие предыдущей,
+     * в рамках одной попытки допустимы только переходы вперед по графу статусов.
+     *
+     * @param other текущее событие файла
+     * @return true, если данное событие новее
+     */
+    public boolean supersedes(StatusEvent other) {
+        if (version != other.version) {
+            return version > other.version;
+        }
+        return other.status != null && other.status.canTransitionTo(status);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package itmo.programming.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Пул потоков, сохраняющий порядок задач с одинаковым ключом.
+ * Задачи распределяются по однопоточным дорожкам по хешу ключа: задачи одного ключа
+ * выполняются последовательно в порядке отправки, задачи разных ключей - параллельно.
+ */
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final ExecutorService[] lanes;
+
+    /**
+     * Конструктор пула.
+     *
+     * @param name  префикс имени потоков
+     * @param lanes количество дорожек (потоков)
+     */
+    public KeyOrderedExecutor(String name, int lanes) {
+        this(lanes, lane -> runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + lane);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Конструктор пула с заданной фабрикой потоков, например виртуальных.
+     *
+     * @param lanes         количество дорожек
+     * @param threadFactory фабрика потоков для каждой дорожки по ее номеру
+     */
+    public KeyOrderedExecutor(int lanes, IntFunction<ThreadFactory> threadFactory) {
+        if (lanes <= 0) {
+            throw new IllegalArgumentException("Lane count must be positive: " + lanes);
+        }
+        this.lanes = new ExecutorService[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = Executors.newSingleThreadExecutor(threadFactory.apply(i));
+        }
+    }
+
+    /**
+     * Выполнение задачи на дорожке ключа.
+     *
+     * @param key  ключ упорядочивания
+     * @param task задача
+     */
+    public void execute(Object key, Runnable task) {
+        lanes[Math.floorMod(key.hashCode(), lanes.length)].execute(task);
+    }
+
+    /**
+     * Количество дорожек.
+     */
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Остановка пула: уже отправленные задачи выполняются, новые не принимаются.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package itmo.programming.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Десериализатор событий из двоичного формата {@link EventCodec} с восстановлением трассы из заголовка.
+ * Записи в JSON, оставшиеся в топике от предыдущих версий сервисов, читаются через {@link TracingJsonDeserializer},
+ * которому передаются все настройки {@code spring.json.*}; формат определяется по первому байту записи.
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+
+    private final TracingJsonDeserializer<Object> jsonDeserializer = new TracingJsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!EventCodec.isBinary(data)) {
+            return jsonDeserializer.deserialize(topic, headers, data);
+        }
+        Object value;
+        try {
+            value = EventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Can't deserialize event from topic " + topic, e);
+        }
+        TraceHeaders.read(headers, value);
+        return value;
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
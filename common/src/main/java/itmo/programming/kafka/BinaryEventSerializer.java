@@ -0,0 +1,31 @@
+package itmo.programming.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Сериализатор событий в двоичный формат {@link EventCodec}.
+ * Трасса события записывается в заголовок, как и в {@link TracingJsonSerializer};
+ * заголовки с информацией о типе не добавляются - тип записан в самой записи.
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return EventCodec.encode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Can't serialize event for topic " + topic, e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        TraceHeaders.write(headers, data);
+        return serialize(topic, data);
+    }
+}
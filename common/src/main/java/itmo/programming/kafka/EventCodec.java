@@ -0,0 +1,323 @@
+package itmo.programming.kafka;
+
+import itmo.programming.chunk.FileChunk;
+import itmo.programming.common.FileEvent;
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Компактный двоичный формат событий {@link FileEvent}, {@link StatusEvent} и частей файлов {@link FileChunk}.
+ * <p>
+ * Запись начинается с заголовка из трех байт: {@link #MAGIC}, тип события и версия схемы.
+ * Поля пишутся в порядке объявления схемы без имен:
+ * <ul>
+ *     <li>строка - varint длины в байтах UTF-8 плюс один (0 - null), затем байты;</li>
+ *     <li>массив байт - так же, как строка;</li>
+ *     <li>целое - varint в zigzag-кодировке;</li>
+ *     <li>время - байт наличия, затем секунды от эпохи по UTC и наносекунды как целые;</li>
+ *     <li>{@link Status} - один байт с порядковым номером, 0xFF - null.</li>
+ * </ul>
+ * Схема версии 1:
+ * <pre>
+ * StatusEvent: fileHash, status, fileName, timestamp, errorMessage, version
+ * FileEvent:   fileHash, fileName, fileContent, timestamp, contentRef, contentSize, contentType, version
+ * FileChunk:   fileHash, index, count, totalSize, payload
+ * </pre>
+ * Порядковые номера статусов входят в формат, поэтому новые статусы добавляются только в конец перечисления.
+ * Новые поля добавляются в конец записи со следующей версией схемы. Трасса этапов в запись не входит,
+ * она передается в заголовке Kafka.
+ */
+public final class EventCodec {
+
+    /**
+     * Первый байт записи; JSON начинается с печатного символа, поэтому форматы различимы по первому байту.
+     */
+    public static final byte MAGIC = (byte) 0xC5;
+
+    static final byte SCHEMA_VERSION = 1;
+
+    private static final byte TYPE_FILE_EVENT = 1;
+    private static final byte TYPE_STATUS_EVENT = 2;
+    private static final byte TYPE_FILE_CHUNK = 3;
+    private static final byte NULL_STATUS = (byte) 0xFF;
+    private static final Status[] STATUSES = Status.values();
+
+    private EventCodec() {
+    }
+
+    /**
+     * Проверка, записаны ли данные в двоичном формате событий.
+     *
+     * @param data содержимое записи
+     * @return true, если запись начинается с {@link #MAGIC}
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    /**
+     * Кодирование события.
+     *
+     * @param event {@link FileEvent}, {@link StatusEvent} или {@link FileChunk}
+     * @return двоичное представление
+     * @throws IllegalArgumentException если тип события не поддерживается
+     */
+    public static byte[] encode(Object event) {
+        if (event instanceof StatusEvent statusEvent) {
+            return encodeStatusEvent(statusEvent);
+        }
+        if (event instanceof FileEvent fileEvent) {
+            return encodeFileEvent(fileEvent);
+        }
+        if (event instanceof FileChunk chunk) {
+            return encodeFileChunk(chunk);
+        }
+        throw new IllegalArgumentException("Unsupported event type: "
+                + (event == null ? "null" : event.getClass().getName()));
+    }
+
+    /**
+     * Декодирование события.
+     *
+     * @param data двоичное представление
+     * @return {@link FileEvent}, {@link StatusEvent} или {@link FileChunk}
+     * @throws IllegalArgumentException если данные повреждены, тип неизвестен или версия схемы новее поддерживаемой
+     */
+    public static Object decode(byte[] data) {
+        if (data == null || data.length < 3 || data[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a binary event record");
+        }
+        if (data[2] < 1 || data[2] > SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported event schema version: " + data[2]);
+        }
+        Reader reader = new Reader(data, 3);
+        try {
+            return switch (data[1]) {
+                case TYPE_STATUS_EVENT -> decodeStatusEvent(reader);
+                case TYPE_FILE_EVENT -> decodeFileEvent(reader);
+                case TYPE_FILE_CHUNK -> decodeFileChunk(reader);
+                default -> throw new IllegalArgumentException("Unknown event type: " + data[1]);
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated event record", e);
+        }
+    }
+
+    private static byte[] encodeStatusEvent(StatusEvent event) {
+        Writer writer = new Writer(96, TYPE_STATUS_EVENT);
+        writer.string(event.getFileHash());
+        writer.raw(event.getStatus() == null ? NULL_STATUS : (byte) event.getStatus().ordinal());
+        writer.string(event.getFileName());
+        writer.timestamp(event.getTimestamp());
+        writer.string(event.getErrorMessage());
+        writer.varLong(event.getVersion());
+        return writer.toByteArray();
+    }
+
+    private static StatusEvent decodeStatusEvent(Reader reader) {
+        StatusEvent event = new StatusEvent();
+        event.setFileHash(reader.string());
+        int ordinal = Byte.toUnsignedInt(reader.raw());
+        if (ordinal != Byte.toUnsignedInt(NULL_STATUS)) {
+            if (ordinal >= STATUSES.length) {
+                throw new IllegalArgumentException("Unknown status ordinal: " + ordinal);
+            }
+            event.setStatus(STATUSES[ordinal]);
+        }
+        event.setFileName(reader.string());
+        event.setTimestamp(reader.timestamp());
+        event.setErrorMessage(reader.string());
+        event.setVersion(reader.varLong());
+        return event;
+    }
+
+    private static byte[] encodeFileEvent(FileEvent event) {
+        int contentLength = event.getFileContent() == null ? 0 : event.getFileContent().length;
+        Writer writer = new Writer(160 + contentLength, TYPE_FILE_EVENT);
+        writer.string(event.getFileHash());
+        writer.string(event.getFileName());
+        writer.bytes(event.getFileContent());
+        writer.timestamp(event.getTimestamp());
+        writer.string(event.getContentRef());
+        writer.varLong(event.getContentSize());
+        writer.string(event.getContentType());
+        writer.varLong(event.getVersion());
+        return writer.toByteArray();
+    }
+
+    private static FileEvent decodeFileEvent(Reader reader) {
+        FileEvent event = new FileEvent();
+        event.setFileHash(reader.string());
+        event.setFileName(reader.string());
+        event.setFileContent(reader.bytes());
+        event.setTimestamp(reader.timestamp());
+        event.setContentRef(reader.string());
+        event.setContentSize(reader.varLong());
+        event.setContentType(reader.string());
+        event.setVersion(reader.varLong());
+        return event;
+    }
+
+    private static byte[] encodeFileChunk(FileChunk chunk) {
+        int payloadLength = chunk.getPayload() == null ? 0 : chunk.getPayload().length;
+        Writer writer = new Writer(96 + payloadLength, TYPE_FILE_CHUNK);
+        writer.string(chunk.getFileHash());
+        writer.varLong(chunk.getIndex());
+        writer.varLong(chunk.getCount());
+        writer.varLong(chunk.getTotalSize());
+        writer.bytes(chunk.getPayload());
+        return writer.toByteArray();
+    }
+
+    private static FileChunk decodeFileChunk(Reader reader) {
+        FileChunk chunk = new FileChunk();
+        chunk.setFileHash(reader.string());
+        chunk.setIndex((int) reader.varLong());
+        chunk.setCount((int) reader.varLong());
+        chunk.setTotalSize(reader.varLong());
+        chunk.setPayload(reader.bytes());
+        return chunk;
+    }
+
+    /**
+     * Запись в растущий буфер.
+     */
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity, byte type) {
+            buffer = new byte[capacity];
+            raw(MAGIC);
+            raw(type);
+            raw(SCHEMA_VERSION);
+        }
+
+        void raw(byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        void varLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensureCapacity(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        void bytes(byte[] value) {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            varLong(value.length + 1L);
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+
+        void string(String value) {
+            bytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void timestamp(LocalDateTime value) {
+            if (value == null) {
+                raw((byte) 0);
+                return;
+            }
+            raw((byte) 1);
+            varLong(value.toEpochSecond(ZoneOffset.UTC));
+            varLong(value.getNano());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    /**
+     * Последовательное чтение записи.
+     */
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        byte raw() {
+            return data[position++];
+        }
+
+        long varLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte current;
+            do {
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Malformed varint");
+                }
+                current = data[position++];
+                zigzag |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        byte[] bytes() {
+            int length = length();
+            if (length < 0) {
+                return null;
+            }
+            byte[] value = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return value;
+        }
+
+        String string() {
+            int length = length();
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        LocalDateTime timestamp() {
+            if (raw() == 0) {
+                return null;
+            }
+            long seconds = varLong();
+            int nanos = (int) varLong();
+            return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        }
+
+        /**
+         * Длина строки или массива, -1 для null.
+         */
+        private int length() {
+            long encoded = varLong();
+            if (encoded < 0 || encoded - 1 > data.length - position) {
+                throw new IllegalArgumentException("Truncated event record");
+            }
+            return (int) encoded - 1;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package itmo.programming.kafka;
+
+import itmo.programming.trace.StageTrace;
+import itmo.programming.trace.Traced;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Запись и чтение трассы события в заголовке {@link StageTrace#HEADER}, общие для всех сериализаторов событий.
+ */
+final class TraceHeaders {
+
+    private TraceHeaders() {
+    }
+
+    /**
+     * Запись трассы события в заголовки записи, если она есть.
+     *
+     * @param headers заголовки записи, могут отсутствовать
+     * @param data    значение записи
+     */
+    static void write(Headers headers, Object data) {
+        if (headers != null && data instanceof Traced traced && traced.getTrace() != null) {
+            headers.remove(StageTrace.HEADER);
+            headers.add(StageTrace.HEADER, traced.getTrace().toBytes());
+        }
+    }
+
+    /**
+     * Восстановление трассы события из заголовков записи.
+     * Поврежденный заголовок не мешает обработке события: трасса просто остается пустой.
+     *
+     * @param headers заголовки записи, могут отсутствовать
+     * @param value   прочитанное значение записи
+     */
+    static void read(Headers headers, Object value) {
+        if (headers == null || !(value instanceof Traced traced)) {
+            return;
+        }
+        Header header = headers.lastHeader(StageTrace.HEADER);
+        if (header != null) {
+            try {
+                traced.setTrace(StageTrace.fromBytes(header.value()));
+            } catch (IllegalArgumentException ignored) {
+                // Трасса необязательна, событие обрабатывается без нее
+            }
+        }
+    }
+}
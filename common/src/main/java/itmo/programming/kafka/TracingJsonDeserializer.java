@@ -0,0 +1,38 @@
+package itmo.programming.kafka;
+
+import itmo.programming.trace.StageTrace;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * JSON-десериализатор, который восстанавливает трассу события из заголовка {@link StageTrace#HEADER}.
+ * Поврежденный заголовок не мешает обработке события: трасса просто остается пустой.
+ *
+ * @param <T> тип значения
+ */
+public class TracingJsonDeserializer<T> extends JsonDeserializer<T> {
+
+    /**
+     * Конструктор для настройки через свойства Kafka.
+     */
+    public TracingJsonDeserializer() {
+        super();
+    }
+
+    /**
+     * Конструктор с целевым типом.
+     *
+     * @param targetType       тип значения
+     * @param useHeadersIfPresent использовать ли заголовки с информацией о типе
+     */
+    public TracingJsonDeserializer(Class<? super T> targetType, boolean useHeadersIfPresent) {
+        super(targetType, useHeadersIfPresent);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        T value = super.deserialize(topic, headers, data);
+        TraceHeaders.read(headers, value);
+        return value;
+    }
+}
@@ -0,0 +1,19 @@
+package itmo.programming.kafka;
+
+import itmo.programming.trace.StageTrace;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * JSON-сериализатор, который дополнительно записывает трассу события в заголовок {@link StageTrace#HEADER}.
+ *
+ * @param <T> тип значения
+ */
+public class TracingJsonSerializer<T> extends JsonSerializer<T> {
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        TraceHeaders.write(headers, data);
+        return super.serialize(topic, headers, data);
+    }
+}
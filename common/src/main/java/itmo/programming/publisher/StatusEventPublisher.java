@@ -0,0 +1,180 @@
+package itmo.programming.publisher;
+
+import itmo.programming.common.StatusEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Публикатор событий статуса с объединением переходов одного файла.
+ * Если окно объединения задано, события копятся до его окончания и для каждого файла
+ * отправляется только последнее; future поглощенных событий завершаются вместе с ним.
+ * При нулевом окне события отправляются сразу в вызывающем потоке.
+ * После закрытия публикатор не принимает события: накопленные отправляются при закрытии,
+ * а future новых событий сразу завершаются с {@link IllegalStateException}.
+ */
+public class StatusEventPublisher implements AutoCloseable {
+
+    private final StatusEventSender sender;
+    private final Object lock = new Object();
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+
+    private volatile long coalesceWindowNanos;
+    private ScheduledExecutorService scheduler;
+    private boolean flushScheduled;
+    private volatile boolean closed;
+
+    /**
+     * Конструктор публикатора без объединения событий.
+     *
+     * @param sender отправитель событий
+     */
+    public StatusEventPublisher(StatusEventSender sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Установка окна объединения событий.
+     *
+     * @param coalesceWindow окно объединения, нулевое значение отключает объединение
+     */
+    public void setCoalesceWindow(Duration coalesceWindow) {
+        if (coalesceWindow.isNegative()) {
+            throw new IllegalArgumentException("Coalesce window must not be negative: " + coalesceWindow);
+        }
+        this.coalesceWindowNanos = coalesceWindow.toNanos();
+    }
+
+    /**
+     * Публикация события статуса.
+     *
+     * @param event событие статуса
+     * @return future, завершающийся после подтверждения записи брокером
+     *         (для поглощенного события — после подтверждения более позднего события того же файла);
+     *         после закрытия публикатора — завершенный с {@link IllegalStateException}
+     */
+    public CompletableFuture<Void> publish(StatusEvent event) {
+        long window = coalesceWindowNanos;
+        if (window == 0) {
+            return closed ? rejected() : sendNow(event);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        synchronized (lock) {
+            if (closed) {
+                return rejected();
+            }
+            Pending existing = pending.get(event.getFileHash());
+            if (existing == null) {
+                pending.put(event.getFileHash(), new Pending(event, result));
+            } else {
+                existing.event = event;
+                existing.waiters.add(result);
+            }
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler().schedule(this::flush, window, TimeUnit.NANOSECONDS);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Немедленная отправка всех накопленных событий.
+     */
+    public void flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        send(batch);
+    }
+
+    /**
+     * Отправка накопленных событий и остановка планировщика.
+     * Закрытие и выборка накопленных событий выполняются под одной блокировкой с публикацией,
+     * поэтому ни одно принятое событие не остается неотправленным.
+     */
+    @Override
+    public void close() {
+        List<Pending> batch;
+        synchronized (lock) {
+            closed = true;
+            batch = drain();
+            if (scheduler != null) {
+                scheduler.shutdown();
+            }
+        }
+        send(batch);
+    }
+
+    private List<Pending> drain() {
+        List<Pending> batch = new ArrayList<>(pending.values());
+        pending.clear();
+        flushScheduled = false;
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        for (Pending item : batch) {
+            try {
+                sendNow(item.event).whenComplete((ignored, error) -> item.complete(error));
+            } catch (RuntimeException e) {
+                item.complete(e);
+            }
+        }
+    }
+
+    private static CompletableFuture<Void> rejected() {
+        return CompletableFuture.failedFuture(new IllegalStateException("Status event publisher is closed"));
+    }
+
+    private CompletableFuture<Void> sendNow(StatusEvent event) {
+        CompletableFuture<?> sent = sender.send(event);
+        if (sent == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return sent.thenApply(ignored -> null);
+    }
+
+    private ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "status-event-publisher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    /**
+     * Последнее событие файла и ожидающие его future.
+     */
+    private static final class Pending {
+        private StatusEvent event;
+        private final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+
+        Pending(StatusEvent event, CompletableFuture<Void> waiter) {
+            this.event = event;
+            this.waiters.add(waiter);
+        }
+
+        void complete(Throwable error) {
+            for (CompletableFuture<Void> waiter : waiters) {
+                if (error == null) {
+                    waiter.complete(null);
+                } else {
+                    waiter.completeExceptionally(error);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package itmo.programming.publisher;
+
+import itmo.programming.common.StatusEvent;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Отправитель событий статуса в брокер сообщений.
+ */
+@FunctionalInterface
+public interface StatusEventSender {
+
+    /**
+     * Асинхронная отправка события статуса.
+     *
+     * @param event событие статуса
+     * @return future, завершающийся после подтверждения записи брокером
+     */
+    CompletableFuture<?> send(StatusEvent event);
+}
@@ -1,5 +1,6 @@
 package itmo.programming.response;
 
+import itmo.programming.common.Status;
 import lombok.Data;
 
 /**
@@ -9,6 +10,10 @@ import lombok.Data;
 public class UploadResponse {
     private String fileHash;
     private String status;
+    private Status processingStatus;
+    private String statusUrl;
+    private String fileName;
+    private ErrorResponse error;
 
     /**
      * Конструктор, инициализирующий все поля.
@@ -20,4 +25,17 @@ public class UploadResponse {
         this.fileHash = fileHash;
         this.status = status;
     }
+
+    /**
+     * Конструктор ответа с известным статусом обработки файла.
+     *
+     * @param fileHash         Хэш файла.
+     * @param status           Описание результата загрузки.
+     * @param processingStatus Текущий статус обработки файла.
+     */
+    public UploadResponse(String fileHash, String status, Status processingStatus) {
+        this.fileHash = fileHash;
+        this.status = status;
+        this.processingStatus = processingStatus;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package itmo.programming.response;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Класс, представляющий состояние сессии докачиваемой загрузки.
+ */
+@Data
+public class UploadSessionResponse {
+    private String sessionId;
+    private String fileName;
+    private long totalSize;
+    private int chunkSize;
+    private int chunkCount;
+    private int receivedChunks;
+    private List<Integer> missingChunks;
+}
@@ -0,0 +1,76 @@
+package itmo.programming.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Хранилище содержимого файлов (claim-check).
+ * Содержимое записывается один раз по ключу (хешу файла), а через Kafka передается только ссылка.
+ */
+public interface BlobStore {
+
+    /**
+     * Сохранение содержимого по ключу.
+     * Если содержимое с таким ключом уже есть, повторная запись не выполняется.
+     *
+     * @param key     ключ (хеш файла)
+     * @param content поток с содержимым
+     * @return ссылка на сохраненное содержимое
+     * @throws IOException при ошибке записи
+     */
+    String put(String key, InputStream content) throws IOException;
+
+    /**
+     * Сохранение содержимого из локального файла по ключу.
+     * Реализации могут переносить файл вместо копирования; после вызова исходный файл может отсутствовать.
+     *
+     * @param key    ключ (хеш файла)
+     * @param source файл с содержимым
+     * @return ссылка на сохраненное содержимое
+     * @throws IOException при ошибке записи
+     */
+    default String putFile(String key, Path source) throws IOException {
+        try (InputStream content = Files.newInputStream(source)) {
+            return put(key, content);
+        }
+    }
+
+    /**
+     * Открытие потока для чтения содержимого по ссылке.
+     *
+     * @param reference ссылка, полученная из {@link #put(String, InputStream)}
+     * @return поток с содержимым
+     * @throws IOException если содержимое не найдено или не может быть прочитано
+     */
+    InputStream open(String reference) throws IOException;
+
+    /**
+     * Путь к содержимому в локальной файловой системе, если хранилище держит его в файле.
+     * Позволяет читать содержимое с произвольным доступом без копирования.
+     *
+     * @param reference ссылка на содержимое
+     * @return путь к существующему файлу или пустой Optional
+     */
+    default Optional<Path> localPath(String reference) {
+        return Optional.empty();
+    }
+
+    /**
+     * Проверка наличия содержимого по ссылке.
+     *
+     * @param reference ссылка на содержимое
+     * @return true, если содержимое существует
+     */
+    boolean exists(String reference);
+
+    /**
+     * Удаление содержимого по ссылке. Отсутствующее содержимое игнорируется.
+     *
+     * @param reference ссылка на содержимое
+     * @throws IOException при ошибке удаления
+     */
+    void delete(String reference) throws IOException;
+}
@@ -0,0 +1,115 @@
+package itmo.programming.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Хранилище содержимого в локальной файловой системе (для разработки и тестов).
+ * Файлы раскладываются по подкаталогам по первым символам ключа,
+ * запись выполняется через временный файл и атомарное переименование.
+ */
+public class LocalFileBlobStore implements BlobStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9_-]{3,128}");
+    private static final int SHARD_LENGTH = 2;
+
+    private final Path root;
+
+    /**
+     * Конструктор хранилища.
+     *
+     * @param root корневой каталог хранилища
+     * @throws IOException если каталог не может быть создан
+     */
+    public LocalFileBlobStore(Path root) throws IOException {
+        this.root = Files.createDirectories(root);
+    }
+
+    @Override
+    public String put(String key, InputStream content) throws IOException {
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            return key;
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), key, ".part");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            moveInPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return key;
+    }
+
+    @Override
+    public String putFile(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            return key;
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), key, ".part");
+        try {
+            Files.move(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            moveInPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return key;
+    }
+
+    @Override
+    public InputStream open(String reference) throws IOException {
+        return Files.newInputStream(resolve(reference));
+    }
+
+    @Override
+    public Optional<Path> localPath(String reference) {
+        Path path = resolve(reference);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public boolean exists(String reference) {
+        return Files.exists(resolve(reference));
+    }
+
+    @Override
+    public void delete(String reference) throws IOException {
+        Files.deleteIfExists(resolve(reference));
+    }
+
+    /**
+     * Путь к файлу содержимого по ключу.
+     *
+     * @param key ключ содержимого
+     * @return путь внутри корневого каталога
+     */
+    Path resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return root.resolve(key.substring(0, SHARD_LENGTH)).resolve(key);
+    }
+
+    /**
+     * Атомарный перенос временного файла на место.
+     * Параллельная запись того же ключа означает то же содержимое, поэтому готовый файл не перезаписывается.
+     */
+    private void moveInPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Содержимое уже записано другим потоком
+        }
+    }
+}
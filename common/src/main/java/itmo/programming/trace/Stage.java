@@ -0,0 +1,31 @@
+package itmo.programming.trace;
+
+/**
+ * Этапы прохождения файла по конвейеру в порядке их выполнения.
+ */
+public enum Stage {
+    /**
+     * Запрос загрузки принят контроллером file-uploader.
+     */
+    UPLOAD_RECEIVED,
+    /**
+     * Событие файла передано в Kafka.
+     */
+    ENQUEUED,
+    /**
+     * Событие файла получено слушателем file-processor.
+     */
+    CONSUMED,
+    /**
+     * Начат разбор Excel файла.
+     */
+    PARSE_STARTED,
+    /**
+     * Разбор Excel файла завершен, успешно или с ошибкой.
+     */
+    PARSE_FINISHED,
+    /**
+     * Статус записан в MongoDB.
+     */
+    STATUS_PERSISTED
+}
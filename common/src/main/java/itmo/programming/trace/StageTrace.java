@@ -0,0 +1,180 @@
+package itmo.programming.trace;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Трасса этапов обработки одного файла: время каждого пройденного этапа в микросекундах от эпохи.
+ * Передается между сервисами в заголовке Kafka {@link #HEADER} в компактном двоичном виде:
+ * байт версии формата, байт количества этапов и по 9 байт на этап (номер этапа и время).
+ * Время берется по системным часам сервиса, отметившего этап.
+ */
+public final class StageTrace {
+
+    /**
+     * Имя заголовка Kafka с трассой.
+     */
+    public static final String HEADER = "firestarter-trace";
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final long NOT_SET = 0;
+    private static final Stage[] STAGES = Stage.values();
+
+    private final long[] epochMicros = new long[STAGES.length];
+
+    /**
+     * Создание трассы с отмеченным первым этапом.
+     *
+     * @param stage этап
+     * @return новая трасса
+     */
+    public static StageTrace start(Stage stage) {
+        StageTrace trace = new StageTrace();
+        trace.mark(stage);
+        return trace;
+    }
+
+    /**
+     * Отметка этапа текущим временем.
+     *
+     * @param stage этап
+     * @return эта трасса
+     */
+    public StageTrace mark(Stage stage) {
+        return mark(stage, nowMicros());
+    }
+
+    /**
+     * Отметка этапа заданным временем.
+     *
+     * @param stage       этап
+     * @param epochMicros время в микросекундах от эпохи
+     * @return эта трасса
+     */
+    public StageTrace mark(Stage stage, long epochMicros) {
+        this.epochMicros[stage.ordinal()] = epochMicros;
+        return this;
+    }
+
+    /**
+     * Время этапа.
+     *
+     * @param stage этап
+     * @return время в микросекундах от эпохи или пустое значение, если этап не отмечен
+     */
+    public OptionalLong get(Stage stage) {
+        long value = epochMicros[stage.ordinal()];
+        return value == NOT_SET ? OptionalLong.empty() : OptionalLong.of(value);
+    }
+
+    /**
+     * Копия трассы, которую можно отправить, не опасаясь последующих отметок.
+     */
+    public StageTrace copy() {
+        StageTrace copy = new StageTrace();
+        System.arraycopy(epochMicros, 0, copy.epochMicros, 0, epochMicros.length);
+        return copy;
+    }
+
+    /**
+     * Отмеченные этапы в порядке выполнения.
+     */
+    public Map<Stage, Long> toMap() {
+        Map<Stage, Long> map = new EnumMap<>(Stage.class);
+        for (Stage stage : STAGES) {
+            get(stage).ifPresent(value -> map.put(stage, value));
+        }
+        return map;
+    }
+
+    /**
+     * Восстановление трассы из отмеченных этапов.
+     *
+     * @param stages время этапов в микросекундах от эпохи
+     * @return трасса
+     */
+    public static StageTrace fromMap(Map<Stage, Long> stages) {
+        StageTrace trace = new StageTrace();
+        stages.forEach((stage, value) -> {
+            if (value != null) {
+                trace.mark(stage, value);
+            }
+        });
+        return trace;
+    }
+
+    /**
+     * Двоичное представление для заголовка Kafka.
+     */
+    public byte[] toBytes() {
+        int count = 0;
+        for (long value : epochMicros) {
+            if (value != NOT_SET) {
+                count++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + count * (1 + Long.BYTES));
+        buffer.put(FORMAT_VERSION).put((byte) count);
+        for (int i = 0; i < epochMicros.length; i++) {
+            if (epochMicros[i] != NOT_SET) {
+                buffer.put((byte) i).putLong(epochMicros[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Разбор двоичного представления из заголовка Kafka.
+     * Этапы, неизвестные этой версии, пропускаются.
+     *
+     * @param bytes содержимое заголовка
+     * @return трасса
+     * @throws IllegalArgumentException если формат не поддерживается или данные обрезаны
+     */
+    public static StageTrace fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.remaining() < 2 || buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported stage trace format");
+        }
+        int count = Byte.toUnsignedInt(buffer.get());
+        if (buffer.remaining() < count * (1 + Long.BYTES)) {
+            throw new IllegalArgumentException("Truncated stage trace: " + count + " stages expected");
+        }
+        StageTrace trace = new StageTrace();
+        for (int i = 0; i < count; i++) {
+            int ordinal = Byte.toUnsignedInt(buffer.get());
+            long value = buffer.getLong();
+            if (ordinal < STAGES.length) {
+                trace.mark(STAGES[ordinal], value);
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * Текущее время в микросекундах от эпохи.
+     */
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof StageTrace other && Arrays.equals(epochMicros, other.epochMicros);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(epochMicros);
+    }
+
+    @Override
+    public String toString() {
+        return "StageTrace" + toMap();
+    }
+}
@@ -0,0 +1,26 @@
+package itmo.programming.trace;
+
+/**
+ * Событие, которое несет трассу этапов обработки файла.
+ * Трасса передается в заголовке Kafka, а не в теле события.
+ */
+public interface Traced {
+
+    StageTrace getTrace();
+
+    void setTrace(StageTrace trace);
+
+    /**
+     * Трасса события; если ее нет, создается пустая.
+     *
+     * @return трасса события
+     */
+    default StageTrace trace() {
+        StageTrace trace = getTrace();
+        if (trace == null) {
+            trace = new StageTrace();
+            setTrace(trace);
+        }
+        return trace;
+    }
+}
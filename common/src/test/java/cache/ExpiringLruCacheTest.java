@@ -0,0 +1,111 @@
+package cache;
+
+import itmo.programming.cache.ExpiringLruCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ExpiringLruCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("Сохраненное значение должно возвращаться до истечения времени жизни")
+    void get_BeforeExpiry_ShouldReturnValue() {
+        // Given
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, Duration.ofSeconds(5), now::get);
+        cache.put("key", "value");
+
+        // When
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+
+        // Then
+        assertThat(cache.get("key")).isEqualTo("value");
+        assertThat(cache.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Просроченное значение должно удаляться и считаться промахом")
+    void get_AfterExpiry_ShouldReturnNull() {
+        // Given
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, Duration.ofSeconds(5), now::get);
+        cache.put("key", "value");
+
+        // When
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        // Then
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("При переполнении должна вытесняться давно не использованная запись")
+    void put_OverCapacity_ShouldEvictLeastRecentlyUsed() {
+        // Given
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(2, Duration.ofMinutes(1), now::get);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        // When
+        cache.put("c", "3");
+
+        // Then
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("3");
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Индивидуальное время жизни должно переопределять время по умолчанию")
+    void put_WithCustomTtl_ShouldUseIt() {
+        // Given
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, Duration.ofMinutes(10), now::get);
+        cache.put("short", "value", Duration.ofSeconds(1));
+
+        // When
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.cleanUp();
+
+        // Then
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Инвалидация должна удалять запись")
+    void invalidate_ShouldRemoveEntry() {
+        // Given
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, Duration.ofMinutes(1), now::get);
+        cache.put("key", "value");
+
+        // When
+        cache.invalidate("key");
+
+        // Then
+        assertThat(cache.get("key")).isNull();
+    }
+
+    @Test
+    @DisplayName("putIfAbsent не должен перезаписывать действующую запись, но должен заменять просроченную")
+    void putIfAbsent_ShouldKeepLiveEntry() {
+        // Given
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, Duration.ofSeconds(5), now::get);
+        cache.put("key", "fresh");
+
+        // When + Then
+        assertThat(cache.putIfAbsent("key", "stale")).isFalse();
+        assertThat(cache.get("key")).isEqualTo("fresh");
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(cache.putIfAbsent("key", "reloaded")).isTrue();
+        assertThat(cache.get("key")).isEqualTo("reloaded");
+    }
+}
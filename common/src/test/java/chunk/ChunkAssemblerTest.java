@@ -0,0 +1,214 @@
+package chunk;
+
+import itmo.programming.chunk.ChunkAssembler;
+import itmo.programming.chunk.FileChunk;
+import itmo.programming.chunk.FileChunker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ChunkAssemblerTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final AtomicLong now = new AtomicLong();
+    private ChunkAssembler assembler;
+
+    @AfterEach
+    void tearDown() {
+        if (assembler != null) {
+            assembler.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Разбиение и сборка должны восстанавливать содержимое без потерь")
+    void splitAndAssemble_ShouldRoundTrip() throws Exception {
+        // Given
+        assembler = new ChunkAssembler(spoolDir, 1024 * 1024, 4, Duration.ofMinutes(1), now::get);
+        byte[] content = randomContent(10_000);
+        List<FileChunk> chunks = split(content, 4096);
+
+        // When
+        for (FileChunk chunk : chunks) {
+            assembler.accept(chunk);
+        }
+
+        // Then
+        assertThat(chunks).hasSize(3);
+        assertThat(readAll(sha256(content))).isEqualTo(content);
+        assertThat(assembler.pendingCount()).isZero();
+        assertThat(assembler.memoryBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Сборка сверх лимита памяти должна продолжаться во временном файле, удаляемом при закрытии")
+    void accept_OverMemoryLimit_ShouldSpillToDisk() throws Exception {
+        // Given
+        assembler = new ChunkAssembler(spoolDir, 5_000, 4, Duration.ofMinutes(1), now::get);
+        byte[] content = randomContent(12_000);
+
+        // When
+        for (FileChunk chunk : split(content, 4096)) {
+            assembler.accept(chunk);
+        }
+
+        // Then
+        assertThat(assembler.memoryBytes()).isZero();
+        try (var files = Files.list(spoolDir)) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+        assertThat(readAll(sha256(content))).isEqualTo(content);
+        try (var files = Files.list(spoolDir)) {
+            assertThat(files.count()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Повторно доставленные части должны пропускаться")
+    void accept_DuplicateChunk_ShouldBeIgnored() throws Exception {
+        // Given
+        assembler = new ChunkAssembler(spoolDir, 1024 * 1024, 4, Duration.ofMinutes(1), now::get);
+        byte[] content = randomContent(9_000);
+        List<FileChunk> chunks = split(content, 4096);
+
+        // When
+        assembler.accept(chunks.get(0));
+        assembler.accept(chunks.get(1));
+        assembler.accept(chunks.get(1));
+        assembler.accept(chunks.get(2));
+
+        // Then
+        assertThat(readAll(sha256(content))).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("Несовпадение хеша должно делать сборку непригодной")
+    void open_ChecksumMismatch_ShouldThrow() throws Exception {
+        // Given
+        assembler = new ChunkAssembler(spoolDir, 1024 * 1024, 4, Duration.ofMinutes(1), now::get);
+        byte[] content = randomContent(5_000);
+        String wrongHash = sha256(randomContent(5_000));
+        List<FileChunk> chunks = new ArrayList<>();
+        FileChunker.split(wrongHash, new ByteArrayInputStream(content), content.length, 4096, chunks::add);
+
+        // When
+        for (FileChunk chunk : chunks) {
+            assembler.accept(chunk);
+        }
+
+        // Then
+        assertThatThrownBy(() -> assembler.open(wrongHash))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("SHA-256 mismatch");
+        assertThat(assembler.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Пропущенная часть должна делать сборку непригодной")
+    void open_MissingChunk_ShouldThrow() throws Exception {
+        // Given
+        assembler = new ChunkAssembler(spoolDir, 1024 * 1024, 4, Duration.ofMinutes(1), now::get);
+        byte[] content = randomContent(10_000);
+        String hash = sha256(content);
+        List<FileChunk> chunks = split(content, 4096);
+
+        // When
+        assembler.accept(chunks.get(0));
+        assembler.accept(chunks.get(2));
+
+        // Then
+        assertThatThrownBy(() -> assembler.open(hash))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("chunk 1 is missing");
+    }
+
+    @Test
+    @DisplayName("Незавершенная сборка должна удаляться по истечении времени жизни")
+    void accept_AfterTtl_ShouldEvictStaleAssembly() throws Exception {
+        // Given
+        assembler = new ChunkAssembler(spoolDir, 1024 * 1024, 4, Duration.ofSeconds(30), now::get);
+        byte[] stale = randomContent(10_000);
+        byte[] fresh = randomContent(100);
+        assembler.accept(split(stale, 4096).get(0));
+
+        // When
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        assembler.accept(split(fresh, 4096).get(0));
+
+        // Then
+        assertThat(assembler.pendingCount()).isEqualTo(1);
+        assertThat(assembler.memoryBytes()).isEqualTo(100);
+        assertThatThrownBy(() -> assembler.open(sha256(stale))).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    @DisplayName("При превышении количества сборок должна вытесняться самая старая")
+    void accept_OverPendingLimit_ShouldEvictOldest() throws Exception {
+        // Given
+        assembler = new ChunkAssembler(spoolDir, 1024 * 1024, 2, Duration.ofMinutes(1), now::get);
+        byte[] first = randomContent(10_000);
+        byte[] second = randomContent(10_000);
+        byte[] third = randomContent(10_000);
+
+        // When
+        assembler.accept(split(first, 4096).get(0));
+        assembler.accept(split(second, 4096).get(0));
+        assembler.accept(split(third, 4096).get(0));
+
+        // Then
+        assertThat(assembler.pendingCount()).isEqualTo(2);
+        assertThatThrownBy(() -> assembler.open(sha256(first))).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    @DisplayName("Разбиение должно отклонять содержимое короче заявленного размера")
+    void split_ShorterContent_ShouldThrow() {
+        assertThatThrownBy(() -> FileChunker.split("hash", new ByteArrayInputStream(new byte[10]), 20, 8, chunk -> {
+        })).isInstanceOf(IOException.class);
+    }
+
+    private byte[] readAll(String hash) throws IOException {
+        try (InputStream content = assembler.open(hash)) {
+            return content.readAllBytes();
+        }
+    }
+
+    private static List<FileChunk> split(byte[] content, int chunkSize) throws IOException {
+        List<FileChunk> chunks = new ArrayList<>();
+        FileChunker.split(sha256(content), new ByteArrayInputStream(content), content.length, chunkSize, chunks::add);
+        return chunks;
+    }
+
+    private static byte[] randomContent(int size) {
+        byte[] content = new byte[size];
+        new Random(size ^ System.nanoTime()).nextBytes(content);
+        return content;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -180,4 +180,19 @@ class FileEventTest {
         // Then
         assertThat(fileEvent.getFileContent()).isEqualTo(new byte[]{100, 2, 3});
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Конструктор со ссылкой должен передавать содержимое через хранилище")
+    void referenceConstructor_ShouldInitializeReferenceFields() {
+        // When
+        FileEvent fileEvent = new FileEvent("hash", "file.xlsx", "hash", 1024L, "application/vnd.ms-excel");
+
+        // Then
+        assertThat(fileEvent.hasContentRef()).isTrue();
+        assertThat(fileEvent.getContentRef()).isEqualTo("hash");
+        assertThat(fileEvent.getContentSize()).isEqualTo(1024L);
+        assertThat(fileEvent.getContentType()).isEqualTo("application/vnd.ms-excel");
+        assertThat(fileEvent.getFileContent()).isNull();
+        assertThat(fileEvent.getTimestamp()).isNotNull();
+    }
+}
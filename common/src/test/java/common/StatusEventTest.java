@@ -236,4 +236,30 @@ class StatusEventTest {
         assertThat(statusEvent.getFileName()).isEqualTo("originalFile.txt");
         assertThat(statusEvent.getErrorMessage()).isEqualTo("original error");
     }
+
+    @Test
+    @DisplayName("Событие той же попытки должно заменять только предшествующий статус")
+    void supersedes_SameVersion_ShouldFollowTransitionGraph() {
+        // Given
+        StatusEvent started = new StatusEvent("hash", Status.SECONDARY_VALIDATION_STARTED, "file.xlsx");
+        StatusEvent success = new StatusEvent("hash", Status.SECONDARY_VALIDATION_SUCCESS, "file.xlsx");
+
+        // Then
+        assertThat(success.supersedes(started)).isTrue();
+        assertThat(started.supersedes(success)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Событие более поздней попытки должно заменять любой статус предыдущей")
+    void supersedes_NewerVersion_ShouldWinRegardlessOfStatus() {
+        // Given
+        StatusEvent oldFailure = new StatusEvent("hash", Status.PRIMARY_VALIDATION_FAILED, "file.xlsx");
+        oldFailure.setVersion(1L);
+        StatusEvent retry = new StatusEvent("hash", Status.RECEIVED, "file.xlsx");
+        retry.setVersion(2L);
+
+        // Then
+        assertThat(retry.supersedes(oldFailure)).isTrue();
+        assertThat(oldFailure.supersedes(retry)).isFalse();
+    }
 }
@@ -0,0 +1,48 @@
+package common;
+
+import itmo.programming.common.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatusTest {
+
+    @Test
+    @DisplayName("Переходы вперед допустимы, в том числе с пропуском промежуточных статусов")
+    void canTransitionTo_ShouldAllowForwardTransitions() {
+        assertThat(Status.RECEIVED.canTransitionTo(Status.PRIMARY_VALIDATION_SUCCESS)).isTrue();
+        assertThat(Status.PRIMARY_VALIDATION_SUCCESS.canTransitionTo(Status.SECONDARY_VALIDATION_STARTED)).isTrue();
+        assertThat(Status.RECEIVED.canTransitionTo(Status.SECONDARY_VALIDATION_SUCCESS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Переходы назад, из итоговых статусов и в тот же статус недопустимы")
+    void canTransitionTo_ShouldRejectBackwardTransitions() {
+        assertThat(Status.SECONDARY_VALIDATION_SUCCESS.canTransitionTo(Status.SECONDARY_VALIDATION_STARTED)).isFalse();
+        assertThat(Status.PRIMARY_VALIDATION_FAILED.canTransitionTo(Status.PRIMARY_VALIDATION_SUCCESS)).isFalse();
+        assertThat(Status.SECONDARY_VALIDATION_STARTED.canTransitionTo(Status.SECONDARY_VALIDATION_STARTED)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Предшественники статуса соответствуют графу переходов")
+    void predecessors_ShouldMirrorTransitions() {
+        assertThat(Status.SECONDARY_VALIDATION_STARTED.predecessors())
+                .containsExactlyInAnyOrder(Status.RECEIVED, Status.PRIMARY_VALIDATION_SUCCESS);
+        assertThat(Status.RECEIVED.predecessors()).isEmpty();
+        for (Status status : Status.values()) {
+            for (Status predecessor : status.predecessors()) {
+                assertThat(predecessor.canTransitionTo(status)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Итоговые статусы и ошибки завершают попытку обработки")
+    void isFinal_ShouldMatchStatusesWithoutTransitions() {
+        assertThat(Status.SECONDARY_VALIDATION_SUCCESS.isFinal()).isTrue();
+        assertThat(Status.PRIMARY_VALIDATION_FAILED.isFinal()).isTrue();
+        assertThat(Status.UPLOAD_ERROR.isFinal()).isTrue();
+        assertThat(Status.SECONDARY_VALIDATION_STARTED.isFinal()).isFalse();
+    }
+}
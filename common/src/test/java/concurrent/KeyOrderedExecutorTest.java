@@ -0,0 +1,69 @@
+package concurrent;
+
+import itmo.programming.concurrent.KeyOrderedExecutor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class KeyOrderedExecutorTest {
+
+    @Test
+    @DisplayName("Задачи одного ключа должны выполняться в порядке отправки")
+    void execute_SameKey_ShouldPreserveOrder() throws InterruptedException {
+        // Given
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(100);
+
+        // When
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 4)) {
+            for (int i = 0; i < 100; i++) {
+                int value = i;
+                executor.execute("hash", () -> {
+                    executed.add(value);
+                    done.countDown();
+                });
+            }
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        // Then
+        assertThat(executed).isSorted().hasSize(100);
+    }
+
+    @Test
+    @DisplayName("Задачи разных ключей не должны ждать друг друга")
+    void execute_DifferentKeys_ShouldRunInParallel() throws InterruptedException {
+        // Given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 2)) {
+            // When
+            executor.execute(0, () -> {
+                try {
+                    blocked.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.execute(1, otherDone::countDown);
+
+            // Then
+            assertThat(otherDone.await(5, TimeUnit.SECONDS)).isTrue();
+            blocked.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Количество дорожек должно быть положительным")
+    void constructor_NonPositiveLanes_ShouldThrow() {
+        assertThatThrownBy(() -> new KeyOrderedExecutor("test", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,170 @@
+package kafka;
+
+import itmo.programming.chunk.FileChunk;
+import itmo.programming.common.FileEvent;
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.kafka.BinaryEventDeserializer;
+import itmo.programming.kafka.BinaryEventSerializer;
+import itmo.programming.kafka.EventCodec;
+import itmo.programming.kafka.TracingJsonSerializer;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BinaryEventSerdeTest {
+
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private final BinaryEventSerializer serializer = new BinaryEventSerializer();
+    private final BinaryEventDeserializer deserializer = new BinaryEventDeserializer();
+
+    @BeforeEach
+    void setUp() {
+        deserializer.configure(Map.of("spring.json.trusted.packages", "*"), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deserializer.close();
+    }
+
+    @Test
+    @DisplayName("Часть содержимого файла должна восстанавливаться без потерь")
+    void fileChunk_ShouldRoundTrip() {
+        // Given
+        FileChunk chunk = new FileChunk(HASH, 2, 5, 2_500_000L, new byte[]{1, 2, 3, (byte) 0xC5});
+
+        // When
+        byte[] data = serializer.serialize("upload-topic", new RecordHeaders(), chunk);
+        Object restored = deserializer.deserialize("upload-topic", new RecordHeaders(), data);
+
+        // Then
+        assertThat(restored).isEqualTo(chunk);
+    }
+
+    @Test
+    @DisplayName("Событие статуса должно восстанавливаться без потерь вместе с трассой")
+    void statusEvent_ShouldRoundTrip() {
+        // Given
+        StatusEvent event = new StatusEvent(HASH, Status.SECONDARY_VALIDATION_FAILED, "Книга1.xlsx",
+                LocalDateTime.of(2025, 9, 24, 11, 58, 0, 206_123_456), "Cell [1,3] is empty.", 1758736628010L);
+        event.setTrace(new StageTrace().mark(Stage.UPLOAD_RECEIVED, 1_000L));
+        Headers headers = new RecordHeaders();
+
+        // When
+        byte[] data = serializer.serialize("status-topic", headers, event);
+        Object restored = deserializer.deserialize("status-topic", headers, data);
+
+        // Then
+        assertThat(data[0]).isEqualTo(EventCodec.MAGIC);
+        assertThat(restored).isEqualTo(event);
+        assertThat(((StatusEvent) restored).getTrace()).isEqualTo(event.getTrace());
+    }
+
+    @Test
+    @DisplayName("Событие файла должно восстанавливаться без потерь как со ссылкой, так и со встроенным содержимым")
+    void fileEvent_ShouldRoundTrip() {
+        // Given
+        FileEvent byRef = new FileEvent(HASH, "report.xlsx", "blobs/9f/" + HASH, 1_048_576L, "application/vnd.ms-excel");
+        byRef.setVersion(42L);
+        FileEvent inline = new FileEvent(HASH, "report.xls", new byte[]{1, 2, 3});
+
+        // When
+        Object restoredByRef = deserializer.deserialize("upload-topic", serializer.serialize("upload-topic", byRef));
+        Object restoredInline = deserializer.deserialize("upload-topic", serializer.serialize("upload-topic", inline));
+
+        // Then
+        assertThat(restoredByRef).isEqualTo(byRef);
+        assertThat(restoredInline).isEqualTo(inline);
+    }
+
+    @Test
+    @DisplayName("Пустые поля должны восстанавливаться как null")
+    void emptyFields_ShouldRoundTripAsNull() {
+        // Given
+        StatusEvent event = new StatusEvent();
+
+        // When
+        Object restored = deserializer.deserialize("status-topic", serializer.serialize("status-topic", event));
+
+        // Then
+        assertThat(restored).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Двоичная запись статуса должна быть компактнее JSON")
+    void statusEvent_ShouldBeSmallerThanJson() {
+        // Given
+        StatusEvent event = new StatusEvent(HASH, Status.SECONDARY_VALIDATION_SUCCESS, "report.xlsx");
+        event.setVersion(System.currentTimeMillis());
+
+        try (TracingJsonSerializer<Object> json = new TracingJsonSerializer<>()) {
+            // When
+            byte[] binary = serializer.serialize("status-topic", event);
+            byte[] text = json.serialize("status-topic", event);
+
+            // Then
+            assertThat(binary.length).isLessThan(text.length / 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Записи в JSON от предыдущих версий должны читаться по заголовку типа")
+    void jsonRecord_ShouldBeReadForCompatibility() {
+        // Given
+        StatusEvent event = new StatusEvent(HASH, Status.RECEIVED, "report.xlsx");
+        Headers headers = new RecordHeaders();
+        byte[] json;
+        try (TracingJsonSerializer<Object> serializer = new TracingJsonSerializer<>()) {
+            json = serializer.serialize("status-topic", headers, event);
+        }
+
+        // When
+        Object restored = deserializer.deserialize("status-topic", headers, json);
+
+        // Then
+        assertThat(restored).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Порядковые номера статусов входят в формат и не должны меняться")
+    void statusOrdinals_ShouldBeStable() {
+        assertThat(Arrays.stream(Status.values()).map(Status::name)).containsExactly(
+                "RECEIVED",
+                "PRIMARY_VALIDATION_SUCCESS",
+                "PRIMARY_VALIDATION_FAILED",
+                "SECONDARY_VALIDATION_SUCCESS",
+                "SECONDARY_VALIDATION_FAILED",
+                "SECONDARY_VALIDATION_ERROR",
+                "SECONDARY_VALIDATION_STARTED",
+                "UPLOAD_ERROR");
+    }
+
+    @Test
+    @DisplayName("Поврежденные записи и новые версии схемы должны отклоняться")
+    void invalidRecord_ShouldThrow() {
+        byte[] data = serializer.serialize("status-topic", new StatusEvent(HASH, Status.RECEIVED, "a.xlsx"));
+        byte[] newerSchema = data.clone();
+        newerSchema[2] = 2;
+
+        assertThatThrownBy(() -> deserializer.deserialize("status-topic", Arrays.copyOf(data, 10)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> deserializer.deserialize("status-topic", newerSchema))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializer.serialize("status-topic", "text"))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,75 @@
+package kafka;
+
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.kafka.TracingJsonDeserializer;
+import itmo.programming.kafka.TracingJsonSerializer;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TracingJsonSerdeTest {
+
+    private final TracingJsonSerializer<StatusEvent> serializer = new TracingJsonSerializer<>();
+    private final TracingJsonDeserializer<StatusEvent> deserializer =
+            new TracingJsonDeserializer<>(StatusEvent.class, false);
+
+    @Test
+    @DisplayName("Трасса должна передаваться в заголовке, а не в теле события")
+    void serialize_ShouldCarryTraceInHeader() {
+        // Given
+        StatusEvent event = new StatusEvent("hash", Status.RECEIVED, "file.xlsx");
+        event.setTrace(new StageTrace().mark(Stage.UPLOAD_RECEIVED, 100L).mark(Stage.ENQUEUED, 250L));
+        Headers headers = new RecordHeaders();
+
+        // When
+        byte[] body = serializer.serialize("status-topic", headers, event);
+        StatusEvent restored = deserializer.deserialize("status-topic", headers, body);
+
+        // Then
+        assertThat(new String(body, StandardCharsets.UTF_8)).doesNotContain("trace");
+        assertThat(headers.lastHeader(StageTrace.HEADER)).isNotNull();
+        assertThat(restored).isEqualTo(event);
+        assertThat(restored.getTrace()).isEqualTo(event.getTrace());
+    }
+
+    @Test
+    @DisplayName("Событие без трассы должно передаваться без заголовка")
+    void serialize_WithoutTrace_ShouldNotAddHeader() {
+        // Given
+        StatusEvent event = new StatusEvent("hash", Status.RECEIVED, "file.xlsx");
+        Headers headers = new RecordHeaders();
+
+        // When
+        byte[] body = serializer.serialize("status-topic", headers, event);
+        StatusEvent restored = deserializer.deserialize("status-topic", headers, body);
+
+        // Then
+        assertThat(headers.lastHeader(StageTrace.HEADER)).isNull();
+        assertThat(restored.getTrace()).isNull();
+    }
+
+    @Test
+    @DisplayName("Поврежденный заголовок трассы не должен мешать чтению события")
+    void deserialize_CorruptedHeader_ShouldIgnoreTrace() {
+        // Given
+        StatusEvent event = new StatusEvent("hash", Status.RECEIVED, "file.xlsx");
+        Headers headers = new RecordHeaders();
+        byte[] body = serializer.serialize("status-topic", headers, event);
+        headers.add(StageTrace.HEADER, new byte[]{1});
+
+        // When
+        StatusEvent restored = deserializer.deserialize("status-topic", headers, body);
+
+        // Then
+        assertThat(restored.getFileHash()).isEqualTo("hash");
+        assertThat(restored.getTrace()).isNull();
+    }
+}
@@ -0,0 +1,138 @@
+package publisher;
+
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.publisher.StatusEventPublisher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class StatusEventPublisherTest {
+
+    private final List<StatusEvent> sent = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<Object>> acks = new CopyOnWriteArrayList<>();
+
+    private CompletableFuture<?> record(StatusEvent event) {
+        sent.add(event);
+        CompletableFuture<Object> ack = new CompletableFuture<>();
+        acks.add(ack);
+        return ack;
+    }
+
+    @Test
+    @DisplayName("Без окна объединения событие должно отправляться сразу")
+    void publish_WithoutWindow_ShouldSendImmediately() {
+        // Given
+        StatusEventPublisher publisher = new StatusEventPublisher(this::record);
+
+        // When
+        CompletableFuture<Void> result = publisher.publish(new StatusEvent("hash", Status.RECEIVED, "file.xlsx"));
+
+        // Then
+        assertThat(sent).hasSize(1);
+        assertThat(result).isNotDone();
+        acks.get(0).complete("ok");
+        assertThat(result).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Переходы одного файла в окне должны объединяться в одно событие")
+    void publish_WithinWindow_ShouldCoalescePerFile() {
+        // Given
+        StatusEventPublisher publisher = new StatusEventPublisher(this::record);
+        publisher.setCoalesceWindow(Duration.ofHours(1));
+
+        // When
+        CompletableFuture<Void> received = publisher.publish(new StatusEvent("hash", Status.RECEIVED, "f.xlsx"));
+        CompletableFuture<Void> validated =
+                publisher.publish(new StatusEvent("hash", Status.PRIMARY_VALIDATION_SUCCESS, "f.xlsx"));
+        CompletableFuture<Void> other = publisher.publish(new StatusEvent("other", Status.RECEIVED, "g.xlsx"));
+        publisher.flush();
+
+        // Then
+        assertThat(sent).extracting(StatusEvent::getFileHash, StatusEvent::getStatus)
+                .containsExactly(
+                        tuple("hash", Status.PRIMARY_VALIDATION_SUCCESS),
+                        tuple("other", Status.RECEIVED));
+        acks.get(0).complete("ok");
+        assertThat(received).isCompleted();
+        assertThat(validated).isCompleted();
+        assertThat(other).isNotDone();
+    }
+
+    @Test
+    @DisplayName("Накопленные события должны отправляться по окончании окна")
+    void publish_ShouldFlushAfterWindow() throws Exception {
+        // Given
+        StatusEventPublisher publisher = new StatusEventPublisher(event -> CompletableFuture.completedFuture(null));
+        publisher.setCoalesceWindow(Duration.ofMillis(10));
+
+        // When
+        CompletableFuture<Void> result = publisher.publish(new StatusEvent("hash", Status.RECEIVED, "f.xlsx"));
+
+        // Then
+        result.get(5, TimeUnit.SECONDS);
+        publisher.close();
+    }
+
+    @Test
+    @DisplayName("Ошибка отправки должна передаваться во все объединенные future")
+    void publish_SendFailure_ShouldFailAllWaiters() {
+        // Given
+        StatusEventPublisher publisher = new StatusEventPublisher(event -> {
+            throw new IllegalStateException("broker down");
+        });
+        publisher.setCoalesceWindow(Duration.ofHours(1));
+        CompletableFuture<Void> first = publisher.publish(new StatusEvent("hash", Status.RECEIVED, "f.xlsx"));
+        CompletableFuture<Void> second =
+                publisher.publish(new StatusEvent("hash", Status.PRIMARY_VALIDATION_SUCCESS, "f.xlsx"));
+
+        // When
+        publisher.flush();
+
+        // Then
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("Без окна объединения ошибка отправки должна выбрасываться сразу")
+    void publish_WithoutWindow_ShouldPropagateSendFailure() {
+        // Given
+        StatusEventPublisher publisher = new StatusEventPublisher(event -> {
+            throw new IllegalStateException("broker down");
+        });
+
+        // Then
+        assertThatThrownBy(() -> publisher.publish(new StatusEvent("hash", Status.RECEIVED, "f.xlsx")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Закрытие должно сразу отправлять накопленные события, а публикация после закрытия - отклоняться")
+    void close_ShouldSendPendingAndRejectLaterEvents() {
+        // Given
+        StatusEventPublisher publisher = new StatusEventPublisher(this::record);
+        publisher.setCoalesceWindow(Duration.ofHours(1));
+        CompletableFuture<Void> accepted = publisher.publish(new StatusEvent("hash", Status.RECEIVED, "f.xlsx"));
+
+        // When
+        publisher.close();
+        CompletableFuture<Void> late = publisher.publish(new StatusEvent("other", Status.RECEIVED, "g.xlsx"));
+
+        // Then
+        assertThat(sent).extracting(StatusEvent::getFileHash).containsExactly("hash");
+        acks.get(0).complete(null);
+        assertThat(accepted).isCompleted();
+        assertThat(late).isCompletedExceptionally();
+        assertThatThrownBy(late::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(sent).hasSize(1);
+    }
+}
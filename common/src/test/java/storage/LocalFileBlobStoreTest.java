@@ -0,0 +1,109 @@
+package storage;
+
+import itmo.programming.storage.LocalFileBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LocalFileBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalFileBlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new LocalFileBlobStore(root);
+    }
+
+    @Test
+    @DisplayName("Сохраненное содержимое должно читаться по ссылке")
+    void put_ShouldStoreContentReadableByReference() throws IOException {
+        // Given
+        byte[] content = new byte[]{1, 2, 3, 4, 5};
+
+        // When
+        String reference = store.put("abc123", new ByteArrayInputStream(content));
+
+        // Then
+        assertThat(store.exists(reference)).isTrue();
+        try (InputStream in = store.open(reference)) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    @DisplayName("Повторная запись того же ключа не должна перезаписывать содержимое")
+    void put_SameKeyTwice_ShouldKeepFirstContent() throws IOException {
+        // Given
+        store.put("abc123", new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        // When
+        String reference = store.put("abc123", new ByteArrayInputStream(new byte[]{9, 9, 9}));
+
+        // Then
+        try (InputStream in = store.open(reference)) {
+            assertThat(in.readAllBytes()).isEqualTo(new byte[]{1, 2, 3});
+        }
+    }
+
+    @Test
+    @DisplayName("Удаление должно убирать содержимое и игнорировать отсутствующие ключи")
+    void delete_ShouldRemoveContent() throws IOException {
+        // Given
+        String reference = store.put("abc123", new ByteArrayInputStream(new byte[]{1}));
+
+        // When
+        store.delete(reference);
+        store.delete("missing");
+
+        // Then
+        assertThat(store.exists(reference)).isFalse();
+        assertThatThrownBy(() -> store.open(reference)).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    @DisplayName("Ключи с символами пути должны отклоняться")
+    void put_InvalidKey_ShouldThrowException() {
+        assertThatThrownBy(() -> store.put("../etc/passwd", new ByteArrayInputStream(new byte[0])))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Сохранение из файла должно переносить файл в хранилище")
+    void putFile_ShouldMoveSourceIntoStore(@TempDir Path spoolDir) throws IOException {
+        // Given
+        Path source = Files.write(spoolDir.resolve("upload.spool"), new byte[]{7, 8, 9});
+
+        // When
+        String reference = store.putFile("def456", source);
+
+        // Then
+        assertThat(source).doesNotExist();
+        try (InputStream in = store.open(reference)) {
+            assertThat(in.readAllBytes()).isEqualTo(new byte[]{7, 8, 9});
+        }
+    }
+
+    @Test
+    @DisplayName("Локальный путь должен указывать на файл содержимого и отсутствовать для неизвестной ссылки")
+    void localPath_ShouldPointToStoredContent() throws IOException {
+        // Given
+        String reference = store.put("ghi789", new ByteArrayInputStream(new byte[]{4, 5}));
+
+        // When / Then
+        assertThat(Files.readAllBytes(store.localPath(reference).orElseThrow())).isEqualTo(new byte[]{4, 5});
+        assertThat(store.localPath("missing")).isEmpty();
+    }
+}
@@ -0,0 +1,85 @@
+package trace;
+
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class StageTraceTest {
+
+    @Test
+    @DisplayName("Двоичное представление должно восстанавливаться без потерь")
+    void toBytes_ShouldRoundTrip() {
+        // Given
+        StageTrace trace = new StageTrace()
+                .mark(Stage.UPLOAD_RECEIVED, 1_000L)
+                .mark(Stage.ENQUEUED, 2_500L)
+                .mark(Stage.PARSE_FINISHED, 9_000L);
+
+        // When
+        byte[] bytes = trace.toBytes();
+        StageTrace restored = StageTrace.fromBytes(bytes);
+
+        // Then
+        assertThat(bytes).hasSize(2 + 3 * 9);
+        assertThat(restored).isEqualTo(trace);
+        assertThat(restored.get(Stage.ENQUEUED)).hasValue(2_500L);
+        assertThat(restored.get(Stage.CONSUMED)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Копия не должна меняться при последующих отметках оригинала")
+    void copy_ShouldBeIndependent() {
+        // Given
+        StageTrace trace = StageTrace.start(Stage.UPLOAD_RECEIVED);
+
+        // When
+        StageTrace copy = trace.copy();
+        trace.mark(Stage.ENQUEUED);
+
+        // Then
+        assertThat(copy.get(Stage.ENQUEUED)).isEmpty();
+        assertThat(copy.get(Stage.UPLOAD_RECEIVED)).isEqualTo(trace.get(Stage.UPLOAD_RECEIVED));
+    }
+
+    @Test
+    @DisplayName("Отмеченные этапы должны выдаваться в порядке выполнения")
+    void toMap_ShouldKeepStageOrder() {
+        // Given
+        StageTrace trace = new StageTrace()
+                .mark(Stage.STATUS_PERSISTED, 30L)
+                .mark(Stage.UPLOAD_RECEIVED, 10L);
+
+        // When
+        Map<Stage, Long> stages = trace.toMap();
+
+        // Then
+        assertThat(stages).containsExactly(
+                entry(Stage.UPLOAD_RECEIVED, 10L), entry(Stage.STATUS_PERSISTED, 30L));
+        assertThat(StageTrace.fromMap(stages)).isEqualTo(trace);
+    }
+
+    @Test
+    @DisplayName("Неизвестный формат и обрезанные данные должны отклоняться")
+    void fromBytes_InvalidData_ShouldThrow() {
+        byte[] truncated = new StageTrace().mark(Stage.CONSUMED, 5L).toBytes();
+
+        assertThatThrownBy(() -> StageTrace.fromBytes(new byte[]{9, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StageTrace.fromBytes(Arrays.copyOf(truncated, 5)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Текущее время должно выдаваться в микросекундах")
+    void nowMicros_ShouldUseMicroseconds() {
+        long millis = System.currentTimeMillis();
+
+        assertThat(StageTrace.nowMicros() / 1_000).isBetween(millis - 1_000, millis + 1_000);
+    }
+}
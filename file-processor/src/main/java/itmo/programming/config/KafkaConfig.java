@@ -1,15 +1,20 @@
 package itmo.programming.config;
 
+import itmo.programming.kafka.BinaryEventDeserializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,8 +27,22 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${spring.kafka.listener.concurrency:1}")
+    private int concurrency;
+
+    @Value("${spring.kafka.listener.poll-timeout:5s}")
+    private Duration pollTimeout;
+
+    @Value("${spring.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${spring.kafka.consumer.max-poll-interval:5m}")
+    private Duration maxPollInterval;
+
     /**
-     * Фабрика потребителей Kafka
+     * Фабрика потребителей Kafka.
+     * События читаются из двоичного формата, записи в JSON от предыдущих версий - по заголовку типа.
+     * Трасса этапов обработки восстанавливается из заголовков записи.
      */
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
@@ -31,21 +50,34 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "file-processor-group");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BinaryEventDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, (int) maxPollInterval.toMillis());
 
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
     /**
-     * Фабрика контейнеров слушателей Kafka
+     * Фабрика контейнеров слушателей Kafka.
+     * Количество потребителей задается {@code spring.kafka.listener.concurrency} и имеет смысл
+     * не больше числа партиций топика.
+     * При {@code spring.threads.virtual.enabled=true} на Java 21+ потребители работают в виртуальных потоках.
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            Environment environment) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setPollTimeout(pollTimeout.toMillis());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("file-processor-listener-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
         return factory;
     }
 }
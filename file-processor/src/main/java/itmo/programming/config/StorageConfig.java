@@ -0,0 +1,62 @@
+package itmo.programming.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import itmo.programming.chunk.ChunkAssembler;
+import itmo.programming.storage.BlobStore;
+import itmo.programming.storage.LocalFileBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Конфигурация хранилища содержимого файлов.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Value("${app.storage.root:${java.io.tmpdir}/firestarter-storage}")
+    private String storageRoot;
+
+    @Value("${app.storage.reassembly.spool-dir:${java.io.tmpdir}/firestarter-chunks}")
+    private String reassemblySpoolDir;
+
+    @Value("${app.storage.reassembly.max-memory:64MB}")
+    private DataSize reassemblyMaxMemory;
+
+    @Value("${app.storage.reassembly.max-pending:32}")
+    private int reassemblyMaxPending;
+
+    @Value("${app.storage.reassembly.ttl:5m}")
+    private Duration reassemblyTtl;
+
+    /**
+     * Хранилище содержимого файлов, полученных на обработку.
+     */
+    @Bean
+    public BlobStore blobStore() throws IOException {
+        return new LocalFileBlobStore(Path.of(storageRoot));
+    }
+
+    /**
+     * Сборка содержимого файлов, переданного частями через Kafka.
+     * Объем частей в памяти и количество сборок публикуются как {@code chunk.reassembly.memory}
+     * и {@code chunk.reassembly.pending}.
+     */
+    @Bean
+    public ChunkAssembler chunkAssembler(MeterRegistry meterRegistry) throws IOException {
+        ChunkAssembler assembler = new ChunkAssembler(Path.of(reassemblySpoolDir),
+                reassemblyMaxMemory.toBytes(), reassemblyMaxPending, reassemblyTtl);
+        Gauge.builder("chunk.reassembly.memory", assembler, ChunkAssembler::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("chunk.reassembly.pending", assembler, ChunkAssembler::pendingCount)
+                .register(meterRegistry);
+        return assembler;
+    }
+}
@@ -1,17 +1,26 @@
 package itmo.programming.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import itmo.programming.common.Status;
 import itmo.programming.exception.FileValidationException;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Сервис для валидации содержимого Excel файлов.
  * Проверяет, что на первом листе заполнены первые 3 колонки в первых 2 строках.
+ * Файл читается потоково (SAX для .xlsx, HSSFEventFactory для .xls),
+ * чтение прекращается сразу после проверяемой области.
+ * Содержимое вне памяти читается из файла: POI, открывая книгу из потока, буферизует ее целиком,
+ * поэтому поток неизвестного размера сначала копируется во временный файл.
+ * Время проверки пишется в таймер {@code excel.validation} с тегами статуса результата и формата.
  */
 @Service
 public class ExcelValidationService {
@@ -19,6 +28,17 @@ public class ExcelValidationService {
     private static final int REQUIRED_ROWS = 2;
     private static final int REQUIRED_COLUMNS = 3;
 
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param meterRegistry реестр метрик
+     */
+    public ExcelValidationService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Валидация содержимого Excel файла.
      * Проверяет, что на первом листе заполнены первые 3 колонки в первых 2 строках
@@ -27,33 +47,101 @@ public class ExcelValidationService {
      * @param fileName имя файла для определения формата
      */
     public void validateExcelContent(byte[] fileContent, String fileName) {
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(fileContent);
-             Workbook workbook = createWorkbook(bis, fileName)) {
+        validate(fileName, sample -> readFirstSheet(new ByteArrayInputStream(fileContent), fileName, sample));
+    }
+
+    /**
+     * Валидация содержимого Excel файла, читаемого из потока.
+     * Поток копируется во временный файл, который удаляется после проверки.
+     *
+     * @param inputStream поток с содержимым файла
+     * @param fileName имя файла для определения формата
+     */
+    public void validateExcelStream(InputStream inputStream, String fileName) {
+        validate(fileName, sample -> {
+            Path file = Files.createTempFile("excel-validation-", null);
+            try {
+                Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+                readFirstSheet(file, fileName, sample);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        });
+    }
 
-            Sheet sheet = workbook.getSheetAt(0);
+    /**
+     * Валидация содержимого Excel файла, лежащего в локальной файловой системе.
+     *
+     * @param file файл с содержимым
+     * @param fileName имя файла для определения формата
+     */
+    public void validateExcelFile(Path file, String fileName) {
+        validate(fileName, sample -> readFirstSheet(file, fileName, sample));
+    }
 
-            if (sheet == null) {
-                throw new FileValidationException("Excel file does not contain any sheets");
+    private void validate(String fileName, SheetSource source) {
+        Timer.Sample timer = Timer.start(meterRegistry);
+        Status outcome = Status.SECONDARY_VALIDATION_ERROR;
+        try {
+            SheetSample sample = new SheetSample(REQUIRED_ROWS, REQUIRED_COLUMNS);
+            try {
+                source.read(sample);
+            } catch (IOException e) {
+                throw new FileValidationException("Error reading Excel file: " + e.getMessage(), e);
             }
 
-            validateSheetStructure(sheet);
+            validateSheetStructure(sample);
+            outcome = Status.SECONDARY_VALIDATION_SUCCESS;
+        } catch (FileValidationException e) {
+            outcome = Status.SECONDARY_VALIDATION_FAILED;
+            throw e;
+        } finally {
+            timer.stop(meterRegistry.timer("excel.validation",
+                    "status", outcome.name(),
+                    "format", formatOf(fileName)));
+        }
+    }
+
+    /**
+     * Формат файла для тега метрики; неизвестные расширения объединяются, чтобы не плодить серии.
+     */
+    private static String formatOf(String fileName) {
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(".xlsx")) {
+            return "xlsx";
+        }
+        return lower.endsWith(".xls") ? "xls" : "other";
+    }
 
-        } catch (IOException e) {
-            throw new FileValidationException("Error reading Excel file: " + e.getMessage(), e);
+    /**
+     * Чтение проверяемой области первого листа в зависимости от формата файла.
+     *
+     * @param inputStream поток с содержимым файла
+     * @param fileName имя файла для определения формата
+     * @param sample выборка для заполнения
+     */
+    private void readFirstSheet(InputStream inputStream, String fileName, SheetSample sample) throws IOException {
+        if (fileName.toLowerCase().endsWith(".xlsx")) {
+            XlsxSheetReader.read(inputStream, sample);
+        } else if (fileName.toLowerCase().endsWith(".xls")) {
+            XlsSheetReader.read(inputStream, sample);
+        } else {
+            throw new FileValidationException("Unsupported file format: " + fileName);
         }
     }
 
     /**
-     * Создание Workbook в зависимости от формата файла.
+     * Чтение проверяемой области первого листа из файла в зависимости от формата файла.
      *
-     * @param bis поток с содержимым файла
+     * @param file файл с содержимым
      * @param fileName имя файла для определения формата
+     * @param sample выборка для заполнения
      */
-    private Workbook createWorkbook(ByteArrayInputStream bis, String fileName) throws IOException {
+    private void readFirstSheet(Path file, String fileName, SheetSample sample) throws IOException {
         if (fileName.toLowerCase().endsWith(".xlsx")) {
-            return new XSSFWorkbook(bis);
+            XlsxSheetReader.read(file, sample);
         } else if (fileName.toLowerCase().endsWith(".xls")) {
-            return new HSSFWorkbook(bis);
+            XlsSheetReader.read(file, sample);
         } else {
             throw new FileValidationException("Unsupported file format: " + fileName);
         }
@@ -62,22 +150,18 @@ public class ExcelValidationService {
     /**
      * Валидация структуры листа.
      *
-     * @param sheet лист для проверки
+     * @param sample прочитанная область листа
      */
-    private void validateSheetStructure(Sheet sheet) {
+    private void validateSheetStructure(SheetSample sample) {
         for (int rowNum = 0; rowNum < REQUIRED_ROWS; rowNum++) {
-            Row row = sheet.getRow(rowNum);
-
-            if (row == null) {
+            if (!sample.isRowPresent(rowNum)) {
                 throw new FileValidationException(
                         String.format("Row %d is empty. First %d rows must have data.",
                                 rowNum + 1, REQUIRED_ROWS));
             }
 
             for (int colNum = 0; colNum < REQUIRED_COLUMNS; colNum++) {
-                Cell cell = row.getCell(colNum);
-
-                if (cell == null || isCellEmpty(cell)) {
+                if (!sample.isFilled(rowNum, colNum)) {
                     throw new FileValidationException(
                             String.format("Cell [%d,%d] is empty. First %d columns must be filled.",
                                     rowNum + 1, colNum + 1, REQUIRED_COLUMNS));
@@ -87,17 +171,10 @@ public class ExcelValidationService {
     }
 
     /**
-     * Проверка, что ячейка пуста или содержит только пробелы.
+     * Источник содержимого для чтения проверяемой области.
      */
-    private boolean isCellEmpty(Cell cell) {
-        if (cell.getCellType() == CellType.BLANK) {
-            return true;
-        }
-
-        if (cell.getCellType() == CellType.STRING) {
-            return cell.getStringCellValue().trim().isEmpty();
-        }
-
-        return false;
+    @FunctionalInterface
+    private interface SheetSource {
+        void read(SheetSample sample) throws IOException;
     }
 }
@@ -1,15 +1,28 @@
 package itmo.programming.service;
 
+import itmo.programming.chunk.ChunkAssembler;
+import itmo.programming.chunk.FileChunk;
 import itmo.programming.common.FileEvent;
 import itmo.programming.common.Status;
 import itmo.programming.common.StatusEvent;
 import itmo.programming.exception.FileValidationException;
+import itmo.programming.storage.BlobStore;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
 /**
- * Сервис для обработки файлов, полученных из Kafka
+ * Сервис для обработки файлов, полученных из Kafka.
+ * Начало и конец разбора отмечаются в трассе события, копия трассы уходит с каждым статусом.
+ * Содержимое, переданное частями через Kafka, собирается в {@link ChunkAssembler} до прихода события файла.
+ * Содержимое в хранилище удаляется после последнего статуса попытки обработки.
  */
 @Slf4j
 @Service
@@ -18,6 +31,23 @@ public class FileProcessingService {
 
     private final ExcelValidationService excelValidationService;
     private final KafkaService kafkaService;
+    private final BlobStore blobStore;
+    private final ChunkAssembler chunkAssembler;
+
+    /**
+     * Прием части содержимого файла, переданного через Kafka.
+     * Ошибка записи части делает сборку неполной, и событие файла завершится статусом ошибки.
+     *
+     * @param chunk часть содержимого
+     */
+    public void acceptChunk(FileChunk chunk) {
+        try {
+            chunkAssembler.accept(chunk);
+        } catch (IOException e) {
+            log.error("Failed to store chunk {}/{} of {}: {}",
+                    chunk.getIndex() + 1, chunk.getCount(), chunk.getFileHash(), e.getMessage());
+        }
+    }
 
     /**
      * Обработка файла из Kafka
@@ -27,27 +57,82 @@ public class FileProcessingService {
     public void processFile(FileEvent event) {
         String fileHash = event.getFileHash();
         String fileName = event.getFileName();
+        long version = event.getVersion();
+        StageTrace trace = event.trace();
 
         log.info("Processing file: {} ({})", fileName, fileHash);
 
         try {
             // Отправляем статус "начата обработка"
-            sendStatus(fileHash, fileName, Status.SECONDARY_VALIDATION_STARTED, null);
+            sendStatus(fileHash, fileName, Status.SECONDARY_VALIDATION_STARTED, null, version, trace);
 
             // Вторичная валидация содержимого Excel
-            excelValidationService.validateExcelContent(event.getFileContent(), fileName);
+            trace.mark(Stage.PARSE_STARTED);
+            validateContent(event);
+            trace.mark(Stage.PARSE_FINISHED);
 
             // Если валидация успешна
-            sendStatus(fileHash, fileName, Status.SECONDARY_VALIDATION_SUCCESS, null);
+            sendStatus(fileHash, fileName, Status.SECONDARY_VALIDATION_SUCCESS, null, version, trace);
             log.info("File validation successful: {}", fileHash);
 
         } catch (FileValidationException e) {
-            sendStatus(fileHash, fileName, Status.SECONDARY_VALIDATION_FAILED, e.getMessage());
+            trace.mark(Stage.PARSE_FINISHED);
+            sendStatus(fileHash, fileName, Status.SECONDARY_VALIDATION_FAILED, e.getMessage(), version, trace);
             log.error("File validation failed: {} - {}", fileHash, e.getMessage());
 
         } catch (Exception e) {
-            sendStatus(fileHash, fileName, Status.SECONDARY_VALIDATION_ERROR, e.getMessage());
+            trace.mark(Stage.PARSE_FINISHED);
+            sendStatus(fileHash, fileName, Status.SECONDARY_VALIDATION_ERROR, e.getMessage(), version, trace);
             log.error("Error processing file: {} - {}", fileHash, e.getMessage());
+
+        } finally {
+            releaseContent(event);
+        }
+    }
+
+    /**
+     * Удаление содержимого из хранилища после последнего статуса попытки.
+     * Дальше содержимое никто не читает: статус повторной загрузки берется из сервиса статусов,
+     * а повторно принятый файл загрузчик снова записывает в хранилище.
+     * Собранное из частей содержимое удаляется сборщиком при чтении.
+     *
+     * @param event событие с файлом
+     */
+    private void releaseContent(FileEvent event) {
+        if (!event.hasContentRef() || FileChunk.isChunkedRef(event.getContentRef())) {
+            return;
+        }
+        try {
+            blobStore.delete(event.getContentRef());
+        } catch (IOException e) {
+            log.warn("Failed to delete stored content {}: {}", event.getContentRef(), e.getMessage());
+        }
+    }
+
+    /**
+     * Валидация содержимого файла: по ссылке из хранилища, собранного из частей или встроенного в событие.
+     * Содержимое, которое хранилище держит в локальном файле, проверяется прямо из этого файла.
+     *
+     * @param event событие с файлом
+     * @throws IOException если содержимое не удалось прочитать из хранилища или собрать из частей
+     */
+    private void validateContent(FileEvent event) throws IOException {
+        if (!event.hasContentRef()) {
+            excelValidationService.validateExcelContent(event.getFileContent(), event.getFileName());
+            return;
+        }
+
+        boolean chunked = FileChunk.isChunkedRef(event.getContentRef());
+        Optional<Path> file = chunked ? Optional.empty() : blobStore.localPath(event.getContentRef());
+        if (file.isPresent()) {
+            excelValidationService.validateExcelFile(file.get(), event.getFileName());
+            return;
+        }
+
+        try (InputStream content = chunked
+                ? chunkAssembler.open(event.getFileHash())
+                : blobStore.open(event.getContentRef())) {
+            excelValidationService.validateExcelStream(content, event.getFileName());
         }
     }
 
@@ -58,9 +143,14 @@ public class FileProcessingService {
      * @param fileName fileName
      * @param status статус обработки
      * @param errorMessage сообщение об ошибке (если есть)
+     * @param version версия попытки обработки из события файла
+     * @param trace трасса этапов обработки файла
      */
-    private void sendStatus(String fileHash, String fileName, Status status, String errorMessage) {
+    private void sendStatus(String fileHash, String fileName, Status status, String errorMessage,
+                            long version, StageTrace trace) {
         StatusEvent event = new StatusEvent(fileHash, status, fileName);
+        event.setVersion(version);
+        event.setTrace(trace.copy());
         if (errorMessage != null) {
             event.setErrorMessage(errorMessage);
         }
@@ -0,0 +1,98 @@
+package itmo.programming.service;
+
+import itmo.programming.chunk.FileChunk;
+import itmo.programming.common.FileEvent;
+import itmo.programming.concurrent.KeyOrderedExecutor;
+import itmo.programming.trace.Stage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Сервис для потребления событий файлов из Kafka с обработкой в пуле потоков.
+ * Пакет записи одного poll распределяется по пулу с упорядочиванием по хешу файла:
+ * разные файлы проверяются параллельно на всех ядрах, события одного файла - последовательно.
+ * Слушатель дожидается обработки всего пакета, поэтому смещения фиксируются только после нее.
+ * Этап {@link Stage#CONSUMED} отмечается при получении пакета, так что ожидание в очереди пула
+ * попадает в интервал до начала разбора.
+ * Части содержимого {@link FileChunk} передаются в ту же очередь пула, что и событие их файла,
+ * поэтому сборка завершается до начала проверки.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.file-consumer.worker-pool.enabled", havingValue = "true")
+public class KafkaFileBatchConsumer {
+
+    private final FileProcessingService fileProcessingService;
+    private final KeyOrderedExecutor workers;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param fileProcessingService сервис обработки файлов
+     * @param workerCount           количество потоков обработки, 0 - по числу ядер
+     */
+    public KafkaFileBatchConsumer(
+            FileProcessingService fileProcessingService,
+            @Value("${app.file-consumer.worker-pool.size:0}") int workerCount
+    ) {
+        this.fileProcessingService = fileProcessingService;
+        int size = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        this.workers = new KeyOrderedExecutor("file-worker", size);
+    }
+
+    /**
+     * Метод для прослушивания топика с файлами пакетами, по одному пакету на poll.
+     *
+     * @param records события файлов и части содержимого; записи, которые не удалось десериализовать, приходят как null
+     */
+    @KafkaListener(
+            topics = "${spring.kafka.topic.upload:upload-topic}",
+            groupId = "${spring.kafka.consumer.group-id:file-processor-group}",
+            batch = "true"
+    )
+    public void consumeFileEvents(List<?> records) {
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(records.size());
+        for (Object record : records) {
+            if (record instanceof FileChunk chunk) {
+                tasks.add(CompletableFuture.runAsync(() -> fileProcessingService.acceptChunk(chunk),
+                        task -> workers.execute(chunk.getFileHash(), task)));
+                continue;
+            }
+            if (!(record instanceof FileEvent event)) {
+                continue;
+            }
+            event.trace().mark(Stage.CONSUMED);
+            tasks.add(CompletableFuture.runAsync(() -> process(event),
+                    task -> workers.execute(event.getFileHash(), task)));
+        }
+        log.debug("Dispatched {} records to {} workers", tasks.size(), workers.laneCount());
+
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void process(FileEvent event) {
+        try {
+            log.info("Received file for processing: {}", event.getFileHash());
+            fileProcessingService.processFile(event);
+
+        } catch (Exception e) {
+            log.error("Error processing Kafka message: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Остановка пула обработчиков при завершении приложения.
+     */
+    @PreDestroy
+    public void close() {
+        workers.close();
+    }
+}
@@ -1,32 +1,42 @@
 package itmo.programming.service;
 
+import itmo.programming.chunk.FileChunk;
 import itmo.programming.common.FileEvent;
+import itmo.programming.trace.Stage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaHandler;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
 /**
  * Сервис для потребления событий файлов из Kafka.
+ * Файлы обрабатываются в потоке слушателя; пул обработчиков включается
+ * свойством {@code app.file-consumer.worker-pool.enabled}, см. {@link KafkaFileBatchConsumer}.
+ * Кроме событий файлов в топике могут быть части содержимого {@link FileChunk}, они идут перед событием своего файла.
  */
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "app.file-consumer.worker-pool.enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
+@KafkaListener(
+        topics = "${spring.kafka.topic.upload:upload-topic}",
+        groupId = "${spring.kafka.consumer.group-id:file-processor-group}"
+)
 public class KafkaFileConsumer {
 
     private final FileProcessingService fileProcessingService;
 
     /**
-     * Метод для прослушивания топика с файлами для обработки.
+     * Обработка события файла из топика загрузок.
      *
      * @param event событие файла для обработки
      */
-    @KafkaListener(
-            topics = "${spring.kafka.topic.upload:upload-topic}",
-            groupId = "${spring.kafka.consumer.group-id:file-processor-group}"
-    )
+    @KafkaHandler
     public void consumeFileEvent(FileEvent event) {
         try {
+            event.trace().mark(Stage.CONSUMED);
             log.info("Received file for processing: {}", event.getFileHash());
             fileProcessingService.processFile(event);
 
@@ -34,4 +44,15 @@ public class KafkaFileConsumer {
             log.error("Error processing Kafka message: {}", e.getMessage(), e);
         }
     }
+
+    /**
+     * Прием части содержимого файла из топика загрузок.
+     *
+     * @param chunk часть содержимого
+     */
+    @KafkaHandler
+    public void consumeFileChunk(FileChunk chunk) {
+        log.debug("Received chunk {}/{} of {}", chunk.getIndex() + 1, chunk.getCount(), chunk.getFileHash());
+        fileProcessingService.acceptChunk(chunk);
+    }
 }
@@ -1,19 +1,29 @@
 package itmo.programming.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import itmo.programming.common.StatusEvent;
+import itmo.programming.publisher.StatusEventPublisher;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Сервис для отправки событий в Kafka.
+ * Время до подтверждения записи брокером пишется в таймер {@code kafka.status.send} с тегом статуса.
  */
 @Slf4j
 @Service
 public class KafkaService {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final StatusEventPublisher statusPublisher;
 
     @Value("${spring.kafka.topic.status:status-topic}")
     private String statusTopic;
@@ -22,24 +32,77 @@ public class KafkaService {
      * Конструктор сервиса.
      *
      * @param kafkaTemplate шаблон Kafka для отправки сообщений
+     * @param meterRegistry реестр метрик
      */
-    public KafkaService(KafkaTemplate<String, Object> kafkaTemplate) {
+    public KafkaService(KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.statusPublisher = new StatusEventPublisher(this::sendStatusRecord);
     }
 
+    /**
+     * Установка окна объединения событий статуса одного файла.
+     *
+     * @param coalesceWindow окно объединения, 0 — отправка без задержки
+     */
+    @Value("${app.status-publisher.coalesce-window:0ms}")
+    public void setStatusCoalesceWindow(Duration coalesceWindow) {
+        statusPublisher.setCoalesceWindow(coalesceWindow);
+    }
 
     /**
-     * Отправка события статуса в Kafka.
+     * Отправка события статуса в Kafka без ожидания подтверждения.
      *
      * @param event событие статуса
      */
     public void sendStatusEvent(StatusEvent event) {
+        publishStatusEvent(event);
+    }
+
+    /**
+     * Публикация события статуса в Kafka.
+     * Переходы одного файла в пределах окна объединения отправляются одной записью.
+     *
+     * @param event событие статуса
+     * @return future, завершающийся после подтверждения записи брокером
+     */
+    public CompletableFuture<Void> publishStatusEvent(StatusEvent event) {
         try {
-            kafkaTemplate.send(statusTopic, event.getFileHash(), event);
-            log.info("Sent status event: " + event.getFileHash() + " - " + event.getStatus());
+            return statusPublisher.publish(event).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    log.error("Failed to deliver status event {} - {}: {}",
+                            event.getFileHash(), event.getStatus(), error.getMessage());
+                }
+            });
         } catch (Exception e) {
             log.error("Failed to send status event: {}", e.getMessage(), e);
             throw new RuntimeException("Kafka communication error", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Отправка накопленных событий статуса при остановке приложения.
+     */
+    @PreDestroy
+    public void flushStatusEvents() {
+        statusPublisher.close();
+    }
+
+    private CompletableFuture<?> sendStatusRecord(StatusEvent event) {
+        log.debug("Sent status event: {} - {}", event.getFileHash(), event.getStatus());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return kafkaTemplate.send(statusTopic, event.getFileHash(), event)
+                    .whenComplete((result, error) -> sample.stop(statusSendTimer(event, error)));
+        } catch (RuntimeException e) {
+            sample.stop(statusSendTimer(event, e));
+            throw e;
+        }
+    }
+
+    private Timer statusSendTimer(StatusEvent event, Throwable error) {
+        return meterRegistry.timer("kafka.status.send",
+                "status", event.getStatus().name(),
+                "result", error == null ? "success" : "failure");
+    }
+}
@@ -0,0 +1,159 @@
+package itmo.programming.service;
+
+import java.util.Arrays;
+
+/**
+ * Выборка проверяемой области первого листа: первые строки и колонки.
+ * Заполняется потоковыми парсерами и хранит только то, что нужно для валидации.
+ */
+final class SheetSample {
+
+    /**
+     * Признак отсутствия ссылки на общую строку.
+     */
+    private static final int NO_SHARED_STRING = -1;
+
+    private final int rows;
+    private final int columns;
+    private final boolean[] rowPresent;
+    private final boolean[][] filled;
+    private final int[][] sharedStringIndex;
+
+    /**
+     * Конструктор выборки.
+     *
+     * @param rows    количество проверяемых строк
+     * @param columns количество проверяемых колонок
+     */
+    SheetSample(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowPresent = new boolean[rows];
+        this.filled = new boolean[rows][columns];
+        this.sharedStringIndex = new int[rows][columns];
+        for (int[] row : sharedStringIndex) {
+            Arrays.fill(row, NO_SHARED_STRING);
+        }
+    }
+
+    /**
+     * Проверяет, попадает ли строка в проверяемую область.
+     */
+    boolean containsRow(int rowNum) {
+        return rowNum >= 0 && rowNum < rows;
+    }
+
+    /**
+     * Проверяет, попадает ли ячейка в проверяемую область.
+     */
+    boolean contains(int rowNum, int colNum) {
+        return containsRow(rowNum) && colNum >= 0 && colNum < columns;
+    }
+
+    /**
+     * Отмечает, что строка присутствует на листе.
+     */
+    void markRow(int rowNum) {
+        if (containsRow(rowNum)) {
+            rowPresent[rowNum] = true;
+        }
+    }
+
+    /**
+     * Отмечает значение ячейки: заполнена она или нет.
+     */
+    void markCell(int rowNum, int colNum, boolean cellFilled) {
+        markRow(rowNum);
+        if (contains(rowNum, colNum)) {
+            filled[rowNum][colNum] = cellFilled;
+            sharedStringIndex[rowNum][colNum] = NO_SHARED_STRING;
+        }
+    }
+
+    /**
+     * Отмечает ячейку со ссылкой на таблицу общих строк.
+     * Заполненность определяется позже, в {@link #resolveSharedString(int, String)}.
+     */
+    void markSharedString(int rowNum, int colNum, int index) {
+        markRow(rowNum);
+        if (contains(rowNum, colNum)) {
+            filled[rowNum][colNum] = false;
+            sharedStringIndex[rowNum][colNum] = index;
+        }
+    }
+
+    /**
+     * Максимальный индекс общей строки, на который ссылается выборка,
+     * или -1, если таких ссылок нет.
+     */
+    int maxSharedStringIndex() {
+        int max = NO_SHARED_STRING;
+        for (int[] row : sharedStringIndex) {
+            for (int index : row) {
+                max = Math.max(max, index);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Проверяет, нужна ли общая строка с указанным индексом.
+     */
+    boolean needsSharedString(int index) {
+        for (int[] row : sharedStringIndex) {
+            for (int value : row) {
+                if (value == index) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Подставляет текст общей строки во все ячейки, которые на нее ссылаются.
+     *
+     * @param index индекс общей строки
+     * @param text  текст общей строки
+     */
+    void resolveSharedString(int index, String text) {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (sharedStringIndex[r][c] == index) {
+                    filled[r][c] = isFilledText(text);
+                    sharedStringIndex[r][c] = NO_SHARED_STRING;
+                }
+            }
+        }
+    }
+
+    /**
+     * Проверяет, заполнена ли вся проверяемая область.
+     * Если да, дальнейшее чтение листа не нужно.
+     */
+    boolean isComplete() {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (!filled[r][c] && sharedStringIndex[r][c] == NO_SHARED_STRING) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    boolean isRowPresent(int rowNum) {
+        return rowPresent[rowNum];
+    }
+
+    boolean isFilled(int rowNum, int colNum) {
+        return filled[rowNum][colNum];
+    }
+
+    /**
+     * Строковое значение считается заполненным, если содержит не только пробелы.
+     */
+    static boolean isFilledText(String text) {
+        return text != null && !text.trim().isEmpty();
+    }
+}
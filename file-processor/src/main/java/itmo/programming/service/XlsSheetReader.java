@@ -0,0 +1,151 @@
+package itmo.programming.service;
+
+import itmo.programming.exception.FileValidationException;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Потоковое чтение первого листа .xls файла через HSSFEventFactory без построения HSSFWorkbook.
+ * Обработка записей прерывается, как только пройдена проверяемая область первого листа.
+ */
+final class XlsSheetReader {
+
+    private static final short CONTINUE = 0;
+    private static final short STOP = 1;
+
+    private XlsSheetReader() {
+    }
+
+    /**
+     * Заполнение выборки по первому листу книги.
+     *
+     * @param inputStream поток с содержимым .xls файла
+     * @param sample      выборка для заполнения
+     */
+    static void read(InputStream inputStream, SheetSample sample) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(inputStream)) {
+            read(fs, sample);
+        }
+    }
+
+    /**
+     * Заполнение выборки по первому листу книги из файла: файловая система POIFS читает блоки с диска,
+     * а не буферизует файл целиком.
+     *
+     * @param file   файл .xls
+     * @param sample выборка для заполнения
+     */
+    static void read(Path file, SheetSample sample) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file.toFile(), true)) {
+            read(fs, sample);
+        }
+    }
+
+    private static void read(POIFSFileSystem fs, SheetSample sample) throws IOException {
+        try {
+            FirstSheetListener listener = new FirstSheetListener(sample);
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(listener);
+
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+
+            if (!listener.sheetFound) {
+                throw new FileValidationException("Excel file does not contain any sheets");
+            }
+        } catch (HSSFUserException e) {
+            throw new FileValidationException("Error reading Excel file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Слушатель записей: запоминает таблицу общих строк и отмечает ячейки первого листа.
+     */
+    private static final class FirstSheetListener extends AbortableHSSFListener {
+
+        private final SheetSample sample;
+
+        private SSTRecord sst;
+        private boolean sheetFound;
+
+        FirstSheetListener(SheetSample sample) {
+            this.sample = sample;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            if (record instanceof BOFRecord bof) {
+                if (bof.getType() == BOFRecord.TYPE_WORKSHEET) {
+                    sheetFound = true;
+                }
+                return CONTINUE;
+            }
+            if (record instanceof SSTRecord sstRecord) {
+                sst = sstRecord;
+                return CONTINUE;
+            }
+            if (!sheetFound) {
+                return CONTINUE;
+            }
+            if (record instanceof EOFRecord) {
+                return STOP;
+            }
+            if (record instanceof RowRecord row) {
+                sample.markRow(row.getRowNumber());
+                return CONTINUE;
+            }
+            if (record instanceof MulBlankRecord mulBlank) {
+                return processCellRow(mulBlank.getRow(), () -> sample.markRow(mulBlank.getRow()));
+            }
+            if (record instanceof CellValueRecordInterface cell) {
+                return processCellRow(cell.getRow(),
+                        () -> sample.markCell(cell.getRow(), cell.getColumn(), isFilled(cell)));
+            }
+            return CONTINUE;
+        }
+
+        /**
+         * Ячейки внутри блока строк идут по возрастанию номера строки,
+         * поэтому первая ячейка за пределами области означает конец проверки.
+         */
+        private short processCellRow(int rowNum, Runnable action) {
+            if (!sample.containsRow(rowNum)) {
+                return STOP;
+            }
+            action.run();
+            return sample.isComplete() ? STOP : CONTINUE;
+        }
+
+        /**
+         * Определение заполненности ячейки по типу записи, как это делает HSSFCell.
+         */
+        private boolean isFilled(CellValueRecordInterface cell) {
+            if (cell instanceof BlankRecord) {
+                return false;
+            }
+            if (cell instanceof LabelSSTRecord label) {
+                return sst != null && SheetSample.isFilledText(sst.getString(label.getSSTIndex()).getString());
+            }
+            if (cell instanceof LabelRecord label) {
+                return SheetSample.isFilledText(label.getValue());
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package itmo.programming.service;
+
+import itmo.programming.exception.FileValidationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Потоковое чтение первого листа .xlsx файла через SAX без построения XSSFWorkbook.
+ * Лист читается только до конца проверяемой области, из таблицы общих строк
+ * разбираются только те строки, на которые ссылаются проверяемые ячейки.
+ * Пакет, открытый из потока, целиком распаковывается в память, поэтому содержимое, уже лежащее в файле,
+ * открывается по пути: части архива тогда читаются с диска по мере обращения к ним.
+ */
+final class XlsxSheetReader {
+
+    private XlsxSheetReader() {
+    }
+
+    /**
+     * Заполнение выборки по первому листу книги, содержимое которой уже находится в памяти.
+     *
+     * @param inputStream поток с содержимым .xlsx файла
+     * @param sample      выборка для заполнения
+     */
+    static void read(InputStream inputStream, SheetSample sample) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(inputStream)) {
+            read(pkg, sample);
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new FileValidationException("Error reading Excel file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Заполнение выборки по первому листу книги из файла без распаковки архива в память.
+     *
+     * @param file   файл .xlsx
+     * @param sample выборка для заполнения
+     */
+    static void read(Path file, SheetSample sample) throws IOException {
+        try {
+            OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+            try {
+                read(pkg, sample);
+            } finally {
+                // Пакет только для чтения закрывается без сохранения
+                pkg.revert();
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new FileValidationException("Error reading Excel file: " + e.getMessage(), e);
+        }
+    }
+
+    private static void read(OPCPackage pkg, SheetSample sample)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        XSSFReader reader = new XSSFReader(pkg);
+
+        Iterator<InputStream> sheets = reader.getSheetsData();
+        if (!sheets.hasNext()) {
+            throw new FileValidationException("Excel file does not contain any sheets");
+        }
+
+        try (InputStream sheet = sheets.next()) {
+            parse(sheet, new SheetHandler(sample));
+        }
+
+        if (sample.maxSharedStringIndex() >= 0) {
+            readSharedStrings(pkg, sample);
+        }
+    }
+
+    /**
+     * Разбор таблицы общих строк до максимального нужного индекса.
+     */
+    private static void readSharedStrings(OPCPackage pkg, SheetSample sample)
+            throws IOException, SAXException, ParserConfigurationException {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty()) {
+            return;
+        }
+        try (InputStream strings = parts.get(0).getInputStream()) {
+            parse(strings, new SharedStringsHandler(sample));
+        }
+    }
+
+    /**
+     * SAX-разбор с возможностью досрочной остановки.
+     */
+    private static void parse(InputStream xml, DefaultHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(handler);
+        try {
+            parser.parse(new InputSource(xml));
+        } catch (StopParsingException ignored) {
+            // Все нужные данные уже прочитаны
+        }
+    }
+
+    /**
+     * Сигнал досрочного завершения разбора.
+     */
+    private static final class StopParsingException extends SAXException {
+        StopParsingException() {
+            super("Required cells have been read");
+        }
+    }
+
+    /**
+     * Обработчик XML листа: отмечает строки и ячейки проверяемой области.
+     */
+    private static final class SheetHandler extends DefaultHandler {
+
+        private final SheetSample sample;
+
+        private int rowNum = -1;
+        private int colNum = -1;
+        private String cellType;
+        private boolean hasFormula;
+        private boolean inValue;
+        private boolean inInlineText;
+        private final StringBuilder text = new StringBuilder();
+        private boolean hasText;
+
+        SheetHandler(SheetSample sample) {
+            this.sample = sample;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            switch (localName) {
+                case "row" -> {
+                    String r = attributes.getValue("r");
+                    rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    colNum = -1;
+                    if (!sample.containsRow(rowNum)) {
+                        throw new StopParsingException();
+                    }
+                    sample.markRow(rowNum);
+                }
+                case "c" -> {
+                    String ref = attributes.getValue("r");
+                    colNum = ref != null ? new CellReference(ref).getCol() : colNum + 1;
+                    cellType = attributes.getValue("t");
+                    hasFormula = false;
+                    hasText = false;
+                    text.setLength(0);
+                }
+                case "f" -> hasFormula = true;
+                case "v" -> {
+                    inValue = true;
+                    hasText = true;
+                }
+                case "t" -> {
+                    if ("inlineStr".equals(cellType)) {
+                        inInlineText = true;
+                        hasText = true;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue || inInlineText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v" -> inValue = false;
+                case "t" -> inInlineText = false;
+                case "c" -> {
+                    finishCell();
+                    if (sample.isComplete()) {
+                        throw new StopParsingException();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        /**
+         * Определение заполненности ячейки по ее типу, как это делает XSSFCell.
+         */
+        private void finishCell() {
+            if (!sample.contains(rowNum, colNum)) {
+                return;
+            }
+            if (hasFormula) {
+                sample.markCell(rowNum, colNum, true);
+            } else if (!hasText) {
+                sample.markCell(rowNum, colNum, false);
+            } else if ("s".equals(cellType)) {
+                if (text.toString().isBlank()) {
+                    sample.markCell(rowNum, colNum, false);
+                    return;
+                }
+                sample.markSharedString(rowNum, colNum, Integer.parseInt(text.toString().trim()));
+            } else if ("inlineStr".equals(cellType) || "str".equals(cellType)) {
+                sample.markCell(rowNum, colNum, SheetSample.isFilledText(text.toString()));
+            } else {
+                sample.markCell(rowNum, colNum, true);
+            }
+        }
+    }
+
+    /**
+     * Обработчик таблицы общих строк: собирает текст только нужных элементов.
+     * Фонетические подсказки (rPh) не входят в значение строки.
+     */
+    private static final class SharedStringsHandler extends DefaultHandler {
+
+        private final SheetSample sample;
+        private final int maxIndex;
+
+        private int index = -1;
+        private boolean inText;
+        private boolean inPhonetic;
+        private final StringBuilder text = new StringBuilder();
+
+        SharedStringsHandler(SheetSample sample) {
+            this.sample = sample;
+            this.maxIndex = sample.maxSharedStringIndex();
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "si" -> {
+                    index++;
+                    text.setLength(0);
+                }
+                case "rPh" -> inPhonetic = true;
+                case "t" -> inText = !inPhonetic;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "t" -> inText = false;
+                case "rPh" -> inPhonetic = false;
+                case "si" -> {
+                    if (sample.needsSharedString(index)) {
+                        sample.resolveSharedString(index, text.toString());
+                    }
+                    if (index >= maxIndex) {
+                        throw new StopParsingException();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+}
@@ -1,22 +1,37 @@
 package service;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.exception.FileValidationException;
 import itmo.programming.service.ExcelValidationService;
 import org.apache.poi.EmptyFileException;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 class ExcelValidationServiceTest {
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ExcelValidationService validationService;
 
@@ -55,4 +70,121 @@ class ExcelValidationServiceTest {
         assertThrows(EmptyFileException.class, () ->
                 validationService.validateExcelContent(emptyContent, "test.xlsx"));
     }
+
+    private byte[] writeWorkbook(Workbook workbook, String[][] values) throws IOException {
+        try (workbook; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            var sheet = workbook.createSheet("Sheet1");
+            for (int r = 0; r < values.length; r++) {
+                if (values[r] == null) {
+                    continue;
+                }
+                var row = sheet.createRow(r);
+                for (int c = 0; c < values[r].length; c++) {
+                    if (values[r][c] != null) {
+                        row.createCell(c).setCellValue(values[r][c]);
+                    }
+                }
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    void shouldValidateValidXlsContent() throws Exception {
+        byte[] excelContent = writeWorkbook(new HSSFWorkbook(),
+                new String[][]{{"A1", "B1", "C1"}, {"A2", "B2", "C2"}});
+
+        assertDoesNotThrow(() ->
+                validationService.validateExcelContent(excelContent, "test.xls"));
+    }
+
+    @Test
+    void shouldReportEmptyCellInXlsx() throws Exception {
+        byte[] excelContent = writeWorkbook(new XSSFWorkbook(),
+                new String[][]{{"A1", "B1", "C1"}, {"A2", "   ", "C2"}});
+
+        FileValidationException exception = assertThrows(FileValidationException.class, () ->
+                validationService.validateExcelContent(excelContent, "test.xlsx"));
+        assertEquals("Cell [2,2] is empty. First 3 columns must be filled.", exception.getMessage());
+    }
+
+    @Test
+    void shouldReportMissingRowInXls() throws Exception {
+        byte[] excelContent = writeWorkbook(new HSSFWorkbook(),
+                new String[][]{{"A1", "B1", "C1"}, null, {"A3", "B3", "C3"}});
+
+        FileValidationException exception = assertThrows(FileValidationException.class, () ->
+                validationService.validateExcelContent(excelContent, "test.xls"));
+        assertEquals("Row 2 is empty. First 2 rows must have data.", exception.getMessage());
+    }
+
+    @Test
+    void shouldReportMissingCellInXls() throws Exception {
+        byte[] excelContent = writeWorkbook(new HSSFWorkbook(),
+                new String[][]{{"A1", null, "C1"}, {"A2", "B2", "C2"}});
+
+        FileValidationException exception = assertThrows(FileValidationException.class, () ->
+                validationService.validateExcelContent(excelContent, "test.xls"));
+        assertEquals("Cell [1,2] is empty. First 3 columns must be filled.", exception.getMessage());
+    }
+
+    @Test
+    void shouldValidateLargeStreamedXlsx() throws Exception {
+        String[][] values = new String[5000][];
+        for (int r = 0; r < values.length; r++) {
+            values[r] = new String[]{"A" + r, "B" + r, "C" + r, "D" + r};
+        }
+        byte[] excelContent = writeWorkbook(new SXSSFWorkbook(), values);
+
+        assertDoesNotThrow(() -> validationService.validateExcelStream(
+                new ByteArrayInputStream(excelContent), "large.xlsx"));
+    }
+
+    @Test
+    void shouldValidateExcelFilesFromDisk(@TempDir Path dir) throws Exception {
+        Path xlsx = Files.write(dir.resolve("valid.xlsx"), createValidExcelFile());
+        Path xls = Files.write(dir.resolve("invalid.xls"),
+                writeWorkbook(new HSSFWorkbook(), new String[][]{{"A1", "B1", "C1"}}));
+
+        assertDoesNotThrow(() -> validationService.validateExcelFile(xlsx, "valid.xlsx"));
+        FileValidationException exception = assertThrows(FileValidationException.class, () ->
+                validationService.validateExcelFile(xls, "invalid.xls"));
+        assertEquals("Row 2 is empty. First 2 rows must have data.", exception.getMessage());
+        assertTrue(Files.exists(xlsx));
+    }
+
+    @Test
+    void shouldRejectCorruptXlsxFile(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve("corrupt.xlsx"), new byte[]{1, 2, 3});
+
+        assertThrows(NotOfficeXmlFileException.class, () -> validationService.validateExcelFile(file, "corrupt.xlsx"));
+        assertEquals(1, meterRegistry.get("excel.validation")
+                .tags("status", "SECONDARY_VALIDATION_ERROR", "format", "xlsx").timer().count());
+    }
+
+    @Test
+    void shouldRejectUnsupportedFormat() {
+        assertThrows(FileValidationException.class, () ->
+                validationService.validateExcelContent(new byte[]{1, 2, 3}, "test.csv"));
+    }
+
+    @Test
+    void shouldRecordValidationTimerByStatusAndFormat() throws Exception {
+        byte[] valid = createValidExcelFile();
+        byte[] invalid = writeWorkbook(new HSSFWorkbook(), new String[][]{{"A1", null, "C1"}});
+
+        validationService.validateExcelContent(valid, "test.xlsx");
+        assertThrows(FileValidationException.class, () ->
+                validationService.validateExcelContent(invalid, "test.xls"));
+        assertThrows(EmptyFileException.class, () ->
+                validationService.validateExcelContent(new byte[0], "test.xlsx"));
+
+        assertEquals(1, meterRegistry.get("excel.validation")
+                .tags("status", "SECONDARY_VALIDATION_SUCCESS", "format", "xlsx").timer().count());
+        assertEquals(1, meterRegistry.get("excel.validation")
+                .tags("status", "SECONDARY_VALIDATION_FAILED", "format", "xls").timer().count());
+        assertEquals(1, meterRegistry.get("excel.validation")
+                .tags("status", "SECONDARY_VALIDATION_ERROR", "format", "xlsx").timer().count());
+    }
 }
@@ -1,6 +1,8 @@
 package service;
 
 
+import itmo.programming.chunk.ChunkAssembler;
+import itmo.programming.chunk.FileChunk;
 import itmo.programming.common.FileEvent;
 import itmo.programming.common.Status;
 import itmo.programming.common.StatusEvent;
@@ -8,13 +10,24 @@ import itmo.programming.exception.FileValidationException;
 import itmo.programming.service.ExcelValidationService;
 import itmo.programming.service.FileProcessingService;
 import itmo.programming.service.KafkaService;
+import itmo.programming.storage.BlobStore;
+import itmo.programming.storage.LocalFileBlobStore;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -29,6 +42,12 @@ class FileProcessingServiceTest {
     @Mock
     private KafkaService kafkaService;
 
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private ChunkAssembler chunkAssembler;
+
     @InjectMocks
     private FileProcessingService fileProcessingService;
 
@@ -147,4 +166,147 @@ class FileProcessingServiceTest {
         // Then
         verify(kafkaService, times(2)).sendStatusEvent(any(StatusEvent.class));
     }
+
+    @Test
+    @DisplayName("Должен читать содержимое из хранилища по ссылке")
+    void shouldValidateContentFromBlobStore() throws Exception {
+        // Given
+        FileEvent fileEvent = new FileEvent("hash123", "test.xlsx", "hash123", 3L, "application/vnd.ms-excel");
+        InputStream content = new ByteArrayInputStream(new byte[]{1, 2, 3});
+        when(blobStore.open("hash123")).thenReturn(content);
+
+        // When
+        fileProcessingService.processFile(fileEvent);
+
+        // Then
+        verify(excelValidationService).validateExcelStream(content, "test.xlsx");
+        verify(excelValidationService, never()).validateExcelContent(any(byte[].class), anyString());
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus().equals(Status.SECONDARY_VALIDATION_SUCCESS)));
+    }
+
+    @Test
+    @DisplayName("Должен проверять содержимое прямо из файла хранилища, если он доступен локально")
+    void shouldValidateContentFromLocalBlobFile() throws Exception {
+        // Given
+        FileEvent fileEvent = new FileEvent("hash123", "test.xlsx", "hash123", 3L, "application/vnd.ms-excel");
+        Path file = Path.of("storage", "ha", "hash123");
+        when(blobStore.localPath("hash123")).thenReturn(Optional.of(file));
+
+        // When
+        fileProcessingService.processFile(fileEvent);
+
+        // Then
+        verify(excelValidationService).validateExcelFile(file, "test.xlsx");
+        verify(blobStore, never()).open(anyString());
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus().equals(Status.SECONDARY_VALIDATION_SUCCESS)));
+    }
+
+    @Test
+    @DisplayName("Должен отправить статус ошибки, если содержимое отсутствует в хранилище")
+    void shouldSendErrorStatusWhenContentIsMissing() throws Exception {
+        // Given
+        FileEvent fileEvent = new FileEvent("hash123", "test.xlsx", "hash123", 3L, "application/vnd.ms-excel");
+        when(blobStore.open("hash123")).thenThrow(new NoSuchFileException("hash123"));
+
+        // When
+        fileProcessingService.processFile(fileEvent);
+
+        // Then
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus().equals(Status.SECONDARY_VALIDATION_ERROR)));
+    }
+
+    @Test
+    @DisplayName("Должен читать содержимое, собранное из частей, по ссылке на части")
+    void shouldValidateContentAssembledFromChunks() throws Exception {
+        // Given
+        FileEvent fileEvent = new FileEvent("hash123", "test.xlsx", FileChunk.contentRef("hash123"), 3L,
+                "application/vnd.ms-excel");
+        InputStream content = new ByteArrayInputStream(new byte[]{1, 2, 3});
+        when(chunkAssembler.open("hash123")).thenReturn(content);
+
+        // When
+        fileProcessingService.processFile(fileEvent);
+
+        // Then
+        verify(excelValidationService).validateExcelStream(content, "test.xlsx");
+        verifyNoInteractions(blobStore);
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus().equals(Status.SECONDARY_VALIDATION_SUCCESS)));
+    }
+
+    @Test
+    @DisplayName("Должен передавать части содержимого в сборщик")
+    void shouldPassChunksToAssembler() throws Exception {
+        // Given
+        FileChunk chunk = new FileChunk("hash123", 0, 1, 3L, new byte[]{1, 2, 3});
+
+        // When
+        fileProcessingService.acceptChunk(chunk);
+
+        // Then
+        verify(chunkAssembler).accept(chunk);
+    }
+
+    @Test
+    @DisplayName("Статусы должны нести копию трассы события с отметками разбора")
+    void shouldAttachTraceWithParseStagesToStatuses() {
+        // Given
+        FileEvent fileEvent = new FileEvent("hash123", "test.xlsx", new byte[]{1, 2, 3});
+        fileEvent.setTrace(new StageTrace().mark(Stage.UPLOAD_RECEIVED, 1_000L).mark(Stage.CONSUMED, 2_000L));
+
+        // When
+        fileProcessingService.processFile(fileEvent);
+
+        // Then
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus() == Status.SECONDARY_VALIDATION_STARTED
+                        && event.getTrace().get(Stage.CONSUMED).getAsLong() == 2_000L
+                        && event.getTrace().get(Stage.PARSE_STARTED).isEmpty()));
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus() == Status.SECONDARY_VALIDATION_SUCCESS
+                        && event.getTrace().get(Stage.UPLOAD_RECEIVED).getAsLong() == 1_000L
+                        && event.getTrace().get(Stage.PARSE_STARTED).isPresent()
+                        && event.getTrace().get(Stage.PARSE_FINISHED).isPresent()));
+    }
+
+    @Test
+    @DisplayName("Содержимое должно удаляться из хранилища после успешной проверки")
+    void shouldDeleteStoredContentAfterSuccess(@TempDir Path root) throws Exception {
+        // Given
+        BlobStore store = new LocalFileBlobStore(root);
+        String ref = store.put("hash123", new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        FileProcessingService service =
+                new FileProcessingService(excelValidationService, kafkaService, store, chunkAssembler);
+
+        // When
+        service.processFile(new FileEvent("hash123", "test.xlsx", ref, 3L, "application/vnd.ms-excel"));
+
+        // Then
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus().equals(Status.SECONDARY_VALIDATION_SUCCESS)));
+        assertFalse(store.exists(ref));
+    }
+
+    @Test
+    @DisplayName("Содержимое должно удаляться из хранилища после неудачной проверки")
+    void shouldDeleteStoredContentAfterValidationFailure(@TempDir Path root) throws Exception {
+        // Given
+        BlobStore store = new LocalFileBlobStore(root);
+        String ref = store.put("hash123", new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        FileProcessingService service =
+                new FileProcessingService(excelValidationService, kafkaService, store, chunkAssembler);
+        doThrow(new FileValidationException("Неверное содержимое"))
+                .when(excelValidationService).validateExcelFile(any(Path.class), anyString());
+
+        // When
+        service.processFile(new FileEvent("hash123", "test.xlsx", ref, 3L, "application/vnd.ms-excel"));
+
+        // Then
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus().equals(Status.SECONDARY_VALIDATION_FAILED)));
+        assertFalse(store.exists(ref));
+    }
 }
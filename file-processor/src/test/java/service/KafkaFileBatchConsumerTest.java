@@ -0,0 +1,127 @@
+package service;
+
+import itmo.programming.chunk.FileChunk;
+import itmo.programming.common.FileEvent;
+import itmo.programming.service.FileProcessingService;
+import itmo.programming.service.KafkaFileBatchConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaFileBatchConsumerTest {
+
+    @Mock
+    private FileProcessingService fileProcessingService;
+
+    private KafkaFileBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new KafkaFileBatchConsumer(fileProcessingService, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.close();
+    }
+
+    @Test
+    @DisplayName("Пакет должен быть полностью обработан до возврата из слушателя")
+    void shouldProcessWholeBatchBeforeReturning() {
+        // Given
+        FileEvent first = new FileEvent("hash1", "a.xlsx", new byte[]{1});
+        FileEvent second = new FileEvent("hash2", "b.xlsx", new byte[]{2});
+
+        // When
+        consumer.consumeFileEvents(Arrays.asList(first, null, second));
+
+        // Then
+        verify(fileProcessingService).processFile(first);
+        verify(fileProcessingService).processFile(second);
+        verifyNoMoreInteractions(fileProcessingService);
+    }
+
+    @Test
+    @DisplayName("События одного файла должны обрабатываться по порядку, разные файлы - в разных потоках")
+    void shouldKeepOrderPerFileHash() {
+        // Given
+        List<FileEvent> events = new ArrayList<>();
+        for (int version = 0; version < 20; version++) {
+            for (String hash : List.of("hash1", "hash2", "hash3")) {
+                FileEvent event = new FileEvent(hash, hash + ".xlsx", new byte[]{1});
+                event.setVersion(version);
+                events.add(event);
+            }
+        }
+        List<FileEvent> processed = Collections.synchronizedList(new ArrayList<>());
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            processed.add(invocation.getArgument(0));
+            threads.add(Thread.currentThread().getName());
+            return null;
+        }).when(fileProcessingService).processFile(any());
+
+        // When
+        consumer.consumeFileEvents(events);
+
+        // Then
+        assertEquals(events.size(), processed.size());
+        for (String hash : List.of("hash1", "hash2", "hash3")) {
+            List<Long> versions = processed.stream()
+                    .filter(event -> event.getFileHash().equals(hash))
+                    .map(FileEvent::getVersion)
+                    .toList();
+            assertEquals(versions.stream().sorted().toList(), versions);
+        }
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("file-worker")));
+    }
+
+    @Test
+    @DisplayName("Ошибка обработки одного файла не должна прерывать пакет")
+    void shouldHandleExceptionGracefully() {
+        // Given
+        FileEvent failing = new FileEvent("hash1", "a.xlsx", new byte[]{1});
+        FileEvent next = new FileEvent("hash2", "b.xlsx", new byte[]{2});
+        doThrow(new RuntimeException("Test exception")).when(fileProcessingService).processFile(failing);
+
+        // When + Then
+        assertDoesNotThrow(() -> consumer.consumeFileEvents(List.of(failing, next)));
+
+        // And
+        verify(fileProcessingService).processFile(next);
+    }
+
+    @Test
+    @DisplayName("Части содержимого должны передаваться в сборку до обработки события их файла")
+    void shouldApplyChunksBeforeFileEvent() {
+        // Given
+        FileChunk chunk = new FileChunk("hash1", 0, 1, 1L, new byte[]{1});
+        FileEvent event = new FileEvent("hash1", "a.xlsx", FileChunk.contentRef("hash1"), 1L, null);
+
+        // When
+        consumer.consumeFileEvents(List.of(chunk, event));
+
+        // Then
+        var order = inOrder(fileProcessingService);
+        order.verify(fileProcessingService).acceptChunk(chunk);
+        order.verify(fileProcessingService).processFile(event);
+    }
+}
@@ -1,8 +1,10 @@
 package service;
 
+import itmo.programming.chunk.FileChunk;
 import itmo.programming.common.FileEvent;
 import itmo.programming.service.FileProcessingService;
 import itmo.programming.service.KafkaFileConsumer;
+import itmo.programming.trace.Stage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,5 +51,30 @@ class KafkaFileConsumerTest {
         // And
         verify(fileProcessingService, atLeastOnce()).processFile(event);
     }
-}
 
+    @Test
+    @DisplayName("Consumer должен отмечать в трассе получение события")
+    void shouldMarkConsumedStage() {
+        // Given
+        FileEvent event = new FileEvent("fileHash123", "test.xlsx", new byte[]{1, 2, 3});
+
+        // When
+        consumer.consumeFileEvent(event);
+
+        // Then
+        assertTrue(event.getTrace().get(Stage.CONSUMED).isPresent());
+    }
+
+    @Test
+    @DisplayName("Consumer должен передавать части содержимого в FileProcessingService")
+    void shouldPassChunksToFileProcessingService() {
+        // Given
+        FileChunk chunk = new FileChunk("fileHash123", 0, 1, 3L, new byte[]{1, 2, 3});
+
+        // When
+        consumer.consumeFileChunk(chunk);
+
+        // Then
+        verify(fileProcessingService).acceptChunk(chunk);
+    }
+}
@@ -0,0 +1,38 @@
+package itmo.programming.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+
+/**
+ * Конфигурация обработки ошибок Kafka listener-ов.
+ * Пакет статусов, который не удалось записать (например, при недоступности MongoDB), повторяется
+ * с экспоненциальной задержкой, а смещения не фиксируются, пока пакет не записан.
+ * Записи пропускаются с записью в лог только после исчерпания времени повторов.
+ */
+@Configuration
+public class KafkaErrorHandlingConfig {
+
+    /**
+     * Обработчик ошибок, который Spring Boot подключает к фабрике контейнеров listener-ов.
+     *
+     * @param initialInterval задержка перед первым повтором
+     * @param maxInterval     максимальная задержка между повторами
+     * @param maxElapsedTime  общее время повторов, после которого записи пропускаются
+     * @return обработчик ошибок
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(
+            @Value("${app.status-consumer.retry.initial-interval:1s}") Duration initialInterval,
+            @Value("${app.status-consumer.retry.max-interval:30s}") Duration maxInterval,
+            @Value("${app.status-consumer.retry.max-elapsed-time:10m}") Duration maxElapsedTime) {
+        ExponentialBackOff backOff = new ExponentialBackOff(initialInterval.toMillis(), 2.0);
+        backOff.setMaxInterval(maxInterval.toMillis());
+        backOff.setMaxElapsedTime(maxElapsedTime.toMillis());
+        return new DefaultErrorHandler(backOff);
+    }
+}
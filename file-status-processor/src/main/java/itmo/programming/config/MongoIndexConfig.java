@@ -0,0 +1,46 @@
+package itmo.programming.config;
+
+import itmo.programming.model.FileStatus;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+/**
+ * Конфигурация индексов MongoDB.
+ * Индексы, объявленные аннотациями на {@link FileStatus}, создаются явно при старте,
+ * независимо от настройки {@code spring.data.mongodb.auto-index-creation}.
+ * Индексы создаются при инициализации бина, то есть до запуска Kafka listener-ов:
+ * отбрасывание устаревших событий опирается на уникальный индекс по {@code fileHash},
+ * поэтому без него приложение не стартует.
+ */
+@Slf4j
+@Configuration
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Конструктор конфигурации.
+     *
+     * @param mongoTemplate шаблон MongoDB
+     */
+    public MongoIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Создание индексов коллекции статусов, если их еще нет.
+     * Ошибка создания индекса прерывает запуск приложения.
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(FileStatus.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(FileStatus.class)
+                .forEach(indexOps::ensureIndex);
+        log.info("Ensured indexes for collection {}", mongoTemplate.getCollectionName(FileStatus.class));
+    }
+}
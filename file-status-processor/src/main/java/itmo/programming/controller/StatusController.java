@@ -1,10 +1,20 @@
 package itmo.programming.controller;
 
 
-import itmo.programming.model.FileStatus;
-import itmo.programming.repository.FileStatusRepository;
+import itmo.programming.common.Status;
+import itmo.programming.model.StageLatency;
+import itmo.programming.model.StatusPage;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.service.StageLatencyRecorder;
+import itmo.programming.service.StatusQueryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Рест контроллер для обработки статусов.
@@ -13,15 +23,30 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/status")
 public class StatusController {
 
-    private final FileStatusRepository repository;
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final StatusQueryService queryService;
+    private final StageLatencyRecorder latencyRecorder;
 
     /**
      * Конструктор контроллера.
      *
-     * @param repository Репозиторий для работы с FileStatus.
+     * @param queryService    Сервис чтения статусов.
+     * @param latencyRecorder Сборщик задержек этапов конвейера.
+     */
+    public StatusController(StatusQueryService queryService, StageLatencyRecorder latencyRecorder) {
+        this.queryService = queryService;
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    /**
+     * Получение задержек этапов конвейера по файлам, дошедшим до итогового статуса.
+     *
+     * @return Сводки по этапам в порядке их выполнения и полное время.
      */
-    public StatusController(FileStatusRepository repository) {
-        this.repository = repository;
+    @GetMapping("/stages")
+    public List<StageLatency> getStageLatencies() {
+        return latencyRecorder.summary();
     }
 
     /**
@@ -32,18 +57,52 @@ public class StatusController {
      */
     @GetMapping("/{fileHash}")
     public ResponseEntity<?> getFileStatus(@PathVariable String fileHash) {
-        return repository.findByFileHash(fileHash)
+        return queryService.findByFileHash(fileHash)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Получение всех статусов файлов.
+     * Получение страницы статусов файлов, от последних обновленных.
      *
-     * @return ResponseEntity с Iterable всех FileStatus.
+     * @param status Фильтр по статусу.
+     * @param from   Нижняя граница времени обновления, включительно.
+     * @param to     Верхняя граница времени обновления, не включительно.
+     * @param cursor Курсор следующей страницы из предыдущего ответа.
+     * @param limit  Размер страницы.
+     * @return ResponseEntity со страницей статусов или 400, если курсор поврежден.
      */
     @GetMapping
-    public ResponseEntity<Iterable<FileStatus>> getAllStatuses() {
-        return ResponseEntity.ok(repository.findAll());
+    public ResponseEntity<?> getStatuses(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            StatusPage page = queryService.findPage(status, from, to, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("INVALID_CURSOR", e.getMessage()));
+        }
+    }
+
+    /**
+     * Потоковая выдача всех статусов в формате NDJSON, по одному документу в строке.
+     *
+     * @param status Фильтр по статусу.
+     * @param from   Нижняя граница времени обновления, включительно.
+     * @param to     Верхняя граница времени обновления, не включительно.
+     * @return ResponseEntity с телом, которое пишется по мере чтения курсора MongoDB.
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamStatuses(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = output -> queryService.streamAll(status, from, to, output);
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(body);
     }
-}
\ No newline at end of file
+}
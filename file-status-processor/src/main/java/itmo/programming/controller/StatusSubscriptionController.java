@@ -0,0 +1,172 @@
+package itmo.programming.controller;
+
+import itmo.programming.model.FileStatus;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.service.StatusQueryService;
+import itmo.programming.service.StatusSubscriptionRegistry;
+import itmo.programming.service.StatusSubscriptionRegistry.Subscription;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Рест контроллер для ожидания изменений статуса: long-poll и поток SSE.
+ * Ответы формируются асинхронно по уведомлениям {@link StatusSubscriptionRegistry},
+ * ожидающий запрос не занимает поток сервера.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/status")
+public class StatusSubscriptionController {
+
+    private static final String WAIT_FOR_TERMINAL = "terminal";
+
+    private final StatusQueryService queryService;
+    private final StatusSubscriptionRegistry registry;
+    private final Duration maxTimeout;
+
+    /**
+     * Конструктор контроллера.
+     *
+     * @param queryService Сервис чтения статусов.
+     * @param registry     Реестр подписок на изменения статусов.
+     * @param maxTimeout   Максимальное время ожидания одного запроса.
+     */
+    public StatusSubscriptionController(
+            StatusQueryService queryService,
+            StatusSubscriptionRegistry registry,
+            @Value("${app.status-subscriptions.max-timeout:5m}") Duration maxTimeout
+    ) {
+        this.queryService = queryService;
+        this.registry = registry;
+        this.maxTimeout = maxTimeout;
+    }
+
+    /**
+     * Ожидание завершения обработки файла (long-poll).
+     * Ответ приходит, как только статус файла становится последним для попытки обработки,
+     * либо по истечении таймаута с текущим статусом.
+     *
+     * @param fileHash Хеш файла.
+     * @param waitFor  Условие ожидания, поддерживается только {@code terminal}.
+     * @param timeout  Время ожидания в секундах.
+     * @return Отложенный ответ с FileStatus, 404 если файл неизвестен к концу ожидания, 400 для неизвестного условия.
+     */
+    @GetMapping(value = "/{fileHash}", params = "waitFor")
+    public DeferredResult<ResponseEntity<?>> awaitFileStatus(
+            @PathVariable String fileHash,
+            @RequestParam String waitFor,
+            @RequestParam(defaultValue = "30") long timeout) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(clampTimeout(timeout).toMillis());
+        if (!WAIT_FOR_TERMINAL.equals(waitFor)) {
+            result.setResult(ResponseEntity.badRequest()
+                    .body(new ErrorResponse("INVALID_WAIT_CONDITION", "Unsupported waitFor: " + waitFor)));
+            return result;
+        }
+
+        // Подписка оформляется до чтения текущего статуса, чтобы не пропустить переход между ними
+        Subscription subscription = registry.subscribe(fileHash, status -> {
+            if (status.getStatus().isFinal()) {
+                result.setResult(ResponseEntity.ok(status));
+                return false;
+            }
+            return !result.isSetOrExpired();
+        });
+        result.onCompletion(subscription::close);
+        result.onTimeout(() -> result.setResult(currentStatus(fileHash)));
+
+        queryService.findByFileHash(fileHash)
+                .filter(status -> status.getStatus().isFinal())
+                .ifPresent(status -> result.setResult(ResponseEntity.ok(status)));
+        return result;
+    }
+
+    /**
+     * Поток изменений статуса файла в формате Server-Sent Events.
+     * Первым событием отправляется текущий статус, если он есть, затем каждый примененный переход.
+     * Поток закрывается после последнего статуса попытки обработки или по таймауту.
+     *
+     * @param fileHash Хеш файла.
+     * @param timeout  Время жизни потока в секундах.
+     * @return Поток событий {@code status} с FileStatus в поле data.
+     */
+    @GetMapping(value = "/{fileHash}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFileStatus(
+            @PathVariable String fileHash,
+            @RequestParam(defaultValue = "300") long timeout) {
+        SseEmitter emitter = new SseEmitter(clampTimeout(timeout).toMillis());
+        StatusEventStream stream = new StatusEventStream(emitter);
+
+        Subscription subscription = registry.subscribe(fileHash, stream::onStatus);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscription.close());
+
+        queryService.findByFileHash(fileHash).ifPresent(status -> {
+            if (!stream.onStatus(status)) {
+                subscription.close();
+            }
+        });
+        return emitter;
+    }
+
+    private ResponseEntity<?> currentStatus(String fileHash) {
+        Optional<FileStatus> current = queryService.findByFileHash(fileHash);
+        return current.<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private Duration clampTimeout(long seconds) {
+        Duration requested = Duration.ofSeconds(Math.max(1, seconds));
+        return requested.compareTo(maxTimeout) > 0 ? maxTimeout : requested;
+    }
+
+    /**
+     * Отправка статусов в SSE-поток без повторов: текущий статус и уведомление о нем могут прийти дважды.
+     */
+    private static final class StatusEventStream {
+
+        private final SseEmitter emitter;
+        private FileStatus lastSent;
+        private boolean closed;
+
+        StatusEventStream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized boolean onStatus(FileStatus status) {
+            if (closed) {
+                return false;
+            }
+            if (lastSent != null && lastSent.getVersion() == status.getVersion()
+                    && lastSent.getStatus() == status.getStatus()) {
+                return true;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("status")
+                        .data(status, MediaType.APPLICATION_JSON));
+                lastSent = status;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("SSE client for {} disconnected: {}", status.getFileHash(), e.getMessage());
+                closed = true;
+                emitter.completeWithError(e);
+                return false;
+            }
+            if (status.getStatus().isFinal()) {
+                closed = true;
+                emitter.complete();
+                return false;
+            }
+            return true;
+        }
+    }
+}
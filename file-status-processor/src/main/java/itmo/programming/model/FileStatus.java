@@ -3,29 +3,42 @@ package itmo.programming.model;
 
 import java.time.LocalDateTime;
 import itmo.programming.common.Status;
+import itmo.programming.trace.Stage;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.Map;
+
 /**
  * Класс, представляющий статус файла в базе данных MongoDB.
+ * Хеш файла является уникальным ключом: на один файл приходится ровно один документ.
+ * Составные индексы обслуживают постраничный список по (updatedAt, id), в том числе с фильтром по статусу.
+ * Поле {@code trace} хранит время этапов обработки последнего примененного события в микросекундах от эпохи.
  */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "file_statuses")
+@CompoundIndex(name = "updatedAt_id", def = "{'updatedAt': -1, '_id': -1}")
+@CompoundIndex(name = "status_updatedAt_id", def = "{'status': 1, 'updatedAt': -1, '_id': -1}")
 public class FileStatus {
 
     @Id
     private String id;
+    @Indexed(unique = true)
     private String fileHash;
     private Status status;
     private String fileName;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String errorMessage;
+    private long version;
+    private Map<Stage, Long> trace;
 
     /**
      * Конструктор, инициализирующий основные поля и устанавливающий createdAt и updatedAt текущим временем.
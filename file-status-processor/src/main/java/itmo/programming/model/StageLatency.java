@@ -0,0 +1,22 @@
+package itmo.programming.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Сводка задержки одного этапа конвейера, время в миллисекундах.
+ * Этап {@code TOTAL} означает полное время от приема загрузки до записи итогового статуса.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StageLatency {
+    private String stage;
+    private long count;
+    private double meanMs;
+    private double maxMs;
+    private Map<String, Double> percentilesMs;
+}
@@ -0,0 +1,19 @@
+package itmo.programming.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница списка статусов файлов.
+ * Для получения следующей страницы в запрос передается {@code nextCursor}; null означает последнюю страницу.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatusPage {
+    private List<FileStatus> items;
+    private String nextCursor;
+}
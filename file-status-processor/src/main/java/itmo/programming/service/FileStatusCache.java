@@ -0,0 +1,138 @@
+package itmo.programming.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import itmo.programming.cache.ExpiringLruCache;
+import itmo.programming.model.FileStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Кэш статусов файлов по хешу перед репозиторием.
+ * Запись обновляется при каждом изменении статуса в {@link StatusProcessingService},
+ * время жизни ограничивает устаревание при обновлениях из других экземпляров сервиса.
+ * Пакетная запись не возвращает документы и только удаляет записи, поэтому каждая запись и удаление
+ * увеличивают счетчик изменений ключа: читатель запоминает его до чтения из базы и сохраняет прочитанный
+ * документ, только если ключ с тех пор не менялся. Счетчики разбиты на полосы по хешу ключа,
+ * поэтому их количество не зависит от числа файлов.
+ * Счетчики кэша публикуются в actuator как метрики {@code cache.*} с тегом {@code cache=fileStatus}.
+ */
+@Component
+public class FileStatusCache {
+
+    private static final String CACHE_NAME = "fileStatus";
+    private static final int STAMP_STRIPES = 64;
+
+    private final ExpiringLruCache<String, FileStatus> cache;
+    private final long[] stamps = new long[STAMP_STRIPES];
+    private final Object[] stampLocks = new Object[STAMP_STRIPES];
+
+    /**
+     * Конструктор кэша.
+     *
+     * @param maxEntries    максимальное количество статусов в кэше
+     * @param ttl           время жизни статуса в кэше
+     * @param meterRegistry реестр метрик
+     */
+    public FileStatusCache(
+            @Value("${app.status-cache.max-entries:10000}") int maxEntries,
+            @Value("${app.status-cache.ttl:30s}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = new ExpiringLruCache<>(maxEntries, ttl);
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            stampLocks[i] = new Object();
+        }
+        registerMetrics(meterRegistry);
+    }
+
+    /**
+     * Получение статуса из кэша.
+     *
+     * @param fileHash хеш файла
+     * @return статус или пустой Optional при промахе
+     */
+    public Optional<FileStatus> get(String fileHash) {
+        return Optional.ofNullable(cache.get(fileHash));
+    }
+
+    /**
+     * Счетчик изменений ключа, который читатель запоминает перед чтением статуса из базы.
+     *
+     * @param fileHash хеш файла
+     * @return текущее значение счетчика
+     */
+    public long stamp(String fileHash) {
+        int stripe = stripe(fileHash);
+        synchronized (stampLocks[stripe]) {
+            return stamps[stripe];
+        }
+    }
+
+    /**
+     * Сохранение статуса после его изменения.
+     *
+     * @param fileStatus актуальный документ статуса
+     */
+    public void put(FileStatus fileStatus) {
+        int stripe = stripe(fileStatus.getFileHash());
+        synchronized (stampLocks[stripe]) {
+            stamps[stripe]++;
+            cache.put(fileStatus.getFileHash(), fileStatus);
+        }
+    }
+
+    /**
+     * Сохранение статуса, прочитанного из базы, если его еще не обновила или не удалила запись.
+     *
+     * @param fileStatus прочитанный документ статуса
+     * @param stamp      счетчик изменений, полученный через {@link #stamp(String)} до чтения
+     * @return true, если статус сохранен
+     */
+    public boolean putIfAbsent(FileStatus fileStatus, long stamp) {
+        int stripe = stripe(fileStatus.getFileHash());
+        synchronized (stampLocks[stripe]) {
+            return stamps[stripe] == stamp && cache.putIfAbsent(fileStatus.getFileHash(), fileStatus);
+        }
+    }
+
+    /**
+     * Удаление статуса из кэша.
+     *
+     * @param fileHash хеш файла
+     */
+    public void invalidate(String fileHash) {
+        int stripe = stripe(fileHash);
+        synchronized (stampLocks[stripe]) {
+            stamps[stripe]++;
+            cache.invalidate(fileHash);
+        }
+    }
+
+    private static int stripe(String fileHash) {
+        return Math.floorMod(fileHash.hashCode(), STAMP_STRIPES);
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", cache, ExpiringLruCache::hitCount)
+                .tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Попадания в кэш статусов")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringLruCache::missCount)
+                .tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Промахи кэша статусов")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, ExpiringLruCache::evictionCount)
+                .tag("cache", CACHE_NAME)
+                .description("Вытеснения и истечения записей кэша статусов")
+                .register(registry);
+        Gauge.builder("cache.size", cache, ExpiringLruCache::size)
+                .tag("cache", CACHE_NAME)
+                .description("Количество записей в кэше статусов")
+                .register(registry);
+    }
+}
@@ -0,0 +1,53 @@
+package itmo.programming.service;
+
+import itmo.programming.common.StatusEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Сервис для пакетного потребления событий статусов из Kafka.
+ * Включается свойством {@code app.status-consumer.batch-enabled} вместо {@link KafkaStatusConsumer}.
+ * Ошибка записи пакета не перехватывается: пакет повторяет обработчик ошибок контейнера
+ * ({@link itmo.programming.config.KafkaErrorHandlingConfig}), поэтому смещения не фиксируются до записи статусов.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.status-consumer.batch-enabled", havingValue = "true")
+public class KafkaStatusBatchConsumer {
+
+    private final StatusProcessingService statusService;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param statusService сервис для обработки статусов
+     */
+    public KafkaStatusBatchConsumer(StatusProcessingService statusService) {
+        this.statusService = statusService;
+    }
+
+    /**
+     * Метод для прослушивания топика со статусами файлов пакетами, по одному пакету на poll.
+     *
+     * @param events события статусов; записи, которые не удалось десериализовать, приходят как null
+     * @throws RuntimeException если пакет не удалось записать; пакет будет повторен
+     */
+    @KafkaListener(
+            topics = "${spring.kafka.topic.status:status-topic}",
+            groupId = "${spring.kafka.consumer.group-id:file-status-processor-group}",
+            batch = "true"
+    )
+    public void consumeStatusEvents(List<StatusEvent> events) {
+        List<StatusEvent> valid = events.stream()
+                .filter(Objects::nonNull)
+                .toList();
+        log.debug("Received status batch: {} events", valid.size());
+
+        statusService.processStatusBatch(valid);
+    }
+}
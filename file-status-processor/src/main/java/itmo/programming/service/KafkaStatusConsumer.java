@@ -3,6 +3,7 @@ package itmo.programming.service;
 
 import itmo.programming.common.StatusEvent;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
  */
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "app.status-consumer.batch-enabled", havingValue = "false", matchIfMissing = true)
 public class KafkaStatusConsumer {
 
     private final StatusProcessingService statusService;
@@ -41,7 +43,9 @@ public class KafkaStatusConsumer {
                     event.getStatus(),
                     event.getFileHash(),
                     event.getFileName(),
-                    event.getErrorMessage()
+                    event.getErrorMessage(),
+                    event.getVersion(),
+                    event.getTrace()
             );
 
         } catch (Exception e) {
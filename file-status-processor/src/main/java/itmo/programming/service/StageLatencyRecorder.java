@@ -0,0 +1,123 @@
+package itmo.programming.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import itmo.programming.common.Status;
+import itmo.programming.model.StageLatency;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сбор задержек между этапами конвейера по трассам файлов, дошедших до итогового статуса.
+ * Интервал этапа отсчитывается от предыдущего отмеченного этапа и пишется в таймер
+ * {@code pipeline.stage} с тегом конечного этапа, полное время - в таймер {@code pipeline.total}.
+ * Отметки ставят разные сервисы по своим часам, поэтому отрицательные интервалы из-за расхождения
+ * часов не записываются.
+ */
+@Component
+public class StageLatencyRecorder {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99, 0.999};
+    private static final String TOTAL = "TOTAL";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> stageTimers = new LinkedHashMap<>();
+    private final Timer totalTimer;
+
+    /**
+     * Конструктор компонента.
+     *
+     * @param meterRegistry реестр метрик
+     */
+    public StageLatencyRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            if (stage.ordinal() > 0) {
+                stageTimers.put(stage, timer("pipeline.stage").tag("stage", stage.name()).register(meterRegistry));
+            }
+        }
+        this.totalTimer = timer("pipeline.total").register(meterRegistry);
+    }
+
+    /**
+     * Запись интервалов трассы, если статус итоговый.
+     *
+     * @param status примененный статус файла
+     * @param trace  трасса этапов, может отсутствовать у событий старых версий сервисов
+     */
+    public void record(Status status, StageTrace trace) {
+        if (trace == null || status == null || !status.isFinal()) {
+            return;
+        }
+        Stage[] stages = Stage.values();
+        OptionalLong previous = trace.get(stages[0]);
+        for (int i = 1; i < stages.length; i++) {
+            OptionalLong current = trace.get(stages[i]);
+            if (current.isEmpty()) {
+                continue;
+            }
+            if (previous.isPresent()) {
+                recordInterval(stageTimers.get(stages[i]), previous.getAsLong(), current.getAsLong());
+            }
+            previous = current;
+        }
+        OptionalLong first = trace.get(Stage.UPLOAD_RECEIVED);
+        OptionalLong last = trace.get(Stage.STATUS_PERSISTED);
+        if (first.isPresent() && last.isPresent()) {
+            recordInterval(totalTimer, first.getAsLong(), last.getAsLong());
+        }
+    }
+
+    /**
+     * Сводка задержек по этапам и полного времени за скользящее окно таймеров.
+     *
+     * @return сводки в порядке этапов, последняя - полное время
+     */
+    public List<StageLatency> summary() {
+        List<StageLatency> result = new ArrayList<>(stageTimers.size() + 1);
+        stageTimers.forEach((stage, timer) -> result.add(toLatency(stage.name(), timer)));
+        result.add(toLatency(TOTAL, totalTimer));
+        return result;
+    }
+
+    private Timer.Builder timer(String name) {
+        return Timer.builder(name)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram();
+    }
+
+    private static void recordInterval(Timer timer, long fromMicros, long toMicros) {
+        long micros = toMicros - fromMicros;
+        if (micros >= 0) {
+            timer.record(micros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private static StageLatency toLatency(String stage, Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            percentiles.put("p" + formatPercentile(value.percentile()), value.value(TimeUnit.MILLISECONDS));
+        }
+        return new StageLatency(stage, snapshot.count(),
+                snapshot.mean(TimeUnit.MILLISECONDS), snapshot.max(TimeUnit.MILLISECONDS), percentiles);
+    }
+
+    /**
+     * Имя перцентиля без точки: 0.5 - 50, 0.999 - 99.9.
+     */
+    private static String formatPercentile(double percentile) {
+        return BigDecimal.valueOf(percentile).movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+}
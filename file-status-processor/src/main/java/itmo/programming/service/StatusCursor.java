@@ -0,0 +1,48 @@
+package itmo.programming.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в списке статусов, отсортированном по убыванию updatedAt и id.
+ * Передается клиенту в виде непрозрачной строки.
+ *
+ * @param updatedAt время обновления последнего документа страницы
+ * @param id        идентификатор последнего документа страницы
+ */
+record StatusCursor(LocalDateTime updatedAt, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Кодирование позиции в строку для передачи клиенту.
+     *
+     * @return курсор в формате base64url
+     */
+    String encode() {
+        String raw = updatedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбор курсора, полученного от клиента.
+     *
+     * @param cursor строка курсора
+     * @return позиция в списке
+     * @throws IllegalArgumentException если курсор поврежден
+     */
+    static StatusCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new StatusCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
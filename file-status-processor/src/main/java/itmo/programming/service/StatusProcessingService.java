@@ -1,48 +1,298 @@
 package itmo.programming.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
 import itmo.programming.model.FileStatus;
 import itmo.programming.repository.FileStatusRepository;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Сервис для обработки обновлений статусов файлов.
+ * Время записи в MongoDB пишется в таймеры {@code status.update} (с тегами статуса и результата)
+ * и {@code status.update.batch}, количество событий в пакетах - в счетчик {@code status.events}.
+ * Трасса этапов примененного события сохраняется в документе с отметкой {@link Stage#STATUS_PERSISTED},
+ * трассы итоговых статусов передаются в {@link StageLatencyRecorder}.
  */
 @Slf4j
 @Service
 public class StatusProcessingService {
 
+    /**
+     * Код ошибки MongoDB при нарушении уникального индекса.
+     */
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
     private final FileStatusRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final FileStatusCache statusCache;
+    private final StatusSubscriptionRegistry subscriptions;
+    private final MeterRegistry meterRegistry;
+    private final StageLatencyRecorder latencyRecorder;
 
     /**
      * Конструктор сервиса.
      *
-     * @param repository репозиторий для работы с FileStatus
+     * @param repository    репозиторий для работы с FileStatus
+     * @param mongoTemplate шаблон MongoDB для пакетных операций
+     * @param statusCache   кэш статусов, обновляемый при каждой записи
+     * @param subscriptions реестр подписок на изменения статусов
+     * @param meterRegistry реестр метрик
+     * @param latencyRecorder сборщик задержек этапов конвейера
      */
-    public StatusProcessingService(FileStatusRepository repository) {
+    public StatusProcessingService(FileStatusRepository repository, MongoTemplate mongoTemplate,
+                                   FileStatusCache statusCache, StatusSubscriptionRegistry subscriptions,
+                                   MeterRegistry meterRegistry, StageLatencyRecorder latencyRecorder) {
         this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.statusCache = statusCache;
+        this.subscriptions = subscriptions;
+        this.meterRegistry = meterRegistry;
+        this.latencyRecorder = latencyRecorder;
     }
 
     /**
      * Обработка обновления статуса файла.
+     * Выполняется одной атомарной операцией findAndModify с upsert по уникальному индексу fileHash.
+     * Условие запроса пропускает только переходы вперед (compare-and-set), поэтому устаревшее событие
+     * не находит документ, пытается вставить дубликат и отбрасывается без дополнительного чтения.
      *
      * @param status       новый статус файла
      * @param fileHash     хеш файла
      * @param fileName     имя файла
      * @param errorMessage сообщение об ошибке, если есть
+     * @param version      версия попытки обработки
+     * @return true, если статус применен, false, если событие устарело
      */
-    @Transactional
-    public void processStatusUpdate(Status status, String fileHash, String fileName, String errorMessage) {
-        FileStatus fileStatus = repository.findByFileHash(fileHash)
-                .orElse(new FileStatus(fileHash, status, fileName));
-        fileStatus.setStatus(status);
+    public boolean processStatusUpdate(Status status, String fileHash, String fileName, String errorMessage,
+                                       long version) {
+        return processStatusUpdate(status, fileHash, fileName, errorMessage, version, null);
+    }
 
-        if (errorMessage != null) {
-            fileStatus.setErrorMessage(errorMessage);
+    /**
+     * Обработка обновления статуса файла с трассой этапов обработки.
+     *
+     * @param status       новый статус файла
+     * @param fileHash     хеш файла
+     * @param fileName     имя файла
+     * @param errorMessage сообщение об ошибке, если есть
+     * @param version      версия попытки обработки
+     * @param trace        трасса этапов из события, может отсутствовать
+     * @return true, если статус применен, false, если событие устарело
+     */
+    public boolean processStatusUpdate(Status status, String fileHash, String fileName, String errorMessage,
+                                       long version, StageTrace trace) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "error";
+        try {
+            boolean applied = applyStatusUpdate(status, fileHash, fileName, errorMessage, version, trace);
+            result = applied ? "applied" : "stale";
+            return applied;
+        } finally {
+            sample.stop(meterRegistry.timer("status.update", "status", status.name(), "result", result));
         }
-        repository.save(fileStatus);
+    }
+
+    private boolean applyStatusUpdate(Status status, String fileHash, String fileName, String errorMessage,
+                                      long version, StageTrace trace) {
+        Query query = staleSafeQuery(fileHash, status, version);
+        StageTrace persisted = persistedTrace(trace);
+        Update update = statusUpdate(status, fileName, errorMessage, version, persisted, LocalDateTime.now());
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+        FileStatus updated;
+        try {
+            updated = mongoTemplate.findAndModify(query, update, options, FileStatus.class);
+        } catch (DuplicateKeyException first) {
+            // Документ уже есть: либо параллельный upsert вставил его первым, либо событие устарело.
+            // Повтор отличает эти случаи: во втором случае условие снова не совпадет.
+            try {
+                updated = mongoTemplate.findAndModify(query, update, options, FileStatus.class);
+            } catch (DuplicateKeyException stale) {
+                log.info("Dropped stale status {} (version {}) for file {}", status, version, fileHash);
+                return false;
+            }
+        }
+        if (updated != null) {
+            statusCache.put(updated);
+            subscriptions.publish(updated);
+        } else {
+            statusCache.invalidate(fileHash);
+        }
+        latencyRecorder.record(status, persisted);
         log.info("Updated status for file " + fileHash + " to " + status);
+        return true;
+    }
+
+    /**
+     * Пакетная обработка обновлений статусов.
+     * Несколько событий одного файла сводятся к самому новому, затем все файлы обновляются
+     * одной неупорядоченной bulk-операцией upsert с тем же условием, что и для одиночных событий.
+     * Операции, нарушившие уникальный индекс, повторяются по одной, чтобы отличить гонку вставки от устаревшего события.
+     *
+     * @param events события статусов в порядке получения
+     * @return количество примененных обновлений
+     */
+    public int processStatusBatch(List<StatusEvent> events) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "error";
+        try {
+            int applied = applyStatusBatch(events);
+            result = "success";
+            return applied;
+        } finally {
+            sample.stop(meterRegistry.timer("status.update.batch", "result", result));
+        }
+    }
+
+    private int applyStatusBatch(List<StatusEvent> events) {
+        for (StatusEvent event : events) {
+            if (event.getStatus() != null) {
+                meterRegistry.counter("status.events", "status", event.getStatus().name()).increment();
+            }
+        }
+        List<StatusEvent> latest = collapseByFileHash(events);
+        if (latest.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StageTrace> traces = new ArrayList<>(latest.size());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FileStatus.class);
+        for (StatusEvent event : latest) {
+            StageTrace persisted = persistedTrace(event.getTrace());
+            traces.add(persisted);
+            bulk.upsert(staleSafeQuery(event.getFileHash(), event.getStatus(), event.getVersion()),
+                    statusUpdate(event.getStatus(), event.getFileName(), event.getErrorMessage(),
+                            event.getVersion(), persisted, now));
+        }
+
+        BulkOperationException failure = null;
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            failure = e;
+        } finally {
+            latest.forEach(event -> statusCache.invalidate(event.getFileHash()));
+        }
+
+        int applied = latest.size();
+        Set<String> retried = new HashSet<>();
+        if (failure != null) {
+            for (BulkWriteError error : failure.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY_ERROR) {
+                    throw failure;
+                }
+            }
+            for (BulkWriteError error : failure.getErrors()) {
+                StatusEvent event = latest.get(error.getIndex());
+                retried.add(event.getFileHash());
+                if (!processStatusUpdate(event.getStatus(), event.getFileHash(), event.getFileName(),
+                        event.getErrorMessage(), event.getVersion(), event.getTrace())) {
+                    applied--;
+                }
+            }
+        }
+        for (int i = 0; i < latest.size(); i++) {
+            if (!retried.contains(latest.get(i).getFileHash())) {
+                latencyRecorder.record(latest.get(i).getStatus(), traces.get(i));
+            }
+        }
+
+        notifySubscribers(latest, retried);
+        log.info("Applied status batch: {} events, {} of {} files updated", events.size(), applied, latest.size());
+        return applied;
+    }
+
+    /**
+     * Уведомление подписчиков о статусах, примененных пакетом.
+     * Bulk-операция не возвращает документы, поэтому они читаются только для файлов, которые кто-то ждет.
+     * Повторенные по одной операции уже уведомили подписчиков.
+     */
+    private void notifySubscribers(List<StatusEvent> applied, Set<String> skip) {
+        for (StatusEvent event : applied) {
+            String fileHash = event.getFileHash();
+            if (!skip.contains(fileHash) && subscriptions.hasSubscribers(fileHash)) {
+                repository.findByFileHash(fileHash).ifPresent(subscriptions::publish);
+            }
+        }
+    }
+
+    /**
+     * Сведение событий к самому новому событию для каждого файла по версии и графу статусов.
+     */
+    private List<StatusEvent> collapseByFileHash(List<StatusEvent> events) {
+        Map<String, StatusEvent> latest = new LinkedHashMap<>();
+        for (StatusEvent event : events) {
+            if (event.getFileHash() != null && event.getStatus() != null) {
+                latest.merge(event.getFileHash(), event,
+                        (current, candidate) -> candidate.supersedes(current) ? candidate : current);
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * Условие compare-and-set: документ файла обновляется, только если событие относится к более поздней
+     * попытке обработки или текущий статус той же попытки является предшественником нового.
+     * Документы без версии созданы до ее появления и обновляются безусловно.
+     */
+    private static Query staleSafeQuery(String fileHash, Status status, long version) {
+        return Query.query(Criteria.where("fileHash").is(fileHash).orOperator(
+                Criteria.where("version").lt(version),
+                Criteria.where("version").is(version).and("status").in(status.predecessors()),
+                Criteria.where("version").exists(false)));
+    }
+
+    /**
+     * Трасса для записи в документ: копия трассы события с отметкой записи статуса.
+     */
+    private static StageTrace persistedTrace(StageTrace trace) {
+        return trace == null ? null : trace.copy().mark(Stage.STATUS_PERSISTED);
+    }
+
+    /**
+     * Обновление статуса: статус, сообщение об ошибке, версия, трасса и время обновления перезаписываются,
+     * имя файла и время создания задаются только при вставке нового документа.
+     * Трасса хранится как документ с именами этапов в ключах и временем в микросекундах от эпохи.
+     */
+    private static Update statusUpdate(Status status, String fileName, String errorMessage, long version,
+                                       StageTrace trace, LocalDateTime now) {
+        Update update = new Update()
+                .set("status", status)
+                .set("errorMessage", errorMessage)
+                .set("version", version)
+                .set("updatedAt", now)
+                .setOnInsert("fileName", fileName)
+                .setOnInsert("createdAt", now);
+        if (trace != null) {
+            Map<String, Long> stages = new LinkedHashMap<>();
+            trace.toMap().forEach((stage, micros) -> stages.put(stage.name(), micros));
+            update.set("trace", stages);
+        } else {
+            update.unset("trace");
+        }
+        return update;
     }
 }
@@ -0,0 +1,165 @@
+package itmo.programming.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import itmo.programming.common.Status;
+import itmo.programming.model.FileStatus;
+import itmo.programming.model.StatusPage;
+import itmo.programming.repository.FileStatusRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Сервис для чтения статусов файлов: по хешу через кэш и постранично.
+ * Страницы строятся по ключу (updatedAt, id) без пропуска документов через skip,
+ * поэтому стоимость запроса не зависит от номера страницы.
+ */
+@Service
+public class StatusQueryService {
+
+    /**
+     * Максимальный размер страницы.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "updatedAt", "id");
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
+    private final FileStatusRepository repository;
+    private final FileStatusCache statusCache;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectWriter writer;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param repository    репозиторий для работы с FileStatus
+     * @param statusCache   кэш статусов по хешу
+     * @param mongoTemplate шаблон MongoDB
+     * @param objectMapper  сериализатор документов для потоковой выдачи
+     */
+    public StatusQueryService(FileStatusRepository repository, FileStatusCache statusCache,
+                              MongoTemplate mongoTemplate, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.statusCache = statusCache;
+        this.mongoTemplate = mongoTemplate;
+        // Поток ответа не закрывается и не сбрасывается после каждого документа
+        this.writer = objectMapper.writerFor(FileStatus.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Получение статуса файла по хешу: из кэша, а при промахе из базы с сохранением в кэш.
+     * Прочитанный документ не сохраняется, если статус файла изменился во время чтения.
+     *
+     * @param fileHash хеш файла
+     * @return статус файла или пустой Optional, если файл неизвестен
+     */
+    public Optional<FileStatus> findByFileHash(String fileHash) {
+        Optional<FileStatus> cached = statusCache.get(fileHash);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long stamp = statusCache.stamp(fileHash);
+        Optional<FileStatus> stored = repository.findByFileHash(fileHash);
+        stored.ifPresent(status -> statusCache.putIfAbsent(status, stamp));
+        return stored;
+    }
+
+    /**
+     * Получение страницы статусов, отсортированных от последних обновленных.
+     *
+     * @param status фильтр по статусу или null
+     * @param from   нижняя граница updatedAt включительно или null
+     * @param to     верхняя граница updatedAt не включительно или null
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param limit  размер страницы, не больше {@link #MAX_PAGE_SIZE}
+     * @return страница статусов с курсором следующей страницы
+     * @throws IllegalArgumentException если курсор поврежден
+     */
+    public StatusPage findPage(Status status, LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Query query = filter(status, from, to, cursor != null ? StatusCursor.decode(cursor) : null)
+                .with(NEWEST_FIRST)
+                .limit(pageSize + 1);
+        List<FileStatus> items = new ArrayList<>(mongoTemplate.find(query, FileStatus.class));
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items.remove(pageSize);
+            FileStatus last = items.get(pageSize - 1);
+            nextCursor = new StatusCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        return new StatusPage(items, nextCursor);
+    }
+
+    /**
+     * Потоковая выдача статусов в формате NDJSON: документы читаются курсором MongoDB
+     * и записываются в поток по одному, без накопления списка в памяти.
+     *
+     * @param status фильтр по статусу или null
+     * @param from   нижняя граница updatedAt включительно или null
+     * @param to     верхняя граница updatedAt не включительно или null
+     * @param output поток ответа
+     * @return количество записанных документов
+     * @throws IOException если запись в поток ответа не удалась
+     */
+    public long streamAll(Status status, LocalDateTime from, LocalDateTime to, OutputStream output)
+            throws IOException {
+        Query query = filter(status, from, to, null).with(NEWEST_FIRST);
+        long written = 0;
+        try (Stream<FileStatus> documents = mongoTemplate.stream(query, FileStatus.class)) {
+            Iterator<FileStatus> iterator = documents.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(output, iterator.next());
+                output.write(LINE_SEPARATOR);
+                written++;
+            }
+        }
+        output.flush();
+        return written;
+    }
+
+    /**
+     * Условие выборки: фильтры по статусу и времени и, если задан курсор, позиция после него.
+     */
+    private static Query filter(Status status, LocalDateTime from, LocalDateTime to, StatusCursor after) {
+        List<Criteria> conditions = new ArrayList<>();
+        if (status != null) {
+            conditions.add(Criteria.where("status").is(status));
+        }
+        if (from != null) {
+            conditions.add(Criteria.where("updatedAt").gte(from));
+        }
+        if (to != null) {
+            conditions.add(Criteria.where("updatedAt").lt(to));
+        }
+        if (after != null) {
+            conditions.add(new Criteria().orOperator(
+                    Criteria.where("updatedAt").lt(after.updatedAt()),
+                    Criteria.where("updatedAt").is(after.updatedAt()).and("id").lt(after.id())));
+        }
+
+        Query query = new Query();
+        if (!conditions.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(conditions));
+        }
+        return query;
+    }
+}
@@ -0,0 +1,165 @@
+package itmo.programming.service;
+
+import itmo.programming.concurrent.KeyOrderedExecutor;
+import itmo.programming.model.FileStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр подписок на изменения статуса файла по хешу.
+ * Подписка - это обратный вызов, а не поток: ожидающие соединения (long-poll, SSE) не занимают потоков.
+ * Уведомления рассылаются на пуле с упорядочиванием по хешу, поэтому подписчик получает переходы
+ * одного файла в порядке применения, а медленный клиент не задерживает обработку событий из Kafka.
+ */
+@Slf4j
+@Component
+public class StatusSubscriptionRegistry {
+
+    private final Map<String, Set<StatusSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final KeyOrderedExecutor dispatcher;
+
+    /**
+     * Конструктор реестра.
+     *
+     * @param dispatchThreads количество потоков рассылки уведомлений
+     */
+    public StatusSubscriptionRegistry(int dispatchThreads) {
+        this.dispatcher = new KeyOrderedExecutor("status-subscriptions", dispatchThreads);
+    }
+
+    /**
+     * Конструктор реестра с учетом режима потоков приложения.
+     * При {@code spring.threads.virtual.enabled=true} на Java 21+ рассылка идет в виртуальных потоках:
+     * запись в медленное SSE-соединение не занимает поток платформы.
+     *
+     * @param dispatchThreads количество дорожек рассылки уведомлений
+     * @param environment     окружение приложения
+     */
+    @Autowired
+    public StatusSubscriptionRegistry(
+            @Value("${app.status-subscriptions.dispatch-threads:4}") int dispatchThreads,
+            Environment environment
+    ) {
+        this.dispatcher = Threading.VIRTUAL.isActive(environment)
+                ? new KeyOrderedExecutor(dispatchThreads,
+                        lane -> new VirtualThreadTaskExecutor("status-subscriptions-" + lane + "-")
+                                .getVirtualThreadFactory())
+                : new KeyOrderedExecutor("status-subscriptions", dispatchThreads);
+    }
+
+    /**
+     * Подписка на изменения статуса файла.
+     *
+     * @param fileHash   хеш файла
+     * @param subscriber получатель уведомлений
+     * @return подписка; закрытие отменяет ее
+     */
+    public Subscription subscribe(String fileHash, StatusSubscriber subscriber) {
+        // Добавление и удаление идут через compute, чтобы не потерять подписчика при удалении пустого набора
+        subscribers.compute(fileHash, (key, set) -> {
+            Set<StatusSubscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+        return () -> unsubscribe(fileHash, subscriber);
+    }
+
+    /**
+     * Проверка, есть ли подписчики у файла.
+     *
+     * @param fileHash хеш файла
+     * @return true, если хотя бы один клиент ждет изменений
+     */
+    public boolean hasSubscribers(String fileHash) {
+        return subscribers.containsKey(fileHash);
+    }
+
+    /**
+     * Количество файлов, на которые есть подписки.
+     */
+    public int subscribedFileCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Асинхронная рассылка нового статуса подписчикам файла.
+     *
+     * @param fileStatus примененный статус файла
+     */
+    public void publish(FileStatus fileStatus) {
+        String fileHash = fileStatus.getFileHash();
+        if (!hasSubscribers(fileHash)) {
+            return;
+        }
+        dispatcher.execute(fileHash, () -> deliver(fileHash, fileStatus));
+    }
+
+    private void deliver(String fileHash, FileStatus fileStatus) {
+        Set<StatusSubscriber> current = subscribers.get(fileHash);
+        if (current == null) {
+            return;
+        }
+        for (StatusSubscriber subscriber : current) {
+            boolean keep;
+            try {
+                keep = subscriber.onStatus(fileStatus);
+            } catch (RuntimeException e) {
+                log.warn("Status subscriber for {} failed: {}", fileHash, e.getMessage());
+                keep = false;
+            }
+            if (!keep) {
+                unsubscribe(fileHash, subscriber);
+            }
+        }
+    }
+
+    private void unsubscribe(String fileHash, StatusSubscriber subscriber) {
+        subscribers.computeIfPresent(fileHash, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Остановка рассылки при завершении приложения.
+     */
+    @PreDestroy
+    public void close() {
+        dispatcher.close();
+    }
+
+    /**
+     * Получатель уведомлений об изменении статуса.
+     */
+    @FunctionalInterface
+    public interface StatusSubscriber {
+
+        /**
+         * Обработка нового статуса файла.
+         *
+         * @param fileStatus примененный статус
+         * @return true, чтобы продолжать получать уведомления, false, чтобы отписаться
+         */
+        boolean onStatus(FileStatus fileStatus);
+    }
+
+    /**
+     * Отменяемая подписка.
+     */
+    @FunctionalInterface
+    public interface Subscription extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,94 @@
+package controller;
+
+import itmo.programming.common.Status;
+import itmo.programming.controller.StatusSubscriptionController;
+import itmo.programming.model.FileStatus;
+import itmo.programming.service.StatusQueryService;
+import itmo.programming.service.StatusSubscriptionRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatusSubscriptionControllerTest {
+
+    @Mock
+    private StatusQueryService queryService;
+
+    private StatusSubscriptionRegistry registry;
+    private StatusSubscriptionController controller;
+
+    @BeforeEach
+    void setUp() {
+        registry = new StatusSubscriptionRegistry(1);
+        controller = new StatusSubscriptionController(queryService, registry, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Long-poll должен отвечать сразу, если статус уже последний")
+    void awaitFileStatus_AlreadyFinal_ShouldCompleteImmediately() {
+        // Given
+        FileStatus done = new FileStatus("hash1", Status.SECONDARY_VALIDATION_SUCCESS, "a.xlsx");
+        when(queryService.findByFileHash("hash1")).thenReturn(Optional.of(done));
+
+        // When
+        DeferredResult<ResponseEntity<?>> result = controller.awaitFileStatus("hash1", "terminal", 30);
+
+        // Then
+        assertTrue(result.hasResult());
+        assertSame(done, ((ResponseEntity<?>) result.getResult()).getBody());
+    }
+
+    @Test
+    @DisplayName("Long-poll должен ждать без потока и ответить при переходе в последний статус")
+    void awaitFileStatus_InProgress_ShouldCompleteOnFinalTransition() throws InterruptedException {
+        // Given
+        when(queryService.findByFileHash("hash1"))
+                .thenReturn(Optional.of(new FileStatus("hash1", Status.SECONDARY_VALIDATION_STARTED, "a.xlsx")));
+        DeferredResult<ResponseEntity<?>> result = controller.awaitFileStatus("hash1", "terminal", 30);
+        assertFalse(result.hasResult());
+
+        // When
+        registry.publish(new FileStatus("hash1", Status.SECONDARY_VALIDATION_STARTED, "a.xlsx"));
+        FileStatus failed = new FileStatus("hash1", Status.SECONDARY_VALIDATION_FAILED, "a.xlsx");
+        registry.publish(failed);
+
+        // Then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(result.hasResult());
+        assertSame(failed, ((ResponseEntity<?>) result.getResult()).getBody());
+    }
+
+    @Test
+    @DisplayName("Неизвестное условие ожидания должно приводить к 400")
+    void awaitFileStatus_UnknownCondition_ShouldReturnBadRequest() {
+        // When
+        DeferredResult<ResponseEntity<?>> result = controller.awaitFileStatus("hash1", "anything", 30);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, ((ResponseEntity<?>) result.getResult()).getStatusCode());
+        assertFalse(registry.hasSubscribers("hash1"));
+    }
+}
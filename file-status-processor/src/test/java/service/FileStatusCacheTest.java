@@ -0,0 +1,80 @@
+package service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.common.Status;
+import itmo.programming.model.FileStatus;
+import itmo.programming.service.FileStatusCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStatusCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FileStatusCache cache = new FileStatusCache(1, Duration.ofMinutes(1), registry);
+
+    @Test
+    @DisplayName("Попадания, промахи и вытеснения должны публиковаться как метрики")
+    void shouldExposeHitMissAndEvictionMetrics() {
+        // Given
+        cache.put(new FileStatus("hash1", Status.RECEIVED, "a.xlsx"));
+
+        // When
+        cache.get("hash1");
+        cache.get("unknown");
+        cache.put(new FileStatus("hash2", Status.RECEIVED, "b.xlsx"));
+
+        // Then
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "fileStatus").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.evictions").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Прочитанный из базы статус не должен перезаписывать статус, сохраненный записью")
+    void putIfAbsent_ShouldNotOverrideWrittenStatus() {
+        // Given
+        FileStatus written = new FileStatus("hash1", Status.SECONDARY_VALIDATION_SUCCESS, "a.xlsx");
+        cache.put(written);
+
+        // When
+        cache.putIfAbsent(new FileStatus("hash1", Status.RECEIVED, "a.xlsx"), cache.stamp("hash1"));
+
+        // Then
+        assertSame(written, cache.get("hash1").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Прочитанный из базы статус не должен сохраняться, если ключ инвалидирован во время чтения")
+    void putIfAbsent_AfterInvalidate_ShouldNotCacheStaleStatus() {
+        // Given
+        long stamp = cache.stamp("hash1");
+        cache.invalidate("hash1");
+
+        // When
+        boolean stored = cache.putIfAbsent(new FileStatus("hash1", Status.RECEIVED, "a.xlsx"), stamp);
+
+        // Then
+        assertFalse(stored);
+        assertTrue(cache.get("hash1").isEmpty());
+        assertTrue(cache.putIfAbsent(new FileStatus("hash1", Status.RECEIVED, "a.xlsx"), cache.stamp("hash1")));
+    }
+
+    @Test
+    @DisplayName("Инвалидированный статус должен отсутствовать в кэше")
+    void invalidate_ShouldRemoveStatus() {
+        // Given
+        cache.put(new FileStatus("hash1", Status.RECEIVED, "a.xlsx"));
+
+        // When
+        cache.invalidate("hash1");
+
+        // Then
+        assertTrue(cache.get("hash1").isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package service;
+
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.service.KafkaStatusBatchConsumer;
+import itmo.programming.service.StatusProcessingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaStatusBatchConsumerTest {
+
+    @Mock
+    private StatusProcessingService statusService;
+
+    @InjectMocks
+    private KafkaStatusBatchConsumer consumer;
+
+    @Test
+    @DisplayName("Batch consumer передает пакет в сервис, отбрасывая нераспознанные записи")
+    void shouldPassBatchWithoutNulls() {
+        // Given
+        StatusEvent event = new StatusEvent("fileHash123", Status.RECEIVED, "test.xlsx");
+
+        // When
+        consumer.consumeStatusEvents(Arrays.asList(event, null));
+
+        // Then
+        verify(statusService, times(1)).processStatusBatch(List.of(event));
+    }
+
+    @Test
+    @DisplayName("Batch consumer пробрасывает ошибку записи, чтобы пакет был повторен, а не зафиксирован")
+    void shouldPropagateFailureForRetry() {
+        // Given
+        RuntimeException failure = new RuntimeException("Mongo down");
+        doThrow(failure).when(statusService).processStatusBatch(any());
+
+        // When
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> consumer.consumeStatusEvents(List.of(
+                new StatusEvent("fileHash123", Status.RECEIVED, "test.xlsx"))));
+
+        // Then
+        assertSame(failure, thrown);
+    }
+}
@@ -4,6 +4,8 @@ import itmo.programming.common.Status;
 import itmo.programming.common.StatusEvent;
 import itmo.programming.service.KafkaStatusConsumer;
 import itmo.programming.service.StatusProcessingService;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -37,7 +39,7 @@ class KafkaStatusConsumerTest {
 
         // Then
         verify(statusService, times(1))
-                .processStatusUpdate(eq(Status.RECEIVED), eq("fileHash123"), eq("test.xlsx"), isNull());
+                .processStatusUpdate(eq(Status.RECEIVED), eq("fileHash123"), eq("test.xlsx"), isNull(), eq(0L), isNull());
     }
 
     @Test
@@ -47,14 +49,29 @@ class KafkaStatusConsumerTest {
         StatusEvent event = new StatusEvent("fileHash123", Status.RECEIVED, "test.xlsx");
         doThrow(new RuntimeException("Test exception"))
                 .when(statusService)
-                .processStatusUpdate(any(), any(), any(), any());
+                .processStatusUpdate(any(), any(), any(), any(), anyLong(), any());
 
         // When
         consumer.consumeStatusEvent(event);
 
         // Then
         assertDoesNotThrow(() -> consumer.consumeStatusEvent(event));
-        verify(statusService, atLeastOnce()).processStatusUpdate(any(), any(), any(), any());
+        verify(statusService, atLeastOnce()).processStatusUpdate(any(), any(), any(), any(), anyLong(), any());
 
     }
+
+    @Test
+    @DisplayName("Consumer передает трассу события в сервис обработки статуса")
+    void shouldPassTraceToStatusService() {
+        // Given
+        StatusEvent event = new StatusEvent("fileHash123", Status.SECONDARY_VALIDATION_SUCCESS, "test.xlsx");
+        StageTrace trace = StageTrace.start(Stage.UPLOAD_RECEIVED);
+        event.setTrace(trace);
+
+        // When
+        consumer.consumeStatusEvent(event);
+
+        // Then
+        verify(statusService).processStatusUpdate(any(), any(), any(), any(), anyLong(), same(trace));
+    }
 }
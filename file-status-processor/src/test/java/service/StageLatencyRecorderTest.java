@@ -0,0 +1,94 @@
+package service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.common.Status;
+import itmo.programming.model.StageLatency;
+import itmo.programming.service.StageLatencyRecorder;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageLatencyRecorderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StageLatencyRecorder recorder = new StageLatencyRecorder(meterRegistry);
+
+    @Test
+    @DisplayName("Интервал этапа отсчитывается от предыдущего отмеченного этапа")
+    void record_ShouldMeasureFromPreviousMarkedStage() {
+        // Given
+        StageTrace trace = new StageTrace()
+                .mark(Stage.UPLOAD_RECEIVED, 1_000L)
+                .mark(Stage.ENQUEUED, 3_000L)
+                .mark(Stage.PARSE_STARTED, 10_000L)
+                .mark(Stage.STATUS_PERSISTED, 15_000L);
+
+        // When
+        recorder.record(Status.SECONDARY_VALIDATION_SUCCESS, trace);
+
+        // Then
+        assertEquals(2.0, stageTimerMillis(Stage.ENQUEUED), 0.001);
+        assertEquals(7.0, stageTimerMillis(Stage.PARSE_STARTED), 0.001);
+        assertEquals(5.0, stageTimerMillis(Stage.STATUS_PERSISTED), 0.001);
+        assertEquals(0, meterRegistry.get("pipeline.stage").tag("stage", Stage.CONSUMED.name()).timer().count());
+        assertEquals(14.0, meterRegistry.get("pipeline.total").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    @DisplayName("Промежуточные статусы и события без трассы не записываются")
+    void record_NonFinalStatusOrNoTrace_ShouldBeIgnored() {
+        // Given
+        StageTrace trace = new StageTrace().mark(Stage.UPLOAD_RECEIVED, 1_000L).mark(Stage.ENQUEUED, 2_000L);
+
+        // When
+        recorder.record(Status.SECONDARY_VALIDATION_STARTED, trace);
+        recorder.record(Status.SECONDARY_VALIDATION_SUCCESS, null);
+
+        // Then
+        assertEquals(0, meterRegistry.get("pipeline.stage").tag("stage", Stage.ENQUEUED.name()).timer().count());
+    }
+
+    @Test
+    @DisplayName("Отрицательные интервалы из-за расхождения часов не записываются")
+    void record_NegativeInterval_ShouldBeSkipped() {
+        // Given
+        StageTrace trace = new StageTrace().mark(Stage.ENQUEUED, 5_000L).mark(Stage.CONSUMED, 4_000L);
+
+        // When
+        recorder.record(Status.UPLOAD_ERROR, trace);
+
+        // Then
+        assertEquals(0, meterRegistry.get("pipeline.stage").tag("stage", Stage.CONSUMED.name()).timer().count());
+    }
+
+    @Test
+    @DisplayName("Сводка содержит этапы в порядке выполнения и полное время")
+    void summary_ShouldListStagesAndTotal() {
+        // Given
+        recorder.record(Status.SECONDARY_VALIDATION_FAILED, new StageTrace()
+                .mark(Stage.UPLOAD_RECEIVED, 1_000L)
+                .mark(Stage.STATUS_PERSISTED, 4_000L));
+
+        // When
+        List<StageLatency> summary = recorder.summary();
+
+        // Then
+        assertEquals(Stage.ENQUEUED.name(), summary.get(0).getStage());
+        StageLatency total = summary.get(summary.size() - 1);
+        assertEquals("TOTAL", total.getStage());
+        assertEquals(1, total.getCount());
+        assertEquals(3.0, total.getMaxMs(), 0.001);
+        assertTrue(total.getPercentilesMs().keySet().containsAll(List.of("p50", "p99", "p99.9")));
+    }
+
+    private double stageTimerMillis(Stage stage) {
+        return meterRegistry.get("pipeline.stage").tag("stage", stage.name()).timer()
+                .totalTime(TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,17 +1,42 @@
 package service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
 import itmo.programming.model.FileStatus;
 import itmo.programming.repository.FileStatusRepository;
+import itmo.programming.service.FileStatusCache;
+import itmo.programming.service.StageLatencyRecorder;
 import itmo.programming.service.StatusProcessingService;
+import itmo.programming.service.StatusSubscriptionRegistry;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,51 +45,66 @@ class StatusProcessingServiceTest {
     @Mock
     private FileStatusRepository fileStatusRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private FileStatusCache statusCache;
+
+    @Mock
+    private StatusSubscriptionRegistry subscriptions;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private StageLatencyRecorder latencyRecorder;
+
     @InjectMocks
     private StatusProcessingService statusProcessingService;
 
     @Test
-    @DisplayName("Должен создавать новую сущность при обновлении статуса для нового файла")
-    void processStatusUpdate_NewFile_ShouldCreateNewEntity() {
+    @DisplayName("Должен выполнять атомарный upsert по хешу файла для нового файла")
+    void processStatusUpdate_NewFile_ShouldUpsertByFileHash() {
         // Given
         String fileHash = "hash123";
         String fileName = "test.txt";
         Status status = Status.SECONDARY_VALIDATION_ERROR;
 
-        when(fileStatusRepository.findByFileHash(fileHash)).thenReturn(Optional.empty());
-        when(fileStatusRepository.save(any(FileStatus.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
         // When
-        statusProcessingService.processStatusUpdate(status, fileHash, fileName, null);
+        statusProcessingService.processStatusUpdate(status, fileHash, fileName, null, 1L);
 
         // Then
-        verify(fileStatusRepository).findByFileHash(fileHash);
-        verify(fileStatusRepository).save(argThat(fileStatus ->
-                fileHash.equals(fileStatus.getFileHash()) &&
-                        status.equals(fileStatus.getStatus()) &&
-                        fileName.equals(fileStatus.getFileName())
-        ));
+        verify(mongoTemplate).findAndModify(
+                argThat((Query query) -> fileHash.equals(query.getQueryObject().get("fileHash"))),
+                argThat((Update update) -> status.equals(setFields(update).get("status"))
+                        && fileName.equals(setOnInsertFields(update).get("fileName"))),
+                argThat((FindAndModifyOptions options) -> options.isUpsert()),
+                eq(FileStatus.class));
+        verifyNoInteractions(fileStatusRepository);
     }
 
     @Test
-    @DisplayName("Должен обновлять статус при обновлении статуса для существующего файла")
+    @DisplayName("Должен обновлять статус без чтения документа для существующего файла")
     void processStatusUpdate_ExistingFile_ShouldUpdateStatus() {
         // Given
         String fileHash = "hash456";
         String fileName = "test.txt";
-        FileStatus existingStatus = new FileStatus(fileHash, Status.SECONDARY_VALIDATION_SUCCESS, fileName);
-
-        when(fileStatusRepository.findByFileHash(fileHash)).thenReturn(Optional.of(existingStatus));
-        when(fileStatusRepository.save(any(FileStatus.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        statusProcessingService.processStatusUpdate(Status.SECONDARY_VALIDATION_SUCCESS, fileHash, fileName, null);
+        statusProcessingService.processStatusUpdate(Status.SECONDARY_VALIDATION_SUCCESS, fileHash, fileName, null, 1L);
 
         // Then
-        verify(fileStatusRepository).findByFileHash(fileHash);
-        verify(fileStatusRepository).save(argThat(fileStatus ->
-                Status.SECONDARY_VALIDATION_SUCCESS.equals(fileStatus.getStatus())
-        ));
+        verify(mongoTemplate, times(1)).findAndModify(
+                any(Query.class),
+                argThat((Update update) -> Status.SECONDARY_VALIDATION_SUCCESS.equals(setFields(update).get("status"))),
+                any(FindAndModifyOptions.class),
+                eq(FileStatus.class));
+        verify(fileStatusRepository, never()).findByFileHash(any());
+        verify(fileStatusRepository, never()).save(any());
     }
 
     @Test
@@ -74,18 +114,219 @@ class StatusProcessingServiceTest {
         String fileHash = "hash789";
         String fileName = "test.txt";
         String errorMessage = "Processing failed";
-        FileStatus existingStatus = new FileStatus(fileHash, Status.SECONDARY_VALIDATION_STARTED, fileName);
 
-        when(fileStatusRepository.findByFileHash(fileHash)).thenReturn(Optional.of(existingStatus));
-        when(fileStatusRepository.save(any(FileStatus.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // When
+        statusProcessingService.processStatusUpdate(Status.SECONDARY_VALIDATION_ERROR, fileHash, fileName, errorMessage, 1L);
+
+        // Then
+        verify(mongoTemplate).findAndModify(
+                any(Query.class),
+                argThat((Update update) -> errorMessage.equals(setFields(update).get("errorMessage"))
+                        && Status.SECONDARY_VALIDATION_ERROR.equals(setFields(update).get("status"))),
+                any(FindAndModifyOptions.class),
+                eq(FileStatus.class));
+    }
+
+    @Test
+    @DisplayName("Должен повторять upsert, если параллельная вставка нарушила уникальный индекс")
+    void processStatusUpdate_DuplicateKey_ShouldRetryOnce() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(FileStatus.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key"))
+                .thenReturn(new FileStatus("hash1", Status.RECEIVED, "a.xlsx"));
+
+        // When
+        boolean applied = statusProcessingService.processStatusUpdate(Status.RECEIVED, "hash1", "a.xlsx", null, 1L);
+
+        // Then
+        assertTrue(applied);
+        verify(statusCache).put(argThat(status -> "hash1".equals(status.getFileHash())));
+        verify(subscriptions).publish(argThat(status -> "hash1".equals(status.getFileHash())));
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(FileStatus.class));
+    }
+
+    @Test
+    @DisplayName("Время записи должно попадать в таймер с тегами статуса и результата")
+    void processStatusUpdate_ShouldRecordTimerByStatusAndResult() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(FileStatus.class)))
+                .thenReturn(null)
+                .thenThrow(new DuplicateKeyException("dup"));
+
+        // When
+        statusProcessingService.processStatusUpdate(Status.RECEIVED, "hash1", "a.xlsx", null, 1L);
+        statusProcessingService.processStatusUpdate(Status.RECEIVED, "hash1", "a.xlsx", null, 0L);
+
+        // Then
+        assertEquals(1, meterRegistry.get("status.update")
+                .tags("status", "RECEIVED", "result", "applied").timer().count());
+        assertEquals(1, meterRegistry.get("status.update")
+                .tags("status", "RECEIVED", "result", "stale").timer().count());
+    }
 
+    @Test
+    @DisplayName("Условие обновления должно пропускать только более новую попытку или переход вперед по графу")
+    void processStatusUpdate_ShouldUseCompareAndSetCondition() {
         // When
-        statusProcessingService.processStatusUpdate(Status.SECONDARY_VALIDATION_ERROR, fileHash, fileName, errorMessage);
+        statusProcessingService.processStatusUpdate(Status.SECONDARY_VALIDATION_SUCCESS, "hash1", "a.xlsx", null, 7L);
 
         // Then
-        verify(fileStatusRepository).save(argThat(fileStatus ->
-                errorMessage.equals(fileStatus.getErrorMessage()) &&
-                        Status.SECONDARY_VALIDATION_ERROR.equals(fileStatus.getStatus())
-        ));
+        verify(mongoTemplate).findAndModify(
+                argThat((Query query) -> {
+                    List<?> conditions = query.getQueryObject().get("$or", List.class);
+                    Document sameVersion = (Document) conditions.get(1);
+                    Document statusCondition = sameVersion.get("status", Document.class);
+                    return conditions.contains(new Document("version", new Document("$lt", 7L)))
+                            && Long.valueOf(7L).equals(sameVersion.get("version"))
+                            && Status.SECONDARY_VALIDATION_SUCCESS.predecessors()
+                            .equals(Set.copyOf((Collection<?>) statusCondition.get("$in")));
+                }),
+                argThat((Update update) -> Long.valueOf(7L).equals(setFields(update).get("version"))),
+                any(FindAndModifyOptions.class),
+                eq(FileStatus.class));
+    }
+
+    @Test
+    @DisplayName("Устаревшее событие должно отбрасываться, если условие не совпало и при повторе")
+    void processStatusUpdate_StaleEvent_ShouldBeDropped() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(FileStatus.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        // When
+        boolean applied = statusProcessingService.processStatusUpdate(
+                Status.SECONDARY_VALIDATION_STARTED, "hash1", "a.xlsx", null, 1L);
+
+        // Then
+        assertFalse(applied);
+        verifyNoInteractions(statusCache);
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(FileStatus.class));
+    }
+
+    @Test
+    @DisplayName("Пакет событий должен сводиться к самому новому событию файла и применяться одной bulk-операцией")
+    void processStatusBatch_ShouldCollapseAndBulkUpsert() {
+        // Given
+        StatusEvent validated = new StatusEvent("hash1", Status.PRIMARY_VALIDATION_SUCCESS, "a.xlsx");
+        StatusEvent received = new StatusEvent("hash1", Status.RECEIVED, "a.xlsx");
+        StatusEvent other = new StatusEvent("hash2", Status.SECONDARY_VALIDATION_FAILED, "b.xlsx");
+        other.setErrorMessage("Cell [1,1] is empty");
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FileStatus.class)).thenReturn(bulkOperations);
+
+        // When
+        int updated = statusProcessingService.processStatusBatch(List.of(validated, received, other));
+
+        // Then
+        assertEquals(2, updated);
+        verify(bulkOperations).upsert(
+                argThat((Query query) -> "hash1".equals(query.getQueryObject().get("fileHash"))),
+                argThat((Update update) -> Status.PRIMARY_VALIDATION_SUCCESS
+                        .equals(update.getUpdateObject().get("$set", Document.class).get("status"))));
+        verify(bulkOperations).upsert(
+                argThat((Query query) -> "hash2".equals(query.getQueryObject().get("fileHash"))),
+                argThat((Update update) -> "Cell [1,1] is empty"
+                        .equals(update.getUpdateObject().get("$set", Document.class).get("errorMessage"))));
+        verify(bulkOperations, times(1)).execute();
+        verify(statusCache).invalidate("hash1");
+        verify(statusCache).invalidate("hash2");
+        verify(subscriptions, never()).publish(any());
+        verifyNoInteractions(fileStatusRepository);
+    }
+
+    @Test
+    @DisplayName("После пакета подписчики файла должны получить примененный статус")
+    void processStatusBatch_WithSubscribers_ShouldPublishStoredStatus() {
+        // Given
+        FileStatus stored = new FileStatus("hash1", Status.SECONDARY_VALIDATION_SUCCESS, "a.xlsx");
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FileStatus.class)).thenReturn(bulkOperations);
+        when(subscriptions.hasSubscribers("hash1")).thenReturn(true);
+        when(fileStatusRepository.findByFileHash("hash1")).thenReturn(Optional.of(stored));
+
+        // When
+        statusProcessingService.processStatusBatch(List.of(
+                new StatusEvent("hash1", Status.SECONDARY_VALIDATION_SUCCESS, "a.xlsx")));
+
+        // Then
+        verify(subscriptions).publish(stored);
+    }
+
+    @Test
+    @DisplayName("Пустой пакет не должен обращаться к базе данных")
+    void processStatusBatch_EmptyBatch_ShouldDoNothing() {
+        // When
+        int updated = statusProcessingService.processStatusBatch(List.of());
+
+        // Then
+        assertEquals(0, updated);
+        verifyNoInteractions(mongoTemplate, fileStatusRepository);
+    }
+
+    @Test
+    @DisplayName("Трасса события должна сохраняться с отметкой записи статуса и передаваться в сборщик задержек")
+    void processStatusUpdate_WithTrace_ShouldPersistTraceAndRecordLatency() {
+        // Given
+        StageTrace trace = new StageTrace()
+                .mark(Stage.UPLOAD_RECEIVED, 1_000L)
+                .mark(Stage.PARSE_FINISHED, 5_000L);
+
+        // When
+        statusProcessingService.processStatusUpdate(
+                Status.SECONDARY_VALIDATION_SUCCESS, "hash1", "a.xlsx", null, 1L, trace);
+
+        // Then
+        verify(mongoTemplate).findAndModify(any(Query.class),
+                argThat((Update update) -> {
+                    Map<?, ?> stored = (Map<?, ?>) setFields(update).get("trace");
+                    return Long.valueOf(1_000L).equals(stored.get("UPLOAD_RECEIVED"))
+                            && stored.containsKey("STATUS_PERSISTED");
+                }),
+                any(FindAndModifyOptions.class), eq(FileStatus.class));
+        verify(latencyRecorder).record(eq(Status.SECONDARY_VALIDATION_SUCCESS),
+                argThat((StageTrace persisted) -> persisted.get(Stage.STATUS_PERSISTED).isPresent()
+                        && persisted.get(Stage.PARSE_FINISHED).getAsLong() == 5_000L));
+        assertTrue(trace.get(Stage.STATUS_PERSISTED).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Событие без трассы должно удалять трассу предыдущей попытки")
+    void processStatusUpdate_WithoutTrace_ShouldUnsetTrace() {
+        // When
+        statusProcessingService.processStatusUpdate(Status.RECEIVED, "hash1", "a.xlsx", null, 1L);
+
+        // Then
+        verify(mongoTemplate).findAndModify(any(Query.class),
+                argThat((Update update) -> update.getUpdateObject().get("$unset", Document.class).containsKey("trace")),
+                any(FindAndModifyOptions.class), eq(FileStatus.class));
+    }
+
+    @Test
+    @DisplayName("Пакет должен передавать трассы примененных событий в сборщик задержек")
+    void processStatusBatch_ShouldRecordLatencyOfAppliedEvents() {
+        // Given
+        StatusEvent event = new StatusEvent("hash1", Status.SECONDARY_VALIDATION_SUCCESS, "a.xlsx");
+        event.setTrace(new StageTrace().mark(Stage.UPLOAD_RECEIVED, 1_000L));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FileStatus.class)).thenReturn(bulkOperations);
+
+        // When
+        statusProcessingService.processStatusBatch(List.of(event));
+
+        // Then
+        verify(bulkOperations).upsert(any(Query.class),
+                argThat((Update update) -> setFields(update).containsKey("trace")));
+        verify(latencyRecorder).record(eq(Status.SECONDARY_VALIDATION_SUCCESS),
+                argThat((StageTrace persisted) -> persisted.get(Stage.STATUS_PERSISTED).isPresent()));
+    }
+
+    private static Document setFields(Update update) {
+        return update.getUpdateObject().get("$set", Document.class);
+    }
+
+    private static Document setOnInsertFields(Update update) {
+        return update.getUpdateObject().get("$setOnInsert", Document.class);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,217 @@
+package service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.model.FileStatus;
+import itmo.programming.model.StatusPage;
+import itmo.programming.repository.FileStatusRepository;
+import itmo.programming.service.FileStatusCache;
+import itmo.programming.service.StageLatencyRecorder;
+import itmo.programming.service.StatusProcessingService;
+import itmo.programming.service.StatusQueryService;
+import itmo.programming.service.StatusSubscriptionRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatusQueryServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private FileStatusRepository repository;
+
+    @Mock
+    private FileStatusCache statusCache;
+
+    private StatusQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        queryService = new StatusQueryService(repository, statusCache, mongoTemplate,
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    @DisplayName("Статус из кэша должен возвращаться без обращения к базе")
+    void findByFileHash_CacheHit_ShouldNotQueryRepository() {
+        // Given
+        FileStatus cached = new FileStatus("hash1", Status.RECEIVED, "a.xlsx");
+        when(statusCache.get("hash1")).thenReturn(Optional.of(cached));
+
+        // When
+        Optional<FileStatus> result = queryService.findByFileHash("hash1");
+
+        // Then
+        assertSame(cached, result.orElseThrow());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("При промахе статус должен читаться из базы и сохраняться в кэш без перезаписи")
+    void findByFileHash_CacheMiss_ShouldLoadAndCache() {
+        // Given
+        FileStatus stored = new FileStatus("hash1", Status.RECEIVED, "a.xlsx");
+        when(statusCache.get("hash1")).thenReturn(Optional.empty());
+        when(statusCache.stamp("hash1")).thenReturn(7L);
+        when(repository.findByFileHash("hash1")).thenReturn(Optional.of(stored));
+
+        // When
+        Optional<FileStatus> result = queryService.findByFileHash("hash1");
+
+        // Then
+        assertSame(stored, result.orElseThrow());
+        verify(statusCache).putIfAbsent(stored, 7L);
+    }
+
+    @Test
+    @DisplayName("Статус, прочитанный до пакетной записи, не должен попадать в кэш после нее")
+    void findByFileHash_BatchWriteDuringRead_ShouldNotCacheStaleStatus() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FileStatusCache cache = new FileStatusCache(100, Duration.ofMinutes(1), meterRegistry);
+        StatusProcessingService processingService = new StatusProcessingService(repository, mongoTemplate, cache,
+                mock(StatusSubscriptionRegistry.class), meterRegistry, mock(StageLatencyRecorder.class));
+        StatusQueryService reader = new StatusQueryService(repository, cache, mongoTemplate, new ObjectMapper());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FileStatus.class))
+                .thenReturn(mock(BulkOperations.class));
+        FileStatus before = new FileStatus("hash1", Status.RECEIVED, "a.xlsx");
+        FileStatus after = new FileStatus("hash1", Status.PRIMARY_VALIDATION_SUCCESS, "a.xlsx");
+        when(repository.findByFileHash("hash1"))
+                .thenAnswer(invocation -> {
+                    // Пакет записывается, пока читатель ждет ответа базы со старым документом
+                    processingService.processStatusBatch(
+                            List.of(new StatusEvent("hash1", Status.PRIMARY_VALIDATION_SUCCESS, "a.xlsx")));
+                    return Optional.of(before);
+                })
+                .thenReturn(Optional.of(after));
+
+        // When
+        Optional<FileStatus> first = reader.findByFileHash("hash1");
+        Optional<FileStatus> second = reader.findByFileHash("hash1");
+
+        // Then
+        assertSame(before, first.orElseThrow());
+        assertSame(after, second.orElseThrow());
+        assertSame(after, cache.get("hash1").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Страница должна запрашивать на один документ больше и возвращать курсор следующей страницы")
+    void findPage_ShouldReturnNextCursorWhenMoreDocumentsExist() {
+        // Given
+        List<FileStatus> documents = statuses(3);
+        when(mongoTemplate.find(any(Query.class), eq(FileStatus.class))).thenReturn(documents);
+
+        // When
+        StatusPage page = queryService.findPage(null, null, null, null, 2);
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(FileStatus.class));
+        assertEquals(3, query.getValue().getLimit());
+        assertEquals(new Document("updatedAt", -1).append("id", -1), query.getValue().getSortObject());
+        assertEquals(2, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Последняя страница не должна содержать курсор")
+    void findPage_LastPage_ShouldHaveNoCursor() {
+        // Given
+        when(mongoTemplate.find(any(Query.class), eq(FileStatus.class))).thenReturn(statuses(1));
+
+        // When
+        StatusPage page = queryService.findPage(Status.RECEIVED, null, null, null, 10);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Курсор должен превращаться в условие по ключу (updatedAt, id) последнего документа страницы")
+    void findPage_WithCursor_ShouldContinueAfterLastDocument() {
+        // Given
+        List<FileStatus> documents = statuses(2);
+        when(mongoTemplate.find(any(Query.class), eq(FileStatus.class)))
+                .thenReturn(documents)
+                .thenReturn(List.of());
+        String cursor = queryService.findPage(null, null, null, null, 1).getNextCursor();
+        FileStatus last = documents.get(0);
+
+        // When
+        queryService.findPage(Status.SECONDARY_VALIDATION_FAILED, null, null, cursor, 1);
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(query.capture(), eq(FileStatus.class));
+        String criteria = query.getAllValues().get(1).getQueryObject().toString();
+        assertTrue(criteria.contains(last.getId()));
+        assertTrue(criteria.contains(last.getUpdatedAt().toString()));
+        assertTrue(criteria.contains("SECONDARY_VALIDATION_FAILED"));
+    }
+
+    @Test
+    @DisplayName("Поврежденный курсор должен приводить к IllegalArgumentException")
+    void findPage_InvalidCursor_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> queryService.findPage(null, null, null, "bm90LWEtY3Vyc29y", 10));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Потоковая выдача должна писать по одному JSON-документу в строке")
+    void streamAll_ShouldWriteNdjson() throws Exception {
+        // Given
+        when(mongoTemplate.stream(any(Query.class), eq(FileStatus.class))).thenReturn(statuses(2).stream());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long written = queryService.streamAll(null, null, null, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"fileHash\":\"hash0\""));
+        assertTrue(lines[1].contains("\"fileHash\":\"hash1\""));
+    }
+
+    private static List<FileStatus> statuses(int count) {
+        List<FileStatus> result = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2025, 9, 24, 12, 0);
+        for (int i = 0; i < count; i++) {
+            FileStatus status = new FileStatus("hash" + i, Status.RECEIVED, "file" + i + ".xlsx");
+            status.setId(String.format("%024x", i + 1));
+            status.setUpdatedAt(now.minusMinutes(i));
+            result.add(status);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package service;
+
+import itmo.programming.common.Status;
+import itmo.programming.model.FileStatus;
+import itmo.programming.service.StatusSubscriptionRegistry;
+import itmo.programming.service.StatusSubscriptionRegistry.Subscription;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusSubscriptionRegistryTest {
+
+    private final StatusSubscriptionRegistry registry = new StatusSubscriptionRegistry(2);
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Подписчик должен получать переходы своего файла в порядке публикации")
+    void publish_ShouldDeliverInOrder() throws InterruptedException {
+        // Given
+        List<Status> received = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        registry.subscribe("hash1", status -> {
+            received.add(status.getStatus());
+            done.countDown();
+            return true;
+        });
+
+        // When
+        registry.publish(new FileStatus("hash1", Status.RECEIVED, "a.xlsx"));
+        registry.publish(new FileStatus("hash2", Status.RECEIVED, "b.xlsx"));
+        registry.publish(new FileStatus("hash1", Status.SECONDARY_VALIDATION_STARTED, "a.xlsx"));
+        registry.publish(new FileStatus("hash1", Status.SECONDARY_VALIDATION_SUCCESS, "a.xlsx"));
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(Status.RECEIVED, Status.SECONDARY_VALIDATION_STARTED,
+                Status.SECONDARY_VALIDATION_SUCCESS), received);
+    }
+
+    @Test
+    @DisplayName("Подписчик, вернувший false, должен отписываться, а пустой файл удаляться из реестра")
+    void publish_SubscriberDone_ShouldUnsubscribe() throws InterruptedException {
+        // Given
+        CountDownLatch delivered = new CountDownLatch(1);
+        registry.subscribe("hash1", status -> {
+            delivered.countDown();
+            return false;
+        });
+
+        // When
+        registry.publish(new FileStatus("hash1", Status.UPLOAD_ERROR, "a.xlsx"));
+
+        // Then
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        awaitUnsubscribed("hash1");
+        assertEquals(0, registry.subscribedFileCount());
+    }
+
+    @Test
+    @DisplayName("Закрытая подписка не должна оставаться в реестре")
+    void subscription_Close_ShouldRemoveSubscriber() {
+        // Given
+        Subscription subscription = registry.subscribe("hash1", status -> true);
+        assertTrue(registry.hasSubscribers("hash1"));
+
+        // When
+        subscription.close();
+
+        // Then
+        assertFalse(registry.hasSubscribers("hash1"));
+    }
+
+    private void awaitUnsubscribed(String fileHash) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.hasSubscribers(fileHash) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
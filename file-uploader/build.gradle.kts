@@ -33,6 +33,7 @@ dependencies {
     implementation("org.springframework.cloud:spring-cloud-starter-config:4.1.0")
     implementation("com.fasterxml.jackson.core:jackson-databind")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     compileOnly("org.projectlombok:lombok:1.18.30")
     annotationProcessor("org.projectlombok:lombok:1.18.30")
     implementation(project(":common"))
@@ -43,4 +44,18 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+    exclude("benchmark/**")
+}
+
+tasks.register<Test>("uploadBenchmark") {
+    description = "Measures concurrent /upload throughput with platform and virtual Tomcat threads."
+    group = "verification"
+    useJUnitPlatform()
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    filter { includeTestsMatching("benchmark.*") }
+    systemProperty("benchmark", "true")
+    javaLauncher.set(javaToolchains.launcherFor { languageVersion.set(JavaLanguageVersion.of(21)) })
+    testLogging { showStandardStreams = true }
+    outputs.upToDateWhen { false }
+}
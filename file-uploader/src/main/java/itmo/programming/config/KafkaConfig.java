@@ -1,26 +1,44 @@
 package itmo.programming.config;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Kafka конфигурация для производителей
+ * Kafka конфигурация для производителей.
+ * Топик загрузок и топик статусов отправляются разными производителями со своими профилями
+ * ({@code spring.kafka.producer.upload} и {@code spring.kafka.producer.status}):
+ * крупные записи загрузок выигрывают от сильного сжатия и больших пакетов, частые мелкие статусы - от малой задержки.
+ * Метрики клиента Kafka публикуются с тегом {@code profile}, среди них степень сжатия
+ * ({@code kafka.producer.compression.rate.avg}) и время ожидания записи в буфере ({@code kafka.producer.record.queue.time.*}).
  */
 @Configuration
 @EnableConfigurationProperties(KafkaProperties.class)
 public class KafkaConfig {
 
+    private static final String UPLOAD_PROFILE = "upload";
+    private static final String STATUS_PROFILE = "status";
+
     private final KafkaProperties kafkaProperties;
 
+    @Value("${spring.application.name:file-uploader}")
+    private String applicationName;
+
     /**
      * Конструктор конфигурации Kafka.
      *
@@ -31,10 +49,50 @@ public class KafkaConfig {
     }
 
     /**
-     * Фабрика производителей Kafka
+     * Фабрика производителей Kafka для топика загрузок
+     */
+    @Bean
+    @Primary
+    public ProducerFactory<String, Object> producerFactory(MeterRegistry meterRegistry) {
+        return createProducerFactory(UPLOAD_PROFILE, kafkaProperties.getProducer().getUpload(), meterRegistry);
+    }
+
+    /**
+     * Фабрика производителей Kafka для топика статусов
+     */
+    @Bean
+    public ProducerFactory<String, Object> statusProducerFactory(MeterRegistry meterRegistry) {
+        return createProducerFactory(STATUS_PROFILE, kafkaProperties.getProducer().getStatus(), meterRegistry);
+    }
+
+    /**
+     * Шаблон Kafka для отправки файлов
      */
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    @Primary
+    public KafkaTemplate<String, Object> kafkaTemplate(
+            @Qualifier("producerFactory") ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * Шаблон Kafka для отправки статусов
+     */
+    @Bean
+    public KafkaTemplate<String, Object> statusKafkaTemplate(
+            @Qualifier("statusProducerFactory") ProducerFactory<String, Object> statusProducerFactory) {
+        return new KafkaTemplate<>(statusProducerFactory);
+    }
+
+    /**
+     * Конфигурация производителя для профиля.
+     *
+     * @param name    имя профиля, входит в client.id производителя
+     * @param profile параметры профиля
+     * @return свойства производителя Kafka
+     */
+    public Map<String, Object> producerConfigs(String name, KafkaProperties.Tuning profile) {
+        KafkaProperties.Producer producer = kafkaProperties.getProducer();
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(
                 ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
@@ -42,21 +100,52 @@ public class KafkaConfig {
         );
         configProps.put(
                 ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
-                kafkaProperties.getProducer().getKeySerializer()
+                producer.getKeySerializer()
         );
         configProps.put(
                 ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-                kafkaProperties.getProducer().getValueSerializer()
+                producer.getValueSerializer()
         );
+        configProps.put(ProducerConfig.CLIENT_ID_CONFIG, applicationName + "-" + name);
+        applyTuning(configProps, producer.resolve(profile));
+        return configProps;
+    }
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+    private ProducerFactory<String, Object> createProducerFactory(String name, KafkaProperties.Tuning profile,
+                                                                  MeterRegistry meterRegistry) {
+        DefaultKafkaProducerFactory<String, Object> factory =
+                new DefaultKafkaProducerFactory<>(producerConfigs(name, profile));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry, List.of(Tag.of("profile", name))));
+        return factory;
     }
 
     /**
-     * Шаблон Kafka для отправки сообщений
+     * Настройки отправки: сжатие, подтверждения, идемпотентность, пакетирование, размеры буферов и ожидание места в буфере
      */
-    @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    private void applyTuning(Map<String, Object> configProps, KafkaProperties.Tuning tuning) {
+        if (tuning.getCompressionType() != null) {
+            configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, tuning.getCompressionType());
+        }
+        if (tuning.getAcks() != null) {
+            configProps.put(ProducerConfig.ACKS_CONFIG, tuning.getAcks());
+        }
+        if (tuning.getEnableIdempotence() != null) {
+            configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, tuning.getEnableIdempotence());
+        }
+        if (tuning.getLinger() != null) {
+            configProps.put(ProducerConfig.LINGER_MS_CONFIG, tuning.getLinger().toMillis());
+        }
+        if (tuning.getBatchSize() != null) {
+            configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, (int) tuning.getBatchSize().toBytes());
+        }
+        if (tuning.getBufferMemory() != null) {
+            configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, tuning.getBufferMemory().toBytes());
+        }
+        if (tuning.getMaxRequestSize() != null) {
+            configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, (int) tuning.getMaxRequestSize().toBytes());
+        }
+        if (tuning.getMaxBlock() != null) {
+            configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, tuning.getMaxBlock().toMillis());
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,12 @@
 package itmo.programming.config;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @Configuration
 @ConfigurationProperties(prefix = "spring.kafka")
@@ -12,10 +16,58 @@ public class KafkaProperties {
     private Producer producer = new Producer();
     private Consumer consumer = new Consumer();
 
+    /**
+     * Настройки производителя: общие параметры и профили для топика загрузок и топика статусов.
+     * Параметры профиля, которые не заданы, берутся из общих.
+     */
     @Data
-    public static class Producer {
+    @EqualsAndHashCode(callSuper = true)
+    public static class Producer extends Tuning {
         private String keySerializer;
         private String valueSerializer;
+        private Tuning upload = new Tuning();
+        private Tuning status = new Tuning();
+
+        /**
+         * Итоговые параметры профиля с учетом общих.
+         *
+         * @param profile профиль топика
+         * @return параметры, где незаданные в профиле значения взяты из общих
+         */
+        public Tuning resolve(Tuning profile) {
+            Tuning resolved = new Tuning();
+            resolved.setCompressionType(pick(profile.getCompressionType(), getCompressionType()));
+            resolved.setAcks(pick(profile.getAcks(), getAcks()));
+            resolved.setEnableIdempotence(pick(profile.getEnableIdempotence(), getEnableIdempotence()));
+            resolved.setLinger(pick(profile.getLinger(), getLinger()));
+            resolved.setBatchSize(pick(profile.getBatchSize(), getBatchSize()));
+            resolved.setBufferMemory(pick(profile.getBufferMemory(), getBufferMemory()));
+            resolved.setMaxRequestSize(pick(profile.getMaxRequestSize(), getMaxRequestSize()));
+            resolved.setMaxBlock(pick(profile.getMaxBlock(), getMaxBlock()));
+            return resolved;
+        }
+
+        private static <T> T pick(T value, T fallback) {
+            return value != null ? value : fallback;
+        }
+    }
+
+    /**
+     * Параметры отправки; незаданные значения остаются по умолчанию клиента Kafka.
+     */
+    @Data
+    public static class Tuning {
+        private String compressionType;
+        private String acks;
+        private Boolean enableIdempotence;
+        private Duration linger;
+        private DataSize batchSize;
+        private DataSize bufferMemory;
+        private DataSize maxRequestSize;
+        /**
+         * Максимальное ожидание места в буфере при отправке; ограничивает блокировку потока запроса.
+         */
+        private Duration maxBlock;
     }
 
     @Data
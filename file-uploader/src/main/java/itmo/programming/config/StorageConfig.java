@@ -0,0 +1,28 @@
+package itmo.programming.config;
+
+import itmo.programming.storage.BlobStore;
+import itmo.programming.storage.LocalFileBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Конфигурация хранилища содержимого файлов.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Value("${app.storage.root:${java.io.tmpdir}/firestarter-storage}")
+    private String storageRoot;
+
+    /**
+     * Хранилище содержимого загружаемых файлов.
+     */
+    @Bean
+    public BlobStore blobStore() throws IOException {
+        return new LocalFileBlobStore(Path.of(storageRoot));
+    }
+}
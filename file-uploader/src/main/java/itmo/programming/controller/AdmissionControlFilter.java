@@ -0,0 +1,116 @@
+package itmo.programming.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.service.AdmissionControlService;
+import itmo.programming.service.AdmissionControlService.Admission;
+import itmo.programming.service.FileValidationService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Контроль допуска для запросов загрузки, включая части докачиваемых загрузок.
+ * Фильтр срабатывает до разбора multipart, поэтому отклоненная загрузка не читается и не пишется на диск.
+ * Объем загрузки берется из Content-Length, без него - по максимальному размеру файла.
+ * При превышении ограничений возвращается 429, при отставании обработки - 503, оба с заголовком Retry-After.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Set<String> UPLOAD_PATHS = Set.of("/upload", "/upload/async", "/upload/batch");
+    private static final Pattern CHUNK_PATH = Pattern.compile("/upload/sessions/[^/]+/chunks/[^/]+");
+
+    private final AdmissionControlService admissionControlService;
+    private final FileValidationService validationService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.PUT.matches(request.getMethod())) {
+            return !CHUNK_PATH.matcher(path).matches();
+        }
+        return !HttpMethod.POST.matches(request.getMethod()) || !UPLOAD_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long contentLength = request.getContentLengthLong();
+        long requestBytes = contentLength >= 0 ? contentLength : validationService.getMaxFileSizeBytes();
+
+        Admission admission = admissionControlService.tryAdmit(requestBytes);
+        if (!admission.isAdmitted()) {
+            reject(response, admission);
+            return;
+        }
+        boolean asyncStarted = false;
+        try {
+            chain.doFilter(request, response);
+            asyncStarted = request.isAsyncStarted();
+        } finally {
+            if (asyncStarted) {
+                // Загрузка с ожиданием результата занимает место до завершения асинхронной обработки
+                request.getAsyncContext().addListener(new ReleasingListener(admission));
+            } else {
+                admission.close();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, Admission admission) throws IOException {
+        boolean overloaded = admission.getDecision() == AdmissionControlService.Decision.OVERLOADED;
+        HttpStatus status = overloaded ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        long retryAfterSeconds = Math.max(1, (admission.getRetryAfter().toMillis() + 999) / 1000);
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        // Тело запроса не читается, соединение закрывается, чтобы контейнер не дочитывал его
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(overloaded ? "SERVICE_OVERLOADED" : "TOO_MANY_REQUESTS", admission.getReason()));
+    }
+
+    /**
+     * Освобождение допуска по завершении асинхронного запроса.
+     */
+    private record ReleasingListener(Admission admission) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            admission.close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            admission.close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            admission.close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
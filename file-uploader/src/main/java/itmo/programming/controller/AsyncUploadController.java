@@ -0,0 +1,129 @@
+package itmo.programming.controller;
+
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.response.UploadResponse;
+import itmo.programming.service.AsyncUploadExecutor;
+import itmo.programming.service.SpooledUpload;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Контроллер асинхронной загрузки файлов.
+ * {@code POST /upload/async} отвечает сразу после записи содержимого на диск, с кодом 202 и адресом статуса файла;
+ * проверка и отправка в Kafka выполняются в {@link AsyncUploadExecutor} тем же путем, что и {@code POST /upload}.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class AsyncUploadController {
+
+    private final UploadPipeline pipeline;
+    private final AsyncUploadExecutor asyncExecutor;
+
+    // Адрес file-status-processor для ссылки на статус в ответе 202; не включает запросы статуса при дедупликации
+    @Value("${app.upload.async.status-url:${app.dedup.status-service-url:}}")
+    private String statusServiceUrl;
+
+    @Value("${app.upload.async.wait-timeout:30s}")
+    private Duration asyncWaitTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Асинхронная загрузка файла: ответ 202 с хешем и адресом статуса возвращается,
+     * как только содержимое сохранено на диск, а проверка и отправка в Kafka выполняются в {@link AsyncUploadExecutor}.
+     * Результат обработки отражается в статусах файла.
+     *
+     * @param file загружаемый файл
+     * @return 202 с хешем и адресом статуса или ошибка приема
+     */
+    @PostMapping(value = "/upload/async", params = "wait!=true")
+    public ResponseEntity<?> uploadFileAsync(@RequestParam("file") MultipartFile file) {
+        AsyncSubmission submission = submit(file);
+        return submission.rejection() != null ? submission.rejection() : accepted(submission.fileHash());
+    }
+
+    /**
+     * Асинхронная загрузка файла с ожиданием результата без занятия потока запроса.
+     * Ответ совпадает с ответом {@code POST /upload}; если обработка не успела за {@code app.upload.async.wait-timeout},
+     * возвращается 202 с адресом статуса, а обработка продолжается.
+     *
+     * @param file загружаемый файл
+     * @return future с результатом загрузки
+     */
+    @PostMapping(value = "/upload/async", params = "wait=true")
+    public CompletableFuture<ResponseEntity<?>> uploadFileAndWait(@RequestParam("file") MultipartFile file) {
+        AsyncSubmission submission = submit(file);
+        if (submission.rejection() != null) {
+            return CompletableFuture.completedFuture(submission.rejection());
+        }
+        return submission.result().completeOnTimeout(accepted(submission.fileHash()),
+                asyncWaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Прием содержимого с записью на диск и постановка обработки в очередь.
+     */
+    private AsyncSubmission submit(MultipartFile file) {
+        StageTrace trace = StageTrace.start(Stage.UPLOAD_RECEIVED);
+        SpooledUpload upload;
+        try {
+            upload = pipeline.receive(file, true);
+        } catch (IOException | FileValidationException e) {
+            return AsyncSubmission.rejected(pipeline.receiveFailure(file, e));
+        }
+
+        MultipartFile spooledFile = upload.asMultipartFile(file);
+        try {
+            CompletableFuture<ResponseEntity<?>> result = asyncExecutor.<ResponseEntity<?>>submit(
+                    () -> pipeline.process(spooledFile, upload, trace))
+                    .exceptionally(e -> {
+                        log.error("Async upload of {} failed: {}", upload.getFileHash(), e.getMessage());
+                        return ResponseEntity.internalServerError()
+                                .body(new ErrorResponse("INTERNAL_ERROR", "File processing failed"));
+                    });
+            return new AsyncSubmission(upload.getFileHash(), result, null);
+        } catch (RejectedExecutionException e) {
+            log.warn("Async upload queue is full, rejecting {}", file.getOriginalFilename());
+            UploadPipeline.closeQuietly(upload);
+            return AsyncSubmission.rejected(pipeline.overloaded("Upload queue is full"));
+        }
+    }
+
+    /**
+     * Ответ 202 с адресом статуса файла.
+     */
+    private ResponseEntity<?> accepted(String fileHash) {
+        String statusUrl = statusServiceUrl == null || statusServiceUrl.isBlank()
+                ? "/status/" + fileHash
+                : statusServiceUrl.replaceAll("/+$", "") + "/status/" + fileHash;
+        UploadResponse response = new UploadResponse(fileHash, "File accepted for processing");
+        response.setStatusUrl(statusUrl);
+        return ResponseEntity.accepted().location(URI.create(statusUrl)).body(response);
+    }
+
+    /**
+     * Результат постановки асинхронной загрузки: хеш и future обработки либо ответ с отказом.
+     */
+    private record AsyncSubmission(String fileHash, CompletableFuture<ResponseEntity<?>> result,
+                                   ResponseEntity<?> rejection) {
+
+        static AsyncSubmission rejected(ResponseEntity<?> rejection) {
+            return new AsyncSubmission(null, null, rejection);
+        }
+    }
+}
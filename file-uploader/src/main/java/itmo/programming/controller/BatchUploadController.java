@@ -0,0 +1,317 @@
+package itmo.programming.controller;
+
+import itmo.programming.common.FileEvent;
+import itmo.programming.common.Status;
+import itmo.programming.exception.ArchiveLimitException;
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.response.UploadResponse;
+import itmo.programming.service.ArchiveExtractionService;
+import itmo.programming.service.ArchiveExtractionService.ArchiveEntry;
+import itmo.programming.service.ArchiveExtractionService.ExtractionBudget;
+import itmo.programming.service.AsyncUploadExecutor;
+import itmo.programming.service.DeduplicationService;
+import itmo.programming.service.FileValidationService;
+import itmo.programming.service.KafkaService;
+import itmo.programming.service.SpooledUpload;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Контроллер пакетной загрузки.
+ * {@code POST /upload/batch} принимает много файлов одним запросом, в том числе ZIP архивы с файлами;
+ * каждый файл проходит те же проверки, что и в {@code POST /upload}, а результат возвращается по каждому файлу.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class BatchUploadController {
+
+    private final UploadPipeline pipeline;
+    private final FileValidationService validationService;
+    private final KafkaService kafkaService;
+    private final DeduplicationService deduplicationService;
+    private final AsyncUploadExecutor asyncExecutor;
+    private final ArchiveExtractionService archiveService;
+
+    @Value("${app.upload.batch.max-files:100}")
+    private int maxBatchFiles = 100;
+
+    @Value("${app.upload.batch.send-timeout:30s}")
+    private Duration batchSendTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Пакетная загрузка файлов одним запросом.
+     * Файлы принимаются и проверяются параллельно в {@link AsyncUploadExecutor}, затем события всех принятых файлов
+     * отправляются в Kafka подряд и собираются продюсером в общие пакеты; ответ формируется после подтверждения
+     * записи брокером. Ошибка одного файла не прерывает обработку остальных.
+     * ZIP архивы распаковываются потоком, каждый файл архива обрабатывается как отдельный файл пакета
+     * и учитывается в {@code app.upload.batch.max-files}. Количество файлов и распакованный размер архивов
+     * ограничены на весь запрос; при превышении запрос отклоняется целиком с 413.
+     *
+     * @param files загружаемые файлы
+     * @return результаты загрузки в порядке файлов запроса
+     */
+    @PostMapping("/upload/batch")
+    public ResponseEntity<?> uploadBatch(@RequestParam("files") List<MultipartFile> files) {
+        if (files.isEmpty() || files.size() > maxBatchFiles) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("VALIDATION_ERROR",
+                    "Batch must contain from 1 to " + maxBatchFiles + " files, got " + files.size()));
+        }
+        log.info("Batch upload started: {} files", files.size());
+        List<BatchItem> items = new ArrayList<>();
+        try {
+            long archives = files.stream().filter(file -> archiveService.isArchive(file.getOriginalFilename())).count();
+            ExtractionBudget budget = archiveService.newBudget(maxBatchFiles - files.size() + (int) archives);
+            for (MultipartFile file : files) {
+                if (archiveService.isArchive(file.getOriginalFilename())) {
+                    items.addAll(extractArchive(file, budget));
+                } else {
+                    items.add(new BatchItem(file, StageTrace.start(Stage.UPLOAD_RECEIVED)));
+                }
+            }
+            asyncExecutor.invokeAll(items.stream()
+                    .<Supplier<BatchItem>>map(item -> () -> prepareBatchItem(item))
+                    .toList());
+            publishBatch(items);
+        } catch (ArchiveLimitException e) {
+            log.error("Batch upload rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+        } finally {
+            items.stream().map(BatchItem::getUpload).filter(Objects::nonNull).forEach(UploadPipeline::closeQuietly);
+        }
+        return ResponseEntity.ok(items.stream().map(BatchItem::getResponse).toList());
+    }
+
+    /**
+     * Потоковая распаковка архива пакета; каждый файл архива становится отдельным файлом пакета
+     * с уже посчитанным хешем. Поврежденный архив или архив со слишком большим файлом отклоняется целиком,
+     * исчерпание бюджета распаковки запроса прерывает весь запрос.
+     */
+    private List<BatchItem> extractArchive(MultipartFile archive, ExtractionBudget budget) {
+        StageTrace trace = StageTrace.start(Stage.UPLOAD_RECEIVED);
+        try (InputStream content = archive.getInputStream()) {
+            List<BatchItem> entries = new ArrayList<>();
+            long maxEntrySize = validationService.getMaxFileSizeBytes();
+            for (ArchiveEntry entry : archiveService.extract(content, maxEntrySize, budget)) {
+                MultipartFile file = entry.upload().asMultipartFile(archive.getName(), entry.name(), entry.contentType());
+                BatchItem item = new BatchItem(file, trace.copy());
+                item.upload = entry.upload();
+                entries.add(item);
+            }
+            log.info("Archive {} extracted: {} files", archive.getOriginalFilename(), entries.size());
+            return entries;
+        } catch (ArchiveLimitException e) {
+            throw e;
+        } catch (IOException | FileValidationException e) {
+            log.error("Archive {} was not extracted: {}", archive.getOriginalFilename(), e.getMessage());
+            BatchItem rejected = new BatchItem(archive, trace);
+            return List.of(e instanceof FileValidationException
+                    ? rejected.fail(null, "VALIDATION_ERROR", e.getMessage())
+                    : rejected.fail(null, "INTERNAL_ERROR", "Failed to process file"));
+        }
+    }
+
+    /**
+     * Прием, проверка и перенос в хранилище одного файла пакета; выполняется параллельно для файлов пакета.
+     * Файлы архива приходят уже принятыми во временные файлы.
+     */
+    private BatchItem prepareBatchItem(BatchItem item) {
+        if (item.response != null) {
+            return item;
+        }
+        MultipartFile file = item.file;
+        if (item.upload == null) {
+            try {
+                item.upload = pipeline.receive(file, false);
+            } catch (IOException | FileValidationException e) {
+                log.error("Batch file {} was not received: {}", file.getOriginalFilename(), e.getMessage());
+                return e instanceof FileValidationException
+                        ? item.fail(null, "VALIDATION_ERROR", e.getMessage())
+                        : item.fail(null, "INTERNAL_ERROR", "Failed to process file");
+            }
+        }
+
+        String fileHash = item.upload.getFileHash();
+        item.version = pipeline.nextVersion(fileHash);
+        try {
+            validationService.validateFile(file);
+            Optional<Status> knownStatus = deduplicationService.findKnownStatus(fileHash);
+            if (knownStatus.isPresent()) {
+                return item.respond(pipeline.duplicateResponse(fileHash, knownStatus.get()));
+            }
+            item.event = pipeline.storeContent(file, item.upload, item.version, item.trace);
+            return item;
+        } catch (FileValidationException e) {
+            log.error("Validation failed for batch file {}: {}", file.getOriginalFilename(), e.getMessage());
+            pipeline.sendStatusEvent(fileHash, file.getOriginalFilename(), Status.PRIMARY_VALIDATION_FAILED,
+                    e.getMessage(), item.version, item.trace);
+            return item.fail(fileHash, "VALIDATION_ERROR", e.getMessage());
+        } catch (Exception e) {
+            log.error("Internal error for batch file {}: {}", file.getOriginalFilename(), e.getMessage());
+            pipeline.sendStatusEvent(fileHash, file.getOriginalFilename(), Status.UPLOAD_ERROR, e.getMessage(),
+                    item.version, item.trace);
+            return item.fail(fileHash, "INTERNAL_ERROR", "File processing failed");
+        }
+    }
+
+    /**
+     * Отправка статусов и событий принятых файлов пакета с ожиданием подтверждения записи брокером.
+     * Одинаковое содержимое, встретившееся в пакете несколько раз, отправляется один раз.
+     */
+    private void publishBatch(List<BatchItem> items) {
+        Set<String> batchHashes = new HashSet<>();
+        List<BatchItem> accepted = new ArrayList<>();
+        for (BatchItem item : items) {
+            if (item.event == null) {
+                continue;
+            }
+            String fileHash = item.event.getFileHash();
+            if (!batchHashes.add(fileHash)) {
+                item.respond(pipeline.duplicateResponse(fileHash, Status.RECEIVED));
+                continue;
+            }
+            String fileName = item.file.getOriginalFilename();
+            pipeline.sendStatusEvent(fileHash, fileName, Status.RECEIVED, null, item.version, item.trace);
+            pipeline.sendStatusEvent(fileHash, fileName, Status.PRIMARY_VALIDATION_SUCCESS, null,
+                    item.version, item.trace);
+            accepted.add(item);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + batchSendTimeout.toNanos();
+        List<CompletableFuture<?>> acks = pipeline.isKafkaTransport()
+                ? sendChunkedBatch(accepted, deadline)
+                : kafkaService.sendFilesToProcessing(accepted.stream().map(item -> item.event).toList());
+        awaitAcks(acks, deadline);
+
+        int failed = 0;
+        for (int i = 0; i < accepted.size(); i++) {
+            BatchItem item = accepted.get(i);
+            String fileHash = item.event.getFileHash();
+            CompletableFuture<?> ack = acks.get(i);
+            // Запись без подтверждения к концу ожидания считается неудачной: брокер мог ее не принять
+            boolean timedOut = !ack.isDone();
+            if (timedOut || ack.isCompletedExceptionally()) {
+                failed++;
+                pipeline.sendStatusEvent(fileHash, item.file.getOriginalFilename(), Status.UPLOAD_ERROR,
+                        timedOut ? "Kafka acknowledgement timed out" : "Kafka communication error",
+                        item.version, item.trace);
+                if (timedOut) {
+                    item.fail(fileHash, "ACK_TIMEOUT", "File was not acknowledged in time, retry the upload");
+                } else {
+                    item.fail(fileHash, "INTERNAL_ERROR", "File processing failed");
+                }
+            } else {
+                deduplicationService.markAccepted(fileHash);
+                item.respond(new UploadResponse(fileHash, "File accepted and queued for processing"));
+            }
+        }
+        log.info("Batch upload finished: {} of {} files accepted", accepted.size() - failed, items.size());
+    }
+
+    /**
+     * Отправка пакета частями: сначала части всех файлов, затем события файлов, части которых подтверждены.
+     * Для файла с неподтвержденными частями событие не отправляется, его результатом остается future частей.
+     */
+    private List<CompletableFuture<?>> sendChunkedBatch(List<BatchItem> items, long deadline) {
+        List<CompletableFuture<?>> acks = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            try {
+                acks.add(kafkaService.sendChunks(item.event, item.upload.getPath(), item.upload.getSize()));
+            } catch (Exception e) {
+                acks.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        awaitAcks(acks, deadline);
+
+        List<Integer> ready = new ArrayList<>();
+        for (int i = 0; i < acks.size(); i++) {
+            if (acks.get(i).isDone() && !acks.get(i).isCompletedExceptionally()) {
+                ready.add(i);
+            }
+        }
+        if (!ready.isEmpty()) {
+            List<CompletableFuture<?>> sent = kafkaService.sendFilesToProcessing(
+                    ready.stream().map(i -> items.get(i).event).toList());
+            for (int i = 0; i < ready.size(); i++) {
+                acks.set(ready.get(i), sent.get(i));
+            }
+        }
+        return acks;
+    }
+
+    /**
+     * Ожидание подтверждений записи брокером до общего для пакета срока.
+     * Результат каждого файла разбирается по его future после ожидания.
+     */
+    private void awaitAcks(List<CompletableFuture<?>> acks, long deadline) {
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Batch of {} files was not fully acknowledged: {}", acks.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Файл пакетной загрузки и результат его обработки.
+     */
+    @Getter
+    private static final class BatchItem {
+        private final MultipartFile file;
+        private final StageTrace trace;
+        // Версия попытки обработки: события новой загрузки заменяют статусы предыдущей; задается, когда известен хеш
+        private long version;
+        private SpooledUpload upload;
+        private FileEvent event;
+        private UploadResponse response;
+
+        BatchItem(MultipartFile file, StageTrace trace) {
+            this.file = file;
+            this.trace = trace;
+        }
+
+        BatchItem respond(UploadResponse response) {
+            response.setFileName(file.getOriginalFilename());
+            this.response = response;
+            return this;
+        }
+
+        BatchItem fail(String fileHash, String errorType, String message) {
+            UploadResponse failure = new UploadResponse(fileHash, "File rejected");
+            failure.setError(new ErrorResponse(errorType, message));
+            return respond(failure);
+        }
+    }
+}
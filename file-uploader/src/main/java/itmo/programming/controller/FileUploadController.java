@@ -1,13 +1,11 @@
 package itmo.programming.controller;
 
-import itmo.programming.common.Status;
 import itmo.programming.response.ErrorResponse;
-import itmo.programming.common.FileEvent;
-import itmo.programming.common.StatusEvent;
-import itmo.programming.response.UploadResponse;
 import itmo.programming.exception.FileValidationException;
-import itmo.programming.service.FileValidationService;
-import itmo.programming.service.KafkaService;
+import itmo.programming.service.ArchiveExtractionService;
+import itmo.programming.service.SpooledUpload;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -17,117 +15,47 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
 /**
  * Контроллер для загрузки файлов.
+ * {@code POST /upload} отвечает после отправки файла в Kafka; асинхронный прием - в {@link AsyncUploadController}.
+ * Содержимое передается на обработку через общее хранилище; при {@code app.storage.transport=kafka}
+ * оно отправляется частями в топик загрузок, для установок без общего хранилища.
+ * Пакетная загрузка и ZIP архивы - в {@link BatchUploadController},
+ * докачиваемая загрузка по частям - в {@link UploadSessionController}.
  */
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class FileUploadController {
 
-    private final FileValidationService validationService;
-    private final KafkaService kafkaService;
+    private final UploadPipeline pipeline;
+    private final ArchiveExtractionService archiveService;
 
     /**
      * Обработка загрузки файла.
+     * Содержимое читается один раз: хеш и размер считаются при копировании во временный файл,
+     * который затем переносится в хранилище.
+     * Трасса этапов начинается с момента входа в метод и передается во все события файла.
+     * ZIP архивы принимаются только {@code POST /upload/batch}, здесь они отклоняются до приема содержимого.
      *
      * @param file загружаемый файл
      * @return ResponseEntity с результатом загрузки
      */
     @PostMapping("/upload")
     public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file) {
-        String fileHash = null;
-        try {
-            fileHash = generateFileHash(file);
-        } catch (IOException e) {
-            log.error("Failed to read file for hashing: {}", e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to process file"));
-        } catch (NoSuchAlgorithmException e) {
-            log.error("Hashing algorithm not found: {}", e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(new ErrorResponse("INTERNAL_ERROR", "Server configuration error"));
+        if (archiveService.isArchive(file.getOriginalFilename())) {
+            log.error("Archive {} rejected: archives are accepted only by /upload/batch", file.getOriginalFilename());
+            return ResponseEntity.badRequest().body(new ErrorResponse("VALIDATION_ERROR",
+                    "ZIP archives must be uploaded to /upload/batch"));
         }
-
-
+        StageTrace trace = StageTrace.start(Stage.UPLOAD_RECEIVED);
+        SpooledUpload upload;
         try {
-            log.info("File upload started: {}", file.getOriginalFilename());
-
-            // 1. Первичная валидация
-            validationService.validateFile(file);
-
-            // 2. Отправка статуса "файл принят"
-            sendStatusEvent(fileHash, file.getOriginalFilename(), Status.RECEIVED, null);
-
-            // 3. Отправка статуса "первичная валидация успешна"
-            sendStatusEvent(fileHash, file.getOriginalFilename(), Status.PRIMARY_VALIDATION_SUCCESS, null);
-
-            // 4. Отправка файла в Kafka для обработки
-            sendToKafkaUpload(file, fileHash);
-
-            log.info("File uploaded successfully: {}", fileHash);
-            return ResponseEntity.ok(new UploadResponse(fileHash, "File accepted and queued for processing"));
-
-        } catch (FileValidationException e) {
-            log.error("Validation failed for file: {}", e.getMessage());
-
-            sendStatusEvent(fileHash, file.getOriginalFilename(), Status.PRIMARY_VALIDATION_FAILED, e.getMessage());
-
-
-            return ResponseEntity.internalServerError()
-                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
-
-        } catch (Exception e) {
-            log.error("Internal error during file upload: {}", e.getMessage());
-
-            sendStatusEvent(fileHash, file.getOriginalFilename(), Status.UPLOAD_ERROR, e.getMessage());
-
-            return ResponseEntity.internalServerError()
-                    .body(new ErrorResponse("INTERNAL_ERROR", "File processing failed"));
-        }
-    }
-
-    /**
-     * Генерация SHA-256 хеша файла
-     */
-    private String generateFileHash(MultipartFile file) throws IOException, NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] fileBytes = file.getBytes();
-        byte[] hashBytes = digest.digest(fileBytes);
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hashBytes) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) hexString.append('0');
-            hexString.append(hex);
-        }
-
-        return hexString.toString();
-    }
-
-    /**
-     * Отправка файла в Kafka для дальнейшей обработки
-     */
-    private void sendToKafkaUpload(MultipartFile file, String fileHash) throws IOException {
-        FileEvent event = new FileEvent(
-                fileHash,
-                file.getOriginalFilename(),
-                file.getBytes()
-        );
-
-        kafkaService.sendFileToProcessing(event);
-    }
-
-    /**
-     * Отправка события статуса в Kafka
-     */
-    private void sendStatusEvent(String fileHash, String fileName, Status status, String errorMessage) {
-        StatusEvent event = new StatusEvent(fileHash, status, fileName);
-        if (errorMessage != null) {
-            event.setErrorMessage(errorMessage);
+            upload = pipeline.receive(file, false);
+        } catch (IOException | FileValidationException e) {
+            return pipeline.receiveFailure(file, e);
         }
-        kafkaService.sendStatusEvent(event);
+        return pipeline.process(file, upload, trace);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package itmo.programming.controller;
+
+import itmo.programming.response.ErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+/**
+ * Обработчик ошибок, возникающих до вызова контроллера загрузки.
+ */
+@Slf4j
+@RestControllerAdvice
+public class UploadExceptionHandler {
+
+    /**
+     * Загрузка прервана контейнером сервлетов: тело запроса превысило ограничение размера.
+     *
+     * @param e исключение превышения размера
+     * @return ResponseEntity с ошибкой валидации
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ErrorResponse> handleMaxUploadSize(MaxUploadSizeExceededException e) {
+        log.error("Upload aborted by multipart limit: {}", e.getMessage());
+        return ResponseEntity.internalServerError()
+                .body(new ErrorResponse("VALIDATION_ERROR", "File size exceeds limit"));
+    }
+}
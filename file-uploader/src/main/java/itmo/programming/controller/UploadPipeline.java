@@ -0,0 +1,225 @@
+package itmo.programming.controller;
+
+import itmo.programming.common.FileEvent;
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.response.UploadResponse;
+import itmo.programming.service.AttemptVersionClock;
+import itmo.programming.service.DeduplicationService;
+import itmo.programming.service.FileValidationService;
+import itmo.programming.service.KafkaService;
+import itmo.programming.service.SpooledUpload;
+import itmo.programming.service.UploadSpoolService;
+import itmo.programming.storage.BlobStore;
+import itmo.programming.trace.StageTrace;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Общий для контроллеров загрузки путь файла: прием содержимого во временный файл, проверка, дедупликация,
+ * перенос в хранилище и отправка событий в Kafka.
+ * Ответы на ошибки приема и перегрузку формируются здесь, чтобы все способы загрузки отвечали одинаково.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadPipeline {
+
+    private final FileValidationService validationService;
+    private final KafkaService kafkaService;
+    private final BlobStore blobStore;
+    private final UploadSpoolService spoolService;
+    private final DeduplicationService deduplicationService;
+    private final AttemptVersionClock versionClock;
+
+    @Value("${app.storage.transport:blob-store}")
+    private String contentTransport;
+
+    @Value("${app.upload.async.retry-after:1s}")
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Прием содержимого файла запроса во временный файл с подсчетом хеша и проверкой размера.
+     *
+     * @param file     загружаемый файл
+     * @param transfer перенести файл запроса переименованием, если контейнер уже записал его на диск
+     * @return содержимое во временном файле
+     * @throws FileValidationException если файл больше допустимого размера
+     * @throws IOException             при ошибке чтения или записи
+     */
+    SpooledUpload receive(MultipartFile file, boolean transfer) throws IOException {
+        return spoolService.spool(file, validationService.getMaxFileSizeBytes(), transfer);
+    }
+
+    /**
+     * Ответ на ошибку приема содержимого.
+     */
+    ResponseEntity<?> receiveFailure(MultipartFile file, Exception e) {
+        if (e instanceof FileValidationException) {
+            log.error("Upload aborted for file {}: {}", file.getOriginalFilename(), e.getMessage());
+            return ResponseEntity.internalServerError()
+                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+        }
+        log.error("Failed to read file for hashing: {}", e.getMessage());
+        return ResponseEntity.internalServerError()
+                .body(new ErrorResponse("INTERNAL_ERROR", "Failed to process file"));
+    }
+
+    /**
+     * Ответ 503 с Retry-After при заполненной очереди или исчерпании сессий.
+     */
+    ResponseEntity<?> overloaded(String message) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())))
+                .body(new ErrorResponse("SERVICE_OVERLOADED", message));
+    }
+
+    /**
+     * Проверка, дедупликация и отправка в Kafka принятого файла; временный файл удаляется по окончании.
+     *
+     * @param file   загружаемый файл
+     * @param upload содержимое во временном файле
+     * @param trace  трасса этапов обработки
+     * @return ResponseEntity с результатом загрузки
+     */
+    ResponseEntity<?> process(MultipartFile file, SpooledUpload upload, StageTrace trace) {
+        String fileHash = upload.getFileHash();
+        // Версия попытки обработки: события новой загрузки заменяют статусы предыдущей
+        long version = nextVersion(fileHash);
+        try (upload) {
+            log.info("File upload started: {}", file.getOriginalFilename());
+
+            // 1. Первичная валидация
+            validationService.validateFile(file);
+
+            // 2. Повторная загрузка уже известного содержимого не обрабатывается заново
+            Optional<Status> knownStatus = deduplicationService.findKnownStatus(fileHash);
+            if (knownStatus.isPresent()) {
+                log.info("Duplicate upload of {} short-circuited with status {}", fileHash, knownStatus.get());
+                return ResponseEntity.ok(duplicateResponse(fileHash, knownStatus.get()));
+            }
+
+            // 3. Отправка статуса "файл принят"
+            sendStatusEvent(fileHash, file.getOriginalFilename(), Status.RECEIVED, null, version, trace);
+
+            // 4. Отправка статуса "первичная валидация успешна"
+            sendStatusEvent(fileHash, file.getOriginalFilename(), Status.PRIMARY_VALIDATION_SUCCESS, null, version, trace);
+
+            // 5. Отправка файла в Kafka для обработки
+            sendToKafkaUpload(file, upload, version, trace);
+            deduplicationService.markAccepted(fileHash);
+
+            log.info("File uploaded successfully: {}", fileHash);
+            return ResponseEntity.ok(new UploadResponse(fileHash, "File accepted and queued for processing"));
+
+        } catch (FileValidationException e) {
+            log.error("Validation failed for file: {}", e.getMessage());
+
+            sendStatusEvent(fileHash, file.getOriginalFilename(), Status.PRIMARY_VALIDATION_FAILED, e.getMessage(), version, trace);
+
+
+            return ResponseEntity.internalServerError()
+                    .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+
+        } catch (Exception e) {
+            log.error("Internal error during file upload: {}", e.getMessage());
+
+            sendStatusEvent(fileHash, file.getOriginalFilename(), Status.UPLOAD_ERROR, e.getMessage(), version, trace);
+
+            return ResponseEntity.internalServerError()
+                    .body(new ErrorResponse("INTERNAL_ERROR", "File processing failed"));
+        }
+    }
+
+    /**
+     * Версия новой попытки обработки файла, больше версий предыдущих попыток с тем же хешем.
+     *
+     * @param fileHash хеш файла
+     * @return версия попытки
+     */
+    long nextVersion(String fileHash) {
+        return versionClock.next(fileHash);
+    }
+
+    /**
+     * Ответ на повторную загрузку: итоговый статус или признак того, что файл уже в обработке.
+     */
+    UploadResponse duplicateResponse(String fileHash, Status knownStatus) {
+        String message = knownStatus.isTerminal()
+                ? "File already processed"
+                : "File already queued for processing";
+        return new UploadResponse(fileHash, message, knownStatus);
+    }
+
+    /**
+     * Перенос содержимого в хранилище и создание события файла со ссылкой на него;
+     * без общего хранилища ссылка появится при отправке частей
+     */
+    FileEvent storeContent(MultipartFile file, SpooledUpload upload, long version, StageTrace trace)
+            throws IOException {
+        String contentRef = isKafkaTransport() ? null : blobStore.putFile(upload.getFileHash(), upload.getPath());
+
+        FileEvent event = new FileEvent(
+                upload.getFileHash(),
+                file.getOriginalFilename(),
+                contentRef,
+                upload.getSize(),
+                file.getContentType()
+        );
+        event.setVersion(version);
+        event.setTrace(trace.copy());
+        return event;
+    }
+
+    boolean isKafkaTransport() {
+        return "kafka".equalsIgnoreCase(contentTransport);
+    }
+
+    /**
+     * Отправка события статуса в Kafka
+     */
+    void sendStatusEvent(String fileHash, String fileName, Status status, String errorMessage,
+                         long version, StageTrace trace) {
+        StatusEvent event = new StatusEvent(fileHash, status, fileName);
+        event.setVersion(version);
+        event.setTrace(trace.copy());
+        if (errorMessage != null) {
+            event.setErrorMessage(errorMessage);
+        }
+        kafkaService.sendStatusEvent(event);
+    }
+
+    static void closeQuietly(SpooledUpload upload) {
+        try {
+            upload.close();
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled upload {}: {}", upload.getPath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Перенос содержимого в хранилище и отправка ссылки на него в Kafka для дальнейшей обработки;
+     * без общего хранилища содержимое отправляется в Kafka частями
+     */
+    private void sendToKafkaUpload(MultipartFile file, SpooledUpload upload, long version, StageTrace trace)
+            throws IOException {
+        FileEvent event = storeContent(file, upload, version, trace);
+        if (isKafkaTransport()) {
+            kafkaService.sendFileInChunks(event, upload.getPath(), upload.getSize());
+        } else {
+            kafkaService.sendFileToProcessing(event);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package itmo.programming.controller;
+
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.exception.UploadSessionException;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.response.UploadSessionResponse;
+import itmo.programming.service.FileValidationService;
+import itmo.programming.service.ResumableUploadService;
+import itmo.programming.service.ResumableUploadService.UploadSession;
+import itmo.programming.service.SpooledUpload;
+import itmo.programming.trace.Stage;
+import itmo.programming.trace.StageTrace;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Контроллер докачиваемой загрузки.
+ * Большие файлы по нестабильной связи загружаются по частям через {@code /upload/sessions} с докачкой
+ * недостающих частей; после завершения сессии файл обрабатывается так же, как {@code POST /upload}.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class UploadSessionController {
+
+    /**
+     * Заголовок с SHA-256 части докачиваемой загрузки в hex.
+     */
+    public static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-SHA256";
+
+    private final UploadPipeline pipeline;
+    private final FileValidationService validationService;
+    private final ResumableUploadService resumableUploadService;
+
+    /**
+     * Начало докачиваемой загрузки. Имя и размер файла проверяются до приема содержимого.
+     *
+     * @param fileName    имя файла
+     * @param size        размер файла в байтах
+     * @param chunkSize   размер части, по умолчанию {@code app.upload.resumable.chunk-size}
+     * @param contentType тип содержимого
+     * @return 201 с идентификатором сессии, размером и количеством частей
+     */
+    @PostMapping("/upload/sessions")
+    public ResponseEntity<?> initiateSession(
+            @RequestParam("fileName") String fileName,
+            @RequestParam("size") long size,
+            @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+            @RequestParam(value = "contentType", required = false) String contentType) {
+        try {
+            validationService.validateFile(fileName, size);
+            UploadSession session = resumableUploadService.initiate(fileName, contentType, size, chunkSize);
+            return ResponseEntity.created(URI.create("/upload/sessions/" + session.getId()))
+                    .body(sessionResponse(session));
+        } catch (FileValidationException e) {
+            log.error("Upload session rejected for file {}: {}", fileName, e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
+        } catch (UploadSessionException e) {
+            return sessionFailure(e);
+        } catch (RejectedExecutionException e) {
+            log.warn("Upload session rejected for file {}: {}", fileName, e.getMessage());
+            return pipeline.overloaded(e.getMessage());
+        } catch (IOException e) {
+            log.error("Failed to start upload session for {}: {}", fileName, e.getMessage());
+            return ResponseEntity.internalServerError()
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to start upload session"));
+        }
+    }
+
+    /**
+     * Прием части докачиваемой загрузки. Тело запроса - содержимое части,
+     * заголовок {@value #CHUNK_CHECKSUM_HEADER} - ее SHA-256. Повторная отправка принятой части безопасна.
+     *
+     * @param sessionId идентификатор сессии
+     * @param index     номер части, начиная с 0
+     * @param checksum  SHA-256 части в hex
+     * @param content   содержимое части
+     * @return состояние сессии с недостающими частями
+     */
+    @PutMapping("/upload/sessions/{sessionId}/chunks/{index}")
+    public ResponseEntity<?> uploadChunk(
+            @PathVariable("sessionId") String sessionId,
+            @PathVariable("index") int index,
+            @RequestHeader(value = CHUNK_CHECKSUM_HEADER, required = false) String checksum,
+            InputStream content) {
+        try {
+            UploadSession session = resumableUploadService.putChunk(sessionId, index, content, checksum);
+            return ResponseEntity.ok(sessionResponse(session));
+        } catch (UploadSessionException e) {
+            return sessionFailure(e);
+        } catch (IOException e) {
+            log.error("Failed to store chunk {} of session {}: {}", index, sessionId, e.getMessage());
+            return ResponseEntity.internalServerError()
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to store chunk"));
+        }
+    }
+
+    /**
+     * Состояние докачиваемой загрузки, по которому клиент после обрыва определяет недостающие части.
+     *
+     * @param sessionId идентификатор сессии
+     * @return состояние сессии
+     */
+    @GetMapping("/upload/sessions/{sessionId}")
+    public ResponseEntity<?> getSession(@PathVariable("sessionId") String sessionId) {
+        try {
+            return ResponseEntity.ok(sessionResponse(resumableUploadService.getSession(sessionId)));
+        } catch (UploadSessionException e) {
+            return sessionFailure(e);
+        }
+    }
+
+    /**
+     * Завершение докачиваемой загрузки: части склеиваются, и файл обрабатывается так же, как {@code POST /upload}.
+     *
+     * @param sessionId идентификатор сессии
+     * @param sha256    ожидаемый SHA-256 файла в hex, необязательный
+     * @return ResponseEntity с результатом загрузки
+     */
+    @PostMapping("/upload/sessions/{sessionId}/complete")
+    public ResponseEntity<?> completeSession(
+            @PathVariable("sessionId") String sessionId,
+            @RequestParam(value = "sha256", required = false) String sha256) {
+        StageTrace trace = StageTrace.start(Stage.UPLOAD_RECEIVED);
+        UploadSession session;
+        SpooledUpload upload;
+        try {
+            session = resumableUploadService.getSession(sessionId);
+            upload = resumableUploadService.complete(sessionId, sha256);
+        } catch (UploadSessionException e) {
+            return sessionFailure(e);
+        } catch (IOException e) {
+            log.error("Failed to assemble upload session {}: {}", sessionId, e.getMessage());
+            return ResponseEntity.internalServerError()
+                    .body(new ErrorResponse("INTERNAL_ERROR", "Failed to process file"));
+        }
+        MultipartFile file = upload.asMultipartFile("file", session.getFileName(), session.getContentType());
+        return pipeline.process(file, upload, trace);
+    }
+
+    /**
+     * Отмена докачиваемой загрузки с удалением принятых частей.
+     *
+     * @param sessionId идентификатор сессии
+     * @return 204 или 404, если сессия не найдена
+     */
+    @DeleteMapping("/upload/sessions/{sessionId}")
+    public ResponseEntity<?> abortSession(@PathVariable("sessionId") String sessionId) {
+        try {
+            resumableUploadService.abort(sessionId);
+            return ResponseEntity.noContent().build();
+        } catch (UploadSessionException e) {
+            return sessionFailure(e);
+        }
+    }
+
+    /**
+     * Ответ на ошибку докачиваемой загрузки.
+     */
+    private ResponseEntity<?> sessionFailure(UploadSessionException e) {
+        log.warn("Upload session request failed: {}", e.getMessage());
+        return switch (e.getReason()) {
+            case NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("SESSION_NOT_FOUND", e.getMessage()));
+            case INCOMPLETE -> ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("INCOMPLETE_UPLOAD", e.getMessage()));
+            case INVALID_CHUNK, CHECKSUM_MISMATCH -> ResponseEntity.badRequest()
+                    .body(new ErrorResponse(e.getReason().name(), e.getMessage()));
+        };
+    }
+
+    private static UploadSessionResponse sessionResponse(UploadSession session) {
+        UploadSessionResponse response = new UploadSessionResponse();
+        response.setSessionId(session.getId());
+        response.setFileName(session.getFileName());
+        response.setTotalSize(session.getTotalSize());
+        response.setChunkSize(session.getChunkSize());
+        response.setChunkCount(session.getChunkCount());
+        response.setReceivedChunks(session.getReceivedCount());
+        response.setMissingChunks(session.getMissingChunks());
+        return response;
+    }
+}
@@ -0,0 +1,17 @@
+package itmo.programming.exception;
+
+/**
+ * Исключение, выбрасываемое, когда архивы запроса превышают общие для запроса ограничения распаковки:
+ * количество файлов или суммарный распакованный размер. Запрос отклоняется целиком.
+ */
+public class ArchiveLimitException extends FileValidationException {
+
+    /**
+     * Конструктор исключения.
+     *
+     * @param message сообщение об ошибке
+     */
+    public ArchiveLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,37 @@
+package itmo.programming.exception;
+
+import lombok.Getter;
+
+/**
+ * Исключение, выбрасываемое при ошибках докачиваемой загрузки.
+ */
+@Getter
+public class UploadSessionException extends RuntimeException {
+
+    /**
+     * Причина ошибки.
+     */
+    public enum Reason {
+        /** Сессия не найдена, истекла или уже завершена. */
+        NOT_FOUND,
+        /** Номер или размер части не соответствует сессии. */
+        INVALID_CHUNK,
+        /** Контрольная сумма части или файла не совпала. */
+        CHECKSUM_MISMATCH,
+        /** Получены не все части. */
+        INCOMPLETE
+    }
+
+    private final Reason reason;
+
+    /**
+     * Конструктор исключения.
+     *
+     * @param reason  причина ошибки
+     * @param message сообщение об ошибке
+     */
+    public UploadSessionException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+}
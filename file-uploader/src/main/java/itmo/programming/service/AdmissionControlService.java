@@ -0,0 +1,186 @@
+package itmo.programming.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Контроль допуска загрузок.
+ * Ограничивает количество одновременно принимаемых загрузок и их суммарный объем, а также
+ * отклоняет новые загрузки, пока отставание file-processor от топика загрузок выше порога.
+ * Решение принимается без ожидания: загрузка либо допускается сразу, либо отклоняется
+ * с рекомендуемым временем повтора. Решения считаются в счетчике {@code upload.admission}
+ * с тегом {@code result}, занятые места и байты публикуются как {@code upload.inflight.requests}
+ * и {@code upload.inflight.bytes}.
+ */
+@Slf4j
+@Service
+public class AdmissionControlService {
+
+    /**
+     * Решение о допуске загрузки.
+     */
+    public enum Decision {
+        /** Загрузка допущена. */
+        ADMITTED,
+        /** Превышены ограничения на одновременные загрузки или их объем. */
+        THROTTLED,
+        /** Обработка отстает от приема загрузок. */
+        OVERLOADED
+    }
+
+    private final boolean enabled;
+    private final int maxConcurrentUploads;
+    private final long maxInFlightBytes;
+    private final Duration retryAfter;
+    private final long maxConsumerLag;
+    private final Duration lagRetryAfter;
+    private final ConsumerLagMonitor lagMonitor;
+    private final MeterRegistry meterRegistry;
+
+    private final Semaphore slots;
+    private final AtomicLong inFlightBytes = new AtomicLong();
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param enabled              включен ли контроль допуска
+     * @param maxConcurrentUploads максимальное количество одновременных загрузок
+     * @param maxInFlightBytes     максимальный суммарный объем одновременных загрузок
+     * @param retryAfter           время повтора при превышении ограничений
+     * @param maxConsumerLag       порог отставания обработки в записях, 0 - не учитывать отставание
+     * @param lagRetryAfter        время повтора при отставании обработки
+     * @param lagMonitor           отслеживание отставания обработки
+     * @param meterRegistry        реестр метрик
+     */
+    public AdmissionControlService(
+            @Value("${app.admission.enabled:true}") boolean enabled,
+            @Value("${app.admission.max-concurrent-uploads:64}") int maxConcurrentUploads,
+            @Value("${app.admission.max-in-flight-bytes:256MB}") DataSize maxInFlightBytes,
+            @Value("${app.admission.retry-after:1s}") Duration retryAfter,
+            @Value("${app.admission.consumer-lag.max-records:0}") long maxConsumerLag,
+            @Value("${app.admission.consumer-lag.retry-after:10s}") Duration lagRetryAfter,
+            ConsumerLagMonitor lagMonitor,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.maxConcurrentUploads = maxConcurrentUploads;
+        this.maxInFlightBytes = maxInFlightBytes.toBytes();
+        this.retryAfter = retryAfter;
+        this.maxConsumerLag = maxConsumerLag;
+        this.lagRetryAfter = lagRetryAfter;
+        this.lagMonitor = lagMonitor;
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(maxConcurrentUploads);
+        Gauge.builder("upload.inflight.requests", slots, s -> maxConcurrentUploads - s.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("upload.inflight.bytes", inFlightBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Попытка допуска загрузки.
+     * Загрузка больше ограничения объема допускается, только если других загрузок нет.
+     *
+     * @param requestBytes объем загрузки
+     * @return допуск, который нужно закрыть по окончании загрузки, или отказ
+     */
+    public Admission tryAdmit(long requestBytes) {
+        if (!enabled) {
+            return record(new Admission(Decision.ADMITTED, null, null, 0));
+        }
+
+        long lag = lagMonitor.currentLag();
+        if (maxConsumerLag > 0 && lag > maxConsumerLag) {
+            log.warn("Upload rejected: processing lag {} exceeds {}", lag, maxConsumerLag);
+            return record(new Admission(Decision.OVERLOADED, lagRetryAfter,
+                    "Processing is behind by " + lag + " records", 0));
+        }
+
+        if (!slots.tryAcquire()) {
+            return record(new Admission(Decision.THROTTLED, retryAfter,
+                    "Too many concurrent uploads, limit is " + maxConcurrentUploads, 0));
+        }
+        if (!reserveBytes(requestBytes)) {
+            slots.release();
+            return record(new Admission(Decision.THROTTLED, retryAfter,
+                    "Too many bytes in flight, limit is " + DataSize.ofBytes(maxInFlightBytes), 0));
+        }
+        return record(new Admission(Decision.ADMITTED, null, null, requestBytes));
+    }
+
+    private boolean reserveBytes(long requestBytes) {
+        long bytes = Math.max(0, requestBytes);
+        while (true) {
+            long current = inFlightBytes.get();
+            if (current > 0 && current + bytes > maxInFlightBytes) {
+                return false;
+            }
+            if (inFlightBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private Admission record(Admission admission) {
+        meterRegistry.counter("upload.admission", "result", admission.getDecision().name()).increment();
+        return admission;
+    }
+
+    /**
+     * Результат попытки допуска; закрытие допущенной загрузки освобождает ее место и объем.
+     */
+    public final class Admission implements AutoCloseable {
+        private final Decision decision;
+        private final Duration retryAfter;
+        private final String reason;
+        private final long reservedBytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Admission(Decision decision, Duration retryAfter, String reason, long reservedBytes) {
+            this.decision = decision;
+            this.retryAfter = retryAfter;
+            this.reason = reason;
+            this.reservedBytes = Math.max(0, reservedBytes);
+        }
+
+        public Decision getDecision() {
+            return decision;
+        }
+
+        public boolean isAdmitted() {
+            return decision == Decision.ADMITTED;
+        }
+
+        /**
+         * Рекомендуемое время повтора для отклоненной загрузки.
+         */
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        /**
+         * Причина отказа.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public void close() {
+            if (enabled && isAdmitted() && released.compareAndSet(false, true)) {
+                inFlightBytes.addAndGet(-reservedBytes);
+                slots.release();
+            }
+        }
+    }
+}
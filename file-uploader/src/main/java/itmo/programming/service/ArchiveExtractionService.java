@@ -0,0 +1,201 @@
+package itmo.programming.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import itmo.programming.common.Status;
+import itmo.programming.exception.ArchiveLimitException;
+import itmo.programming.exception.FileValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Сервис для приема ZIP архивов с файлами.
+ * Архив читается потоком через {@link ZipInputStream}: каждый элемент сразу копируется во временный файл
+ * с подсчетом SHA-256 через {@link UploadSpoolService}, поэтому архив целиком не распаковывается ни в память, ни на диск.
+ * Для защиты от ZIP-бомб ограничены количество элементов, размер элемента и суммарный распакованный размер;
+ * чтение прерывается, как только ограничение превышено, и архив отклоняется целиком.
+ * Количество элементов и суммарный размер считаются по {@link ExtractionBudget} - общему для всех архивов запроса,
+ * поэтому много небольших архивов в одном запросе не распаковываются сверх тех же ограничений.
+ * Время приема пишется в таймер {@code upload.archive} с тегом итогового статуса.
+ */
+@Slf4j
+@Service
+public class ArchiveExtractionService {
+
+    private static final String ARCHIVE_EXTENSION = ".zip";
+
+    private final UploadSpoolService spoolService;
+    private final int maxEntries;
+    private final long maxTotalSize;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param spoolService  сервис приема содержимого
+     * @param maxEntries    максимальное количество файлов в архиве
+     * @param maxTotalSize  максимальный суммарный размер распакованных файлов
+     * @param meterRegistry реестр метрик
+     */
+    public ArchiveExtractionService(
+            UploadSpoolService spoolService,
+            @Value("${app.upload.archive.max-entries:100}") int maxEntries,
+            @Value("${app.upload.archive.max-total-size:64MB}") DataSize maxTotalSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.spoolService = spoolService;
+        this.maxEntries = maxEntries;
+        this.maxTotalSize = maxTotalSize.toBytes();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Проверка, является ли файл ZIP архивом, по расширению.
+     *
+     * @param fileName имя файла
+     * @return true для файлов с расширением .zip
+     */
+    public boolean isArchive(String fileName) {
+        return fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(ARCHIVE_EXTENSION);
+    }
+
+    /**
+     * Ограничения распаковки на один запрос: количество файлов и суммарный распакованный размер
+     * считаются по всем архивам, извлеченным с этим бюджетом.
+     *
+     * @param maxFiles максимальное количество файлов архивов, которое запрос может принять
+     * @return бюджет распаковки не больше {@code app.upload.archive.max-entries} и {@code max-total-size}
+     */
+    public ExtractionBudget newBudget(int maxFiles) {
+        return new ExtractionBudget(Math.max(0, Math.min(maxEntries, maxFiles)), maxTotalSize);
+    }
+
+    /**
+     * Потоковое извлечение файлов одного архива с отдельным бюджетом распаковки.
+     *
+     * @param archive      поток с содержимым архива
+     * @param maxEntrySize максимальный размер одного файла в байтах
+     * @return файлы архива в порядке следования
+     * @throws FileValidationException если архив поврежден, пуст или превышает ограничения
+     * @throws IOException             при ошибке чтения или записи
+     */
+    public List<ArchiveEntry> extract(InputStream archive, long maxEntrySize) throws IOException {
+        return extract(archive, maxEntrySize, newBudget(maxEntries));
+    }
+
+    /**
+     * Потоковое извлечение файлов архива во временные файлы с подсчетом хеша.
+     * Каталоги пропускаются. При любой ошибке уже извлеченные файлы удаляются.
+     *
+     * @param archive      поток с содержимым архива
+     * @param maxEntrySize максимальный размер одного файла в байтах
+     * @param budget       общий для архивов запроса бюджет распаковки
+     * @return файлы архива в порядке следования
+     * @throws ArchiveLimitException   если исчерпан бюджет распаковки запроса
+     * @throws FileValidationException если архив поврежден, пуст или файл архива больше допустимого размера
+     * @throws IOException             при ошибке чтения или записи
+     */
+    public List<ArchiveEntry> extract(InputStream archive, long maxEntrySize, ExtractionBudget budget)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Status outcome = Status.UPLOAD_ERROR;
+        List<ArchiveEntry> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            readEntries(zip, maxEntrySize, budget, entries);
+            if (entries.isEmpty()) {
+                throw new FileValidationException("Archive contains no files");
+            }
+            outcome = Status.RECEIVED;
+            return entries;
+        } catch (ZipException e) {
+            outcome = Status.PRIMARY_VALIDATION_FAILED;
+            throw new FileValidationException("Invalid archive: " + e.getMessage(), e);
+        } catch (FileValidationException e) {
+            outcome = Status.PRIMARY_VALIDATION_FAILED;
+            throw e;
+        } finally {
+            if (outcome != Status.RECEIVED) {
+                entries.forEach(ArchiveEntry::discard);
+            }
+            sample.stop(meterRegistry.timer("upload.archive", "status", outcome.name()));
+        }
+    }
+
+    private void readEntries(ZipInputStream zip, long maxEntrySize, ExtractionBudget budget,
+                             List<ArchiveEntry> entries) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            if (budget.remainingFiles == 0) {
+                throw new ArchiveLimitException("Archives contain more than " + budget.maxFiles + " files");
+            }
+            // Заявленный размер может отсутствовать или быть ложным, поэтому ограничение проверяется при чтении
+            long remaining = budget.remainingBytes;
+            long limit = Math.min(maxEntrySize, remaining);
+            SpooledUpload upload;
+            try {
+                upload = spoolService.spool(zip, limit);
+            } catch (FileValidationException e) {
+                if (remaining < maxEntrySize) {
+                    throw new ArchiveLimitException("Archives exceed total size limit of " + maxTotalSize + " bytes");
+                }
+                throw new FileValidationException("Archive entry " + entry.getName() + " exceeds size limit");
+            }
+            budget.remainingFiles--;
+            budget.remainingBytes -= upload.getSize();
+            entries.add(new ArchiveEntry(entry.getName(), contentType(entry.getName()), upload));
+        }
+    }
+
+    private static String contentType(String name) {
+        return MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    /**
+     * Остаток ограничений распаковки для архивов одного запроса. Используется потоком запроса.
+     */
+    public static final class ExtractionBudget {
+        private final int maxFiles;
+        private int remainingFiles;
+        private long remainingBytes;
+
+        private ExtractionBudget(int maxFiles, long maxBytes) {
+            this.maxFiles = maxFiles;
+            this.remainingFiles = maxFiles;
+            this.remainingBytes = maxBytes;
+        }
+    }
+
+    /**
+     * Файл архива во временном файле.
+     *
+     * @param name        путь файла внутри архива
+     * @param contentType тип содержимого по расширению
+     * @param upload      содержимое с хешем и размером
+     */
+    public record ArchiveEntry(String name, String contentType, SpooledUpload upload) {
+
+        void discard() {
+            try {
+                upload.close();
+            } catch (IOException e) {
+                log.warn("Failed to delete archive entry {}: {}", upload.getPath(), e.getMessage());
+            }
+        }
+    }
+}
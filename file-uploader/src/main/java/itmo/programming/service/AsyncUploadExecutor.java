@@ -0,0 +1,109 @@
+package itmo.programming.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный пул для обработки загрузок, принятых в асинхронном режиме, и проверки файлов пакетных загрузок.
+ * Очередь задач ограничена: при заполнении задача отклоняется сразу, а не копится в памяти.
+ * При остановке приложения пул дожидается задач из очереди, так как их файлы уже приняты.
+ * Размер очереди и количество занятых потоков публикуются как {@code upload.async.queued}
+ * и {@code upload.async.active}.
+ */
+@Slf4j
+@Service
+public class AsyncUploadExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration shutdownTimeout;
+
+    /**
+     * Конструктор пула.
+     *
+     * @param threads         количество потоков, 0 - по числу ядер
+     * @param queueCapacity   максимальное количество ожидающих задач
+     * @param shutdownTimeout время ожидания задач при остановке
+     * @param meterRegistry   реестр метрик
+     */
+    public AsyncUploadExecutor(
+            @Value("${app.upload.async.threads:0}") int threads,
+            @Value("${app.upload.async.queue-capacity:256}") int queueCapacity,
+            @Value("${app.upload.async.shutdown-timeout:30s}") Duration shutdownTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> new Thread(task, "upload-worker-" + counter.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.shutdownTimeout = shutdownTimeout;
+        Gauge.builder("upload.async.queued", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("upload.async.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    /**
+     * Постановка обработки в очередь.
+     *
+     * @param task обработка загрузки
+     * @param <T>  тип результата
+     * @return future с результатом обработки
+     * @throws RejectedExecutionException если очередь заполнена или пул остановлен
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * Выполнение задач в пуле с ожиданием всех результатов, например для проверки файлов пакетной загрузки.
+     * Задачи, не поместившиеся в очередь, выполняются в вызывающем потоке, поэтому большой пакет
+     * при заполненной очереди замедляется, а не отклоняется.
+     *
+     * @param tasks задачи
+     * @param <T>   тип результата
+     * @return результаты в порядке задач
+     */
+    public <T> List<T> invokeAll(List<Supplier<T>> tasks) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (Supplier<T> task : tasks) {
+            try {
+                futures.add(submit(task));
+            } catch (RejectedExecutionException e) {
+                futures.add(CompletableFuture.completedFuture(task.get()));
+            }
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Остановка пула с ожиданием принятых задач.
+     */
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Async uploads still running after {}, {} queued", shutdownTimeout, executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
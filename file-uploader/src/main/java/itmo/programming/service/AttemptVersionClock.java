@@ -0,0 +1,62 @@
+package itmo.programming.service;
+
+import itmo.programming.cache.ExpiringLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Источник версий попыток обработки файла.
+ * Версия - гибридные часы на хеш: {@code max(текущее время в мс, последняя версия хеша + 1)}.
+ * Повторная загрузка того же содержимого в ту же миллисекунду или после перевода часов назад
+ * получает версию больше предыдущей, поэтому ее статусы не отбрасываются как устаревшие.
+ * Последние версии хранятся в ограниченном LRU-кэше; после вытеснения записи версия снова берется по часам.
+ */
+@Service
+public class AttemptVersionClock {
+
+    private final ExpiringLruCache<String, Long> lastVersions;
+    private final LongSupplier wallClock;
+
+    /**
+     * Конструктор часов.
+     *
+     * @param maxEntries максимальное количество хешей с запомненной версией
+     * @param ttl        время хранения последней версии хеша
+     */
+    @Autowired
+    public AttemptVersionClock(
+            @Value("${app.upload.version.max-entries:10000}") int maxEntries,
+            @Value("${app.upload.version.ttl:1h}") Duration ttl
+    ) {
+        this(maxEntries, ttl, System::currentTimeMillis);
+    }
+
+    /**
+     * Конструктор часов с заданным источником времени.
+     *
+     * @param maxEntries максимальное количество хешей с запомненной версией
+     * @param ttl        время хранения последней версии хеша
+     * @param wallClock  источник времени в миллисекундах
+     */
+    public AttemptVersionClock(int maxEntries, Duration ttl, LongSupplier wallClock) {
+        this.lastVersions = new ExpiringLruCache<>(maxEntries, ttl);
+        this.wallClock = wallClock;
+    }
+
+    /**
+     * Версия новой попытки обработки файла, строго больше всех выданных ранее для этого хеша.
+     *
+     * @param fileHash хеш файла
+     * @return версия попытки
+     */
+    public synchronized long next(String fileHash) {
+        Long last = lastVersions.get(fileHash);
+        long version = last == null ? wallClock.getAsLong() : Math.max(wallClock.getAsLong(), last + 1);
+        lastVersions.put(fileHash, version);
+        return version;
+    }
+}
@@ -0,0 +1,167 @@
+package itmo.programming.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import itmo.programming.config.KafkaProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отслеживание отставания file-processor от топика загрузок.
+ * Отставание группы потребителей периодически запрашивается у брокера в фоновом потоке,
+ * поэтому проверка при приеме загрузки не обращается к Kafka. Текущее значение публикуется
+ * как {@code upload.consumer.lag}; пока значение неизвестно, возвращается -1.
+ */
+@Slf4j
+@Service
+public class ConsumerLagMonitor {
+
+    private static final long UNKNOWN = -1;
+
+    private final boolean enabled;
+    private final String topic;
+    private final String groupId;
+    private final Duration refreshInterval;
+    private final KafkaProperties kafkaProperties;
+
+    private volatile long lag = UNKNOWN;
+    private Admin admin;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param enabled         включено ли отслеживание отставания
+     * @param topic           топик загрузок
+     * @param groupId         группа потребителей file-processor
+     * @param refreshInterval период обновления отставания
+     * @param kafkaProperties свойства Kafka
+     * @param meterRegistry   реестр метрик
+     */
+    public ConsumerLagMonitor(
+            @Value("${app.admission.consumer-lag.enabled:false}") boolean enabled,
+            @Value("${spring.kafka.topic.upload:upload-topic}") String topic,
+            @Value("${app.admission.consumer-lag.group-id:file-processor-group}") String groupId,
+            @Value("${app.admission.consumer-lag.refresh-interval:5s}") Duration refreshInterval,
+            KafkaProperties kafkaProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.topic = topic;
+        this.groupId = groupId;
+        this.refreshInterval = refreshInterval;
+        this.kafkaProperties = kafkaProperties;
+        Gauge.builder("upload.consumer.lag", this, ConsumerLagMonitor::currentLag)
+                .description("Records in the upload topic not yet committed by the processor group")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запуск периодического обновления отставания.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        long timeoutMs = Math.max(1, refreshInterval.toMillis());
+        admin = Admin.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaProperties.getBootstrapServers(),
+                AdminClientConfig.CLIENT_ID_CONFIG, "file-uploader-lag-monitor",
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, (int) timeoutMs,
+                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, (int) timeoutMs));
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "upload-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Текущее отставание группы потребителей в записях.
+     *
+     * @return количество непрочитанных записей или -1, если значение неизвестно
+     */
+    public long currentLag() {
+        return lag;
+    }
+
+    /**
+     * Остановка обновления отставания.
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (admin != null) {
+            admin.close(Duration.ofSeconds(1));
+        }
+    }
+
+    /**
+     * Суммарное отставание по партициям, для которых у группы есть зафиксированное смещение.
+     *
+     * @param committed  зафиксированные смещения группы
+     * @param endOffsets конечные смещения партиций топика
+     * @return количество непрочитанных записей
+     */
+    public static long sumLag(Map<TopicPartition, Long> committed, Map<TopicPartition, Long> endOffsets) {
+        long total = 0;
+        for (Map.Entry<TopicPartition, Long> entry : committed.entrySet()) {
+            Long end = endOffsets.get(entry.getKey());
+            if (end != null) {
+                total += Math.max(0, end - entry.getValue());
+            }
+        }
+        return total;
+    }
+
+    private void refresh() {
+        try {
+            long timeoutMs = refreshInterval.toMillis();
+            Map<TopicPartition, OffsetAndMetadata> offsets = admin.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata()
+                    .get(timeoutMs, TimeUnit.MILLISECONDS);
+
+            Map<TopicPartition, Long> committed = new HashMap<>();
+            Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+            offsets.forEach((partition, offset) -> {
+                if (offset != null && partition.topic().equals(topic)) {
+                    committed.put(partition, offset.offset());
+                    request.put(partition, OffsetSpec.latest());
+                }
+            });
+
+            Map<TopicPartition, Long> endOffsets = new HashMap<>();
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> latest = admin.listOffsets(request)
+                    .all()
+                    .get(timeoutMs, TimeUnit.MILLISECONDS);
+            latest.forEach((partition, info) -> endOffsets.put(partition, info.offset()));
+
+            lag = sumLag(committed, endOffsets);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to refresh consumer lag of {} on {}: {}", groupId, topic, e.getMessage());
+            lag = UNKNOWN;
+        }
+    }
+}
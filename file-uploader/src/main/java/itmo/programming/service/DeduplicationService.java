@@ -0,0 +1,98 @@
+package itmo.programming.service;
+
+import itmo.programming.cache.ExpiringLruCache;
+import itmo.programming.common.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Сервис дедупликации загрузок по хешу содержимого.
+ * Хранит известные статусы в ограниченном LRU-кэше с временем жизни и при промахе
+ * (если настроено) запрашивает статус у file-status-processor.
+ * Запрос, не давший итогового статуса (файл неизвестен, еще обрабатывается или сервис недоступен),
+ * не повторяется для того же хеша в течение lookup-cache-ttl.
+ */
+@Slf4j
+@Service
+public class DeduplicationService {
+
+    private final boolean enabled;
+    private final Duration inFlightTtl;
+    private final ExpiringLruCache<String, Status> knownStatuses;
+    private final ExpiringLruCache<String, Boolean> recentLookups;
+    private final StatusLookupClient lookupClient;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param enabled      включена ли дедупликация
+     * @param maxEntries   максимальное количество хешей в кэше
+     * @param ttl          время жизни итогового статуса в кэше
+     * @param inFlightTtl  время жизни записи о файле, который еще обрабатывается
+     * @param lookupTtl    время, в течение которого запрос без итогового статуса не повторяется
+     * @param lookupClient клиент сервиса статусов
+     */
+    public DeduplicationService(
+            @Value("${app.dedup.enabled:true}") boolean enabled,
+            @Value("${app.dedup.max-entries:10000}") int maxEntries,
+            @Value("${app.dedup.ttl:10m}") Duration ttl,
+            @Value("${app.dedup.in-flight-ttl:1m}") Duration inFlightTtl,
+            @Value("${app.dedup.lookup-cache-ttl:5s}") Duration lookupTtl,
+            StatusLookupClient lookupClient
+    ) {
+        this.enabled = enabled;
+        this.inFlightTtl = inFlightTtl;
+        this.knownStatuses = new ExpiringLruCache<>(maxEntries, ttl);
+        this.recentLookups = new ExpiringLruCache<>(maxEntries, lookupTtl);
+        this.lookupClient = lookupClient;
+    }
+
+    /**
+     * Поиск уже известного статуса для содержимого с указанным хешем.
+     * Итоговый статус из кэша возвращается сразу; для файла в обработке
+     * сначала уточняется статус у сервиса статусов, если он не запрашивался недавно.
+     *
+     * @param fileHash хеш файла
+     * @return известный статус или пустой Optional, если файл нужно обработать
+     */
+    public Optional<Status> findKnownStatus(String fileHash) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Status cached = knownStatuses.get(fileHash);
+        if (cached != null && cached.isTerminal()) {
+            return Optional.of(cached);
+        }
+
+        if (recentLookups.get(fileHash) != null) {
+            return Optional.ofNullable(cached);
+        }
+
+        Optional<Status> remote = lookupClient.fetchStatus(fileHash)
+                .filter(Status::isTerminal);
+        if (remote.isPresent()) {
+            knownStatuses.put(fileHash, remote.get());
+            return remote;
+        }
+
+        recentLookups.put(fileHash, Boolean.TRUE);
+        return Optional.ofNullable(cached);
+    }
+
+    /**
+     * Отметка о том, что файл принят и отправлен на обработку.
+     * Повторные загрузки в течение in-flight-ttl не будут отправлены повторно.
+     *
+     * @param fileHash хеш файла
+     */
+    public void markAccepted(String fileHash) {
+        if (enabled) {
+            knownStatuses.put(fileHash, Status.PRIMARY_VALIDATION_SUCCESS, inFlightTtl);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package itmo.programming.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import itmo.programming.common.Status;
 import itmo.programming.exception.FileValidationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +11,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 /**
  * Сервис для валидации загружаемых файлов.
+ * Время проверки пишется в таймер {@code upload.validation} с тегом статуса результата.
  */
 @Slf4j
 @Service
@@ -19,6 +23,17 @@ public class FileValidationService {
     @Value("${app.upload.allowed-extensions}")
     private String[] allowedExtensions;
 
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param meterRegistry реестр метрик
+     */
+    public FileValidationService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Валидирует файл по размеру и расширению.
      *
@@ -26,19 +41,46 @@ public class FileValidationService {
      * @throws FileValidationException если файл не прошел валидацию
      */
     public void validateFile(MultipartFile file) {
-        validateFileSize(file);
-        validateFileExtension(file);
+        validateFile(file.getOriginalFilename(), file.getSize());
+    }
+
+    /**
+     * Валидирует заявленные имя и размер файла, например до приема частей докачиваемой загрузки.
+     *
+     * @param filename имя файла
+     * @param size     размер файла в байтах
+     * @throws FileValidationException если файл не прошел валидацию
+     */
+    public void validateFile(String filename, long size) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Status outcome = Status.PRIMARY_VALIDATION_FAILED;
+        try {
+            validateFileSize(size);
+            validateFileExtension(filename);
+            outcome = Status.PRIMARY_VALIDATION_SUCCESS;
+        } finally {
+            sample.stop(meterRegistry.timer("upload.validation", "status", outcome.name()));
+        }
+    }
+
+    /**
+     * Максимальный допустимый размер файла в байтах.
+     *
+     * @return размер в байтах
+     */
+    public long getMaxFileSizeBytes() {
+        return parseSize(maxFileSize);
     }
 
     /**
      * Проверяет размер файла
      *
-     * @param file загружаемый файл
+     * @param size размер файла в байтах
      * @throws FileValidationException если размер превышает допустимый
      */
-    private void validateFileSize(MultipartFile file) {
-        long maxSize = parseSize(maxFileSize);
-        if (file.getSize() > maxSize) {
+    private void validateFileSize(long size) {
+        long maxSize = getMaxFileSizeBytes();
+        if (size > maxSize) {
             throw new FileValidationException("File size exceeds limit");
         }
     }
@@ -46,11 +88,10 @@ public class FileValidationService {
     /**
      * Проверяет расширение файла
      *
-     * @param file загружаемый файл
+     * @param filename имя файла
      * @throws FileValidationException если расширение недопустимо
      */
-    private void validateFileExtension(MultipartFile file) {
-        String filename = file.getOriginalFilename();
+    private void validateFileExtension(String filename) {
         if (filename == null || !hasValidExtension(filename)) {
             throw new FileValidationException("Invalid file extension");
         }
@@ -2,23 +2,50 @@ package itmo.programming.service;
 
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import itmo.programming.chunk.FileChunk;
+import itmo.programming.chunk.FileChunker;
 import itmo.programming.common.FileEvent;
 import itmo.programming.common.StatusEvent;
-import lombok.RequiredArgsConstructor;
+import itmo.programming.publisher.StatusEventPublisher;
+import itmo.programming.trace.Stage;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Сервис для отправки событий в Kafka.
+ * Время до подтверждения записи брокером пишется в таймеры {@code kafka.file.send}
+ * и {@code kafka.status.send} (с тегом статуса), количество отправленных частей файлов - в счетчик
+ * {@code kafka.file.chunks}.
+ * Файлы и статусы отправляются разными шаблонами, у каждого свой профиль производителя.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class KafkaService {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaTemplate<String, Object> statusKafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final StatusEventPublisher statusPublisher = new StatusEventPublisher(this::sendStatusRecord);
 
     @Value("${spring.kafka.topic.upload:upload-topic}")
     private String uploadTopic;
@@ -26,14 +53,75 @@ public class KafkaService {
     @Value("${spring.kafka.topic.status:status-topic}")
     private String statusTopic;
 
+    private int chunkSize = (int) DataSize.ofKilobytes(512).toBytes();
+    private Duration chunkSendTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Конструктор сервиса с общим шаблоном для файлов и статусов.
+     *
+     * @param kafkaTemplate шаблон Kafka
+     * @param meterRegistry реестр метрик
+     */
+    public KafkaService(KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry) {
+        this(kafkaTemplate, kafkaTemplate, meterRegistry);
+    }
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param kafkaTemplate       шаблон Kafka для топика загрузок
+     * @param statusKafkaTemplate шаблон Kafka для топика статусов
+     * @param meterRegistry       реестр метрик
+     */
+    @Autowired
+    public KafkaService(KafkaTemplate<String, Object> kafkaTemplate,
+                        @Qualifier("statusKafkaTemplate") KafkaTemplate<String, Object> statusKafkaTemplate,
+                        MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.statusKafkaTemplate = statusKafkaTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Установка размера части при передаче содержимого файла через Kafka.
+     * Запись с частью должна помещаться в {@code max.request.size} продюсера и {@code message.max.bytes} брокера.
+     *
+     * @param chunkSize размер части
+     */
+    @Value("${app.storage.chunk-size:512KB}")
+    public void setChunkSize(DataSize chunkSize) {
+        this.chunkSize = Math.toIntExact(chunkSize.toBytes());
+    }
+
+    /**
+     * Установка времени ожидания подтверждения частей файла перед отправкой события со ссылкой на них.
+     *
+     * @param chunkSendTimeout время ожидания
+     */
+    @Value("${app.storage.chunk-send-timeout:30s}")
+    public void setChunkSendTimeout(Duration chunkSendTimeout) {
+        this.chunkSendTimeout = chunkSendTimeout;
+    }
+
+    /**
+     * Установка окна объединения событий статуса одного файла.
+     *
+     * @param coalesceWindow окно объединения, 0 — отправка без задержки
+     */
+    @Value("${app.status-publisher.coalesce-window:0ms}")
+    public void setStatusCoalesceWindow(Duration coalesceWindow) {
+        statusPublisher.setCoalesceWindow(coalesceWindow);
+    }
+
     /**
-     * Отправка файла в топик для обработки
+     * Отправка файла в топик для обработки.
+     * В трассе события отмечается этап {@link Stage#ENQUEUED}.
      *
      * @param event событие файла
      */
     public void sendFileToProcessing(FileEvent event) {
         try {
-            kafkaTemplate.send(uploadTopic, event.getFileHash(), event);
+            sendFileRecord(event);
             log.info("File sent to Kafka for processing: {}", event.getFileHash());
         } catch (Exception e) {
             log.error("Failed to send file to Kafka: {}", e.getMessage());
@@ -42,17 +130,153 @@ public class KafkaService {
     }
 
     /**
-     * Отправка статуса файла
+     * Отправка пакета файлов в топик для обработки.
+     * Записи передаются продюсеру подряд, без ожидания подтверждений, поэтому собираются в общие пакеты
+     * продюсера вместо отдельного запроса на каждый файл.
+     *
+     * @param events события файлов
+     * @return future подтверждения записи брокером для каждого события, в порядке событий
+     */
+    public List<CompletableFuture<?>> sendFilesToProcessing(List<FileEvent> events) {
+        List<CompletableFuture<?>> acks = new ArrayList<>(events.size());
+        for (FileEvent event : events) {
+            try {
+                acks.add(sendFileRecord(event));
+            } catch (Exception e) {
+                log.error("Failed to send file {} to Kafka: {}", event.getFileHash(), e.getMessage());
+                acks.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        log.info("Batch of {} files sent to Kafka for processing", events.size());
+        return acks;
+    }
+
+    /**
+     * Отправка файла в топик для обработки вместе с содержимым, разбитым на части.
+     * Части и событие отправляются с ключом {@code fileHash}, поэтому попадают в одну партицию
+     * и читаются в порядке отправки: сначала все части, затем событие со ссылкой {@link FileChunk#contentRef}.
+     * Событие отправляется только после подтверждения всех частей брокером.
+     *
+     * @param event   событие файла, ссылка на содержимое заменяется ссылкой на части
+     * @param content путь к содержимому файла
+     * @param size    размер содержимого
+     * @throws IOException      если содержимое не удалось прочитать
+     * @throws RuntimeException если часть не записана брокером за {@code app.storage.chunk-send-timeout}
+     */
+    public void sendFileInChunks(FileEvent event, Path content, long size) throws IOException {
+        CompletableFuture<Void> chunks = sendChunks(event, content, size);
+        try {
+            chunks.get(chunkSendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Kafka communication error", e);
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Chunks of {} were not acknowledged by Kafka: {}", event.getFileHash(), e.getMessage());
+            throw new RuntimeException("Kafka communication error", e);
+        }
+        sendFileToProcessing(event);
+    }
+
+    /**
+     * Отправка частей содержимого файла без ожидания подтверждений; событию назначается ссылка на части.
+     * Событие файла можно отправлять только после завершения возвращенного future:
+     * иначе обработчик получит событие, часть которого брокер не записал.
+     *
+     * @param event   событие файла, ссылка на содержимое заменяется ссылкой на части
+     * @param content путь к содержимому файла
+     * @param size    размер содержимого
+     * @return future, завершающийся после подтверждения записи всех частей брокером
+     * @throws IOException если содержимое не удалось прочитать
+     */
+    public CompletableFuture<Void> sendChunks(FileEvent event, Path content, long size) throws IOException {
+        String fileHash = event.getFileHash();
+        List<CompletableFuture<?>> acks = new ArrayList<>();
+        try (InputStream input = Files.newInputStream(content)) {
+            FileChunker.split(fileHash, input, size, chunkSize, chunk -> {
+                try {
+                    acks.add(kafkaTemplate.send(uploadTopic, fileHash, chunk));
+                } catch (Exception e) {
+                    log.error("Failed to send chunk {} of {} to Kafka: {}", chunk.getIndex(), fileHash, e.getMessage());
+                    throw new RuntimeException("Kafka communication error", e);
+                }
+            });
+        }
+        meterRegistry.counter("kafka.file.chunks").increment(FileChunker.chunkCount(size, chunkSize));
+
+        event.setContentRef(FileChunk.contentRef(fileHash));
+        event.setContentSize(size);
+        return CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Отправка статуса файла без ожидания подтверждения
      *
      * @param event событие статуса
      */
     public void sendStatusEvent(StatusEvent event) {
+        publishStatusEvent(event);
+    }
+
+    /**
+     * Публикация статуса файла.
+     * Переходы одного файла в пределах окна объединения отправляются одной записью.
+     *
+     * @param event событие статуса
+     * @return future, завершающийся после подтверждения записи брокером
+     */
+    public CompletableFuture<Void> publishStatusEvent(StatusEvent event) {
         try {
-            kafkaTemplate.send(statusTopic, event.getFileHash(), event);
-            log.info("Status event sent: {} - {}", event.getFileHash(), event.getStatus());
+            return statusPublisher.publish(event).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    log.error("Failed to deliver status event {} - {}: {}",
+                            event.getFileHash(), event.getStatus(), error.getMessage());
+                }
+            });
         } catch (Exception e) {
             log.error("Failed to send status event: {}", e.getMessage());
             throw new RuntimeException("Kafka communication error", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Отправка накопленных событий статуса при остановке приложения.
+     */
+    @PreDestroy
+    public void flushStatusEvents() {
+        statusPublisher.close();
+    }
+
+    private CompletableFuture<?> sendFileRecord(FileEvent event) {
+        event.trace().mark(Stage.ENQUEUED);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return kafkaTemplate.send(uploadTopic, event.getFileHash(), event)
+                    .whenComplete((result, error) -> sample.stop(fileSendTimer(error)));
+        } catch (RuntimeException e) {
+            sample.stop(fileSendTimer(e));
+            throw e;
+        }
+    }
+
+    private CompletableFuture<?> sendStatusRecord(StatusEvent event) {
+        log.debug("Status event sent: {} - {}", event.getFileHash(), event.getStatus());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return statusKafkaTemplate.send(statusTopic, event.getFileHash(), event)
+                    .whenComplete((result, error) -> sample.stop(statusSendTimer(event, error)));
+        } catch (RuntimeException e) {
+            sample.stop(statusSendTimer(event, e));
+            throw e;
+        }
+    }
+
+    private Timer fileSendTimer(Throwable error) {
+        return meterRegistry.timer("kafka.file.send", "result", error == null ? "success" : "failure");
+    }
+
+    private Timer statusSendTimer(StatusEvent event, Throwable error) {
+        return meterRegistry.timer("kafka.status.send",
+                "status", event.getStatus().name(),
+                "result", error == null ? "success" : "failure");
+    }
+}
@@ -0,0 +1,538 @@
+package itmo.programming.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.exception.UploadSessionException;
+import itmo.programming.exception.UploadSessionException.Reason;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Сервис докачиваемых загрузок: файл передается пронумерованными частями, у каждой части своя SHA-256 сумма.
+ * Части хранятся на диске в каталоге сессии; уже принятая часть повторно не записывается,
+ * поэтому после обрыва связи клиент досылает только недостающие части.
+ * SHA-256 файла считается по мере поступления частей: часть, пришедшая по порядку, хешируется при записи,
+ * части, пришедшие раньше своей очереди, дочитываются с диска, когда до них доходит очередь.
+ * Сессии без новых частей дольше {@code app.upload.resumable.session-ttl} удаляются вместе с частями.
+ * Сессии хранятся в памяти, поэтому части, оставшиеся от прошлого запуска, удаляются при старте.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path sessionDir;
+    private final int defaultChunkSize;
+    private final int maxChunkSize;
+    private final int maxSessions;
+    private final long sessionTtlNanos;
+    private final Duration cleanupInterval;
+    private final LongSupplier nanoClock;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param sessionDir      каталог для частей
+     * @param chunkSize       размер части по умолчанию
+     * @param maxChunkSize    максимальный размер части, который может запросить клиент
+     * @param maxSessions     максимальное количество одновременных сессий
+     * @param sessionTtl      время жизни сессии без новых частей
+     * @param cleanupInterval период удаления истекших сессий
+     * @param meterRegistry   реестр метрик
+     * @throws IOException если каталог не может быть создан
+     */
+    @Autowired
+    public ResumableUploadService(
+            @Value("${app.upload.resumable.dir:${java.io.tmpdir}/firestarter-resumable}") Path sessionDir,
+            @Value("${app.upload.resumable.chunk-size:1MB}") DataSize chunkSize,
+            @Value("${app.upload.resumable.max-chunk-size:8MB}") DataSize maxChunkSize,
+            @Value("${app.upload.resumable.max-sessions:100}") int maxSessions,
+            @Value("${app.upload.resumable.session-ttl:1h}") Duration sessionTtl,
+            @Value("${app.upload.resumable.cleanup-interval:1m}") Duration cleanupInterval,
+            MeterRegistry meterRegistry
+    ) throws IOException {
+        this(sessionDir, chunkSize, maxChunkSize, maxSessions, sessionTtl, cleanupInterval, meterRegistry,
+                System::nanoTime);
+    }
+
+    /**
+     * Конструктор сервиса с заданным источником времени.
+     *
+     * @param sessionDir      каталог для частей
+     * @param chunkSize       размер части по умолчанию
+     * @param maxChunkSize    максимальный размер части, который может запросить клиент
+     * @param maxSessions     максимальное количество одновременных сессий
+     * @param sessionTtl      время жизни сессии без новых частей
+     * @param cleanupInterval период удаления истекших сессий
+     * @param meterRegistry   реестр метрик
+     * @param nanoClock       источник монотонного времени в наносекундах
+     * @throws IOException если каталог не может быть создан
+     */
+    public ResumableUploadService(Path sessionDir, DataSize chunkSize, DataSize maxChunkSize, int maxSessions,
+                                  Duration sessionTtl, Duration cleanupInterval, MeterRegistry meterRegistry,
+                                  LongSupplier nanoClock) throws IOException {
+        this.sessionDir = Files.createDirectories(sessionDir);
+        this.maxChunkSize = (int) Math.min(Integer.MAX_VALUE, maxChunkSize.toBytes());
+        this.defaultChunkSize = (int) Math.min(this.maxChunkSize, chunkSize.toBytes());
+        this.maxSessions = maxSessions;
+        this.sessionTtlNanos = sessionTtl.toNanos();
+        this.cleanupInterval = cleanupInterval;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        Gauge.builder("upload.sessions.active", sessions, Map::size)
+                .description("Resumable upload sessions waiting for chunks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Удаление частей прошлого запуска и запуск периодического удаления истекших сессий.
+     */
+    @PostConstruct
+    public void start() {
+        try (Stream<Path> leftovers = Files.list(sessionDir)) {
+            leftovers.forEach(ResumableUploadService::deleteRecursively);
+        } catch (IOException e) {
+            log.warn("Failed to clean up resumable upload directory {}: {}", sessionDir, e.getMessage());
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "upload-session-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = Math.max(1, cleanupInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::evictExpired, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Остановка удаления истекших сессий и удаление частей всех сессий.
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        sessions.values().forEach(this::discard);
+        sessions.clear();
+    }
+
+    /**
+     * Создание сессии загрузки.
+     *
+     * @param fileName    имя файла
+     * @param contentType тип содержимого
+     * @param totalSize   размер файла в байтах
+     * @param chunkSize   размер части, null - по умолчанию
+     * @return новая сессия
+     * @throws FileValidationException    если файл пустой
+     * @throws UploadSessionException     если размер части недопустим
+     * @throws RejectedExecutionException если достигнуто ограничение количества сессий
+     * @throws IOException                если каталог сессии не может быть создан
+     */
+    public UploadSession initiate(String fileName, String contentType, long totalSize, Integer chunkSize)
+            throws IOException {
+        int size = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (size <= 0 || size > maxChunkSize) {
+            throw new UploadSessionException(Reason.INVALID_CHUNK,
+                    "Chunk size must be between 1 and " + maxChunkSize + " bytes");
+        }
+        if (totalSize <= 0) {
+            throw new FileValidationException("File is empty");
+        }
+        if (sessions.size() >= maxSessions) {
+            evictExpired();
+            if (sessions.size() >= maxSessions) {
+                throw new RejectedExecutionException("Too many upload sessions, limit is " + maxSessions);
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Path dir = Files.createDirectories(sessionDir.resolve(id));
+        UploadSession session = new UploadSession(id, fileName, contentType, totalSize, size, dir,
+                nanoClock.getAsLong());
+        sessions.put(id, session);
+        log.info("Upload session {} started for {} ({} bytes in {} chunks)",
+                id, fileName, totalSize, session.getChunkCount());
+        return session;
+    }
+
+    /**
+     * Поиск сессии загрузки.
+     *
+     * @param sessionId идентификатор сессии
+     * @return сессия
+     * @throws UploadSessionException если сессия не найдена
+     */
+    public UploadSession getSession(String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new UploadSessionException(Reason.NOT_FOUND, "Upload session " + sessionId + " not found");
+        }
+        return session;
+    }
+
+    /**
+     * Прием части: содержимое записывается во временный файл с подсчетом SHA-256 и сохраняется,
+     * только если размер и контрольная сумма совпали. Повторно присланная часть пропускается.
+     *
+     * @param sessionId идентификатор сессии
+     * @param index     номер части, начиная с 0
+     * @param content   содержимое части
+     * @param checksum  SHA-256 части в hex
+     * @return сессия после приема части
+     * @throws UploadSessionException если сессия не найдена, часть не соответствует сессии или сумма не совпала
+     * @throws IOException            при ошибке чтения или записи
+     */
+    public UploadSession putChunk(String sessionId, int index, InputStream content, String checksum)
+            throws IOException {
+        UploadSession session = getSession(sessionId);
+        if (checksum == null || checksum.isBlank()) {
+            throw new UploadSessionException(Reason.CHECKSUM_MISMATCH, "Chunk checksum is required");
+        }
+        long expectedLength = session.chunkLength(index);
+
+        MessageDigest fileDigest;
+        synchronized (session) {
+            session.ensureOpen();
+            session.touchedAt = nanoClock.getAsLong();
+            if (session.received.get(index)) {
+                countChunk("DUPLICATE");
+                return session;
+            }
+            // Часть по порядку хешируется в копии дайджеста файла сразу при записи
+            fileDigest = index == session.digestIndex ? cloneDigest(session.digest) : null;
+        }
+
+        MessageDigest chunkDigest = newDigest();
+        Path temp = Files.createTempFile(session.dir, "chunk-", ".tmp");
+        try {
+            long length = copy(content, temp, expectedLength, chunkDigest, fileDigest);
+            if (length != expectedLength) {
+                throw new UploadSessionException(Reason.INVALID_CHUNK,
+                        "Chunk " + index + " must be " + expectedLength + " bytes, got " + length);
+            }
+            String actual = HexFormat.of().formatHex(chunkDigest.digest());
+            if (!actual.equalsIgnoreCase(checksum.trim())) {
+                throw new UploadSessionException(Reason.CHECKSUM_MISMATCH,
+                        "Chunk " + index + " checksum mismatch, got " + actual);
+            }
+            synchronized (session) {
+                session.ensureOpen();
+                if (!session.received.get(index)) {
+                    Files.move(temp, session.chunkPath(index), StandardCopyOption.ATOMIC_MOVE);
+                    session.markReceived(index, fileDigest);
+                    session.touchedAt = nanoClock.getAsLong();
+                    countChunk("STORED");
+                } else {
+                    countChunk("DUPLICATE");
+                }
+            }
+            return session;
+        } catch (UploadSessionException e) {
+            countChunk("REJECTED");
+            throw e;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Завершение загрузки: части склеиваются в один временный файл, сессия удаляется.
+     *
+     * @param sessionId    идентификатор сессии
+     * @param expectedHash ожидаемый SHA-256 файла в hex, null - без проверки
+     * @return содержимое файла во временном файле с хешем и размером
+     * @throws UploadSessionException если сессия не найдена, получены не все части или хеш файла не совпал
+     * @throws IOException            при ошибке склейки частей
+     */
+    public SpooledUpload complete(String sessionId, String expectedHash) throws IOException {
+        UploadSession session = getSession(sessionId);
+        synchronized (session) {
+            session.ensureOpen();
+            List<Integer> missing = session.getMissingChunks();
+            if (!missing.isEmpty()) {
+                throw new UploadSessionException(Reason.INCOMPLETE,
+                        "Upload session " + sessionId + " is missing chunks " + missing);
+            }
+            String fileHash = HexFormat.of().formatHex(cloneDigest(session.digest).digest());
+            if (expectedHash != null && !expectedHash.isBlank() && !fileHash.equalsIgnoreCase(expectedHash.trim())) {
+                throw new UploadSessionException(Reason.CHECKSUM_MISMATCH,
+                        "File checksum mismatch, got " + fileHash);
+            }
+            Path assembled = sessionDir.resolve(sessionId + ".upload");
+            try {
+                concatenate(session, assembled);
+            } catch (IOException e) {
+                Files.deleteIfExists(assembled);
+                throw e;
+            }
+            sessions.remove(sessionId, session);
+            discard(session);
+            log.info("Upload session {} completed: {} ({} bytes)", sessionId, fileHash, session.totalSize);
+            return new SpooledUpload(assembled, fileHash, session.totalSize);
+        }
+    }
+
+    /**
+     * Отмена загрузки с удалением принятых частей.
+     *
+     * @param sessionId идентификатор сессии
+     * @throws UploadSessionException если сессия не найдена
+     */
+    public void abort(String sessionId) {
+        UploadSession session = getSession(sessionId);
+        if (sessions.remove(sessionId, session)) {
+            discard(session);
+            log.info("Upload session {} aborted", sessionId);
+        }
+    }
+
+    /**
+     * Удаление сессий, в которые дольше времени жизни не поступало частей.
+     *
+     * @return количество удаленных сессий
+     */
+    public int evictExpired() {
+        long now = nanoClock.getAsLong();
+        int evicted = 0;
+        for (UploadSession session : sessions.values()) {
+            boolean expired;
+            synchronized (session) {
+                expired = now - session.touchedAt >= sessionTtlNanos;
+            }
+            if (expired && sessions.remove(session.id, session)) {
+                discard(session);
+                evicted++;
+                log.info("Upload session {} for {} expired with {} of {} chunks",
+                        session.id, session.fileName, session.getReceivedCount(), session.chunkCount);
+            }
+        }
+        if (evicted > 0) {
+            meterRegistry.counter("upload.sessions.expired").increment(evicted);
+        }
+        return evicted;
+    }
+
+    private void discard(UploadSession session) {
+        synchronized (session) {
+            session.closed = true;
+            deleteRecursively(session.dir);
+        }
+    }
+
+    private void countChunk(String result) {
+        meterRegistry.counter("upload.session.chunks", "result", result).increment();
+    }
+
+    /**
+     * Копирование части во временный файл с подсчетом суммы части и, если задан, хеша файла.
+     * Чтение прерывается, как только часть превысила ожидаемый размер.
+     */
+    private static long copy(InputStream content, Path target, long expectedLength,
+                             MessageDigest chunkDigest, MessageDigest fileDigest) throws IOException {
+        long length = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                length += read;
+                if (length > expectedLength) {
+                    return length;
+                }
+                chunkDigest.update(buffer, 0, read);
+                if (fileDigest != null) {
+                    fileDigest.update(buffer, 0, read);
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return length;
+    }
+
+    private static void concatenate(UploadSession session, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int index = 0; index < session.chunkCount; index++) {
+                try (FileChannel in = FileChannel.open(session.chunkPath(index), StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Failed to delete {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static MessageDigest cloneDigest(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be cloned", e);
+        }
+    }
+
+    /**
+     * Сессия докачиваемой загрузки.
+     * Изменяемое состояние защищено монитором сессии.
+     */
+    public static final class UploadSession {
+        @Getter
+        private final String id;
+        @Getter
+        private final String fileName;
+        @Getter
+        private final String contentType;
+        @Getter
+        private final long totalSize;
+        @Getter
+        private final int chunkSize;
+        @Getter
+        private final int chunkCount;
+
+        private final Path dir;
+        private final BitSet received = new BitSet();
+
+        private MessageDigest digest = newDigest();
+        private int digestIndex;
+        private long touchedAt;
+        private boolean closed;
+
+        UploadSession(String id, String fileName, String contentType, long totalSize, int chunkSize, Path dir,
+                      long touchedAt) {
+            long count = (totalSize + chunkSize - 1) / chunkSize;
+            if (count > Integer.MAX_VALUE) {
+                throw new UploadSessionException(Reason.INVALID_CHUNK, "Chunk size is too small for " + totalSize);
+            }
+            this.id = id;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.totalSize = totalSize;
+            this.chunkSize = chunkSize;
+            this.chunkCount = (int) count;
+            this.dir = dir;
+            this.touchedAt = touchedAt;
+        }
+
+        /**
+         * Количество принятых частей.
+         */
+        public synchronized int getReceivedCount() {
+            return received.cardinality();
+        }
+
+        /**
+         * Номера частей, которые еще не приняты.
+         */
+        public synchronized List<Integer> getMissingChunks() {
+            List<Integer> missing = new ArrayList<>();
+            for (int index = received.nextClearBit(0); index < chunkCount; index = received.nextClearBit(index + 1)) {
+                missing.add(index);
+            }
+            return missing;
+        }
+
+        /**
+         * Ожидаемый размер части: все части, кроме последней, имеют размер {@link #getChunkSize()}.
+         */
+        long chunkLength(int index) {
+            if (index < 0 || index >= chunkCount) {
+                throw new UploadSessionException(Reason.INVALID_CHUNK,
+                        "Chunk index must be between 0 and " + (chunkCount - 1) + ", got " + index);
+            }
+            return index < chunkCount - 1 ? chunkSize : totalSize - (long) chunkSize * (chunkCount - 1);
+        }
+
+        Path chunkPath(int index) {
+            return dir.resolve(index + ".part");
+        }
+
+        void ensureOpen() {
+            if (closed) {
+                throw new UploadSessionException(Reason.NOT_FOUND, "Upload session " + id + " not found");
+            }
+        }
+
+        /**
+         * Отметка части как принятой и продвижение хеша файла по непрерывному началу принятых частей.
+         *
+         * @param index    номер части
+         * @param advanced дайджест, уже обновленный содержимым этой части, или null
+         */
+        void markReceived(int index, MessageDigest advanced) throws IOException {
+            received.set(index);
+            if (index == digestIndex && advanced != null) {
+                digest = advanced;
+                digestIndex++;
+            }
+            while (digestIndex < chunkCount && received.get(digestIndex)) {
+                try (InputStream in = Files.newInputStream(chunkPath(digestIndex))) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+                digestIndex++;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package itmo.programming.service;
+
+import lombok.Getter;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Загруженный файл, сохраненный во временный файл вместе с его SHA-256 хешем и размером.
+ * При закрытии временный файл удаляется, если он не был перенесен в хранилище.
+ */
+@Getter
+public class SpooledUpload implements AutoCloseable {
+
+    private final Path path;
+    private final String fileHash;
+    private final long size;
+
+    /**
+     * Конструктор.
+     *
+     * @param path     путь к временному файлу
+     * @param fileHash SHA-256 хеш содержимого в hex
+     * @param size     размер содержимого в байтах
+     */
+    public SpooledUpload(Path path, String fileHash, long size) {
+        this.path = path;
+        this.fileHash = fileHash;
+        this.size = size;
+    }
+
+    /**
+     * Представление временного файла как загруженного файла с сохраненными атрибутами исходного.
+     * Нужно для обработки после завершения запроса, когда исходный файл запроса уже удален.
+     *
+     * @param source исходный файл запроса
+     * @return файл, читающий содержимое из временного файла
+     */
+    public MultipartFile asMultipartFile(MultipartFile source) {
+        return asMultipartFile(source.getName(), source.getOriginalFilename(), source.getContentType());
+    }
+
+    /**
+     * Представление временного файла как загруженного файла с заданными атрибутами.
+     *
+     * @param name             имя параметра запроса
+     * @param originalFilename имя файла
+     * @param contentType      тип содержимого
+     * @return файл, читающий содержимое из временного файла
+     */
+    public MultipartFile asMultipartFile(String name, String originalFilename, String contentType) {
+        return new SpooledMultipartFile(name, originalFilename, contentType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Загруженный файл, содержимое которого хранится во временном файле.
+     */
+    private final class SpooledMultipartFile implements MultipartFile {
+        private final String name;
+        private final String originalFilename;
+        private final String contentType;
+
+        SpooledMultipartFile(String name, String originalFilename, String contentType) {
+            this.name = name;
+            this.originalFilename = originalFilename;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
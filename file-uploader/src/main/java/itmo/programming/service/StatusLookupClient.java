@@ -0,0 +1,77 @@
+package itmo.programming.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import itmo.programming.common.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Клиент для запроса статуса файла у file-status-processor.
+ * Если адрес сервиса статусов не задан, запросы не выполняются.
+ */
+@Slf4j
+@Service
+public class StatusLookupClient {
+
+    private final RestClient restClient;
+
+    /**
+     * Конструктор клиента.
+     *
+     * @param builder построитель REST клиента
+     * @param baseUrl адрес file-status-processor, пустая строка отключает запросы
+     * @param timeout таймаут соединения и чтения
+     */
+    public StatusLookupClient(
+            RestClient.Builder builder,
+            @Value("${app.dedup.status-service-url:}") String baseUrl,
+            @Value("${app.dedup.lookup-timeout:500ms}") Duration timeout
+    ) {
+        if (baseUrl == null || baseUrl.isBlank()) {
+            this.restClient = null;
+            return;
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) timeout.toMillis());
+        requestFactory.setReadTimeout((int) timeout.toMillis());
+        this.restClient = builder.baseUrl(baseUrl).requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Запрос текущего статуса файла.
+     *
+     * @param fileHash хеш файла
+     * @return статус или пустой Optional, если файл неизвестен или сервис недоступен
+     */
+    public Optional<Status> fetchStatus(String fileHash) {
+        if (restClient == null) {
+            return Optional.empty();
+        }
+        try {
+            RemoteStatus remote = restClient.get()
+                    .uri("/status/{fileHash}", fileHash)
+                    .retrieve()
+                    .body(RemoteStatus.class);
+            return Optional.ofNullable(remote).map(RemoteStatus::status);
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        } catch (Exception e) {
+            log.warn("Status lookup failed for {}: {}", fileHash, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Часть ответа file-status-processor, нужная для дедупликации.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record RemoteStatus(Status status) {
+    }
+}
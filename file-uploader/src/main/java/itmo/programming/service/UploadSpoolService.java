@@ -0,0 +1,190 @@
+package itmo.programming.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import itmo.programming.common.Status;
+import itmo.programming.exception.FileValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Сервис для однопроходного приема содержимого файла.
+ * Поток читается один раз: по ходу копирования во временный файл считается SHA-256 хеш
+ * и проверяется ограничение размера.
+ * Файл multipart-запроса контейнер уже записал на диск, поэтому он не копируется повторно:
+ * файл переносится в каталог приема, а хеш считается одним чтением перенесенного файла.
+ * Время приема пишется в таймер {@code upload.hash} с тегом итогового статуса.
+ */
+@Slf4j
+@Service
+public class UploadSpoolService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path spoolDir;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param spoolDir      каталог для временных файлов
+     * @param meterRegistry реестр метрик
+     * @throws IOException если каталог не может быть создан
+     */
+    public UploadSpoolService(
+            @Value("${app.upload.spool-dir:${java.io.tmpdir}/firestarter-spool}") Path spoolDir,
+            MeterRegistry meterRegistry
+    ) throws IOException {
+        this.spoolDir = Files.createDirectories(spoolDir);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Копирование потока во временный файл с подсчетом хеша и проверкой размера.
+     *
+     * @param content поток с содержимым файла
+     * @param maxSize максимальный допустимый размер в байтах
+     * @return временный файл с хешем и размером
+     * @throws FileValidationException если размер превышает допустимый; чтение прерывается сразу
+     * @throws IOException             при ошибке чтения или записи
+     */
+    public SpooledUpload spool(InputStream content, long maxSize) throws IOException {
+        return spool(content, maxSize, false);
+    }
+
+    /**
+     * Копирование потока во временный файл с подсчетом хеша и проверкой размера.
+     *
+     * @param content поток с содержимым файла
+     * @param maxSize максимальный допустимый размер в байтах
+     * @param durable сбросить ли содержимое на диск до возврата, чтобы файл пережил сбой после ответа клиенту
+     * @return временный файл с хешем и размером
+     * @throws FileValidationException если размер превышает допустимый; чтение прерывается сразу
+     * @throws IOException             при ошибке чтения или записи
+     */
+    public SpooledUpload spool(InputStream content, long maxSize, boolean durable) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Status outcome = Status.UPLOAD_ERROR;
+        try {
+            SpooledUpload upload = copyToSpool(content, maxSize, durable);
+            outcome = Status.RECEIVED;
+            return upload;
+        } catch (FileValidationException e) {
+            outcome = Status.PRIMARY_VALIDATION_FAILED;
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("upload.hash", "status", outcome.name()));
+        }
+    }
+
+    /**
+     * Прием файла multipart-запроса без повторной записи содержимого.
+     * Размер известен из запроса и проверяется до переноса. {@link MultipartFile#transferTo(Path)}
+     * переименовывает временный файл контейнера, если {@code spring.servlet.multipart.location}
+     * находится на той же файловой системе, что и каталог приема; иначе содержимое копируется.
+     *
+     * @param file    файл запроса
+     * @param maxSize максимальный допустимый размер в байтах
+     * @param durable сбросить ли содержимое на диск до возврата, чтобы файл пережил сбой после ответа клиенту
+     * @return временный файл с хешем и размером
+     * @throws FileValidationException если размер превышает допустимый
+     * @throws IOException             при ошибке переноса или чтения
+     */
+    public SpooledUpload spool(MultipartFile file, long maxSize, boolean durable) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Status outcome = Status.UPLOAD_ERROR;
+        try {
+            if (file.getSize() > maxSize) {
+                throw new FileValidationException("File size exceeds limit");
+            }
+            SpooledUpload upload = transferToSpool(file, durable);
+            outcome = Status.RECEIVED;
+            return upload;
+        } catch (FileValidationException e) {
+            outcome = Status.PRIMARY_VALIDATION_FAILED;
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("upload.hash", "status", outcome.name()));
+        }
+    }
+
+    private SpooledUpload transferToSpool(MultipartFile file, boolean durable) throws IOException {
+        // Файл назначения не должен существовать: контейнер переносит свой файл на его место
+        Path target = spoolDir.resolve("upload-" + UUID.randomUUID() + ".spool");
+        try {
+            file.transferTo(target);
+            MessageDigest digest = newDigest();
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 InputStream in = Channels.newInputStream(channel)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    digest.update(buffer, 0, read);
+                }
+                if (durable) {
+                    channel.force(false);
+                }
+            }
+            return new SpooledUpload(target, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    private SpooledUpload copyToSpool(InputStream content, long maxSize, boolean durable) throws IOException {
+        MessageDigest digest = newDigest();
+        Path temp = Files.createTempFile(spoolDir, "upload-", ".spool");
+        try {
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 OutputStream out = Channels.newOutputStream(channel)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new FileValidationException("File size exceeds limit");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+                if (durable) {
+                    channel.force(false);
+                }
+            }
+            return new SpooledUpload(temp, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Создание SHA-256 дайджеста.
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Загрузки на пуле потоков платформы Tomcat.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadUploadBenchmark extends UploadThroughputBenchmark {
+
+    @Override
+    String threadMode() {
+        return "platform";
+    }
+}
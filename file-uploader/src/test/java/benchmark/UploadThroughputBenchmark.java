@@ -0,0 +1,133 @@
+package benchmark;
+
+import itmo.programming.FileUploaderApplication;
+import itmo.programming.service.KafkaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Пропускная способность /upload при параллельных загрузках.
+ * Отправка в Kafka заменена блокирующей задержкой, имитирующей ожидание брокера и дискового ввода-вывода,
+ * поэтому результат определяется тем, сколько запросов сервер может держать в ожидании одновременно.
+ * Запуск: {@code ./gradlew :file-uploader:uploadBenchmark}; из задачи {@code test} пакет исключен.
+ */
+@SpringBootTest(
+        classes = FileUploaderApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "spring.kafka.bootstrap-servers=localhost:9092",
+                "spring.kafka.producer.key-serializer=org.apache.kafka.common.serialization.StringSerializer",
+                "spring.kafka.producer.value-serializer=itmo.programming.kafka.BinaryEventSerializer",
+                "server.tomcat.threads.max=" + UploadThroughputBenchmark.SERVER_THREADS,
+                "server.tomcat.max-connections=10000",
+                "app.upload.max-file-size=5MB",
+                "app.upload.allowed-extensions=xls,xlsx",
+                "app.dedup.enabled=false",
+                "logging.level.root=WARN"
+        }
+)
+abstract class UploadThroughputBenchmark {
+
+    static final int SERVER_THREADS = 50;
+
+    private static final int CONCURRENT_CLIENTS = 500;
+    private static final int WARMUP_UPLOADS = 500;
+    private static final int MEASURED_UPLOADS = 5000;
+    private static final long KAFKA_ACK_MILLIS = 20;
+    private static final int FILE_SIZE = 16 * 1024;
+    private static final String BOUNDARY = "benchmark-boundary";
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private KafkaService kafkaService;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final Random random = new Random(42);
+
+    @BeforeEach
+    void simulateBlockingKafkaSends() throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(KAFKA_ACK_MILLIS);
+            return null;
+        }).when(kafkaService).sendFileToProcessing(any());
+    }
+
+    @Test
+    void concurrentUploads() throws Exception {
+        run(WARMUP_UPLOADS);
+
+        long started = System.nanoTime();
+        int succeeded = run(MEASURED_UPLOADS);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("%n[upload benchmark] %s threads: %d uploads, %d clients, %d server threads, "
+                        + "%d ms Kafka ack -> %.0f uploads/s (%.2f s)%n",
+                threadMode(), MEASURED_UPLOADS, CONCURRENT_CLIENTS, SERVER_THREADS, KAFKA_ACK_MILLIS,
+                MEASURED_UPLOADS / seconds, seconds);
+        assertEquals(MEASURED_UPLOADS, succeeded);
+    }
+
+    /**
+     * Название режима потоков для отчета.
+     */
+    abstract String threadMode();
+
+    private int run(int uploads) throws Exception {
+        Semaphore inFlight = new Semaphore(CONCURRENT_CLIENTS);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<CompletableFuture<?>> requests = new ArrayList<>(uploads);
+        for (int i = 0; i < uploads; i++) {
+            inFlight.acquire();
+            requests.add(client.sendAsync(uploadRequest(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (error == null && response.statusCode() == 200) {
+                            succeeded.incrementAndGet();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        return succeeded.get();
+    }
+
+    private HttpRequest uploadRequest() {
+        byte[] content = new byte[FILE_SIZE];
+        random.nextBytes(content);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(FILE_SIZE + 256);
+        String header = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"bench.xlsx\"\r\n"
+                + "Content-Type: application/vnd.openxmlformats-officedocument.spreadsheetml.sheet\r\n\r\n";
+        body.writeBytes(header.getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package benchmark;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Загрузки в виртуальных потоках: каждый запрос Tomcat обслуживает в своем виртуальном потоке.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadUploadBenchmark extends UploadThroughputBenchmark {
+
+    @Override
+    String threadMode() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,70 @@
+package config;
+
+import itmo.programming.config.KafkaConfig;
+import itmo.programming.config.KafkaProperties;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaConfigTest {
+
+    private final KafkaProperties properties = new KafkaProperties();
+    private KafkaConfig config;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBootstrapServers("localhost:9092");
+        KafkaProperties.Producer producer = properties.getProducer();
+        producer.setKeySerializer("org.apache.kafka.common.serialization.StringSerializer");
+        producer.setValueSerializer("itmo.programming.kafka.BinaryEventSerializer");
+        producer.setAcks("all");
+        producer.setEnableIdempotence(true);
+        producer.setCompressionType("lz4");
+        producer.setLinger(Duration.ofMillis(5));
+        producer.getUpload().setCompressionType("zstd");
+        producer.getUpload().setBatchSize(DataSize.ofMegabytes(1));
+        producer.getUpload().setMaxRequestSize(DataSize.ofMegabytes(1));
+        producer.getStatus().setBufferMemory(DataSize.ofMegabytes(16));
+
+        config = new KafkaConfig(properties);
+        ReflectionTestUtils.setField(config, "applicationName", "file-uploader");
+    }
+
+    @Test
+    @DisplayName("Профиль топика загрузок должен переопределять общие параметры")
+    void uploadProfile_ShouldOverrideSharedSettings() {
+        // When
+        Map<String, Object> configs = config.producerConfigs("upload", properties.getProducer().getUpload());
+
+        // Then
+        assertEquals("zstd", configs.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(1024 * 1024, configs.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals(1024 * 1024, configs.get(ProducerConfig.MAX_REQUEST_SIZE_CONFIG));
+        assertEquals(5L, configs.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals("all", configs.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(true, configs.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals("file-uploader-upload", configs.get(ProducerConfig.CLIENT_ID_CONFIG));
+    }
+
+    @Test
+    @DisplayName("Незаданные в профиле статусов параметры должны браться из общих или оставаться по умолчанию клиента")
+    void statusProfile_ShouldFallBackToSharedSettings() {
+        // When
+        Map<String, Object> configs = config.producerConfigs("status", properties.getProducer().getStatus());
+
+        // Then
+        assertEquals("lz4", configs.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(16L * 1024 * 1024, configs.get(ProducerConfig.BUFFER_MEMORY_CONFIG));
+        assertFalse(configs.containsKey(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertFalse(configs.containsKey(ProducerConfig.MAX_REQUEST_SIZE_CONFIG));
+        assertEquals("file-uploader-status", configs.get(ProducerConfig.CLIENT_ID_CONFIG));
+    }
+}
@@ -0,0 +1,137 @@
+package controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.controller.AdmissionControlFilter;
+import itmo.programming.service.AdmissionControlService;
+import itmo.programming.service.AdmissionControlService.Admission;
+import itmo.programming.service.ConsumerLagMonitor;
+import itmo.programming.service.FileValidationService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlFilterTest {
+
+    @Mock
+    private ConsumerLagMonitor lagMonitor;
+
+    @Mock
+    private FileValidationService validationService;
+
+    private AdmissionControlService service;
+
+    private AdmissionControlFilter filter(int maxConcurrent, long maxLag) {
+        service = new AdmissionControlService(true, maxConcurrent, DataSize.ofMegabytes(64),
+                Duration.ofMillis(1500), maxLag, Duration.ofSeconds(10), lagMonitor, new SimpleMeterRegistry());
+        return new AdmissionControlFilter(service, validationService, new ObjectMapper());
+    }
+
+    private static MockHttpServletRequest uploadRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload");
+        request.setContent(new byte[1024]);
+        return request;
+    }
+
+    @Test
+    @DisplayName("Допущенная загрузка должна передаваться дальше по цепочке")
+    void shouldPassAdmittedUpload() throws Exception {
+        // Given
+        AdmissionControlFilter filter = filter(1, 0);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(uploadRequest(), response, chain);
+
+        // Then
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Загрузка сверх ограничения должна получать 429 с Retry-After без вызова контроллера")
+    void shouldRespondTooManyRequests() throws Exception {
+        // Given
+        AdmissionControlFilter filter = filter(1, 0);
+        Admission inProgress = service.tryAdmit(1024);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(uploadRequest(), response, chain);
+
+        // Then
+        assertTrue(inProgress.isAdmitted());
+        assertNull(chain.getRequest());
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("TOO_MANY_REQUESTS"));
+    }
+
+    @Test
+    @DisplayName("При отставании обработки загрузка должна получать 503 с Retry-After")
+    void shouldRespondServiceUnavailableWhenLagging() throws Exception {
+        // Given
+        AdmissionControlFilter filter = filter(10, 100);
+        when(lagMonitor.currentLag()).thenReturn(500L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(uploadRequest(), response, chain);
+
+        // Then
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals("10", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("SERVICE_OVERLOADED"));
+    }
+
+    @Test
+    @DisplayName("Запросы, кроме загрузки, не должны проходить контроль допуска")
+    void shouldSkipOtherRequests() throws Exception {
+        // Given
+        AdmissionControlFilter filter = filter(10, 100);
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), chain);
+
+        // Then
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(lagMonitor);
+    }
+
+    @Test
+    @DisplayName("Части докачиваемой загрузки должны проходить контроль допуска")
+    void shouldThrottleResumableChunks() throws Exception {
+        // Given
+        AdmissionControlFilter filter = filter(1, 0);
+        Admission inProgress = service.tryAdmit(1024);
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/upload/sessions/abc/chunks/0");
+        request.setContent(new byte[1024]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertTrue(inProgress.isAdmitted());
+        assertNull(chain.getRequest());
+        assertEquals(429, response.getStatus());
+    }
+}
@@ -0,0 +1,151 @@
+package controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.common.Status;
+import itmo.programming.controller.AsyncUploadController;
+import itmo.programming.controller.UploadPipeline;
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.response.UploadResponse;
+import itmo.programming.service.AsyncUploadExecutor;
+import itmo.programming.service.AttemptVersionClock;
+import itmo.programming.service.DeduplicationService;
+import itmo.programming.service.FileValidationService;
+import itmo.programming.service.KafkaService;
+import itmo.programming.service.UploadSpoolService;
+import itmo.programming.storage.BlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncUploadControllerTest {
+
+    @Mock
+    private FileValidationService validationService;
+
+    @Mock
+    private KafkaService kafkaService;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private DeduplicationService deduplicationService;
+
+    @TempDir
+    Path spoolDir;
+
+    private UploadPipeline pipeline;
+
+    private AsyncUploadController controller;
+
+    private AsyncUploadExecutor asyncExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        asyncExecutor = new AsyncUploadExecutor(1, 4, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        UploadSpoolService spoolService = new UploadSpoolService(spoolDir, new SimpleMeterRegistry());
+        pipeline = new UploadPipeline(validationService, kafkaService, blobStore, spoolService, deduplicationService,
+                new AttemptVersionClock(100, Duration.ofMinutes(10)));
+        controller = new AsyncUploadController(pipeline, asyncExecutor);
+        lenient().when(validationService.getMaxFileSizeBytes()).thenReturn(5L * 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncExecutor.close();
+    }
+
+    @Test
+    @DisplayName("Асинхронная загрузка отвечает 202 с адресом статуса и отправляет файл в фоне")
+    void shouldAcceptAsyncUploadAndProcessInBackground() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(controller, "statusServiceUrl", "http://localhost:8083/");
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+
+        // When
+        ResponseEntity<?> response = controller.uploadFileAsync(file);
+
+        // Then
+        assertEquals(202, response.getStatusCodeValue());
+        UploadResponse body = (UploadResponse) response.getBody();
+        assertEquals("http://localhost:8083/status/" + body.getFileHash(), body.getStatusUrl());
+        assertEquals(body.getStatusUrl(), response.getHeaders().getLocation().toString());
+        verify(kafkaService, timeout(5000)).sendFileToProcessing(argThat(event ->
+                body.getFileHash().equals(event.getFileHash())
+                        && event.getContentSize() == file.getSize()
+                        && "test.xlsx".equals(event.getFileName())));
+        verify(validationService, timeout(5000)).validateFile(argThat(spooled ->
+                "test.xlsx".equals(spooled.getOriginalFilename()) && spooled.getSize() == file.getSize()));
+    }
+
+    @Test
+    @DisplayName("Асинхронная загрузка с ожиданием возвращает тот же ответ, что и синхронная")
+    void shouldReturnProcessingResultWhenWaiting() throws Exception {
+        // Given
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.pdf", "application/pdf", "invalid content".getBytes()
+        );
+        doThrow(new FileValidationException("Invalid file extension"))
+                .when(validationService).validateFile(any());
+
+        // When
+        ResponseEntity<?> response = controller.uploadFileAndWait(file).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(500, response.getStatusCodeValue());
+        assertEquals("VALIDATION_ERROR", ((ErrorResponse) response.getBody()).getErrorType());
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus() == Status.PRIMARY_VALIDATION_FAILED));
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    @DisplayName("При заполненной очереди асинхронная загрузка отклоняется с 503 и Retry-After")
+    void shouldRejectAsyncUploadWhenQueueIsFull() throws Exception {
+        // Given
+        AsyncUploadExecutor fullExecutor = mock(AsyncUploadExecutor.class);
+        when(fullExecutor.submit(any())).thenThrow(new RejectedExecutionException("queue is full"));
+        AsyncUploadController busyController = new AsyncUploadController(pipeline, fullExecutor);
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+
+        // When
+        ResponseEntity<?> response = busyController.uploadFileAsync(file);
+
+        // Then
+        assertEquals(503, response.getStatusCodeValue());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        verifyNoInteractions(kafkaService);
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.common.Status;
+import itmo.programming.controller.BatchUploadController;
+import itmo.programming.controller.UploadPipeline;
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.response.UploadResponse;
+import itmo.programming.service.ArchiveExtractionService;
+import itmo.programming.service.AsyncUploadExecutor;
+import itmo.programming.service.AttemptVersionClock;
+import itmo.programming.service.DeduplicationService;
+import itmo.programming.service.FileValidationService;
+import itmo.programming.service.KafkaService;
+import itmo.programming.service.UploadSpoolService;
+import itmo.programming.storage.BlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchUploadControllerTest {
+
+    @Mock
+    private FileValidationService validationService;
+
+    @Mock
+    private KafkaService kafkaService;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private DeduplicationService deduplicationService;
+
+    @TempDir
+    Path spoolDir;
+
+    private UploadPipeline pipeline;
+
+    private BatchUploadController controller;
+
+    private AsyncUploadExecutor asyncExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        asyncExecutor = new AsyncUploadExecutor(1, 4, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        UploadSpoolService spoolService = new UploadSpoolService(spoolDir, new SimpleMeterRegistry());
+        ArchiveExtractionService archiveService = new ArchiveExtractionService(
+                spoolService, 3, DataSize.ofKilobytes(64), new SimpleMeterRegistry());
+        pipeline = new UploadPipeline(validationService, kafkaService, blobStore, spoolService, deduplicationService,
+                new AttemptVersionClock(100, Duration.ofMinutes(10)));
+        controller = new BatchUploadController(
+                pipeline, validationService, kafkaService, deduplicationService, asyncExecutor, archiveService);
+        lenient().when(validationService.getMaxFileSizeBytes()).thenReturn(5L * 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncExecutor.close();
+    }
+
+    @Test
+    @DisplayName("Пакетная загрузка возвращает результат по каждому файлу и отправляет принятые файлы одним пакетом")
+    void shouldUploadBatchWithPerFileResults() throws Exception {
+        // Given
+        MultipartFile valid = new MockMultipartFile("files", "a.xlsx", "application/vnd.ms-excel", "first".getBytes());
+        MultipartFile invalid = new MockMultipartFile("files", "b.pdf", "application/pdf", "second".getBytes());
+        MultipartFile repeated = new MockMultipartFile("files", "c.xlsx", "application/vnd.ms-excel", "first".getBytes());
+        lenient().doThrow(new FileValidationException("Invalid file extension")).when(validationService).validateFile(invalid);
+        when(kafkaService.sendFilesToProcessing(any())).thenAnswer(invocation ->
+                List.of(CompletableFuture.completedFuture(null)));
+
+        // When
+        ResponseEntity<?> response = controller.uploadBatch(List.of(valid, invalid, repeated));
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        List<?> results = (List<?>) response.getBody();
+        UploadResponse first = (UploadResponse) results.get(0);
+        UploadResponse second = (UploadResponse) results.get(1);
+        UploadResponse third = (UploadResponse) results.get(2);
+        assertEquals("a.xlsx", first.getFileName());
+        assertNull(first.getError());
+        assertEquals("VALIDATION_ERROR", second.getError().getErrorType());
+        assertEquals(first.getFileHash(), third.getFileHash());
+        assertEquals(Status.RECEIVED, third.getProcessingStatus());
+        verify(kafkaService).sendFilesToProcessing(argThat(events ->
+                events.size() == 1 && first.getFileHash().equals(events.get(0).getFileHash())));
+        verify(kafkaService, never()).sendFileToProcessing(any());
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus() == Status.PRIMARY_VALIDATION_FAILED && "b.pdf".equals(event.getFileName())));
+        verify(deduplicationService).markAccepted(first.getFileHash());
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Файл пакета без подтверждения записи брокером получает ошибку и статус UPLOAD_ERROR")
+    void shouldReportBatchFileNotAcknowledged() throws Exception {
+        // Given
+        MultipartFile first = new MockMultipartFile("files", "a.xlsx", "application/vnd.ms-excel", "first".getBytes());
+        MultipartFile second = new MockMultipartFile("files", "b.xlsx", "application/vnd.ms-excel", "second".getBytes());
+        when(kafkaService.sendFilesToProcessing(any())).thenAnswer(invocation -> List.of(
+                CompletableFuture.completedFuture(null),
+                CompletableFuture.failedFuture(new IllegalStateException("delivery timeout"))));
+
+        // When
+        ResponseEntity<?> response = controller.uploadBatch(List.of(first, second));
+
+        // Then
+        List<?> results = (List<?>) response.getBody();
+        assertNull(((UploadResponse) results.get(0)).getError());
+        UploadResponse failed = (UploadResponse) results.get(1);
+        assertEquals("INTERNAL_ERROR", failed.getError().getErrorType());
+        verify(kafkaService).sendStatusEvent(argThat(event ->
+                event.getStatus() == Status.UPLOAD_ERROR && failed.getFileHash().equals(event.getFileHash())));
+        verify(deduplicationService, never()).markAccepted(failed.getFileHash());
+    }
+
+    @Test
+    @DisplayName("Файл пакета, не подтвержденный к концу ожидания, не считается принятым и не помечается для дедупликации")
+    void shouldReportBatchFilePendingAfterTimeout() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(controller, "batchSendTimeout", Duration.ofMillis(50));
+        MultipartFile first = new MockMultipartFile("files", "a.xlsx", "application/vnd.ms-excel", "first".getBytes());
+        MultipartFile second = new MockMultipartFile("files", "b.xlsx", "application/vnd.ms-excel", "second".getBytes());
+        when(kafkaService.sendFilesToProcessing(any())).thenAnswer(invocation -> List.of(
+                CompletableFuture.completedFuture(null),
+                new CompletableFuture<>()));
+
+        // When
+        ResponseEntity<?> response = controller.uploadBatch(List.of(first, second));
+
+        // Then
+        List<?> results = (List<?>) response.getBody();
+        UploadResponse accepted = (UploadResponse) results.get(0);
+        UploadResponse pending = (UploadResponse) results.get(1);
+        assertNull(accepted.getError());
+        assertEquals("ACK_TIMEOUT", pending.getError().getErrorType());
+        verify(kafkaService).sendStatusEvent(argThat(event -> event.getStatus() == Status.UPLOAD_ERROR
+                && pending.getFileHash().equals(event.getFileHash())));
+        verify(deduplicationService).markAccepted(accepted.getFileHash());
+        verify(deduplicationService, never()).markAccepted(pending.getFileHash());
+    }
+
+    @Test
+    @DisplayName("При передаче через Kafka событие файла пакета отправляется только после подтверждения его частей")
+    void shouldSendBatchEventsOnlyForAcknowledgedChunks() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(pipeline, "contentTransport", "kafka");
+        MultipartFile first = new MockMultipartFile("files", "a.xlsx", "application/vnd.ms-excel", "first".getBytes());
+        MultipartFile second = new MockMultipartFile("files", "b.xlsx", "application/vnd.ms-excel", "second".getBytes());
+        when(kafkaService.sendChunks(any(), any(Path.class), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("delivery timeout")));
+        when(kafkaService.sendFilesToProcessing(any())).thenAnswer(invocation ->
+                List.of(CompletableFuture.completedFuture(null)));
+
+        // When
+        ResponseEntity<?> response = controller.uploadBatch(List.of(first, second));
+
+        // Then
+        List<?> results = (List<?>) response.getBody();
+        UploadResponse accepted = (UploadResponse) results.get(0);
+        UploadResponse failed = (UploadResponse) results.get(1);
+        assertNull(accepted.getError());
+        assertEquals("INTERNAL_ERROR", failed.getError().getErrorType());
+        verify(kafkaService).sendFilesToProcessing(argThat(events ->
+                events.size() == 1 && accepted.getFileHash().equals(events.get(0).getFileHash())));
+        verify(kafkaService).sendStatusEvent(argThat(event -> event.getStatus() == Status.UPLOAD_ERROR
+                && failed.getFileHash().equals(event.getFileHash())));
+        verify(deduplicationService, never()).markAccepted(failed.getFileHash());
+    }
+
+    @Test
+    @DisplayName("Пакет сверх ограничения количества файлов отклоняется целиком")
+    void shouldRejectOversizedBatch() {
+        // Given
+        ReflectionTestUtils.setField(controller, "maxBatchFiles", 1);
+        MultipartFile file = new MockMultipartFile("files", "a.xlsx", "application/vnd.ms-excel", "a".getBytes());
+
+        // When
+        ResponseEntity<?> response = controller.uploadBatch(List.of(file, file));
+
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
+        verifyNoInteractions(kafkaService);
+    }
+
+    @Test
+    @DisplayName("Каждый файл ZIP архива обрабатывается как отдельный файл со своим хешем")
+    void shouldFanOutArchiveEntries() throws Exception {
+        // Given
+        byte[] first = "first workbook".getBytes();
+        byte[] second = "second workbook".getBytes();
+        MultipartFile archive = new MockMultipartFile("files", "bundle.zip", "application/zip", zip(
+                "reports/", null,
+                "reports/a.xlsx", first,
+                "b.xls", second,
+                "notes.txt", "notes".getBytes()));
+        lenient().doThrow(new FileValidationException("Invalid file extension")).when(validationService)
+                .validateFile(argThat((MultipartFile file) -> file.getOriginalFilename().endsWith(".txt")));
+        when(kafkaService.sendFilesToProcessing(any())).thenAnswer(invocation -> List.of(
+                CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(null)));
+
+        // When
+        ResponseEntity<?> response = controller.uploadBatch(List.of(archive));
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        List<?> results = (List<?>) response.getBody();
+        assertEquals(3, results.size());
+        assertEquals("reports/a.xlsx", ((UploadResponse) results.get(0)).getFileName());
+        assertEquals(sha256(first), ((UploadResponse) results.get(0)).getFileHash());
+        assertEquals(sha256(second), ((UploadResponse) results.get(1)).getFileHash());
+        assertEquals("VALIDATION_ERROR", ((UploadResponse) results.get(2)).getError().getErrorType());
+        verify(kafkaService).sendFilesToProcessing(argThat(events -> events.size() == 2
+                && "reports/a.xlsx".equals(events.get(0).getFileName())
+                && events.get(0).getContentSize() == first.length
+                && "b.xls".equals(events.get(1).getFileName())));
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Архив сверх ограничения распакованного размера отклоняет запрос целиком с 413 без отправки файлов")
+    void shouldRejectArchiveOverTotalSizeLimit() throws Exception {
+        // Given
+        MultipartFile archive = new MockMultipartFile("files", "bomb.zip", "application/zip", zip(
+                "a.xlsx", new byte[40 * 1024],
+                "b.xlsx", new byte[40 * 1024]));
+
+        // When
+        ResponseEntity<?> response = controller.uploadBatch(List.of(archive));
+
+        // Then
+        assertEquals(413, response.getStatusCodeValue());
+        assertTrue(((ErrorResponse) response.getBody()).getMessage().contains("total size limit"));
+        verifyNoInteractions(kafkaService);
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Ограничение распакованного размера считается по всем архивам запроса")
+    void shouldRejectArchivesOverTotalSizeAcrossRequest() throws Exception {
+        // Given
+        MultipartFile first = new MockMultipartFile("files", "first.zip", "application/zip",
+                zip("a.xlsx", new byte[40 * 1024]));
+        MultipartFile second = new MockMultipartFile("files", "second.zip", "application/zip",
+                zip("b.xlsx", new byte[40 * 1024]));
+
+        // When
+        ResponseEntity<?> response = controller.uploadBatch(List.of(first, second));
+
+        // Then
+        assertEquals(413, response.getStatusCodeValue());
+        assertTrue(((ErrorResponse) response.getBody()).getMessage().contains("total size limit"));
+        verifyNoInteractions(kafkaService);
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Файлы архивов учитываются в ограничении количества файлов пакета")
+    void shouldCountArchiveEntriesAgainstBatchLimit() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(controller, "maxBatchFiles", 2);
+        MultipartFile plain = new MockMultipartFile("files", "a.xlsx", "application/vnd.ms-excel", "a".getBytes());
+        MultipartFile archive = new MockMultipartFile("files", "bundle.zip", "application/zip",
+                zip("b.xlsx", "b".getBytes(), "c.xlsx", "c".getBytes()));
+
+        // When
+        ResponseEntity<?> response = controller.uploadBatch(List.of(plain, archive));
+
+        // Then
+        assertEquals(413, response.getStatusCodeValue());
+        assertTrue(((ErrorResponse) response.getBody()).getMessage().contains("more than 1 files"));
+        verifyNoInteractions(kafkaService);
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private static byte[] zip(Object... nameAndContent) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < nameAndContent.length; i += 2) {
+                zip.putNextEntry(new ZipEntry((String) nameAndContent[i]));
+                if (nameAndContent[i + 1] != null) {
+                    zip.write((byte[]) nameAndContent[i + 1]);
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,14 +1,27 @@
 package controller;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import itmo.programming.controller.FileUploadController;
+import itmo.programming.controller.UploadPipeline;
 import itmo.programming.exception.FileValidationException;
 import itmo.programming.response.ErrorResponse;
 import itmo.programming.response.UploadResponse;
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.service.ArchiveExtractionService;
+import itmo.programming.service.AttemptVersionClock;
+import itmo.programming.service.DeduplicationService;
 import itmo.programming.service.FileValidationService;
 import itmo.programming.service.KafkaService;
+import itmo.programming.service.UploadSpoolService;
+import itmo.programming.trace.Stage;
+import itmo.programming.storage.BlobStore;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -16,11 +29,28 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.verification.VerificationMode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
 import static org.apache.kafka.common.config.ConfigDef.Range.atLeast;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,9 +62,31 @@ class FileUploadControllerTest {
     @Mock
     private KafkaService kafkaService;
 
-    @InjectMocks
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private DeduplicationService deduplicationService;
+
+    @TempDir
+    Path spoolDir;
+
+    private ArchiveExtractionService archiveService;
+
+    private UploadPipeline pipeline;
+
     private FileUploadController controller;
 
+    @BeforeEach
+    void setUp() throws IOException {
+        UploadSpoolService spoolService = new UploadSpoolService(spoolDir, new SimpleMeterRegistry());
+        archiveService = new ArchiveExtractionService(spoolService, 3, DataSize.ofKilobytes(64), new SimpleMeterRegistry());
+        pipeline = new UploadPipeline(validationService, kafkaService, blobStore, spoolService, deduplicationService,
+                new AttemptVersionClock(100, Duration.ofMinutes(10)));
+        controller = new FileUploadController(pipeline, archiveService);
+        lenient().when(validationService.getMaxFileSizeBytes()).thenReturn(5L * 1024 * 1024);
+    }
+
     @Test
     @DisplayName("Успешная загрузка валидного файла")
     void shouldUploadValidFile() throws Exception {
@@ -140,4 +192,212 @@ class FileUploadControllerTest {
         verify(kafkaService, times(1)).sendFileToProcessing(any());
         verify(kafkaService,  atMost(3)).sendStatusEvent(any());
     }
+
+    @Test
+    @DisplayName("Содержимое сохраняется в хранилище, в Kafka уходит только ссылка")
+    void shouldSendContentReferenceInsteadOfBytes() throws Exception {
+        // Given
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+        when(blobStore.putFile(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ResponseEntity<?> response = controller.uploadFile(file);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        String fileHash = ((UploadResponse) response.getBody()).getFileHash();
+        verify(blobStore).putFile(eq(fileHash), any());
+        verify(kafkaService).sendFileToProcessing(argThat(event ->
+                fileHash.equals(event.getContentRef())
+                        && event.getFileContent() == null
+                        && event.getContentSize() == file.getSize()
+                        && "application/vnd.ms-excel".equals(event.getContentType())));
+    }
+
+    @Test
+    @DisplayName("При передаче через Kafka содержимое отправляется частями без записи в хранилище")
+    void shouldSendContentInChunksWhenKafkaTransportConfigured() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(pipeline, "contentTransport", "kafka");
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+
+        // When
+        ResponseEntity<?> response = controller.uploadFile(file);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        String fileHash = ((UploadResponse) response.getBody()).getFileHash();
+        verify(kafkaService).sendFileInChunks(argThat(event -> fileHash.equals(event.getFileHash())),
+                any(Path.class), eq(file.getSize()));
+        verify(kafkaService, never()).sendFileToProcessing(any());
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    @DisplayName("ZIP архив в одиночной загрузке отклоняется с 400 без приема содержимого")
+    void shouldRejectArchiveOnSingleUpload() throws Exception {
+        // Given
+        MultipartFile archive = new MockMultipartFile("file", "bundle.zip", "application/zip",
+                zip("a.xlsx", "first workbook".getBytes()));
+
+        // When
+        ResponseEntity<?> response = controller.uploadFile(archive);
+
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
+        ErrorResponse error = (ErrorResponse) response.getBody();
+        assertEquals("VALIDATION_ERROR", error.getErrorType());
+        assertTrue(error.getMessage().contains("/upload/batch"));
+        verifyNoInteractions(kafkaService, blobStore, validationService);
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Все события загрузки несут трассу с моментом приема файла")
+    void shouldAttachUploadTraceToEvents() throws Exception {
+        // Given
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+
+        // When
+        controller.uploadFile(file);
+
+        // Then
+        verify(kafkaService).sendFileToProcessing(argThat(event ->
+                event.getTrace().get(Stage.UPLOAD_RECEIVED).isPresent()));
+        verify(kafkaService, times(2)).sendStatusEvent(argThat(event ->
+                event.getTrace().get(Stage.UPLOAD_RECEIVED).isPresent()));
+    }
+
+    @Test
+    @DisplayName("Хеш считается за один проход и совпадает с SHA-256 содержимого")
+    void shouldComputeSha256WhileSpooling() throws Exception {
+        // Given
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+
+        // When
+        ResponseEntity<?> response = controller.uploadFile(file);
+
+        // Then
+        UploadResponse uploadResponse = (UploadResponse) response.getBody();
+        assertEquals("6ae8a75555209fd6c44157c0aed8016e763ff435a19cf186f76863140143ff72",
+                uploadResponse.getFileHash());
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Файл больше допустимого размера отклоняется без отправки в Kafka")
+    void shouldAbortOversizedUpload() throws Exception {
+        // Given
+        when(validationService.getMaxFileSizeBytes()).thenReturn(4L);
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+
+        // When
+        ResponseEntity<?> response = controller.uploadFile(file);
+
+        // Then
+        assertEquals(500, response.getStatusCodeValue());
+        ErrorResponse error = (ErrorResponse) response.getBody();
+        assertEquals("VALIDATION_ERROR", error.getErrorType());
+        assertEquals("File size exceeds limit", error.getMessage());
+        verify(validationService, never()).validateFile(any());
+        verifyNoInteractions(kafkaService, blobStore);
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Повторная загрузка обработанного файла сразу возвращает итоговый статус")
+    void shouldShortCircuitKnownHash() throws Exception {
+        // Given
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+        when(deduplicationService.findKnownStatus(anyString()))
+                .thenReturn(Optional.of(Status.SECONDARY_VALIDATION_SUCCESS));
+
+        // When
+        ResponseEntity<?> response = controller.uploadFile(file);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        UploadResponse uploadResponse = (UploadResponse) response.getBody();
+        assertEquals("File already processed", uploadResponse.getStatus());
+        assertEquals(Status.SECONDARY_VALIDATION_SUCCESS, uploadResponse.getProcessingStatus());
+        verifyNoInteractions(kafkaService, blobStore);
+    }
+
+    @Test
+    @DisplayName("Принятый файл отмечается в кэше дедупликации")
+    void shouldMarkAcceptedUpload() throws Exception {
+        // Given
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+
+        // When
+        ResponseEntity<?> response = controller.uploadFile(file);
+
+        // Then
+        String fileHash = ((UploadResponse) response.getBody()).getFileHash();
+        verify(deduplicationService).markAccepted(fileHash);
+    }
+
+    @Test
+    @DisplayName("Повторная загрузка в ту же миллисекунду получает версию больше версии предыдущей попытки")
+    void shouldIssueIncreasingVersionsForReuploadInSameMillisecond() throws Exception {
+        // Given
+        UploadPipeline frozenPipeline = new UploadPipeline(validationService, kafkaService, blobStore,
+                new UploadSpoolService(spoolDir, new SimpleMeterRegistry()), deduplicationService,
+                new AttemptVersionClock(100, Duration.ofMinutes(10), () -> 1_000L));
+        FileUploadController frozenController = new FileUploadController(frozenPipeline, archiveService);
+        MultipartFile file = new MockMultipartFile(
+                "file", "test.xlsx", "application/vnd.ms-excel", "test content".getBytes()
+        );
+
+        // When
+        frozenController.uploadFile(file);
+        frozenController.uploadFile(file);
+
+        // Then
+        ArgumentCaptor<StatusEvent> events = ArgumentCaptor.forClass(StatusEvent.class);
+        verify(kafkaService, times(4)).sendStatusEvent(events.capture());
+        List<Long> receivedVersions = events.getAllValues().stream()
+                .filter(event -> event.getStatus() == Status.RECEIVED)
+                .map(StatusEvent::getVersion)
+                .toList();
+        assertEquals(List.of(1_000L, 1_001L), receivedVersions);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private static byte[] zip(Object... nameAndContent) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < nameAndContent.length; i += 2) {
+                zip.putNextEntry(new ZipEntry((String) nameAndContent[i]));
+                if (nameAndContent[i + 1] != null) {
+                    zip.write((byte[]) nameAndContent[i + 1]);
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
 }
@@ -0,0 +1,154 @@
+package controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.controller.UploadPipeline;
+import itmo.programming.controller.UploadSessionController;
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.response.ErrorResponse;
+import itmo.programming.response.UploadResponse;
+import itmo.programming.response.UploadSessionResponse;
+import itmo.programming.service.AttemptVersionClock;
+import itmo.programming.service.DeduplicationService;
+import itmo.programming.service.FileValidationService;
+import itmo.programming.service.KafkaService;
+import itmo.programming.service.ResumableUploadService;
+import itmo.programming.service.UploadSpoolService;
+import itmo.programming.storage.BlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadSessionControllerTest {
+
+    @Mock
+    private FileValidationService validationService;
+
+    @Mock
+    private KafkaService kafkaService;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private DeduplicationService deduplicationService;
+
+    @TempDir
+    Path spoolDir;
+
+    @TempDir
+    Path sessionDir;
+
+    private ResumableUploadService resumableUploadService;
+
+    private UploadSessionController controller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        resumableUploadService = new ResumableUploadService(sessionDir, DataSize.ofBytes(4), DataSize.ofKilobytes(64),
+                10, Duration.ofMinutes(10), Duration.ofMinutes(1), new SimpleMeterRegistry());
+        UploadSpoolService spoolService = new UploadSpoolService(spoolDir, new SimpleMeterRegistry());
+        UploadPipeline pipeline = new UploadPipeline(validationService, kafkaService, blobStore, spoolService,
+                deduplicationService, new AttemptVersionClock(100, Duration.ofMinutes(10)));
+        controller = new UploadSessionController(pipeline, validationService, resumableUploadService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resumableUploadService.stop();
+    }
+
+    @Test
+    @DisplayName("Докачиваемая загрузка после приема всех частей обрабатывается как обычная")
+    void shouldProcessResumableUploadAfterAllChunks() throws Exception {
+        // Given
+        byte[] content = "resumable content".getBytes();
+        String fileHash = sha256(content);
+        ResponseEntity<?> created = controller.initiateSession("test.xlsx", content.length, null, "application/vnd.ms-excel");
+        UploadSessionResponse session = (UploadSessionResponse) created.getBody();
+        assertEquals(201, created.getStatusCodeValue());
+        assertEquals(5, session.getChunkCount());
+
+        // When
+        for (int index = session.getChunkCount() - 1; index >= 0; index--) {
+            byte[] chunk = Arrays.copyOfRange(content, index * 4, Math.min(content.length, index * 4 + 4));
+            ResponseEntity<?> stored = controller.uploadChunk(session.getSessionId(), index, sha256(chunk),
+                    new ByteArrayInputStream(chunk));
+            assertEquals(200, stored.getStatusCodeValue());
+        }
+        ResponseEntity<?> response = controller.completeSession(session.getSessionId(), fileHash);
+
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(fileHash, ((UploadResponse) response.getBody()).getFileHash());
+        verify(validationService).validateFile("test.xlsx", content.length);
+        verify(kafkaService).sendFileToProcessing(argThat(event ->
+                fileHash.equals(event.getFileHash())
+                        && event.getContentSize() == content.length
+                        && "test.xlsx".equals(event.getFileName())
+                        && "application/vnd.ms-excel".equals(event.getContentType())));
+        assertEquals(404, controller.getSession(session.getSessionId()).getStatusCodeValue());
+    }
+
+    @Test
+    @DisplayName("Часть с неверной суммой и завершение без всех частей отклоняются без обработки")
+    void shouldRejectBadChunkAndIncompleteSession() throws Exception {
+        // Given
+        byte[] chunk = "abcd".getBytes();
+        ResponseEntity<?> created = controller.initiateSession("test.xlsx", 8, null, null);
+        String sessionId = ((UploadSessionResponse) created.getBody()).getSessionId();
+
+        // When
+        ResponseEntity<?> mismatch = controller.uploadChunk(sessionId, 0, sha256("dcba".getBytes()),
+                new ByteArrayInputStream(chunk));
+        controller.uploadChunk(sessionId, 1, sha256(chunk), new ByteArrayInputStream(chunk));
+        ResponseEntity<?> incomplete = controller.completeSession(sessionId, null);
+
+        // Then
+        assertEquals(400, mismatch.getStatusCodeValue());
+        assertEquals("CHECKSUM_MISMATCH", ((ErrorResponse) mismatch.getBody()).getErrorType());
+        assertEquals(409, incomplete.getStatusCodeValue());
+        assertEquals(List.of(0),
+                ((UploadSessionResponse) controller.getSession(sessionId).getBody()).getMissingChunks());
+        verifyNoInteractions(kafkaService);
+    }
+
+    @Test
+    @DisplayName("Докачиваемая загрузка недопустимого файла отклоняется до приема частей")
+    void shouldRejectResumableUploadOfInvalidFile() {
+        // Given
+        doThrow(new FileValidationException("Invalid file extension"))
+                .when(validationService).validateFile("test.pdf", 100L);
+
+        // When
+        ResponseEntity<?> response = controller.initiateSession("test.pdf", 100, null, null);
+
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
+        assertEquals("VALIDATION_ERROR", ((ErrorResponse) response.getBody()).getErrorType());
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,111 @@
+package service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.service.AdmissionControlService;
+import itmo.programming.service.AdmissionControlService.Admission;
+import itmo.programming.service.AdmissionControlService.Decision;
+import itmo.programming.service.ConsumerLagMonitor;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlServiceTest {
+
+    @Mock
+    private ConsumerLagMonitor lagMonitor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdmissionControlService service(int maxConcurrent, long maxBytes, long maxLag) {
+        return new AdmissionControlService(true, maxConcurrent, DataSize.ofBytes(maxBytes), Duration.ofSeconds(1),
+                maxLag, Duration.ofSeconds(10), lagMonitor, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Загрузка сверх ограничения одновременных загрузок должна отклоняться до освобождения места")
+    void shouldThrottleOverConcurrencyLimit() {
+        // Given
+        AdmissionControlService service = service(2, 1_000_000, 0);
+        Admission first = service.tryAdmit(100);
+        Admission second = service.tryAdmit(100);
+
+        // When
+        Admission third = service.tryAdmit(100);
+        first.close();
+        Admission fourth = service.tryAdmit(100);
+
+        // Then
+        assertTrue(first.isAdmitted());
+        assertTrue(second.isAdmitted());
+        assertEquals(Decision.THROTTLED, third.getDecision());
+        assertEquals(Duration.ofSeconds(1), third.getRetryAfter());
+        assertTrue(fourth.isAdmitted());
+        assertEquals(1, meterRegistry.get("upload.admission").tag("result", "THROTTLED").counter().count());
+    }
+
+    @Test
+    @DisplayName("Загрузка сверх ограничения объема должна отклоняться, а одиночная большая - допускаться")
+    void shouldThrottleOverBytesLimit() {
+        // Given
+        AdmissionControlService service = service(10, 1_000, 0);
+        Admission large = service.tryAdmit(5_000);
+
+        // When
+        Admission next = service.tryAdmit(10);
+        large.close();
+        large.close();
+        Admission afterRelease = service.tryAdmit(600);
+
+        // Then
+        assertTrue(large.isAdmitted());
+        assertEquals(Decision.THROTTLED, next.getDecision());
+        assertTrue(afterRelease.isAdmitted());
+        assertEquals(600.0, meterRegistry.get("upload.inflight.bytes").gauge().value());
+        assertEquals(1.0, meterRegistry.get("upload.inflight.requests").gauge().value());
+    }
+
+    @Test
+    @DisplayName("При отставании обработки выше порога загрузка должна отклоняться как перегрузка")
+    void shouldRejectWhenConsumerLagExceedsLimit() {
+        // Given
+        AdmissionControlService service = service(10, 1_000_000, 100);
+        when(lagMonitor.currentLag()).thenReturn(101L, 100L, -1L);
+
+        // When
+        Admission overloaded = service.tryAdmit(10);
+        Admission atLimit = service.tryAdmit(10);
+        Admission unknownLag = service.tryAdmit(10);
+
+        // Then
+        assertEquals(Decision.OVERLOADED, overloaded.getDecision());
+        assertEquals(Duration.ofSeconds(10), overloaded.getRetryAfter());
+        assertTrue(atLimit.isAdmitted());
+        assertTrue(unknownLag.isAdmitted());
+    }
+
+    @Test
+    @DisplayName("Отставание должно суммироваться по партициям с зафиксированным смещением")
+    void shouldSumLagOverCommittedPartitions() {
+        // Given
+        TopicPartition p0 = new TopicPartition("upload-topic", 0);
+        TopicPartition p1 = new TopicPartition("upload-topic", 1);
+        TopicPartition p2 = new TopicPartition("upload-topic", 2);
+
+        // When
+        long lag = ConsumerLagMonitor.sumLag(Map.of(p0, 10L, p1, 50L), Map.of(p0, 25L, p1, 50L, p2, 1_000L));
+
+        // Then
+        assertEquals(15, lag);
+    }
+}
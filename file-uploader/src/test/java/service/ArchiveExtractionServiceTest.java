@@ -0,0 +1,182 @@
+package service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.exception.ArchiveLimitException;
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.service.ArchiveExtractionService;
+import itmo.programming.service.ArchiveExtractionService.ArchiveEntry;
+import itmo.programming.service.ArchiveExtractionService.ExtractionBudget;
+import itmo.programming.service.UploadSpoolService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveExtractionServiceTest {
+
+    private static final long MAX_ENTRY_SIZE = 16 * 1024;
+
+    @TempDir
+    Path spoolDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ArchiveExtractionService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new ArchiveExtractionService(new UploadSpoolService(spoolDir, meterRegistry), 3,
+                DataSize.ofKilobytes(32), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Файлы архива должны извлекаться по порядку с хешем и типом содержимого, каталоги пропускаться")
+    void shouldExtractEntriesWithHashes() throws Exception {
+        // Given
+        byte[] first = "first workbook".getBytes();
+        byte[] second = "second workbook".getBytes();
+        byte[] archive = zip("reports/", null, "reports/a.xlsx", first, "b.xls", second);
+
+        // When
+        List<ArchiveEntry> entries = service.extract(new ByteArrayInputStream(archive), MAX_ENTRY_SIZE);
+
+        // Then
+        assertEquals(2, entries.size());
+        assertEquals("reports/a.xlsx", entries.get(0).name());
+        assertEquals(sha256(first), entries.get(0).upload().getFileHash());
+        assertArrayEquals(second, Files.readAllBytes(entries.get(1).upload().getPath()));
+        assertEquals("application/vnd.ms-excel", entries.get(1).contentType());
+        assertEquals(1, meterRegistry.get("upload.archive").tag("status", "RECEIVED").timer().count());
+        for (ArchiveEntry entry : entries) {
+            entry.upload().close();
+        }
+    }
+
+    @Test
+    @DisplayName("Архив с количеством файлов сверх ограничения должен отклоняться без оставшихся временных файлов")
+    void shouldRejectTooManyEntries() throws Exception {
+        // Given
+        byte[] archive = zip("1.xlsx", new byte[1], "2.xlsx", new byte[2], "3.xlsx", new byte[3], "4.xlsx", new byte[4]);
+
+        // When
+        FileValidationException e = assertThrows(FileValidationException.class,
+                () -> service.extract(new ByteArrayInputStream(archive), MAX_ENTRY_SIZE));
+
+        // Then
+        assertTrue(e.getMessage().contains("more than 3 files"));
+        assertSpoolIsEmpty();
+    }
+
+    @Test
+    @DisplayName("Файл архива сверх ограничения размера должен отклонять архив при чтении")
+    void shouldRejectOversizedEntry() throws Exception {
+        // Given
+        byte[] archive = zip("a.xlsx", new byte[1], "huge.xlsx", new byte[(int) MAX_ENTRY_SIZE + 1]);
+
+        // When
+        FileValidationException e = assertThrows(FileValidationException.class,
+                () -> service.extract(new ByteArrayInputStream(archive), MAX_ENTRY_SIZE));
+
+        // Then
+        assertEquals("Archive entry huge.xlsx exceeds size limit", e.getMessage());
+        assertSpoolIsEmpty();
+    }
+
+    @Test
+    @DisplayName("Сильно сжимаемый архив должен отклоняться по суммарному распакованному размеру")
+    void shouldRejectArchiveOverTotalSize() throws Exception {
+        // Given
+        byte[] archive = zip("a.xlsx", new byte[15 * 1024], "b.xlsx", new byte[15 * 1024], "c.xlsx", new byte[15 * 1024]);
+
+        // When
+        FileValidationException e = assertThrows(FileValidationException.class,
+                () -> service.extract(new ByteArrayInputStream(archive), MAX_ENTRY_SIZE));
+
+        // Then
+        assertTrue(archive.length < 1024);
+        assertTrue(e.getMessage().contains("total size limit"));
+        assertSpoolIsEmpty();
+    }
+
+    @Test
+    @DisplayName("Бюджет распаковки должен быть общим для архивов запроса")
+    void shouldShareBudgetAcrossArchives() throws Exception {
+        // Given
+        ExtractionBudget budget = service.newBudget(10);
+        byte[] first = zip("a.xlsx", new byte[1], "b.xlsx", new byte[2]);
+        byte[] second = zip("c.xlsx", new byte[3], "d.xlsx", new byte[4]);
+
+        // When
+        List<ArchiveEntry> entries = service.extract(new ByteArrayInputStream(first), MAX_ENTRY_SIZE, budget);
+        ArchiveLimitException e = assertThrows(ArchiveLimitException.class,
+                () -> service.extract(new ByteArrayInputStream(second), MAX_ENTRY_SIZE, budget));
+
+        // Then
+        assertEquals(2, entries.size());
+        assertTrue(e.getMessage().contains("more than 3 files"));
+        for (ArchiveEntry entry : entries) {
+            entry.upload().close();
+        }
+        assertSpoolIsEmpty();
+    }
+
+    @Test
+    @DisplayName("Пустой или поврежденный архив должен отклоняться как ошибка валидации")
+    void shouldRejectEmptyOrCorruptArchive() throws Exception {
+        // Given
+        byte[] empty = zip("only-dir/", null);
+        byte[] corrupt = "not a zip archive".getBytes();
+
+        // When / Then
+        assertThrows(FileValidationException.class,
+                () -> service.extract(new ByteArrayInputStream(empty), MAX_ENTRY_SIZE));
+        assertThrows(FileValidationException.class,
+                () -> service.extract(new ByteArrayInputStream(corrupt), MAX_ENTRY_SIZE));
+        assertEquals(2, meterRegistry.get("upload.archive").tag("status", "PRIMARY_VALIDATION_FAILED").timer().count());
+    }
+
+    @Test
+    @DisplayName("Архив должен распознаваться по расширению")
+    void shouldDetectArchiveByExtension() {
+        assertTrue(service.isArchive("bundle.ZIP"));
+        assertFalse(service.isArchive("report.xlsx"));
+        assertFalse(service.isArchive(null));
+    }
+
+    private void assertSpoolIsEmpty() throws IOException {
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static byte[] zip(Object... nameAndContent) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < nameAndContent.length; i += 2) {
+                zip.putNextEntry(new ZipEntry((String) nameAndContent[i]));
+                if (nameAndContent[i + 1] != null) {
+                    zip.write((byte[]) nameAndContent[i + 1]);
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
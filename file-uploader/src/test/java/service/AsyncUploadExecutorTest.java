@@ -0,0 +1,71 @@
+package service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.service.AsyncUploadExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncUploadExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AsyncUploadExecutor executor = new AsyncUploadExecutor(1, 1, Duration.ofSeconds(5), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("При заполненной очереди задача должна отклоняться сразу")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            return await();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.submit(this::await);
+
+        // When / Then
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> "rejected"));
+        assertEquals(1.0, meterRegistry.get("upload.async.queued").gauge().value());
+        assertEquals(1.0, meterRegistry.get("upload.async.active").gauge().value());
+    }
+
+    @Test
+    @DisplayName("При остановке должны выполняться задачи, уже принятые в очередь")
+    void shouldDrainQueueOnClose() throws Exception {
+        // Given
+        CompletableFuture<String> running = executor.submit(this::await);
+        CompletableFuture<String> queued = executor.submit(() -> "done");
+
+        // When
+        release.countDown();
+        executor.close();
+
+        // Then
+        assertEquals("released", running.get(1, TimeUnit.SECONDS));
+        assertEquals("done", queued.get(1, TimeUnit.SECONDS));
+    }
+
+    private String await() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "released";
+    }
+}
@@ -0,0 +1,50 @@
+package service;
+
+import itmo.programming.service.AttemptVersionClock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttemptVersionClockTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final AttemptVersionClock clock = new AttemptVersionClock(100, Duration.ofMinutes(10), now::get);
+
+    @Test
+    @DisplayName("Попытки с тем же хешем в одну миллисекунду должны получать возрастающие версии")
+    void shouldIncreaseVersionWithinSameMillisecond() {
+        assertEquals(1_000, clock.next("hash"));
+        assertEquals(1_001, clock.next("hash"));
+        assertEquals(1_002, clock.next("hash"));
+    }
+
+    @Test
+    @DisplayName("Перевод часов назад не должен уменьшать версию хеша")
+    void shouldNotGoBackwardsWhenClockSteppedBack() {
+        // Given
+        now.set(5_000);
+        long before = clock.next("hash");
+
+        // When
+        now.set(2_000);
+        long after = clock.next("hash");
+
+        // Then
+        assertTrue(after > before);
+    }
+
+    @Test
+    @DisplayName("Версия должна следовать за часами, когда они ушли вперед, и не зависеть от других хешей")
+    void shouldFollowWallClockPerHash() {
+        clock.next("hash");
+        clock.next("hash");
+
+        assertEquals(1_000, clock.next("other"));
+        now.set(7_000);
+        assertEquals(7_000, clock.next("hash"));
+    }
+}
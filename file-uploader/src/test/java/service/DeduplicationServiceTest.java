@@ -0,0 +1,114 @@
+package service;
+
+import itmo.programming.common.Status;
+import itmo.programming.service.DeduplicationService;
+import itmo.programming.service.StatusLookupClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeduplicationServiceTest {
+
+    @Mock
+    private StatusLookupClient lookupClient;
+
+    private DeduplicationService deduplicationService;
+
+    @BeforeEach
+    void setUp() {
+        deduplicationService = new DeduplicationService(
+                true, 100, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofMinutes(1), lookupClient
+        );
+    }
+
+    @Test
+    @DisplayName("Неизвестный хеш требует обработки")
+    void shouldReturnEmptyForUnknownHash() {
+        when(lookupClient.fetchStatus("hash")).thenReturn(Optional.empty());
+
+        assertTrue(deduplicationService.findKnownStatus("hash").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Итоговый статус из сервиса статусов кэшируется")
+    void shouldCacheTerminalStatusFromLookup() {
+        when(lookupClient.fetchStatus("hash")).thenReturn(Optional.of(Status.SECONDARY_VALIDATION_FAILED));
+
+        assertEquals(Optional.of(Status.SECONDARY_VALIDATION_FAILED), deduplicationService.findKnownStatus("hash"));
+        assertEquals(Optional.of(Status.SECONDARY_VALIDATION_FAILED), deduplicationService.findKnownStatus("hash"));
+
+        verify(lookupClient, times(1)).fetchStatus("hash");
+    }
+
+    @Test
+    @DisplayName("Промежуточный статус из сервиса статусов не считается итоговым")
+    void shouldIgnoreNonTerminalLookupStatus() {
+        when(lookupClient.fetchStatus("hash")).thenReturn(Optional.of(Status.SECONDARY_VALIDATION_STARTED));
+
+        assertTrue(deduplicationService.findKnownStatus("hash").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Принятый файл считается находящимся в обработке")
+    void shouldReportAcceptedUploadAsInFlight() {
+        when(lookupClient.fetchStatus("hash")).thenReturn(Optional.empty());
+
+        deduplicationService.markAccepted("hash");
+
+        assertEquals(Optional.of(Status.PRIMARY_VALIDATION_SUCCESS), deduplicationService.findKnownStatus("hash"));
+    }
+
+    @Test
+    @DisplayName("Отключенная дедупликация ничего не кэширует и не запрашивает")
+    void shouldDoNothingWhenDisabled() {
+        DeduplicationService disabled = new DeduplicationService(
+                false, 100, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofMinutes(1), lookupClient
+        );
+
+        disabled.markAccepted("hash");
+
+        assertTrue(disabled.findKnownStatus("hash").isEmpty());
+        verifyNoInteractions(lookupClient);
+    }
+
+    @Test
+    @DisplayName("Запрос без итогового статуса не повторяется в течение lookup-cache-ttl")
+    void shouldNotRepeatLookupWithoutTerminalStatus() {
+        when(lookupClient.fetchStatus("unknown")).thenReturn(Optional.empty());
+        when(lookupClient.fetchStatus("running")).thenReturn(Optional.of(Status.SECONDARY_VALIDATION_STARTED));
+
+        assertTrue(deduplicationService.findKnownStatus("unknown").isEmpty());
+        assertTrue(deduplicationService.findKnownStatus("unknown").isEmpty());
+        assertTrue(deduplicationService.findKnownStatus("running").isEmpty());
+        assertTrue(deduplicationService.findKnownStatus("running").isEmpty());
+
+        verify(lookupClient, times(1)).fetchStatus("unknown");
+        verify(lookupClient, times(1)).fetchStatus("running");
+    }
+
+    @Test
+    @DisplayName("После lookup-cache-ttl статус снова запрашивается у сервиса статусов")
+    void shouldRepeatLookupAfterLookupCacheTtl() throws InterruptedException {
+        DeduplicationService shortLookupCache = new DeduplicationService(
+                true, 100, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofMillis(20), lookupClient
+        );
+        when(lookupClient.fetchStatus("hash"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(Status.SECONDARY_VALIDATION_SUCCESS));
+
+        assertTrue(shortLookupCache.findKnownStatus("hash").isEmpty());
+        Thread.sleep(50);
+
+        assertEquals(Optional.of(Status.SECONDARY_VALIDATION_SUCCESS), shortLookupCache.findKnownStatus("hash"));
+    }
+}
@@ -1,5 +1,8 @@
 package service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.common.Status;
 import itmo.programming.exception.FileValidationException;
 import itmo.programming.service.FileValidationService;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +10,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -17,6 +21,9 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 class FileValidationServiceTest {
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private FileValidationService validationService;
 
@@ -62,4 +69,33 @@ class FileValidationServiceTest {
 
         assertTrue(exception.getMessage().contains("Invalid file extension"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Время проверки пишется в таймер с тегом статуса результата")
+    void shouldRecordValidationTimerByStatus() {
+        MultipartFile valid = new MockMultipartFile(
+                "test.xlsx", "test.xlsx", "application/vnd.ms-excel", "test data".getBytes()
+        );
+        MultipartFile invalid = new MockMultipartFile(
+                "test.txt", "test.txt", "text/plain", "test data".getBytes()
+        );
+
+        validationService.validateFile(valid);
+        assertThrows(FileValidationException.class, () -> validationService.validateFile(invalid));
+
+        assertEquals(1, meterRegistry.get("upload.validation")
+                .tag("status", Status.PRIMARY_VALIDATION_SUCCESS.name()).timer().count());
+        assertEquals(1, meterRegistry.get("upload.validation")
+                .tag("status", Status.PRIMARY_VALIDATION_FAILED.name()).timer().count());
+    }
+
+    @Test
+    @DisplayName("Заявленные имя и размер файла должны проверяться до приема содержимого")
+    void shouldValidateDeclaredNameAndSize() {
+        assertDoesNotThrow(() -> validationService.validateFile("report.xlsx", 1024));
+        assertThrows(FileValidationException.class,
+                () -> validationService.validateFile("report.xlsx", 6L * 1024 * 1024));
+        assertThrows(FileValidationException.class,
+                () -> validationService.validateFile("report.pdf", 1024));
+    }
+}
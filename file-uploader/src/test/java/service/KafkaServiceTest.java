@@ -1,17 +1,30 @@
 package service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.chunk.FileChunk;
 import itmo.programming.common.FileEvent;
 import itmo.programming.common.Status;
 import itmo.programming.common.StatusEvent;
 import itmo.programming.service.KafkaService;
+import itmo.programming.trace.Stage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -23,11 +36,13 @@ class KafkaServiceTest {
     @Mock
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private KafkaService kafkaService;
 
     @BeforeEach
     void setUp() {
-        kafkaService = new KafkaService(kafkaTemplate);
+        kafkaService = new KafkaService(kafkaTemplate, meterRegistry);
         ReflectionTestUtils.setField(kafkaService, "uploadTopic", "upload-topic");
         ReflectionTestUtils.setField(kafkaService, "statusTopic", "status-topic");
     }
@@ -67,5 +82,186 @@ class KafkaServiceTest {
         assertNotNull(exception.getCause());
     }
 
+    @Test
+    @DisplayName("Future статуса завершается после подтверждения записи Kafka")
+    void shouldExposeStatusSendFuture() {
+        // Given
+        StatusEvent event = new StatusEvent("hash123", Status.RECEIVED, "test.xlsx");
+        CompletableFuture<SendResult<String, Object>> ack = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq("status-topic"), eq("hash123"), any(StatusEvent.class))).thenReturn(ack);
+
+        // When
+        CompletableFuture<Void> result = kafkaService.publishStatusEvent(event);
+
+        // Then
+        assertFalse(result.isDone());
+        ack.complete(null);
+        assertTrue(result.isDone());
+        assertFalse(result.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("Переходы одного файла в окне объединения отправляются одной записью")
+    void shouldCoalesceStatusEventsWithinWindow() {
+        // Given
+        kafkaService.setStatusCoalesceWindow(Duration.ofHours(1));
+        when(kafkaTemplate.send(anyString(), anyString(), any(StatusEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        kafkaService.sendStatusEvent(new StatusEvent("hash123", Status.RECEIVED, "test.xlsx"));
+        kafkaService.sendStatusEvent(new StatusEvent("hash123", Status.PRIMARY_VALIDATION_SUCCESS, "test.xlsx"));
+        kafkaService.flushStatusEvents();
+
+        // Then
+        verify(kafkaTemplate, times(1)).send(eq("status-topic"), eq("hash123"),
+                argThat(sent -> ((StatusEvent) sent).getStatus() == Status.PRIMARY_VALIDATION_SUCCESS));
+    }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Время до подтверждения записи пишется в таймеры отправки")
+    void shouldRecordSendTimers() {
+        // Given
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        kafkaService.sendFileToProcessing(new FileEvent("hash123", "test.xlsx", new byte[]{1}));
+        kafkaService.sendStatusEvent(new StatusEvent("hash123", Status.RECEIVED, "test.xlsx"));
+
+        // Then
+        assertEquals(1, meterRegistry.get("kafka.file.send").tag("result", "success").timer().count());
+        assertEquals(1, meterRegistry.get("kafka.status.send")
+                .tag("status", Status.RECEIVED.name()).tag("result", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("Пакет файлов отправляется без ожидания подтверждений, ошибка одного файла не прерывает отправку")
+    void shouldSendBatchWithPerFileAcks() {
+        // Given
+        FileEvent first = new FileEvent("hash1", "first.xlsx", new byte[]{1});
+        FileEvent broken = new FileEvent("hash2", "broken.xlsx", new byte[]{2});
+        FileEvent last = new FileEvent("hash3", "last.xlsx", new byte[]{3});
+        CompletableFuture<SendResult<String, Object>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send("upload-topic", "hash1", first)).thenReturn(pending);
+        when(kafkaTemplate.send("upload-topic", "hash2", broken)).thenThrow(new RuntimeException("buffer full"));
+        when(kafkaTemplate.send("upload-topic", "hash3", last)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        List<CompletableFuture<?>> acks = kafkaService.sendFilesToProcessing(List.of(first, broken, last));
+
+        // Then
+        assertEquals(3, acks.size());
+        assertFalse(acks.get(0).isDone());
+        assertTrue(acks.get(1).isCompletedExceptionally());
+        assertTrue(acks.get(2).isDone() && !acks.get(2).isCompletedExceptionally());
+        pending.complete(null);
+        assertTrue(acks.get(0).isDone());
+        assertEquals(2, meterRegistry.get("kafka.file.send").tag("result", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("При отправке файла в трассе события отмечается постановка в очередь")
+    void shouldMarkEnqueuedStage() {
+        // Given
+        FileEvent event = new FileEvent("hash123", "test.xlsx", new byte[]{1});
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        kafkaService.sendFileToProcessing(event);
+
+        // Then
+        assertTrue(event.getTrace().get(Stage.ENQUEUED).isPresent());
+    }
+
+    @Test
+    @DisplayName("Части содержимого отправляются по порядку перед событием со ссылкой на них")
+    void shouldSendChunksBeforeFileEvent(@TempDir Path tempDir) throws Exception {
+        // Given
+        kafkaService.setChunkSize(DataSize.ofBytes(4));
+        Path content = Files.write(tempDir.resolve("content"), "0123456789".getBytes());
+        FileEvent event = new FileEvent("hash123", "test.xlsx", null, 0, "application/vnd.ms-excel");
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        kafkaService.sendFileInChunks(event, content, 10);
+
+        // Then
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, times(4)).send(eq("upload-topic"), eq("hash123"), sent.capture());
+        List<Object> records = sent.getAllValues();
+        for (int index = 0; index < 3; index++) {
+            FileChunk chunk = (FileChunk) records.get(index);
+            assertEquals(index, chunk.getIndex());
+            assertEquals(3, chunk.getCount());
+        }
+        assertArrayEquals("89".getBytes(), ((FileChunk) records.get(2)).getPayload());
+        assertSame(event, records.get(3));
+        assertEquals(FileChunk.contentRef("hash123"), event.getContentRef());
+        assertEquals(10, event.getContentSize());
+        assertEquals(3.0, meterRegistry.get("kafka.file.chunks").counter().count());
+    }
+
+    @Test
+    @DisplayName("Событие файла не отправляется, если часть содержимого не записана брокером")
+    void shouldNotSendFileEventWhenChunkFails(@TempDir Path tempDir) throws Exception {
+        // Given
+        kafkaService.setChunkSize(DataSize.ofBytes(4));
+        Path content = Files.write(tempDir.resolve("content"), "0123456789".getBytes());
+        FileEvent event = new FileEvent("hash123", "test.xlsx", null, 0, "application/vnd.ms-excel");
+        when(kafkaTemplate.send(eq("upload-topic"), eq("hash123"), any(FileChunk.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("delivery timeout")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> kafkaService.sendFileInChunks(event, content, 10));
+
+        // Then
+        assertEquals("Kafka communication error", exception.getMessage());
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(FileEvent.class));
+    }
+
+    @Test
+    @DisplayName("Событие файла не отправляется, пока части не подтверждены брокером")
+    void shouldNotSendFileEventBeforeChunksAreAcknowledged(@TempDir Path tempDir) throws Exception {
+        // Given
+        kafkaService.setChunkSize(DataSize.ofBytes(4));
+        kafkaService.setChunkSendTimeout(Duration.ofMillis(50));
+        Path content = Files.write(tempDir.resolve("content"), "0123".getBytes());
+        FileEvent event = new FileEvent("hash123", "test.xlsx", null, 0, "application/vnd.ms-excel");
+        when(kafkaTemplate.send(eq("upload-topic"), eq("hash123"), any(FileChunk.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        // When / Then
+        assertThrows(RuntimeException.class, () -> kafkaService.sendFileInChunks(event, content, 4));
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(FileEvent.class));
+    }
+
+    @Test
+    @DisplayName("Статусы должны отправляться отдельным шаблоном со своим профилем производителя")
+    void shouldSendStatusesThroughStatusTemplate() {
+        // Given
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, Object> statusTemplate = mock(KafkaTemplate.class);
+        KafkaService service = new KafkaService(kafkaTemplate, statusTemplate, meterRegistry);
+        ReflectionTestUtils.setField(service, "uploadTopic", "upload-topic");
+        ReflectionTestUtils.setField(service, "statusTopic", "status-topic");
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(statusTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        service.sendFileToProcessing(new FileEvent("hash123", "test.xlsx", new byte[]{1}));
+        service.sendStatusEvent(new StatusEvent("hash123", Status.RECEIVED, "test.xlsx"));
+
+        // Then
+        verify(kafkaTemplate).send(eq("upload-topic"), eq("hash123"), any(FileEvent.class));
+        verify(statusTemplate).send(eq("status-topic"), eq("hash123"), any(StatusEvent.class));
+        verify(kafkaTemplate, never()).send(eq("status-topic"), anyString(), any());
+    }
+}
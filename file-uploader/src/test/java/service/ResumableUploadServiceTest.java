@@ -0,0 +1,222 @@
+package service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.exception.UploadSessionException;
+import itmo.programming.exception.UploadSessionException.Reason;
+import itmo.programming.service.ResumableUploadService;
+import itmo.programming.service.ResumableUploadService.UploadSession;
+import itmo.programming.service.SpooledUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumableUploadServiceTest {
+
+    @TempDir
+    Path sessionDir;
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ResumableUploadService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new ResumableUploadService(sessionDir, DataSize.ofKilobytes(1), DataSize.ofKilobytes(64), 2,
+                Duration.ofMinutes(10), Duration.ofMinutes(1), meterRegistry, now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    @DisplayName("Части, пришедшие не по порядку, должны собираться в файл с хешем всего содержимого")
+    void shouldAssembleChunksReceivedOutOfOrder() throws Exception {
+        // Given
+        byte[] content = randomContent(2_500);
+        UploadSession session = service.initiate("test.xlsx", "application/vnd.ms-excel", content.length, null);
+
+        // When
+        put(session, content, 2);
+        put(session, content, 0);
+        put(session, content, 1);
+
+        // Then
+        assertEquals(3, session.getChunkCount());
+        assertTrue(session.getMissingChunks().isEmpty());
+        try (SpooledUpload upload = service.complete(session.getId(), sha256(content))) {
+            assertEquals(sha256(content), upload.getFileHash());
+            assertEquals(content.length, upload.getSize());
+            assertArrayEquals(content, Files.readAllBytes(upload.getPath()));
+        }
+        assertFalse(Files.exists(sessionDir.resolve(session.getId())));
+        assertThrows(UploadSessionException.class, () -> service.getSession(session.getId()));
+    }
+
+    @Test
+    @DisplayName("Повторно присланная часть должна пропускаться")
+    void shouldIgnoreDuplicateChunk() throws Exception {
+        // Given
+        byte[] content = randomContent(1_500);
+        UploadSession session = service.initiate("test.xlsx", null, content.length, null);
+
+        // When
+        put(session, content, 0);
+        put(session, content, 0);
+        put(session, content, 1);
+
+        // Then
+        assertEquals(2, session.getReceivedCount());
+        assertEquals(1.0, meterRegistry.get("upload.session.chunks").tag("result", "DUPLICATE").counter().count());
+        try (SpooledUpload upload = service.complete(session.getId(), null)) {
+            assertEquals(sha256(content), upload.getFileHash());
+        }
+    }
+
+    @Test
+    @DisplayName("Часть с неверной контрольной суммой не должна сохраняться")
+    void shouldRejectChunkWithWrongChecksum() throws Exception {
+        // Given
+        byte[] content = randomContent(1_500);
+        UploadSession session = service.initiate("test.xlsx", null, content.length, null);
+        byte[] chunk = Arrays.copyOfRange(content, 0, 1024);
+
+        // When
+        UploadSessionException e = assertThrows(UploadSessionException.class, () -> service.putChunk(
+                session.getId(), 0, new ByteArrayInputStream(chunk), sha256(new byte[1024])));
+
+        // Then
+        assertEquals(Reason.CHECKSUM_MISMATCH, e.getReason());
+        assertEquals(List.of(0, 1), session.getMissingChunks());
+        try (var files = Files.list(sessionDir.resolve(session.getId()))) {
+            assertEquals(0, files.count());
+        }
+        put(session, content, 0);
+        put(session, content, 1);
+        try (SpooledUpload upload = service.complete(session.getId(), null)) {
+            assertEquals(sha256(content), upload.getFileHash());
+        }
+    }
+
+    @Test
+    @DisplayName("Часть неожиданного размера или номера должна отклоняться")
+    void shouldRejectChunkOfWrongSizeOrIndex() throws Exception {
+        // Given
+        byte[] content = randomContent(1_500);
+        UploadSession session = service.initiate("test.xlsx", null, content.length, null);
+        byte[] shortChunk = new byte[100];
+
+        // When / Then
+        UploadSessionException wrongSize = assertThrows(UploadSessionException.class, () -> service.putChunk(
+                session.getId(), 0, new ByteArrayInputStream(shortChunk), sha256(shortChunk)));
+        UploadSessionException wrongIndex = assertThrows(UploadSessionException.class, () -> service.putChunk(
+                session.getId(), 2, new ByteArrayInputStream(shortChunk), sha256(shortChunk)));
+        assertEquals(Reason.INVALID_CHUNK, wrongSize.getReason());
+        assertEquals(Reason.INVALID_CHUNK, wrongIndex.getReason());
+    }
+
+    @Test
+    @DisplayName("Завершение без всех частей должно сообщать о недостающих частях")
+    void shouldNotCompleteWithMissingChunks() throws Exception {
+        // Given
+        byte[] content = randomContent(2_500);
+        UploadSession session = service.initiate("test.xlsx", null, content.length, null);
+        put(session, content, 1);
+
+        // When
+        UploadSessionException e = assertThrows(UploadSessionException.class,
+                () -> service.complete(session.getId(), null));
+
+        // Then
+        assertEquals(Reason.INCOMPLETE, e.getReason());
+        assertTrue(e.getMessage().contains("[0, 2]"));
+    }
+
+    @Test
+    @DisplayName("Сессия без новых частей должна удаляться вместе с частями по истечении времени жизни")
+    void shouldEvictAbandonedSession() throws Exception {
+        // Given
+        byte[] content = randomContent(2_500);
+        UploadSession stale = service.initiate("stale.xlsx", null, content.length, null);
+        put(stale, content, 0);
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        UploadSession fresh = service.initiate("fresh.xlsx", null, content.length, null);
+
+        // When
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        int evicted = service.evictExpired();
+
+        // Then
+        assertEquals(1, evicted);
+        assertFalse(Files.exists(sessionDir.resolve(stale.getId())));
+        assertEquals(fresh, service.getSession(fresh.getId()));
+        UploadSessionException e = assertThrows(UploadSessionException.class, () -> put(stale, content, 1));
+        assertEquals(Reason.NOT_FOUND, e.getReason());
+    }
+
+    @Test
+    @DisplayName("Количество одновременных сессий должно быть ограничено")
+    void shouldLimitConcurrentSessions() throws Exception {
+        // Given
+        service.initiate("first.xlsx", null, 100, null);
+        UploadSession second = service.initiate("second.xlsx", null, 100, null);
+
+        // When / Then
+        assertThrows(RejectedExecutionException.class, () -> service.initiate("third.xlsx", null, 100, null));
+        service.abort(second.getId());
+        assertNotNull(service.initiate("third.xlsx", null, 100, null));
+    }
+
+    @Test
+    @DisplayName("При старте должны удаляться части, оставшиеся от прошлого запуска")
+    void shouldRemoveLeftoversOnStart() throws Exception {
+        // Given
+        Path leftover = Files.createDirectories(sessionDir.resolve("previous-session"));
+        Files.write(leftover.resolve("0.part"), new byte[10]);
+
+        // When
+        service.start();
+
+        // Then
+        assertFalse(Files.exists(leftover));
+    }
+
+    private void put(UploadSession session, byte[] content, int index) throws IOException {
+        int from = index * session.getChunkSize();
+        byte[] chunk = Arrays.copyOfRange(content, from, Math.min(content.length, from + session.getChunkSize()));
+        service.putChunk(session.getId(), index, new ByteArrayInputStream(chunk), sha256(chunk));
+    }
+
+    private static byte[] randomContent(int size) {
+        byte[] content = new byte[size];
+        new Random(size ^ System.nanoTime()).nextBytes(content);
+        return content;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
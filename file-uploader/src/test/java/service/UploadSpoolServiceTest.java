@@ -0,0 +1,89 @@
+package service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import itmo.programming.exception.FileValidationException;
+import itmo.programming.service.SpooledUpload;
+import itmo.programming.service.UploadSpoolService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadSpoolServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UploadSpoolService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new UploadSpoolService(spoolDir, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Файл запроса должен переноситься в каталог приема с хешем и размером содержимого")
+    void shouldTransferMultipartFileWithHash() throws Exception {
+        // Given
+        byte[] content = "workbook content".getBytes();
+        MockMultipartFile file = new MockMultipartFile("file", "test.xlsx", "application/vnd.ms-excel", content);
+
+        // When
+        try (SpooledUpload upload = service.spool(file, 1024, true)) {
+
+            // Then
+            assertEquals(spoolDir, upload.getPath().getParent());
+            assertArrayEquals(content, Files.readAllBytes(upload.getPath()));
+            assertEquals(sha256(content), upload.getFileHash());
+            assertEquals(content.length, upload.getSize());
+        }
+        assertEquals(1, meterRegistry.get("upload.hash").tag("status", "RECEIVED").timer().count());
+    }
+
+    @Test
+    @DisplayName("Файл запроса сверх ограничения размера должен отклоняться без записи в каталог приема")
+    void shouldRejectOversizedMultipartFileBeforeTransfer() throws Exception {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "test.xlsx", "application/vnd.ms-excel", new byte[64]);
+
+        // When
+        assertThrows(FileValidationException.class, () -> service.spool(file, 63, false));
+
+        // Then
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(1, meterRegistry.get("upload.hash").tag("status", "PRIMARY_VALIDATION_FAILED").timer().count());
+    }
+
+    @Test
+    @DisplayName("Поток должен копироваться с подсчетом хеша и прерываться при превышении размера")
+    void shouldSpoolStreamAndStopOnLimit() throws Exception {
+        // Given
+        byte[] content = new byte[100];
+
+        // When / Then
+        try (SpooledUpload upload = service.spool(new ByteArrayInputStream(content), 100)) {
+            assertEquals(sha256(content), upload.getFileHash());
+        }
+        assertThrows(FileValidationException.class, () -> service.spool(new ByteArrayInputStream(content), 99));
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,85 @@
+plugins {
+    id("io.spring.dependency-management") version "1.0.11.RELEASE"
+    id("java")
+}
+
+group = "itmo.programming"
+version = "1.0-SNAPSHOT"
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.2.0")
+    }
+}
+
+// Сервисы содержат классы с одинаковыми именами (config.KafkaConfig, service.KafkaService),
+// поэтому каждый запускается в своей JVM со своим classpath.
+val services = mapOf(
+    "file-uploader" to "itmo.programming.FileUploaderApplication",
+    "file-processor" to "itmo.programming.FileProcessorApplication",
+    "file-status-processor" to "itmo.programming.FileStatusProcessorApplication",
+)
+
+val serviceClasspaths = services.keys.associateWith { service ->
+    configurations.create("${service}Runtime") {
+        isCanBeConsumed = false
+        attributes {
+            attribute(Usage.USAGE_ATTRIBUTE, objects.named(Usage.JAVA_RUNTIME))
+            attribute(Category.CATEGORY_ATTRIBUTE, objects.named(Category.LIBRARY))
+            attribute(LibraryElements.LIBRARY_ELEMENTS_ATTRIBUTE, objects.named(LibraryElements.JAR))
+            attribute(Bundling.BUNDLING_ATTRIBUTE, objects.named(Bundling.EXTERNAL))
+        }
+    }.also { dependencies.add(it.name, project(":$service")) }
+}
+
+dependencies {
+    testImplementation(project(":common"))
+    testImplementation(platform("org.junit:junit-bom:5.10.0"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation("org.springframework.kafka:spring-kafka")
+    testImplementation("org.springframework.kafka:spring-kafka-test")
+    testImplementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
+    testImplementation("org.mongodb:mongodb-driver-sync")
+    testImplementation("de.bwaldvogel:mongo-java-server:1.44.0")
+    testImplementation("org.apache.poi:poi-ooxml:5.2.3")
+    testRuntimeOnly("org.apache.logging.log4j:log4j-to-slf4j")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+// ./gradlew :load-tests:loadTest -Ploadtest.rate=100 -Ploadtest.uploads=5000
+tasks.register<Test>("loadTest") {
+    description = "Runs the upload pipeline against embedded Kafka and in-memory Mongo and reports latencies."
+    group = "verification"
+    useJUnitPlatform()
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    serviceClasspaths.values.forEach { inputs.files(it) }
+
+    systemProperty("loadtest", "true")
+    systemProperty("loadtest.config-dir", rootProject.file("config-server/src/main/resources/config").absolutePath)
+    systemProperty("loadtest.work-dir", layout.buildDirectory.dir("loadtest").get().asFile.absolutePath)
+    services.forEach { (service, mainClass) ->
+        systemProperty("loadtest.$service.main-class", mainClass)
+    }
+    project.properties.filterKeys { it.startsWith("loadtest.") }
+        .forEach { (key, value) -> systemProperty(key, value.toString()) }
+    doFirst {
+        serviceClasspaths.forEach { (service, configuration) ->
+            systemProperty("loadtest.$service.classpath", configuration.asPath)
+        }
+    }
+
+    testLogging { showStandardStreams = true }
+    outputs.upToDateWhen { false }
+}
@@ -0,0 +1,44 @@
+package loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Накопитель задержек с расчетом перцентилей по всем значениям (nearest-rank).
+ */
+final class LatencyStats {
+
+    private long[] nanos = new long[1024];
+    private int count;
+
+    synchronized void record(Duration latency) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latency.toNanos();
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Перцентиль задержки.
+     *
+     * @param percentile перцентиль от 0 до 100
+     * @return задержка или {@link Duration#ZERO}, если значений нет
+     */
+    synchronized Duration percentile(double percentile) {
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return Duration.ofNanos(sorted[Math.max(rank, 1) - 1]);
+    }
+
+    Duration max() {
+        return percentile(100);
+    }
+}
@@ -0,0 +1,321 @@
+package loadtest;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.trace.Stage;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Нагрузочный тест конвейера: file-uploader, file-processor и file-status-processor
+ * запускаются против встроенного Kafka и MongoDB в памяти (mongo-java-server),
+ * загрузки идут с постоянной частотой.
+ * Отчет содержит пропускную способность и p50/p99/p999 задержки от начала загрузки
+ * до каждого статуса (по времени события {@link StatusEvent}) и до итогового статуса в MongoDB,
+ * а также задержки между этапами по трассам, сохраненным в документах статусов.
+ * Метрики сервисов после прогона сохраняются в {@code <сервис>.prom}.
+ * Запускается задачей {@code ./gradlew :load-tests:loadTest}, параметры задаются свойствами {@code loadtest.*}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class PipelineLoadTest {
+
+    private static final String UPLOAD_TOPIC = "upload-topic";
+    private static final String STATUS_TOPIC = "status-topic";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "50"));
+    private static final int UPLOADS = Integer.getInteger("loadtest.uploads", 1000);
+    private static final int WARMUP_UPLOADS = Integer.getInteger("loadtest.warmup", 20);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 64);
+    private static final int ROWS = Integer.getInteger("loadtest.rows", 100);
+    private static final int PARTITIONS = Integer.getInteger("loadtest.partitions", 3);
+    private static final Duration COMPLETION_TIMEOUT =
+            Duration.parse(System.getProperty("loadtest.completion-timeout", "PT2M"));
+
+    private static EmbeddedKafkaKraftBroker kafka;
+    private static MongoServer mongoServer;
+    private static MongoClient mongoClient;
+    private static final List<ServiceProcess> services = new ArrayList<>();
+    private static URI uploadUri;
+
+    @BeforeAll
+    static void startPipeline() throws Exception {
+        Path workDir = Files.createDirectories(Path.of(System.getProperty("loadtest.work-dir", "build/loadtest")));
+        Path configDir = Path.of(System.getProperty("loadtest.config-dir"));
+
+        kafka = new EmbeddedKafkaKraftBroker(1, PARTITIONS, UPLOAD_TOPIC, STATUS_TOPIC);
+        kafka.afterPropertiesSet();
+        String bootstrapServers = kafka.getBrokersAsString();
+
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongoServer.bind();
+        String mongoUri = "mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort();
+        mongoClient = MongoClients.create(mongoUri);
+
+        Path storage = Files.createTempDirectory(workDir, "storage");
+        int uploaderPort = freePort();
+        int processorPort = freePort();
+        int statusPort = freePort();
+
+        services.add(ServiceProcess.start("file-status-processor", workDir, statusPort, List.of(
+                commonArg(configDir, "file-status-processor"),
+                "--spring.cloud.config.enabled=false",
+                "--spring.kafka.bootstrap-servers=" + bootstrapServers,
+                "--spring.data.mongodb.uri=" + mongoUri + "/firestarter")));
+        services.add(ServiceProcess.start("file-processor", workDir, processorPort, List.of(
+                commonArg(configDir, "file-processor"),
+                "--spring.cloud.config.enabled=false",
+                "--spring.kafka.bootstrap-servers=" + bootstrapServers,
+                "--app.storage.root=" + storage)));
+        services.add(ServiceProcess.start("file-uploader", workDir, uploaderPort, List.of(
+                commonArg(configDir, "file-uploader"),
+                "--spring.cloud.config.enabled=false",
+                "--spring.kafka.bootstrap-servers=" + bootstrapServers,
+                "--app.storage.root=" + storage,
+                "--app.upload.spool-dir=" + workDir.resolve("spool"),
+                "--app.dedup.status-service-url=http://localhost:" + statusPort)));
+        for (ServiceProcess service : services) {
+            service.awaitStarted(STARTUP_TIMEOUT);
+        }
+        uploadUri = URI.create("http://localhost:" + uploaderPort + "/upload");
+    }
+
+    @AfterAll
+    static void stopPipeline() throws Exception {
+        for (ServiceProcess service : services) {
+            service.close();
+        }
+        if (mongoClient != null) {
+            mongoClient.close();
+        }
+        if (mongoServer != null) {
+            mongoServer.shutdownNow();
+        }
+        if (kafka != null) {
+            kafka.destroy();
+        }
+    }
+
+    @Test
+    void reportsThroughputAndLatencies() throws Exception {
+        // Прогрев: потребители получают партиции, JIT компилирует горячие пути
+        runLoad(UploadDriver.generateWorkbooks(WARMUP_UPLOADS, ROWS), Math.min(RATE, 10), false);
+
+        List<byte[]> files = UploadDriver.generateWorkbooks(UPLOADS, ROWS);
+        LoadResult result = runLoad(files, RATE, true);
+
+        System.out.println(result.report());
+        Files.writeString(Path.of(System.getProperty("loadtest.work-dir", "build/loadtest"), "report.txt"),
+                result.report());
+        for (ServiceProcess service : services) {
+            service.saveMetrics();
+        }
+
+        assertEquals(UPLOADS, result.accepted, "accepted uploads");
+        assertEquals(UPLOADS, result.completed, "uploads with " + Status.SECONDARY_VALIDATION_SUCCESS + " in MongoDB");
+    }
+
+    /**
+     * Прогон одной серии загрузок до появления итоговых статусов в MongoDB.
+     */
+    private LoadResult runLoad(List<byte[]> files, double rate, boolean measure) throws Exception {
+        Map<String, Instant> startedAt = new ConcurrentHashMap<>();
+        List<String> hashes = new ArrayList<>(files.size());
+        for (byte[] file : files) {
+            hashes.add(sha256(file));
+        }
+
+        Map<Status, LatencyStats> stages = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            stages.put(status, new LatencyStats());
+        }
+        LoadResult result = new LoadResult(rate, files.size(), stages);
+
+        try (StatusEventCollector collector = new StatusEventCollector(kafka.getBrokersAsString(), STATUS_TOPIC,
+                (event, createdAt) -> {
+                    Instant start = startedAt.get(event.getFileHash());
+                    if (start != null) {
+                        stages.get(event.getStatus()).record(Duration.between(start, createdAt));
+                    }
+                });
+             UploadDriver driver = new UploadDriver(uploadUri, CONCURRENCY)) {
+
+            driver.run(files, rate, (index, start) -> {
+                startedAt.put(hashes.get(index), start);
+                result.firstStart = result.firstStart == null ? start : result.firstStart;
+            });
+            result.accepted = driver.accepted();
+            result.rejected = driver.rejected();
+
+            awaitCompletion(hashes);
+            collectMongoLatencies(startedAt, result);
+            result.eventCounts = collector.counts();
+        }
+        if (!measure) {
+            System.out.printf("Warm-up done: %d/%d uploads completed%n", result.completed, files.size());
+        }
+        return result;
+    }
+
+    private void awaitCompletion(List<String> hashes) throws InterruptedException {
+        long deadline = System.nanoTime() + COMPLETION_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline && completedCount(hashes) < hashes.size()) {
+            Thread.sleep(250);
+        }
+    }
+
+    private long completedCount(List<String> hashes) {
+        return statuses().countDocuments(Filters.and(
+                Filters.in("fileHash", hashes),
+                Filters.eq("status", Status.SECONDARY_VALIDATION_SUCCESS.name())));
+    }
+
+    /**
+     * Задержка до итогового статуса в MongoDB считается по полю updatedAt документа.
+     */
+    private void collectMongoLatencies(Map<String, Instant> startedAt, LoadResult result) {
+        for (Document document : statuses().find(Filters.and(
+                Filters.in("fileHash", startedAt.keySet()),
+                Filters.eq("status", Status.SECONDARY_VALIDATION_SUCCESS.name())))) {
+            Instant start = startedAt.get(document.getString("fileHash"));
+            Instant updatedAt = document.get("updatedAt", Date.class).toInstant();
+            result.mongo.record(Duration.between(start, updatedAt));
+            Document trace = document.get("trace", Document.class);
+            if (trace != null) {
+                result.recordTrace(trace);
+            }
+            result.completed++;
+            if (result.lastCompletion == null || updatedAt.isAfter(result.lastCompletion)) {
+                result.lastCompletion = updatedAt;
+            }
+        }
+    }
+
+    private static MongoCollection<Document> statuses() {
+        return mongoClient.getDatabase("firestarter").getCollection("file_statuses");
+    }
+
+    private static String commonArg(Path configDir, String service) {
+        return "--spring.config.additional-location=file:" + configDir.resolve(service + ".yml");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    /**
+     * Результат серии загрузок.
+     */
+    private static final class LoadResult {
+        private final double rate;
+        private final int uploads;
+        private final Map<Status, LatencyStats> stages;
+        private final LatencyStats mongo = new LatencyStats();
+        private final Map<Stage, LatencyStats> traceStages = new EnumMap<>(Stage.class);
+        private volatile Instant firstStart;
+        private Instant lastCompletion;
+        private int accepted;
+        private int rejected;
+        private int completed;
+        private Map<Status, Integer> eventCounts = Map.of();
+
+        LoadResult(double rate, int uploads, Map<Status, LatencyStats> stages) {
+            this.rate = rate;
+            this.uploads = uploads;
+            this.stages = stages;
+        }
+
+        /**
+         * Интервалы трассы от предыдущего отмеченного этапа, время этапов в микросекундах.
+         */
+        void recordTrace(Document trace) {
+            Long previous = null;
+            for (Stage stage : Stage.values()) {
+                Long micros = trace.getLong(stage.name());
+                if (micros == null) {
+                    continue;
+                }
+                if (previous != null) {
+                    traceStages.computeIfAbsent(stage, ignored -> new LatencyStats())
+                            .record(Duration.of(micros - previous, ChronoUnit.MICROS));
+                }
+                previous = micros;
+            }
+        }
+
+        String report() {
+            StringWriter out = new StringWriter();
+            PrintWriter writer = new PrintWriter(out);
+            double seconds = firstStart != null && lastCompletion != null
+                    ? Duration.between(firstStart, lastCompletion).toMillis() / 1000.0
+                    : 0;
+            writer.printf("Offered rate: %.1f uploads/s, uploads: %d, accepted: %d, rejected: %d%n",
+                    rate, uploads, accepted, rejected);
+            writer.printf("Completed: %d in %.1f s, sustained throughput: %.1f uploads/s%n",
+                    completed, seconds, seconds > 0 ? completed / seconds : 0);
+            writer.printf("%-36s %8s %10s %10s %10s %10s%n", "Stage (from upload start)", "count",
+                    "p50 ms", "p99 ms", "p999 ms", "max ms");
+            stages.entrySet().stream()
+                    .filter(stage -> stage.getValue().count() > 0)
+                    .sorted(Comparator.comparing(stage -> stage.getValue().percentile(50)))
+                    .forEach(stage -> row(writer, stage.getKey().name(), stage.getValue()));
+            row(writer, "MONGO " + Status.SECONDARY_VALIDATION_SUCCESS, mongo);
+            writer.printf("%-36s %8s %10s %10s %10s %10s%n", "Trace stage (from previous stage)", "count",
+                    "p50 ms", "p99 ms", "p999 ms", "max ms");
+            traceStages.forEach((stage, stats) -> row(writer, stage.name(), stats));
+            writer.printf("Status events received: %s%n", eventCounts);
+            writer.flush();
+            return out.toString();
+        }
+
+        private static void row(PrintWriter writer, String stage, LatencyStats stats) {
+            writer.printf("%-36s %8d %10.1f %10.1f %10.1f %10.1f%n", stage, stats.count(),
+                    millis(stats.percentile(50)), millis(stats.percentile(99)),
+                    millis(stats.percentile(99.9)), millis(stats.max()));
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервис конвейера, запущенный в отдельной JVM.
+ * Вывод пишется в лог-файл, готовность определяется по строке запуска Spring Boot.
+ */
+final class ServiceProcess implements AutoCloseable {
+
+    private final String name;
+    private final int port;
+    private final Process process;
+    private final Path logFile;
+
+    private ServiceProcess(String name, int port, Process process, Path logFile) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+        this.logFile = logFile;
+    }
+
+    /**
+     * Запуск сервиса.
+     *
+     * @param name    имя сервиса, по нему из системных свойств берутся main-класс и classpath
+     * @param workDir каталог для лог-файла
+     * @param port    HTTP-порт сервиса
+     * @param args    аргументы командной строки Spring Boot
+     * @return запущенный процесс
+     */
+    static ServiceProcess start(String name, Path workDir, int port, List<String> args) throws IOException {
+        String mainClass = requiredProperty("loadtest." + name + ".main-class");
+        String classpath = requiredProperty("loadtest." + name + ".classpath");
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add("-Xmx" + System.getProperty("loadtest.service-heap", "512m"));
+        command.add("-cp");
+        command.add(classpath);
+        command.add(mainClass);
+        command.add("--logging.level.root=WARN");
+        command.add("--logging.level.org.springframework.web=WARN");
+        command.add("--logging.level." + mainClass + "=INFO");
+        command.add("--server.port=" + port);
+        command.addAll(args);
+
+        Path logFile = workDir.resolve(name + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        return new ServiceProcess(name, port, process, logFile);
+    }
+
+    /**
+     * Ожидание завершения запуска сервиса.
+     *
+     * @param timeout максимальное время ожидания
+     * @throws IllegalStateException если процесс завершился или не запустился вовремя
+     */
+    void awaitStarted(Duration timeout) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (Files.exists(logFile) && Files.readString(logFile, StandardCharsets.UTF_8).contains("Started ")) {
+                return;
+            }
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with code " + process.exitValue()
+                        + ", see " + logFile);
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException(name + " did not start within " + timeout + ", see " + logFile);
+    }
+
+    /**
+     * Сохранение метрик сервиса в формате Prometheus рядом с лог-файлом.
+     */
+    void saveMetrics() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/actuator/prometheus")).build();
+        HttpResponse<Path> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofFile(logFile.resolveSibling(name + ".prom")));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(name + " metrics endpoint returned " + response.statusCode());
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(20, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static String requiredProperty(String key) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("System property " + key + " is not set, run the loadTest task");
+        }
+        return value;
+    }
+}
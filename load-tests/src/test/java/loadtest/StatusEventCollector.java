@@ -0,0 +1,81 @@
+package loadtest;
+
+import itmo.programming.common.Status;
+import itmo.programming.common.StatusEvent;
+import itmo.programming.kafka.BinaryEventDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Отдельная группа потребителей топика статусов: видит те же события, что и file-status-processor,
+ * и передает время создания каждого события вместе с его статусом.
+ */
+final class StatusEventCollector implements AutoCloseable {
+
+    private final KafkaConsumer<String, Object> consumer;
+    private final BiConsumer<StatusEvent, Instant> listener;
+    private final Thread thread;
+    private final Map<Status, Integer> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Подписка на топик статусов и запуск потока чтения.
+     *
+     * @param bootstrapServers адрес брокера
+     * @param topic            топик статусов
+     * @param listener         обработчик события и времени его создания
+     */
+    StatusEventCollector(String bootstrapServers, String topic, BiConsumer<StatusEvent, Instant> listener) {
+        this.consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.GROUP_ID_CONFIG, "load-test-collector",
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"
+        ), new StringDeserializer(), new BinaryEventDeserializer());
+        this.listener = listener;
+        this.consumer.subscribe(List.of(topic));
+        this.thread = new Thread(this::run, "load-test-collector");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (ConsumerRecord<String, Object> record : consumer.poll(Duration.ofMillis(200))) {
+                    if (!(record.value() instanceof StatusEvent event) || event.getTimestamp() == null) {
+                        continue;
+                    }
+                    counts.merge(event.getStatus(), 1, Integer::sum);
+                    listener.accept(event, event.getTimestamp().atZone(ZoneId.systemDefault()).toInstant());
+                }
+            }
+        } catch (WakeupException ignored) {
+            // Остановка сборщика
+        } finally {
+            consumer.close();
+        }
+    }
+
+    /**
+     * Количество полученных событий по статусам.
+     */
+    Map<Status, Integer> counts() {
+        return Map.copyOf(counts);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        consumer.wakeup();
+        thread.join(10_000);
+    }
+}
@@ -0,0 +1,140 @@
+package loadtest;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Генератор нагрузки: отправляет multipart-загрузки с постоянной частотой (открытая модель).
+ * Время начала загрузки считается по расписанию, а не по фактической отправке,
+ * чтобы отставание генератора попадало в задержку, а не скрывало ее.
+ */
+final class UploadDriver implements AutoCloseable {
+
+    private static final String BOUNDARY = "load-test-boundary";
+
+    private final HttpClient client;
+    private final URI uploadUri;
+    private final ExecutorService senders;
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    /**
+     * Конструктор генератора.
+     *
+     * @param uploadUri   адрес /upload
+     * @param concurrency максимальное число одновременных запросов
+     */
+    UploadDriver(URI uploadUri, int concurrency) {
+        this.uploadUri = uploadUri;
+        this.senders = Executors.newFixedThreadPool(concurrency);
+        this.client = HttpClient.newBuilder()
+                .executor(senders)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Генерация уникальных .xlsx файлов: одинаковое содержимое было бы отсечено дедупликацией по хешу.
+     *
+     * @param count количество файлов
+     * @param rows  количество строк в каждом файле
+     * @return содержимое файлов
+     */
+    static List<byte[]> generateWorkbooks(int count, int rows) throws IOException {
+        List<byte[]> workbooks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                var sheet = workbook.createSheet("Data");
+                String marker = UUID.randomUUID().toString();
+                for (int r = 0; r < rows; r++) {
+                    var row = sheet.createRow(r);
+                    row.createCell(0).setCellValue(marker);
+                    row.createCell(1).setCellValue("row-" + r);
+                    row.createCell(2).setCellValue(r);
+                }
+                workbook.write(out);
+                workbooks.add(out.toByteArray());
+            }
+        }
+        return workbooks;
+    }
+
+    /**
+     * Отправка файлов с заданной частотой и ожидание ответов.
+     *
+     * @param files     содержимое файлов
+     * @param rate      загрузок в секунду
+     * @param onStarted обработчик номера файла и запланированного времени начала его загрузки
+     */
+    void run(List<byte[]> files, double rate, BiConsumer<Integer, Instant> onStarted) throws InterruptedException {
+        long periodNanos = (long) (1_000_000_000L / rate);
+        long start = System.nanoTime();
+        Instant startInstant = Instant.now();
+        List<CompletableFuture<?>> requests = new ArrayList<>(files.size());
+
+        for (int i = 0; i < files.size(); i++) {
+            long scheduled = start + i * periodNanos;
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) {
+                Thread.sleep(delay / 1_000_000, (int) (delay % 1_000_000));
+            }
+            onStarted.accept(i, startInstant.plusNanos(scheduled - start));
+            requests.add(client.sendAsync(uploadRequest("load-" + i + ".xlsx", files.get(i)),
+                            HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error == null && response.statusCode() == 200) {
+                            accepted.incrementAndGet();
+                        } else {
+                            rejected.incrementAndGet();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .join();
+    }
+
+    int accepted() {
+        return accepted.get();
+    }
+
+    int rejected() {
+        return rejected.get();
+    }
+
+    private HttpRequest uploadRequest(String fileName, byte[] content) {
+        byte[] head = ("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/vnd.openxmlformats-officedocument.spreadsheetml.sheet\r\n\r\n")
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+        return HttpRequest.newBuilder(uploadUri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(head, content, tail)))
+                .build();
+    }
+
+    @Override
+    public void close() {
+        senders.shutdownNow();
+    }
+}
@@ -4,4 +4,6 @@ include("config-server")
 include("file-processor")
 include("file-uploader")
 include("file-status-processor")
-include("common")
\ No newline at end of file
+include("common")
+include("benchmarks")
+include("load-tests")
\ No newline at end of file